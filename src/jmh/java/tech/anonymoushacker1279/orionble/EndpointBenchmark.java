@@ -0,0 +1,56 @@
+package tech.anonymoushacker1279.orionble;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import tech.anonymoushacker1279.orionble.devices.BLEDevice;
+import tech.anonymoushacker1279.orionble.gatt.CharacteristicHandle;
+import tech.anonymoushacker1279.orionble.gatt.GATTCharacteristic;
+import tech.anonymoushacker1279.orionble.gatt.GATTService;
+import tech.anonymoushacker1279.orionble.internal.APIEndpoints;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures endpoint formatting, which happens on every request unless a {@link CharacteristicHandle} is used.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EndpointBenchmark {
+
+	public String address = "B0B1139AF459";
+	public String service = "14839ac4-7d7e-415c-9a42-167340cf2339";
+	public String characteristic = "0734594a-a8e7-4b1a-a6b1-cd5243059a57";
+	public CharacteristicHandle handle = CharacteristicHandle.of(new BLEDevice("", address, false, List.of()),
+			new GATTService(service, true), new GATTCharacteristic(characteristic, "", List.of()));
+
+	@Benchmark
+	public String formatDeviceEndpoint() {
+		return APIEndpoints.CHECK_DEVICE_CONNECTION.getEndpoint(address);
+	}
+
+	@Benchmark
+	public String formatCharacteristicEndpoint() {
+		return APIEndpoints.GET_GATT_CHARACTERISTIC_NOTIFICATIONS.getEndpoint(address, service, characteristic);
+	}
+
+	@Benchmark
+	public String handleEndpoint() {
+		return handle.endpoint(APIEndpoints.GET_GATT_CHARACTERISTIC_NOTIFICATIONS);
+	}
+
+	@Benchmark
+	public String stringListenerKey() {
+		return address + service + characteristic;
+	}
+
+	@Benchmark
+	public int handleListenerKey() {
+		return handle.hashCode();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,66 @@
+package tech.anonymoushacker1279.orionble;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import tech.anonymoushacker1279.orionble.devices.BLEDevice;
+import tech.anonymoushacker1279.orionble.gatt.GATTCharacteristic;
+import tech.anonymoushacker1279.orionble.gatt.GATTService;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Measures end-to-end notification latency through
+ * {@link OrionBLE#startNotificationListener(BLEDevice, GATTService, GATTCharacteristic, java.util.function.Consumer, long)}:
+ * each invocation makes one notification available on the stand-in server and waits until the consumer receives it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NotificationDeliveryBenchmark {
+
+	private static final BLEDevice device = new BLEDevice("Sensor", "B0B1139AF459", false);
+	private static final GATTService service = new GATTService("14839ac4-7d7e-415c-9a42-167340cf2339", true);
+	private static final GATTCharacteristic characteristic = new GATTCharacteristic(
+			"0734594a-a8e7-4b1a-a6b1-cd5243059a57",
+			"",
+			List.of(GATTCharacteristic.GATTProperties.NOTIFY)
+	);
+
+	private final AtomicBoolean pending = new AtomicBoolean();
+	private final Semaphore delivered = new Semaphore(0);
+	private StandInServer server;
+	private OrionBLE orion;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		String notification = "[{\"Service\":\"%s\",\"Characteristic\":\"%s\",\"Value\":\"42\"}]".formatted(service.uuid(), characteristic.uuid());
+		String path = "/devices/%s/service/%s/characteristic/%s/notifications".formatted(device.address(), service.uuid(), characteristic.uuid());
+		server = new StandInServer().route(path, exchange -> pending.getAndSet(false) ? notification : "[]");
+
+		orion = server.connect();
+		orion.startNotificationListener(device, service, characteristic, n -> delivered.release(), 1);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		orion.stopNotificationListener(device, service, characteristic);
+		server.close();
+	}
+
+	@Benchmark
+	public void deliver() throws InterruptedException {
+		pending.set(true);
+		delivered.acquire();
+	}
+}
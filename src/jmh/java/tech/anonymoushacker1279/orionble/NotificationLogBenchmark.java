@@ -0,0 +1,77 @@
+package tech.anonymoushacker1279.orionble;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import tech.anonymoushacker1279.orionble.gatt.GATTNotification;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of {@link NotificationRecorder} and {@link NotificationReplay}, in notifications per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class NotificationLogBenchmark {
+
+	private static final int RECORDS = 1_000_000;
+
+	private final GATTNotification notification = new GATTNotification(
+			"14839ac4-7d7e-415c-9a42-167340cf2339",
+			"0734594a-a8e7-4b1a-a6b1-cd5243059a57",
+			"0x2A1C4F00"
+	);
+
+	private Path recordPath;
+	private Path replayPath;
+	private NotificationReplay replay;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		recordPath = Files.createTempFile("orionble-record", ".log");
+		replayPath = Files.createTempFile("orionble-replay", ".log");
+		try (NotificationRecorder recorder = NotificationRecorder.create(replayPath)) {
+			for (int i = 0; i < RECORDS; i++) {
+				recorder.accept(notification);
+			}
+		}
+
+		replay = NotificationReplay.open(replayPath);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		replay.close();
+		Files.deleteIfExists(recordPath);
+		Files.deleteIfExists(replayPath);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(RECORDS)
+	public long record() throws IOException {
+		try (NotificationRecorder recorder = NotificationRecorder.create(recordPath)) {
+			for (int i = 0; i < RECORDS; i++) {
+				recorder.accept(notification);
+			}
+			return recorder.getRecordCount();
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(RECORDS)
+	public long replay(Blackhole blackhole) {
+		return replay.replay(blackhole::consume);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,75 @@
+package tech.anonymoushacker1279.orionble;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import tech.anonymoushacker1279.orionble.devices.BLEDevice;
+import tech.anonymoushacker1279.orionble.gatt.GATTCharacteristic;
+import tech.anonymoushacker1279.orionble.gatt.GATTNotification;
+import tech.anonymoushacker1279.orionble.gatt.GATTService;
+
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of decoding each kind of backend response, over payloads of increasing size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParserBenchmark {
+
+	@Param({"1", "16", "256"})
+	public int entries;
+
+	private String devices;
+	private String services;
+	private String characteristics;
+	private String notifications;
+
+	@Setup
+	public void setup() {
+		StringJoiner devices = new StringJoiner(",", "[", "]");
+		StringJoiner services = new StringJoiner(",", "[", "]");
+		StringJoiner characteristics = new StringJoiner(",", "[", "]");
+		StringJoiner notifications = new StringJoiner(",", "[", "]");
+		for (int i = 0; i < entries; i++) {
+			String uuid = "%08x-0000-1000-8000-00805f9b34fb".formatted(i);
+			devices.add("{\"Name\":\"Sensor %d\",\"Address\":\"%012X\",\"Paired\":\"%s\"}".formatted(i, i, i % 2 == 0));
+			services.add("{\"Uuid\":\"%s\",\"IsPrimary\":\"True\"}".formatted(uuid));
+			characteristics.add("{\"Uuid\":\"%s\",\"Description\":\"Characteristic %d\",\"Properties\":\"Read, Write, Notify\"}".formatted(uuid, i));
+			notifications.add("{\"Service\":\"%s\",\"Characteristic\":\"%s\",\"Value\":\"%d\"}".formatted(uuid, uuid, i));
+		}
+
+		this.devices = devices.toString();
+		this.services = services.toString();
+		this.characteristics = characteristics.toString();
+		this.notifications = notifications.toString();
+	}
+
+	@Benchmark
+	public List<BLEDevice> parseDevices() {
+		return BLEDevice.parseDevices(devices);
+	}
+
+	@Benchmark
+	public List<GATTService> parseServices() {
+		return GATTService.parseServices(services);
+	}
+
+	@Benchmark
+	public List<GATTCharacteristic> parseCharacteristics() {
+		return GATTCharacteristic.parseCharacteristics(characteristics);
+	}
+
+	@Benchmark
+	public List<GATTNotification> parseNotifications() {
+		return GATTNotification.parseNotifications(notifications);
+	}
+}
@@ -0,0 +1,65 @@
+package tech.anonymoushacker1279.orionble;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import tech.anonymoushacker1279.orionble.internal.RESTHandler;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures request round trips against an in-process stand-in server, isolating the client overhead from the BLE
+ * backend.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RESTHandlerBenchmark {
+
+	private static final String READ = "/devices/B0B1139AF459/service/s/characteristic/c/read";
+	private static final String WRITE = "/devices/B0B1139AF459/service/s/characteristic/c/write";
+
+	private StandInServer server;
+	private RESTHandler restHandler;
+	private JsonObject message;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		server = new StandInServer()
+				.route(READ, exchange -> "42")
+				.route(WRITE, exchange -> "");
+		restHandler = new RESTHandler(HttpClient.newHttpClient(), server.getAddress());
+
+		message = new JsonObject();
+		JsonArray data = new JsonArray();
+		for (int i = 1; i <= 4; i++) {
+			data.add(i);
+		}
+		message.add("message", data);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		server.close();
+	}
+
+	@Benchmark
+	public String get() {
+		return restHandler.getRequest(READ);
+	}
+
+	@Benchmark
+	public String post() {
+		return restHandler.postRequest(WRITE, message);
+	}
+}
\ No newline at end of file
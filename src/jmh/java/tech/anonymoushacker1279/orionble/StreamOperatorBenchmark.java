@@ -0,0 +1,62 @@
+package tech.anonymoushacker1279.orionble;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import tech.anonymoushacker1279.orionble.stream.RollingStatistics;
+import tech.anonymoushacker1279.orionble.stream.SlidingWindow;
+import tech.anonymoushacker1279.orionble.stream.TumblingWindow;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of feeding one sample at 1 kHz to each stream operator, including its share of window emission.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StreamOperatorBenchmark {
+
+	private static final long SAMPLE_INTERVAL_NANOS = 1_000_000;
+
+	private TumblingWindow tumblingWindow;
+	private SlidingWindow slidingWindow;
+	private RollingStatistics rollingStatistics;
+	private long timestamp;
+	private double value;
+
+	@Setup
+	public void setup(Blackhole blackhole) {
+		tumblingWindow = new TumblingWindow(Duration.ofMillis(100), statistics -> blackhole.consume(statistics.getMean()));
+		slidingWindow = new SlidingWindow(Duration.ofMillis(100), Duration.ofMillis(10),
+				statistics -> blackhole.consume(statistics.getMean()));
+		rollingStatistics = new RollingStatistics(100);
+	}
+
+	private long next() {
+		value = (value + 0.37) % 100;
+		return timestamp += SAMPLE_INTERVAL_NANOS;
+	}
+
+	@Benchmark
+	public void tumblingWindow() {
+		tumblingWindow.accept(value, next());
+	}
+
+	@Benchmark
+	public void slidingWindow() {
+		slidingWindow.accept(value, next());
+	}
+
+	@Benchmark
+	public double rollingStatistics() {
+		rollingStatistics.accept(value, next());
+		return rollingStatistics.getMax();
+	}
+}
\ No newline at end of file
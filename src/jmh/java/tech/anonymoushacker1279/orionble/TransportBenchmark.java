@@ -0,0 +1,83 @@
+package tech.anonymoushacker1279.orionble;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import tech.anonymoushacker1279.orionble.internal.RESTHandler;
+import tech.anonymoushacker1279.orionble.internal.Transport;
+import tech.anonymoushacker1279.orionble.internal.UnixSocketTransport;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares request round trips over HTTP and over a Unix domain socket, each against an in-process stand-in server
+ * serving the same routes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TransportBenchmark {
+
+	private static final String READ = "/devices/B0B1139AF459/service/s/characteristic/c/read";
+	private static final String WRITE = "/devices/B0B1139AF459/service/s/characteristic/c/write";
+
+	@Param({"http", "unix"})
+	public String transportType;
+
+	private AutoCloseable server;
+	private Transport transport;
+	private JsonObject message;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		if (transportType.equals("unix")) {
+			StandInSocketServer socketServer = new StandInSocketServer()
+					.route(READ, body -> "42")
+					.route(WRITE, body -> "");
+			server = socketServer;
+			transport = new UnixSocketTransport(socketServer.getSocketPath(), null);
+		} else {
+			StandInServer httpServer = new StandInServer()
+					.route(READ, exchange -> "42")
+					.route(WRITE, exchange -> "");
+			server = httpServer;
+			transport = new RESTHandler(HttpClient.newHttpClient(), httpServer.getAddress());
+		}
+
+		message = new JsonObject();
+		JsonArray data = new JsonArray();
+		for (int i = 1; i <= 4; i++) {
+			data.add(i);
+		}
+		message.add("message", data);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		if (transport instanceof UnixSocketTransport socketTransport) {
+			socketTransport.close();
+		}
+		server.close();
+	}
+
+	@Benchmark
+	public String get() {
+		return transport.getRequest(READ);
+	}
+
+	@Benchmark
+	public String post() {
+		return transport.postRequest(WRITE, message);
+	}
+}
\ No newline at end of file
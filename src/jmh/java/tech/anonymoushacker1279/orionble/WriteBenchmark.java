@@ -0,0 +1,100 @@
+package tech.anonymoushacker1279.orionble;
+
+import com.sun.net.httpserver.HttpExchange;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import tech.anonymoushacker1279.orionble.devices.BLEDevice;
+import tech.anonymoushacker1279.orionble.gatt.CharacteristicHandle;
+import tech.anonymoushacker1279.orionble.gatt.GATTCharacteristic;
+import tech.anonymoushacker1279.orionble.gatt.GATTService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares JSON writes with binary and chunked binary writes of the same payload, against an in-process stand-in
+ * server. The JSON case posts every byte as a boxed JSON number, as backends without binary writes require.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WriteBenchmark {
+
+	private static final String ADDRESS = "B0B1139AF459";
+	private static final String SERVICE = "14839ac4-7d7e-415c-9a42-167340cf2339";
+	private static final String CHARACTERISTIC = "0734594a-a8e7-4b1a-a6b1-cd5243059a57";
+	private static final int CHUNK_SIZE = 244;
+
+	@Param({"20", "512", "16384"})
+	public int payloadSize;
+
+	private StandInServer jsonServer;
+	private StandInServer binaryServer;
+	private OrionBLE json;
+	private OrionBLE binary;
+	private CharacteristicHandle handle;
+	private int[] intPayload;
+	private byte[] bytePayload;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		String path = "/devices/%s/service/%s/characteristic/%s/write".formatted(ADDRESS, SERVICE, CHARACTERISTIC);
+		jsonServer = new StandInServer()
+				.route("/capabilities", exchange -> "[]")
+				.route(path, WriteBenchmark::consume);
+		binaryServer = new StandInServer()
+				.route("/capabilities", exchange -> "[\"binary_writes\"]")
+				.route(path + "/binary", WriteBenchmark::consume);
+		json = jsonServer.connect();
+		binary = binaryServer.connect();
+
+		handle = CharacteristicHandle.of(new BLEDevice("", ADDRESS, false, List.of()),
+				new GATTService(SERVICE, true), new GATTCharacteristic(CHARACTERISTIC, "", List.of()));
+		intPayload = new int[payloadSize];
+		bytePayload = new byte[payloadSize];
+		for (int i = 0; i < payloadSize; i++) {
+			intPayload[i] = i & 0xFF;
+			bytePayload[i] = (byte) i;
+		}
+	}
+
+	private static String consume(HttpExchange exchange) {
+		try {
+			exchange.getRequestBody().readAllBytes();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return "{}";
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		jsonServer.close();
+		binaryServer.close();
+	}
+
+	@Benchmark
+	public void jsonWrite() {
+		json.writeCharacteristic(handle, intPayload);
+	}
+
+	@Benchmark
+	public void binaryWrite() {
+		binary.writeCharacteristic(handle, bytePayload);
+	}
+
+	@Benchmark
+	public void chunkedBinaryWrite() {
+		binary.writeCharacteristicChunked(handle, bytePayload, CHUNK_SIZE);
+	}
+}
\ No newline at end of file
@@ -2,10 +2,14 @@ module tech.anonymoushacker1279.OrionBLE {
 	requires static org.jetbrains.annotations;
 	requires java.desktop;
 	requires java.net.http;
+	requires jdk.jfr;
 	requires transitive com.google.gson;
 
 	exports tech.anonymoushacker1279.orionble;
+	exports tech.anonymoushacker1279.orionble.codec;
 	exports tech.anonymoushacker1279.orionble.devices;
 	exports tech.anonymoushacker1279.orionble.gatt;
 	exports tech.anonymoushacker1279.orionble.internal;
+	exports tech.anonymoushacker1279.orionble.metrics;
+	exports tech.anonymoushacker1279.orionble.stream;
 }
\ No newline at end of file
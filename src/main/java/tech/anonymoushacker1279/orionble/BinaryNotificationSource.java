@@ -0,0 +1,131 @@
+package tech.anonymoushacker1279.orionble;
+
+import tech.anonymoushacker1279.orionble.OperationScheduler.Priority;
+import tech.anonymoushacker1279.orionble.gatt.BinaryNotification;
+import tech.anonymoushacker1279.orionble.internal.Transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Polls notifications for a binary listener and delivers them through a single reusable {@link BinaryNotification}.
+ * <p>
+ * The response body is a sequence of frames, each a big-endian unsigned 16-bit length followed by that many value
+ * bytes. It is read into a buffer that is reused across polls, so steady-state delivery does not allocate per
+ * notification. Only backends that support binary notifications have the endpoint.
+ * <p>
+ * Only the request holds a slot of the device in the {@link OperationScheduler}, and a poll that has to wait for the slot
+ * does not hold a polling thread meanwhile. Notifications are delivered after the slot is released, so a consumer may
+ * make its own requests to the device. A consumer that throws, such as a codec
+ * given a value it cannot decode, is reported to the uncaught exception handler of the polling thread. Failing the
+ * poll instead would be taken for the backend being unavailable, and would drop the rest of the notifications.
+ */
+class BinaryNotificationSource implements Supplier<CompletableFuture<IntSupplier>> {
+
+	private static final int INITIAL_BUFFER_SIZE = 1024;
+
+	private final Transport transport;
+	private final OperationScheduler operationScheduler;
+	private final Executor executor;
+	private final String address;
+	private final String endpoint;
+	private final Consumer<BinaryNotification> consumer;
+	private final BinaryNotification notification;
+	private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+
+	/**
+	 * Create a new binary notification source.
+	 *
+	 * @param transport          the {@link Transport} to poll with
+	 * @param operationScheduler the {@link OperationScheduler} that polls are queued on
+	 * @param executor           the executor that sends a poll once the device is free, normally the polling threads
+	 * @param address            the address of the device
+	 * @param endpoint           the binary notification endpoint
+	 * @param serviceUUID        the UUID of the service
+	 * @param characteristicUUID the UUID of the characteristic
+	 * @param consumer           the consumer to call with notifications
+	 */
+	BinaryNotificationSource(Transport transport, OperationScheduler operationScheduler, Executor executor, String address, String endpoint,
+	                         String serviceUUID, String characteristicUUID, Consumer<BinaryNotification> consumer) {
+		this.transport = transport;
+		this.operationScheduler = operationScheduler;
+		this.executor = executor;
+		this.address = address;
+		this.endpoint = endpoint;
+		this.consumer = consumer;
+		this.notification = new BinaryNotification(serviceUUID, characteristicUUID);
+	}
+
+	@Override
+	public CompletableFuture<IntSupplier> get() {
+		// The buffer is only touched by one poll at a time, since a subscription never polls again before delivering
+		return operationScheduler.callAsync(address, Priority.LOW,
+						() -> CompletableFuture.completedFuture(transport.getBinaryRequest(endpoint, this::readBody)), executor)
+				.thenApply(length -> () -> dispatchFrames(length));
+	}
+
+	private void deliver() {
+		try {
+			consumer.accept(notification);
+		} catch (RuntimeException e) {
+			Thread thread = Thread.currentThread();
+			thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+		}
+	}
+
+	/**
+	 * Read the whole body into the reusable buffer, growing it if needed.
+	 *
+	 * @param body the body stream
+	 * @return the number of bytes read
+	 */
+	private int readBody(InputStream body) {
+		try {
+			int length = 0;
+			int read;
+			while ((read = body.read(buffer, length, buffer.length - length)) != -1) {
+				length += read;
+				if (length == buffer.length) {
+					byte[] grown = new byte[buffer.length * 2];
+					System.arraycopy(buffer, 0, grown, 0, length);
+					buffer = grown;
+				}
+			}
+
+			return length;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Deliver each frame in the buffer.
+	 *
+	 * @param length the number of valid bytes in the buffer
+	 * @return the number of notifications delivered
+	 */
+	private int dispatchFrames(int length) {
+		int count = 0;
+		int position = 0;
+		while (position + 2 <= length) {
+			int frameLength = ((buffer[position] & 0xFF) << 8) | (buffer[position + 1] & 0xFF);
+			position += 2;
+			if (position + frameLength > length) {
+				throw new IllegalStateException("Truncated notification frame at offset " + (position - 2));
+			}
+
+			notification.wrap(buffer, position, frameLength);
+			deliver();
+			position += frameLength;
+			count++;
+		}
+
+		return count;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,181 @@
+package tech.anonymoushacker1279.orionble;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Extracts the OrionBLEServer executable bundled in the JAR to a persistent cache, so it is only copied out once per
+ * version rather than on every launch.
+ * <p>
+ * The JAR carries the SHA-256 checksum of the executable next to it, generated when the resources are processed. Each
+ * version of the executable gets its own directory, named after that checksum, and the cached copy is verified against
+ * it before being reused. The cache lives in a directory only the current user may access, since anyone who could
+ * replace the cached executable could run code as that user. Files are written under temporary names and moved into
+ * place, so concurrent launches never see a partial executable.
+ */
+final class BundledServer {
+
+	private static final String RESOURCE = "/OrionBLEServer.exe";
+	private static final String CHECKSUM_RESOURCE = RESOURCE + ".sha256";
+	private static final Set<PosixFilePermission> OWNER_ONLY = PosixFilePermissions.fromString("rwx------");
+
+	private static @Nullable Path extracted;
+
+	private BundledServer() {
+	}
+
+	/**
+	 * Get the path of the extracted executable, extracting it if there is no intact cached copy.
+	 *
+	 * @return the path of the executable
+	 * @throws IOException if the executable is not bundled or could not be extracted
+	 */
+	static synchronized Path extract() throws IOException {
+		if (extracted != null && Files.isRegularFile(extracted)) {
+			return extracted;
+		}
+
+		URL resource = BundledServer.class.getResource(RESOURCE);
+		if (resource == null) {
+			throw new IOException("Server file not found in JAR");
+		}
+
+		String expected = bundledChecksum(resource);
+		Path directory = cacheDirectory().resolve(expected.substring(0, 16));
+		Path executable = directory.resolve("OrionBLEServer.exe");
+
+		if (Files.isRegularFile(executable) && expected.equals(sha256(executable))) {
+			extracted = executable;
+			return executable;
+		}
+
+		createPrivateDirectories(directory);
+		Path temporary = Files.createTempFile(directory, "OrionBLEServer", ".tmp");
+		try {
+			MessageDigest digest = newDigest();
+			try (InputStream in = new DigestInputStream(openUncached(resource), digest);
+			     OutputStream out = Files.newOutputStream(temporary)) {
+				in.transferTo(out);
+			}
+			if (!expected.equals(HexFormat.of().formatHex(digest.digest()))) {
+				throw new IOException("The bundled server does not match its checksum");
+			}
+
+			// Another process may have extracted the same version meanwhile, and may be running it, which prevents
+			// replacing it on Windows
+			if (!Files.isRegularFile(executable) || !expected.equals(sha256(executable))) {
+				Files.move(temporary, executable, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}
+		} finally {
+			Files.deleteIfExists(temporary);
+		}
+
+		extracted = executable;
+		return executable;
+	}
+
+	/**
+	 * Get the checksum of the bundled executable. JARs built without the checksum resource fall back to hashing the
+	 * executable in the JAR, which still avoids writing it out again.
+	 *
+	 * @param resource the bundled executable
+	 * @return the hex encoded SHA-256 checksum
+	 */
+	private static String bundledChecksum(URL resource) throws IOException {
+		URL checksum = BundledServer.class.getResource(CHECKSUM_RESOURCE);
+		if (checksum != null) {
+			try (InputStream in = openUncached(checksum)) {
+				return new String(in.readAllBytes(), StandardCharsets.US_ASCII).trim().toLowerCase(Locale.ROOT);
+			}
+		}
+
+		try (InputStream in = openUncached(resource)) {
+			return sha256(in);
+		}
+	}
+
+	private static InputStream openUncached(URL resource) throws IOException {
+		URLConnection connection = resource.openConnection();
+		connection.setUseCaches(false);
+		return connection.getInputStream();
+	}
+
+	/**
+	 * Get the root of the cache, under the local application data directory on Windows, or the user's cache directory
+	 * otherwise.
+	 *
+	 * @return the cache directory
+	 * @throws IOException if the directory could not be created, or is not private to the current user
+	 */
+	private static Path cacheDirectory() throws IOException {
+		String localAppData = System.getenv("LOCALAPPDATA");
+		String cacheHome = System.getenv("XDG_CACHE_HOME");
+		Path root;
+		if (localAppData != null) {
+			root = Path.of(localAppData);
+		} else if (cacheHome != null && Path.of(cacheHome).isAbsolute()) {
+			root = Path.of(cacheHome);
+		} else {
+			root = Path.of(System.getProperty("user.home"), ".cache");
+		}
+
+		Path cache = root.resolve("OrionBLE");
+		createPrivateDirectories(cache);
+		return cache.resolve("server");
+	}
+
+	/**
+	 * Create a directory and its parents, and restrict the directory to the current user where the file system has
+	 * POSIX permissions. Elsewhere, such as on Windows, the per-user location of the cache already restricts it.
+	 *
+	 * @throws IOException if the directory could not be created, or belongs to another user
+	 */
+	private static void createPrivateDirectories(Path directory) throws IOException {
+		if (!directory.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+			Files.createDirectories(directory);
+			return;
+		}
+
+		Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(OWNER_ONLY));
+		// Also covers a directory that already existed, and fails if it belongs to someone else
+		Files.setPosixFilePermissions(directory, OWNER_ONLY);
+	}
+
+	private static String sha256(Path file) throws IOException {
+		try (InputStream in = Files.newInputStream(file)) {
+			return sha256(in);
+		}
+	}
+
+	private static String sha256(InputStream in) throws IOException {
+		MessageDigest digest = newDigest();
+		new DigestInputStream(in, digest).transferTo(OutputStream.nullOutputStream());
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			// Every Java platform is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,343 @@
+package tech.anonymoushacker1279.orionble;
+
+import org.jetbrains.annotations.Nullable;
+import tech.anonymoushacker1279.orionble.devices.BLEDevice;
+import tech.anonymoushacker1279.orionble.devices.DeviceEvent;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * The set of devices known from discovery, indexed by address and by name. Every {@link OrionBLE} instance keeps one,
+ * fed by {@link OrionBLE#discoverDevices()} and device scans, so devices can be looked up without rescanning.
+ * <p>
+ * Successive results are merged incrementally, and listeners are told which devices were added, removed or changed.
+ * Listeners are called after the registry has been updated, one event at a time and in the order the changes were
+ * made. Each event is delivered on the thread that made the change, unless another thread is already delivering
+ * earlier events, in which case that thread delivers it too.
+ */
+public class DeviceRegistry {
+
+	private final Map<String, Entry> devices = new ConcurrentHashMap<>();
+	private final NavigableMap<String, Set<String>> addressesByName = new TreeMap<>();
+	private final List<Consumer<DeviceEvent>> listeners = new CopyOnWriteArrayList<>();
+	// Events waiting to be delivered, in the order the changes were made. Guarded by this.
+	private final Queue<DeviceEvent> pending = new ArrayDeque<>();
+	private boolean dispatching;
+
+	DeviceRegistry() {
+	}
+
+	/**
+	 * A known device and when it was last seen.
+	 *
+	 * @param device   the {@link BLEDevice}
+	 * @param lastSeen the time it was last seen, in nanoseconds
+	 */
+	private record Entry(BLEDevice device, long lastSeen) {
+	}
+
+	/**
+	 * Add a listener to be called with every change.
+	 *
+	 * @param listener the listener
+	 */
+	public void addListener(Consumer<DeviceEvent> listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Remove a listener.
+	 *
+	 * @param listener the listener
+	 */
+	public void removeListener(Consumer<DeviceEvent> listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Get a device by its address.
+	 *
+	 * @param address the address of the device
+	 * @return the {@link BLEDevice}, or null if it is not known
+	 */
+	public @Nullable BLEDevice get(String address) {
+		Entry entry = devices.get(address);
+		return entry == null ? null : entry.device();
+	}
+
+	/**
+	 * Check if a device is known.
+	 *
+	 * @param address the address of the device
+	 * @return true if the device is known
+	 */
+	public boolean contains(String address) {
+		return devices.containsKey(address);
+	}
+
+	/**
+	 * Find all known devices whose name starts with a prefix. Devices without a name never match.
+	 *
+	 * @param prefix the name prefix
+	 * @return the matching devices, ordered by name
+	 */
+	public synchronized List<BLEDevice> findByNamePrefix(String prefix) {
+		List<BLEDevice> matches = new ArrayList<>();
+		for (Set<String> addresses : addressesByName.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+			for (String address : addresses) {
+				matches.add(devices.get(address).device());
+			}
+		}
+
+		return matches;
+	}
+
+	/**
+	 * Get all known devices.
+	 *
+	 * @return a snapshot of the known devices
+	 */
+	public List<BLEDevice> getDevices() {
+		List<BLEDevice> snapshot = new ArrayList<>(devices.size());
+		for (Entry entry : devices.values()) {
+			snapshot.add(entry.device());
+		}
+
+		return snapshot;
+	}
+
+	/**
+	 * Get the number of known devices.
+	 *
+	 * @return the number of devices
+	 */
+	public int size() {
+		return devices.size();
+	}
+
+	/**
+	 * Record that a device was seen. It is added if unknown, or replaced if its name, pairing state or advertised
+	 * services changed.
+	 *
+	 * @param device the {@link BLEDevice}
+	 */
+	public void update(BLEDevice device) {
+		synchronized (this) {
+			enqueue(put(device, System.nanoTime()));
+		}
+
+		dispatch();
+	}
+
+	/**
+	 * Merge the complete result of a scan. Devices in the result are added or updated, and known devices missing from
+	 * it are removed.
+	 *
+	 * @param scanResult every device found by the scan
+	 */
+	public void merge(Collection<BLEDevice> scanResult) {
+		merge(scanResult, address -> true);
+	}
+
+	/**
+	 * Merge the result of a scan that may not have covered every device, such as a sharded discovery that some
+	 * backends did not respond to. Devices in the result are added or updated, and known devices missing from it are
+	 * only removed if the scan covered them.
+	 *
+	 * @param scanResult every device found by the scan
+	 * @param covered    whether the scan covered the device at an address, so that its absence means it is gone
+	 */
+	void merge(Collection<BLEDevice> scanResult, Predicate<String> covered) {
+		synchronized (this) {
+			long now = System.nanoTime();
+			Set<String> present = new HashSet<>();
+			for (BLEDevice device : scanResult) {
+				if (device.address() != null && present.add(device.address())) {
+					enqueue(put(device, now));
+				}
+			}
+
+			for (String address : List.copyOf(devices.keySet())) {
+				if (!present.contains(address) && covered.test(address)) {
+					enqueue(delete(address));
+				}
+			}
+		}
+
+		dispatch();
+	}
+
+	/**
+	 * Forget a device.
+	 *
+	 * @param address the address of the device
+	 * @return the removed {@link BLEDevice}, or null if it was not known
+	 */
+	public @Nullable BLEDevice remove(String address) {
+		DeviceEvent event;
+		synchronized (this) {
+			event = delete(address);
+			enqueue(event);
+		}
+
+		dispatch();
+		return event == null ? null : event.device();
+	}
+
+	/**
+	 * Forget all devices that have not been seen for some time, such as while a continuous scan is running.
+	 *
+	 * @param age the maximum time since a device was last seen
+	 * @return the number of removed devices
+	 */
+	public int evictOlderThan(Duration age) {
+		int evicted = 0;
+		synchronized (this) {
+			long cutoff = System.nanoTime() - age.toNanos();
+			for (Entry entry : List.copyOf(devices.values())) {
+				if (entry.lastSeen() - cutoff < 0) {
+					enqueue(delete(entry.device().address()));
+					evicted++;
+				}
+			}
+		}
+
+		dispatch();
+		return evicted;
+	}
+
+	/**
+	 * Forget all devices. Each is reported as removed.
+	 */
+	public void clear() {
+		synchronized (this) {
+			for (String address : List.copyOf(devices.keySet())) {
+				enqueue(delete(address));
+			}
+		}
+
+		dispatch();
+	}
+
+	private @Nullable DeviceEvent put(BLEDevice device, long now) {
+		if (device.address() == null) {
+			return null;
+		}
+
+		Entry previous = devices.put(device.address(), new Entry(device, now));
+		if (previous == null) {
+			index(device);
+			return new DeviceEvent(DeviceEvent.Type.ADDED, device, null);
+		}
+
+		BLEDevice old = previous.device();
+		if (Objects.equals(old.name(), device.name()) && old.isPaired() == device.isPaired() && sameServices(old, device)) {
+			return null;
+		}
+
+		unindex(old);
+		index(device);
+		return new DeviceEvent(DeviceEvent.Type.CHANGED, device, old);
+	}
+
+	/**
+	 * Check if two sightings advertise the same services, regardless of order.
+	 */
+	private static boolean sameServices(BLEDevice old, BLEDevice device) {
+		List<String> before = old.serviceUUIDs();
+		List<String> after = device.serviceUUIDs();
+		return before.equals(after) || (before.size() == after.size() && Set.copyOf(before).equals(Set.copyOf(after)));
+	}
+
+	private @Nullable DeviceEvent delete(String address) {
+		Entry removed = devices.remove(address);
+		if (removed == null) {
+			return null;
+		}
+
+		unindex(removed.device());
+		return new DeviceEvent(DeviceEvent.Type.REMOVED, removed.device(), null);
+	}
+
+	private void index(BLEDevice device) {
+		if (device.name() != null) {
+			addressesByName.computeIfAbsent(device.name(), name -> new HashSet<>()).add(device.address());
+		}
+	}
+
+	private void unindex(BLEDevice device) {
+		if (device.name() == null) {
+			return;
+		}
+
+		Set<String> addresses = addressesByName.get(device.name());
+		if (addresses != null && addresses.remove(device.address()) && addresses.isEmpty()) {
+			addressesByName.remove(device.name());
+		}
+	}
+
+	private void enqueue(@Nullable DeviceEvent event) {
+		if (event != null) {
+			pending.add(event);
+		}
+	}
+
+	/**
+	 * Deliver pending events to the listeners, unless another thread is already doing so. Must be called without
+	 * holding the lock, so listeners can safely use the registry.
+	 */
+	private void dispatch() {
+		synchronized (this) {
+			if (dispatching) {
+				return;
+			}
+			dispatching = true;
+		}
+
+		boolean done = false;
+		try {
+			while (true) {
+				DeviceEvent event;
+				synchronized (this) {
+					event = pending.poll();
+					if (event == null) {
+						dispatching = false;
+						done = true;
+						return;
+					}
+				}
+
+				for (Consumer<DeviceEvent> listener : listeners) {
+					listener.accept(event);
+				}
+			}
+		} finally {
+			if (!done) {
+				// A listener threw, so let the next change deliver whatever is left
+				synchronized (this) {
+					dispatching = false;
+				}
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "DeviceRegistry[devices=%d]".formatted(size());
+	}
+}
\ No newline at end of file
@@ -0,0 +1,278 @@
+package tech.anonymoushacker1279.orionble;
+
+import com.google.gson.JsonSyntaxException;
+import tech.anonymoushacker1279.orionble.devices.BLEDevice;
+import tech.anonymoushacker1279.orionble.devices.ScanSettings;
+import tech.anonymoushacker1279.orionble.internal.APIEndpoints;
+import tech.anonymoushacker1279.orionble.internal.BackendCapability;
+import tech.anonymoushacker1279.orionble.internal.EventStream;
+import tech.anonymoushacker1279.orionble.internal.Transport;
+
+import java.io.Serial;
+import java.io.StringReader;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * A running device scan, created by {@link OrionBLE#startDeviceScan(ScanSettings, Consumer)}. Devices are reported as
+ * soon as they are decoded, once per address for the lifetime of the scan.
+ * <p>
+ * If the backend supports {@link BackendCapability#DEVICE_SCAN_STREAM}, a stream is held open for each scan window and
+ * devices are pushed as the backend sees them. Otherwise, discovery requests are repeated for the length of each window,
+ * and their devices are reported while each response is still being read. A response still being read when the window
+ * ends is abandoned, and the next window begins one interval after the previous one began.
+ * <p>
+ * Windows run on threads dedicated to scans, since a window without streaming blocks on discovery requests for its
+ * whole length and would otherwise hold up notification polling.
+ */
+public final class DeviceScan {
+
+	private final Transport transport;
+	private final Executor executor;
+	private final ScanSettings settings;
+	private final Consumer<BLEDevice> consumer;
+	private final DeviceRegistry registry;
+	private final Map<String, String> params;
+	private final Predicate<BLEDevice> predicate;
+	private final Set<String> seen = ConcurrentHashMap.newKeySet();
+	private final CompletableFuture<Void> completion = new CompletableFuture<>();
+	private volatile boolean streaming;
+	private EventStream stream;
+	private Future<?> next;
+	private volatile boolean cancelled;
+
+	/**
+	 * Create a new device scan. It does not run until {@link #start()} is called.
+	 *
+	 * @param transport the {@link Transport} to scan with
+	 * @param executor  the executor whose threads run the scan
+	 * @param settings  the {@link ScanSettings}
+	 * @param consumer  the consumer to call with each new device
+	 * @param registry  the {@link DeviceRegistry} to update with every sighting
+	 */
+	DeviceScan(Transport transport, Executor executor, ScanSettings settings, Consumer<BLEDevice> consumer, DeviceRegistry registry) {
+		this.transport = transport;
+		this.executor = executor;
+		this.settings = settings;
+		this.consumer = consumer;
+		this.registry = registry;
+		this.params = settings.filter() == null ? Map.of() : settings.filter().toUriParams();
+		this.predicate = settings.filter() == null ? device -> true : settings.filter().compile();
+	}
+
+	/**
+	 * Start the first window on the scan threads.
+	 *
+	 * @param streaming whether the backend supports streaming scans
+	 */
+	void start(boolean streaming) {
+		this.streaming = streaming;
+		schedule(this::runWindow, 0);
+	}
+
+	private synchronized void schedule(Runnable task, long delay) {
+		if (!cancelled) {
+			next = after(task, delay);
+		}
+	}
+
+	private Future<?> after(Runnable task, long delay) {
+		return CompletableFuture.runAsync(task, CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, executor));
+	}
+
+	private long idleMillis() {
+		return settings.interval().minus(settings.window()).toMillis();
+	}
+
+	private void runWindow() {
+		if (cancelled) {
+			return;
+		}
+
+		if (streaming) {
+			openStream();
+			return;
+		}
+
+		long start = System.nanoTime();
+		long end = start + settings.window().toNanos();
+		boolean continuous = settings.isContinuous();
+		try {
+			do {
+				transport.getRequest(APIEndpoints.DISCOVER_DEVICES.getEndpoint(), params, reader -> {
+					BLEDevice.parseDevices(reader, device -> {
+						if (!continuous && System.nanoTime() - end > 0) {
+							throw new Stopped();
+						}
+						offer(device);
+					});
+					return null;
+				});
+			} while (!cancelled && System.nanoTime() - end < 0);
+		} catch (Stopped e) {
+			if (cancelled) {
+				return;
+			}
+		} catch (RuntimeException e) {
+			// The backend may be temporarily unavailable, so try again in the next window
+		}
+
+		long remaining = settings.interval().toNanos() - (System.nanoTime() - start);
+		schedule(this::runWindow, Math.max(0, TimeUnit.NANOSECONDS.toMillis(remaining)));
+	}
+
+	private void openStream() {
+		AtomicBoolean received = new AtomicBoolean();
+		EventStream opened = transport.streamRequest(APIEndpoints.withQuery(APIEndpoints.STREAM_DEVICE_DISCOVERY.getEndpoint(), params), data -> {
+			received.set(true);
+			try {
+				BLEDevice.parseDevices(new StringReader(data), this::offer);
+			} catch (JsonSyntaxException e) {
+				// Skip malformed events rather than ending the scan
+			} catch (Stopped e) {
+				// The scan was cancelled while the event was being decoded
+			}
+		});
+
+		synchronized (this) {
+			if (cancelled) {
+				opened.cancel();
+				return;
+			}
+			stream = opened;
+			if (!settings.isContinuous()) {
+				next = after(() -> closeWindow(opened), settings.window().toMillis());
+			}
+		}
+
+		opened.completion().whenComplete((result, throwable) -> {
+			if (throwable == null) {
+				return;
+			}
+
+			synchronized (this) {
+				if (stream != opened) {
+					return;
+				}
+				stream = null;
+				if (next != null) {
+					next.cancel(false);
+				}
+				// A stream that never delivered anything is not supported, so fall back to discovery requests
+				if (!received.get()) {
+					streaming = false;
+				}
+			}
+			schedule(this::runWindow, received.get() ? idleMillis() : 0);
+		});
+	}
+
+	private void closeWindow(EventStream opened) {
+		synchronized (this) {
+			if (stream != opened) {
+				return;
+			}
+			stream = null;
+		}
+
+		opened.cancel();
+		schedule(this::runWindow, idleMillis());
+	}
+
+	private void offer(BLEDevice device) {
+		if (cancelled) {
+			throw new Stopped();
+		}
+
+		if (device.address() == null) {
+			return;
+		}
+
+		if (!predicate.test(device)) {
+			return;
+		}
+
+		// Every matching sighting refreshes the registry, even for devices already reported by this scan
+		registry.update(device);
+		if (!seen.add(device.address())) {
+			return;
+		}
+
+		consumer.accept(device);
+		if (settings.stopOnFirstMatch()) {
+			cancel();
+			throw new Stopped();
+		}
+	}
+
+	/**
+	 * Stop the scan. A window in progress is abandoned, and no further devices are reported.
+	 */
+	public void cancel() {
+		synchronized (this) {
+			if (cancelled) {
+				return;
+			}
+
+			cancelled = true;
+			if (next != null) {
+				next.cancel(false);
+			}
+			if (stream != null) {
+				stream.cancel();
+				stream = null;
+			}
+		}
+
+		completion.complete(null);
+	}
+
+	/**
+	 * Check if the scan is still running.
+	 *
+	 * @return true if the scan has not been cancelled or stopped on a match
+	 */
+	public boolean isActive() {
+		return !cancelled;
+	}
+
+	/**
+	 * Get the number of distinct devices reported so far.
+	 *
+	 * @return the number of devices
+	 */
+	public int getDiscoveredCount() {
+		return seen.size();
+	}
+
+	/**
+	 * Get a future that completes when the scan stops, either by {@link #cancel()} or after the first match.
+	 *
+	 * @return the completion future
+	 */
+	public CompletableFuture<Void> completion() {
+		return completion;
+	}
+
+	/**
+	 * Thrown from within the decoder to abandon the rest of a response once the scan has stopped or its window has
+	 * ended. A new instance is thrown for every stop, so that no throwable is shared between threads.
+	 */
+	private static final class Stopped extends RuntimeException {
+
+		@Serial
+		private static final long serialVersionUID = 1L;
+
+		Stopped() {
+			super("Scan stopped", null, false, false);
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,175 @@
+package tech.anonymoushacker1279.orionble;
+
+import org.jetbrains.annotations.Nullable;
+import tech.anonymoushacker1279.orionble.devices.BLEDevice;
+import tech.anonymoushacker1279.orionble.gatt.GATTCharacteristic;
+import tech.anonymoushacker1279.orionble.gatt.GATTService;
+import tech.anonymoushacker1279.orionble.internal.LruCache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded cache of GATT discovery results, keyed by device address and service UUID. Entries expire after a fixed
+ * time-to-live, and the least recently used entry is evicted when the cache is full. Enabled via
+ * {@link OrionBLE#enableDiscoveryCache(int, Duration)}.
+ * <p>
+ * Lists returned while the cache is enabled are unmodifiable, whether or not they came from the cache. A discovery
+ * that races an invalidation is returned to its caller but not cached.
+ */
+public class DiscoveryCache {
+
+	private final int maximumSize;
+	private final long timeToLiveNanos;
+	private final LruCache<Key, Entry> entries;
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private long generation;
+
+	/**
+	 * Create a new discovery cache.
+	 *
+	 * @param maximumSize the maximum number of entries
+	 * @param timeToLive  how long an entry stays valid after it was cached
+	 */
+	DiscoveryCache(int maximumSize, Duration timeToLive) {
+		if (maximumSize <= 0) {
+			throw new IllegalArgumentException("Maximum size must be positive: " + maximumSize);
+		}
+
+		this.maximumSize = maximumSize;
+		this.timeToLiveNanos = timeToLive.toNanos();
+		this.entries = new LruCache<>(maximumSize);
+	}
+
+	/**
+	 * Get the cached services of a device.
+	 *
+	 * @param device the {@link BLEDevice}
+	 * @return the cached services, or null if not cached or expired
+	 */
+	@Nullable List<GATTService> getServices(BLEDevice device) {
+		return get(new Key(device.address(), null));
+	}
+
+	/**
+	 * Cache the services of a device, unless the cache was invalidated since the discovery started.
+	 *
+	 * @param device     the {@link BLEDevice}
+	 * @param services   the discovered services
+	 * @param generation the {@link #generation()} from before the discovery started
+	 * @return an unmodifiable copy of the services
+	 */
+	List<GATTService> putServices(BLEDevice device, List<GATTService> services, long generation) {
+		return put(new Key(device.address(), null), services, generation);
+	}
+
+	/**
+	 * Get the cached characteristics of a service.
+	 *
+	 * @param device  the {@link BLEDevice}
+	 * @param service the {@link GATTService}
+	 * @return the cached characteristics, or null if not cached or expired
+	 */
+	@Nullable List<GATTCharacteristic> getCharacteristics(BLEDevice device, GATTService service) {
+		return get(new Key(device.address(), service.uuid()));
+	}
+
+	/**
+	 * Cache the characteristics of a service, unless the cache was invalidated since the discovery started.
+	 *
+	 * @param device          the {@link BLEDevice}
+	 * @param service         the {@link GATTService}
+	 * @param characteristics the discovered characteristics
+	 * @param generation      the {@link #generation()} from before the discovery started
+	 * @return an unmodifiable copy of the characteristics
+	 */
+	List<GATTCharacteristic> putCharacteristics(BLEDevice device, GATTService service, List<GATTCharacteristic> characteristics, long generation) {
+		return put(new Key(device.address(), service.uuid()), characteristics, generation);
+	}
+
+	/**
+	 * Get the current generation of the cache, which changes on every invalidation. A discovery reads it before it
+	 * starts, so that a result which raced an invalidation is not cached.
+	 *
+	 * @return the generation
+	 */
+	synchronized long generation() {
+		return generation;
+	}
+
+	@SuppressWarnings("unchecked")
+	private synchronized <T> @Nullable List<T> get(Key key) {
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			misses.incrementAndGet();
+			return null;
+		}
+
+		if (System.nanoTime() - entry.cachedAt >= timeToLiveNanos) {
+			entries.remove(key);
+			misses.incrementAndGet();
+			return null;
+		}
+
+		hits.incrementAndGet();
+		return (List<T>) entry.value;
+	}
+
+	private synchronized <T> List<T> put(Key key, List<T> value, long generation) {
+		List<T> copy = List.copyOf(value);
+		// The result may predate an invalidation that happened while it was being discovered
+		if (generation == this.generation) {
+			entries.put(key, new Entry(copy, System.nanoTime()));
+		}
+
+		return copy;
+	}
+
+	/**
+	 * Invalidate all cached entries for a device.
+	 *
+	 * @param address the address of the device
+	 */
+	public synchronized void invalidate(String address) {
+		generation++;
+		entries.removeIf(key -> key.address.equals(address));
+	}
+
+	/**
+	 * Invalidate all cached entries.
+	 */
+	public synchronized void invalidateAll() {
+		generation++;
+		entries.clear();
+	}
+
+	/**
+	 * Get the number of cached entries, including any that have expired but not yet been evicted.
+	 *
+	 * @return the number of entries
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public long getHits() {
+		return hits.get();
+	}
+
+	public long getMisses() {
+		return misses.get();
+	}
+
+	@Override
+	public String toString() {
+		return "DiscoveryCache: %d/%d entries - %d hits - %d misses".formatted(size(), maximumSize, getHits(), getMisses());
+	}
+
+	private record Key(String address, @Nullable String serviceUUID) {
+	}
+
+	private record Entry(List<?> value, long cachedAt) {
+	}
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package tech.anonymoushacker1279.orionble;
+
+/**
+ * A handle to a running notification listener, as tracked by {@link OrionBLE}.
+ */
+interface ListenerHandle {
+
+	/**
+	 * Pause delivery. Notifications received by the backend in the meantime are kept until the listener resumes.
+	 */
+	void pause();
+
+	/**
+	 * Resume delivery.
+	 */
+	void resume();
+
+	/**
+	 * Stop the listener permanently.
+	 */
+	void cancel();
+}
\ No newline at end of file
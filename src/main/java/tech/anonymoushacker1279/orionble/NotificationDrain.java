@@ -0,0 +1,299 @@
+package tech.anonymoushacker1279.orionble;
+
+import org.jetbrains.annotations.Nullable;
+import tech.anonymoushacker1279.orionble.OperationScheduler.Priority;
+import tech.anonymoushacker1279.orionble.devices.BLEDevice;
+import tech.anonymoushacker1279.orionble.gatt.CharacteristicHandle;
+import tech.anonymoushacker1279.orionble.gatt.GATTNotification;
+import tech.anonymoushacker1279.orionble.internal.APIEndpoints;
+import tech.anonymoushacker1279.orionble.internal.Addresses;
+import tech.anonymoushacker1279.orionble.internal.BackendCapability;
+import tech.anonymoushacker1279.orionble.internal.LruCache;
+import tech.anonymoushacker1279.orionble.internal.Transport;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+/**
+ * Polls the notifications of many characteristics together and routes each one to the consumer of its characteristic.
+ * Created by {@link OrionBLE#startNotificationDrain(BLEDevice, long)} for the characteristics of one device, or by
+ * {@link OrionBLE#startNotificationDrain(long)} for those of every device.
+ * <p>
+ * If the backend supports {@link BackendCapability#NOTIFICATION_DRAIN}, each poll is a single request returning the
+ * pending notifications of every registered characteristic in scope, so N subscriptions cost one request per interval
+ * instead of N. Notifications are matched to their subscription by device address and by service and characteristic
+ * UUID, compared as in {@link CharacteristicHandle}. Notifications for characteristics without a subscription are
+ * counted and dropped. Otherwise, each poll requests the notifications of every subscription separately.
+ * <p>
+ * Only the request holds a slot of the device in the {@link OperationScheduler}, and a poll that has to wait for the slot
+ * does not hold a polling thread meanwhile. Notifications are parsed and delivered after the slot is released, so a
+ * consumer may make its own requests to the device. A consumer that throws is
+ * reported to the uncaught exception handler of the polling thread, and does not keep the other notifications from
+ * being delivered.
+ * <p>
+ * Since the drain consumes every pending notification in its scope, it should not be combined with per-characteristic
+ * listeners on the same characteristics. Subscriptions can be added and removed while the drain is running.
+ */
+public final class NotificationDrain implements ListenerHandle {
+
+	private static final int MAX_CACHED_UUIDS = 256;
+
+	private final Transport transport;
+	private final OperationScheduler operationScheduler;
+	private final Executor executor;
+	private final BooleanSupplier drainSupported;
+	private final @Nullable String address;
+	private final String endpoint;
+	private final Map<Route, Subscription> subscriptions = new ConcurrentHashMap<>();
+	// The UUID strings of drained notifications, which repeat for as long as their characteristics notify
+	private final LruCache<String, UUID> uuids = new LruCache<>(MAX_CACHED_UUIDS);
+	private final AtomicLong unmatched = new AtomicLong();
+	private NotificationPoller.@Nullable Subscription polling;
+
+	/**
+	 * Create a new notification drain. It does not poll until {@link #start(NotificationPoller, long)} is called.
+	 *
+	 * @param transport          the {@link Transport} to poll with
+	 * @param operationScheduler the {@link OperationScheduler} that device requests are queued on
+	 * @param executor           the executor that sends a request once its device is free, normally the polling threads
+	 * @param drainSupported     whether the backend currently supports draining
+	 * @param address            the address of the device to drain, or null to drain every device
+	 */
+	NotificationDrain(Transport transport, OperationScheduler operationScheduler, Executor executor, BooleanSupplier drainSupported, @Nullable String address) {
+		this.transport = transport;
+		this.operationScheduler = operationScheduler;
+		this.executor = executor;
+		this.drainSupported = drainSupported;
+		this.address = address;
+		this.endpoint = address == null ? APIEndpoints.DRAIN_NOTIFICATIONS.getEndpoint() : APIEndpoints.DRAIN_DEVICE_NOTIFICATIONS.getEndpoint(address);
+	}
+
+	/**
+	 * Start polling on the shared notification threads.
+	 *
+	 * @param poller   the {@link NotificationPoller}
+	 * @param interval the requested interval in milliseconds
+	 */
+	synchronized void start(NotificationPoller poller, long interval) {
+		String label = address == null ? "*" : address;
+		polling = poller.subscribe(label, "*", "*", () -> pollAsync(Priority.LOW), interval);
+	}
+
+	/**
+	 * Route the notifications of a characteristic to a consumer, replacing any consumer it already had. The
+	 * characteristic must have been registered with {@link OrionBLE#registerNotifyEvent(CharacteristicHandle)}.
+	 *
+	 * @param handle   the {@link CharacteristicHandle}
+	 * @param consumer the consumer to call with notifications
+	 * @throws IllegalArgumentException if the drain is for a different device
+	 */
+	public void subscribe(CharacteristicHandle handle, Consumer<GATTNotification> consumer) {
+		if (!covers(handle)) {
+			throw new IllegalArgumentException("Drain for " + address + " cannot route notifications of " + handle.address());
+		}
+
+		subscriptions.put(route(handle), new Subscription(handle, consumer));
+	}
+
+	/**
+	 * Check if a characteristic is in the scope of this drain.
+	 *
+	 * @param handle the {@link CharacteristicHandle}
+	 * @return true if the drain is for every device or for the device of the characteristic
+	 */
+	public boolean covers(CharacteristicHandle handle) {
+		return address == null || Addresses.normalize(address).equals(Addresses.normalize(handle.address()));
+	}
+
+	/**
+	 * Stop routing the notifications of a characteristic. Its notifications are dropped from then on.
+	 *
+	 * @param handle the {@link CharacteristicHandle}
+	 */
+	public void unsubscribe(CharacteristicHandle handle) {
+		subscriptions.remove(route(handle));
+	}
+
+	/**
+	 * Get the number of characteristics whose notifications are routed by this drain.
+	 *
+	 * @return the number of subscriptions
+	 */
+	public int getSubscriptionCount() {
+		return subscriptions.size();
+	}
+
+	/**
+	 * Get the number of notifications that were drained but matched no subscription.
+	 *
+	 * @return the number of dropped notifications
+	 */
+	public long getUnmatchedCount() {
+		return unmatched.get();
+	}
+
+	/**
+	 * Poll once and deliver every notification to its consumer, waiting on the calling thread.
+	 *
+	 * @param priority the {@link Priority} of the requests
+	 * @return the number of notifications delivered
+	 */
+	int poll(Priority priority) {
+		IntSupplier delivery;
+		try {
+			delivery = pollAsync(priority).join();
+		} catch (CompletionException e) {
+			throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+		}
+
+		return delivery.getAsInt();
+	}
+
+	/**
+	 * Start a poll. Requests are sent on the calling thread, or on the executor once their device is free, so a poll
+	 * never holds a thread while it waits for a device.
+	 *
+	 * @param priority the {@link Priority} of the requests
+	 * @return a future completing with the delivery of the notifications, which returns the number delivered
+	 */
+	CompletableFuture<IntSupplier> pollAsync(Priority priority) {
+		if (subscriptions.isEmpty()) {
+			return CompletableFuture.completedFuture(() -> 0);
+		}
+
+		if (drainSupported.getAsBoolean()) {
+			CompletableFuture<String> response = address == null
+					? CompletableFuture.completedFuture(transport.getRequest(endpoint))
+					: request(address, priority, endpoint);
+			return response.thenApply(body -> () -> drain(body));
+		}
+
+		return pollEach(priority);
+	}
+
+	private int drain(@Nullable String response) {
+		if (response == null) {
+			return 0;
+		}
+
+		int[] delivered = new int[1];
+		GATTNotification.parseNotifications(new StringReader(response), address, (notificationAddress, notification) -> {
+			Subscription subscription = notificationAddress == null || notification.serviceUUID() == null || notification.characteristicUUID() == null
+					? null
+					: subscriptions.get(route(notificationAddress, notification.serviceUUID(), notification.characteristicUUID()));
+			if (subscription == null) {
+				unmatched.incrementAndGet();
+				return;
+			}
+
+			delivered[0]++;
+			subscription.consumer().accept(notification);
+		});
+
+		return delivered[0];
+	}
+
+	/**
+	 * Poll every subscription separately, for backends that cannot drain. The requests are queued together, and the
+	 * notifications are delivered once every request has completed. A subscription that fails does not hold up the
+	 * others, but if every one fails the error is rethrown so that the poller backs off.
+	 */
+	private CompletableFuture<IntSupplier> pollEach(Priority priority) {
+		List<Subscription> polled = List.copyOf(subscriptions.values());
+		List<CompletableFuture<String>> responses = new ArrayList<>(polled.size());
+		for (Subscription subscription : polled) {
+			CharacteristicHandle handle = subscription.handle();
+			responses.add(request(handle.address(), priority, handle.endpoint(APIEndpoints.GET_GATT_CHARACTERISTIC_NOTIFICATIONS)));
+		}
+
+		// Failed requests are reported on delivery, so only wait for each to finish
+		CompletableFuture<?>[] finished = responses.stream().map(response -> response.exceptionally(throwable -> null)).toArray(CompletableFuture[]::new);
+		return CompletableFuture.allOf(finished).thenApply(ignored -> () -> deliverEach(polled, responses));
+	}
+
+	private CompletableFuture<String> request(String address, Priority priority, String endpoint) {
+		return operationScheduler.callAsync(address, priority, () -> CompletableFuture.completedFuture(transport.getRequest(endpoint)), executor);
+	}
+
+	private int deliverEach(List<Subscription> polled, List<CompletableFuture<String>> responses) {
+		int delivered = 0;
+		int failed = 0;
+		RuntimeException failure = null;
+		for (int i = 0; i < polled.size(); i++) {
+			try {
+				List<GATTNotification> notifications = GATTNotification.parseNotifications(responses.get(i).join());
+				for (GATTNotification notification : notifications) {
+					GATTNotification.deliver(polled.get(i).consumer(), notification);
+				}
+				delivered += notifications.size();
+			} catch (RuntimeException e) {
+				failed++;
+				failure = e instanceof CompletionException && e.getCause() instanceof RuntimeException cause ? cause : e;
+			}
+		}
+
+		if (failure != null && failed == polled.size()) {
+			throw failure;
+		}
+
+		return delivered;
+	}
+
+	private Route route(String address, String serviceUUID, String characteristicUUID) {
+		return new Route(Addresses.normalize(address), uuid(serviceUUID), uuid(characteristicUUID));
+	}
+
+	private Route route(CharacteristicHandle handle) {
+		return new Route(Addresses.normalize(handle.address()), handle.serviceId(), handle.characteristicId());
+	}
+
+	private UUID uuid(String uuid) {
+		return uuids.computeIfAbsent(uuid, CharacteristicHandle::parseUUID);
+	}
+
+	@Override
+	public synchronized void pause() {
+		if (polling != null) {
+			polling.pause();
+		}
+	}
+
+	@Override
+	public synchronized void resume() {
+		if (polling != null) {
+			polling.resume();
+		}
+	}
+
+	/**
+	 * Stop polling permanently.
+	 */
+	@Override
+	public synchronized void cancel() {
+		if (polling != null) {
+			polling.cancel();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "NotificationDrain: %s - %d subscriptions".formatted(address == null ? "all devices" : address, subscriptions.size());
+	}
+
+	private record Route(String address, UUID serviceUUID, UUID characteristicUUID) {
+	}
+
+	private record Subscription(CharacteristicHandle handle, Consumer<GATTNotification> consumer) {
+	}
+}
\ No newline at end of file
@@ -0,0 +1,285 @@
+package tech.anonymoushacker1279.orionble;
+
+import tech.anonymoushacker1279.orionble.gatt.GATTNotification;
+import tech.anonymoushacker1279.orionble.metrics.MetricsListener;
+import tech.anonymoushacker1279.orionble.metrics.NotificationPollEvent;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * A shared notification engine. All listeners are multiplexed onto a small scheduler pool instead of owning a thread
+ * each. Every subscription keeps its own polling interval, which adapts to the observed arrival rate: polls that return
+ * notifications shorten the next delay, empty polls lengthen it, bounded around the requested interval.
+ * <p>
+ * Polls are asynchronous. A poll that has to wait for its device in the {@link OperationScheduler} releases the
+ * polling thread, and its notifications are delivered on a polling thread once the response arrives. The next poll of
+ * a subscription is only scheduled after the previous one completes.
+ */
+class NotificationPoller {
+
+	/**
+	 * The factor by which the polling interval may shrink below or grow above the requested interval.
+	 */
+	private static final int ADAPTIVE_FACTOR = 4;
+
+	private final ScheduledExecutorService scheduler;
+	private volatile MetricsListener metricsListener = MetricsListener.NONE;
+
+	/**
+	 * Create a new poller backed by a fixed pool of daemon threads.
+	 *
+	 * @param poolSize the number of polling threads
+	 */
+	NotificationPoller(int poolSize) {
+		AtomicInteger counter = new AtomicInteger();
+		ThreadFactory factory = runnable -> {
+			Thread thread = new Thread(runnable, "OrionBLE-Notifications-" + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+		scheduler = Executors.newScheduledThreadPool(poolSize, factory);
+	}
+
+	/**
+	 * Set the listener notified after every poll.
+	 *
+	 * @param metricsListener the {@link MetricsListener}
+	 */
+	void setMetricsListener(MetricsListener metricsListener) {
+		this.metricsListener = metricsListener;
+	}
+
+	/**
+	 * Get the executor of the polling threads, for work that continues a poll once its device is free.
+	 *
+	 * @return the executor
+	 */
+	Executor getExecutor() {
+		return scheduler;
+	}
+
+	/**
+	 * Schedule a new subscription. Polling begins immediately.
+	 *
+	 * @param address            the address of the device, used to label metrics
+	 * @param serviceUUID        the UUID of the service, used to label metrics
+	 * @param characteristicUUID the UUID of the characteristic, used to label metrics
+	 * @param source             the source of notifications, called once per poll
+	 * @param consumer           the consumer to call with notifications
+	 * @param interval           the requested interval in milliseconds
+	 * @return the subscription
+	 */
+	Subscription subscribe(String address, String serviceUUID, String characteristicUUID, Supplier<CompletableFuture<List<GATTNotification>>> source, Consumer<GATTNotification> consumer, long interval) {
+		return subscribe(address, serviceUUID, characteristicUUID, () -> source.get().thenApply(notifications -> () -> {
+			for (GATTNotification notification : notifications) {
+				GATTNotification.deliver(consumer, notification);
+			}
+			return notifications.size();
+		}), interval);
+	}
+
+	/**
+	 * Schedule a new subscription that handles delivery itself. Polling begins immediately.
+	 *
+	 * @param address            the address of the device, used to label metrics
+	 * @param serviceUUID        the UUID of the service, used to label metrics
+	 * @param characteristicUUID the UUID of the characteristic, used to label metrics
+	 * @param poll               starts a poll, returning a future that completes with its delivery. The delivery runs
+	 *                           on a polling thread and returns the number of notifications delivered.
+	 * @param interval           the requested interval in milliseconds
+	 * @return the subscription
+	 */
+	Subscription subscribe(String address, String serviceUUID, String characteristicUUID, Supplier<CompletableFuture<IntSupplier>> poll, long interval) {
+		Subscription subscription = new Subscription(address, serviceUUID, characteristicUUID, poll, interval);
+		subscription.schedule(0);
+		return subscription;
+	}
+
+	/**
+	 * Stop all subscriptions and release the polling threads.
+	 */
+	void shutdown() {
+		scheduler.shutdownNow();
+	}
+
+	/**
+	 * A single polled subscription. Pausing simply stops rescheduling, so paused subscriptions cost nothing.
+	 */
+	class Subscription implements Runnable, ListenerHandle {
+		private final String address;
+		private final String serviceUUID;
+		private final String characteristicUUID;
+		private final Supplier<CompletableFuture<IntSupplier>> poll;
+		private final long minInterval;
+		private final long maxInterval;
+		private long currentInterval;
+		private long scheduledAt;
+		private ScheduledFuture<?> future;
+		private boolean running;
+		private boolean paused;
+		private boolean cancelled;
+
+		private Subscription(String address, String serviceUUID, String characteristicUUID, Supplier<CompletableFuture<IntSupplier>> poll, long interval) {
+			this.address = address;
+			this.serviceUUID = serviceUUID;
+			this.characteristicUUID = characteristicUUID;
+			this.poll = poll;
+			this.minInterval = Math.max(1, interval / ADAPTIVE_FACTOR);
+			this.maxInterval = Math.max(1, interval * ADAPTIVE_FACTOR);
+			this.currentInterval = Math.max(1, interval);
+		}
+
+		@Override
+		public void run() {
+			synchronized (this) {
+				if (paused || cancelled) {
+					return;
+				}
+				running = true;
+			}
+
+			MetricsListener listener = metricsListener;
+			NotificationPollEvent event = new NotificationPollEvent();
+			boolean measured = listener != MetricsListener.NONE || event.isEnabled();
+			long start = measured ? System.nanoTime() : 0;
+			event.begin();
+
+			CompletableFuture<IntSupplier> pending;
+			try {
+				pending = poll.get();
+			} catch (RuntimeException e) {
+				pending = CompletableFuture.failedFuture(e);
+			}
+
+			if (pending.isDone()) {
+				complete(pending, listener, event, measured, start);
+				return;
+			}
+
+			// The poll is waiting for its device or the backend, so finish it on whichever polling thread is free then
+			CompletableFuture<IntSupplier> waiting = pending;
+			pending.whenComplete((delivery, throwable) -> {
+				try {
+					scheduler.execute(() -> complete(waiting, listener, event, measured, start));
+				} catch (RejectedExecutionException e) {
+					// The poller was shut down while the poll was in progress
+				}
+			});
+		}
+
+		/**
+		 * Deliver the notifications of a completed poll, and schedule the next one.
+		 */
+		private void complete(CompletableFuture<IntSupplier> pending, MetricsListener listener, NotificationPollEvent event, boolean measured, long start) {
+			long next;
+			try {
+				int delivered = pending.join().getAsInt();
+				if (delivered == 0) {
+					next = Math.min(maxInterval, currentInterval * 2);
+				} else {
+					next = Math.max(minInterval, currentInterval / 2);
+				}
+
+				if (measured) {
+					long schedulingDelay = Math.max(0, start - scheduledAt);
+					listener.onPoll(address, serviceUUID, characteristicUUID, delivered, schedulingDelay, System.nanoTime() - start);
+
+					event.end();
+					if (event.shouldCommit()) {
+						event.address = address;
+						event.serviceUUID = serviceUUID;
+						event.characteristicUUID = characteristicUUID;
+						event.delivered = delivered;
+						event.schedulingDelay = schedulingDelay;
+						event.commit();
+					}
+				}
+			} catch (RuntimeException e) {
+				// The backend may be temporarily unavailable, so back off rather than dropping the subscription
+				next = maxInterval;
+			}
+
+			synchronized (this) {
+				running = false;
+				currentInterval = next;
+				if (!paused && !cancelled) {
+					schedule(next);
+				}
+			}
+		}
+
+		private synchronized void schedule(long delay) {
+			scheduledAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+			future = scheduler.schedule(this, delay, TimeUnit.MILLISECONDS);
+		}
+
+		/**
+		 * Pause polling. Any poll already in progress will complete.
+		 */
+		@Override
+		public synchronized void pause() {
+			if (paused || cancelled) {
+				return;
+			}
+
+			paused = true;
+			if (future != null) {
+				future.cancel(false);
+			}
+		}
+
+		/**
+		 * Resume polling immediately.
+		 */
+		@Override
+		public synchronized void resume() {
+			if (!paused || cancelled) {
+				return;
+			}
+
+			paused = false;
+			// A poll still in progress will reschedule itself when it completes
+			if (!running) {
+				schedule(0);
+			}
+		}
+
+		/**
+		 * Poll as soon as possible instead of waiting out the current delay, such as when a consumer that had fallen
+		 * behind has caught up. Does nothing while paused or while a poll is in progress.
+		 */
+		synchronized void wake() {
+			if (paused || cancelled || running || future == null) {
+				return;
+			}
+
+			// Only reschedule if the pending poll had not started yet, otherwise it would be scheduled twice
+			if (future.cancel(false)) {
+				schedule(0);
+			}
+		}
+
+		/**
+		 * Cancel the subscription permanently.
+		 */
+		@Override
+		public synchronized void cancel() {
+			cancelled = true;
+			if (future != null) {
+				future.cancel(false);
+			}
+		}
+	}
+}
\ No newline at end of file
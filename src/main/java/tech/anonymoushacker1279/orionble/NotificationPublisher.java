@@ -0,0 +1,376 @@
+package tech.anonymoushacker1279.orionble;
+
+import tech.anonymoushacker1279.orionble.gatt.GATTNotification;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * A {@link Flow.Publisher} of the notifications of one characteristic, created by
+ * {@link OrionBLE#createNotificationPublisher}.
+ * <p>
+ * Every subscriber gets its own bounded buffer, and notifications are delivered on the executor only as the subscriber
+ * requests them, so a slow subscriber never delays polling. What happens when a buffer is full is decided by the
+ * {@link OverflowPolicy}. All subscribers share a single poll of the backend, which only runs while there are
+ * subscribers, and which backs off while a {@link OverflowPolicy#BLOCK} subscriber has fallen behind.
+ */
+public final class NotificationPublisher implements Flow.Publisher<GATTNotification>, ListenerHandle {
+
+	/**
+	 * What to do when a notification arrives for a subscriber whose buffer is full.
+	 */
+	public enum OverflowPolicy {
+		/**
+		 * Stop polling until the subscriber catches up. Notifications stay queued on the backend, so none are lost. A
+		 * single poll may still overfill the buffer by the number of notifications it returned.
+		 */
+		BLOCK,
+		/**
+		 * Drop the oldest buffered notification to make room.
+		 */
+		DROP_OLDEST,
+		/**
+		 * Drop every buffered notification and keep only the newest, for characteristics where only the current
+		 * value matters.
+		 */
+		KEEP_LATEST,
+		/**
+		 * Fail the subscription with an {@link IllegalStateException}.
+		 */
+		ERROR
+	}
+
+	/**
+	 * The result of a poll that did not request anything.
+	 */
+	private static final CompletableFuture<IntSupplier> NOTHING = CompletableFuture.completedFuture(() -> 0);
+
+	private final NotificationPoller poller;
+	private final String address;
+	private final String serviceUUID;
+	private final String characteristicUUID;
+	private final Supplier<CompletableFuture<List<GATTNotification>>> source;
+	private final long interval;
+	private final int bufferSize;
+	private final OverflowPolicy policy;
+	private final Executor executor;
+	private final List<BufferedSubscription> subscriptions = new CopyOnWriteArrayList<>();
+	private final AtomicLong dropped = new AtomicLong();
+	private NotificationPoller.Subscription pollSubscription;
+	private boolean paused;
+	private boolean closed;
+	private volatile boolean throttled;
+
+	/**
+	 * Create a new notification publisher. Polling starts with the first subscriber.
+	 *
+	 * @param poller             the {@link NotificationPoller} to poll with
+	 * @param address            the address of the device
+	 * @param serviceUUID        the UUID of the service
+	 * @param characteristicUUID the UUID of the characteristic
+	 * @param source             the source of notifications, called once per poll
+	 * @param interval           the requested polling interval in milliseconds
+	 * @param bufferSize         the capacity of each subscriber's buffer
+	 * @param policy             the {@link OverflowPolicy}
+	 * @param executor           the executor that delivers notifications to subscribers
+	 */
+	NotificationPublisher(NotificationPoller poller, String address, String serviceUUID, String characteristicUUID, Supplier<CompletableFuture<List<GATTNotification>>> source, long interval, int bufferSize, OverflowPolicy policy, Executor executor) {
+		if (bufferSize <= 0) {
+			throw new IllegalArgumentException("Buffer size must be positive: " + bufferSize);
+		}
+
+		this.poller = poller;
+		this.address = address;
+		this.serviceUUID = serviceUUID;
+		this.characteristicUUID = characteristicUUID;
+		this.source = source;
+		this.interval = interval;
+		this.bufferSize = bufferSize;
+		this.policy = policy;
+		this.executor = executor;
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super GATTNotification> subscriber) {
+		Objects.requireNonNull(subscriber);
+		BufferedSubscription subscription = new BufferedSubscription(subscriber);
+		synchronized (this) {
+			if (closed) {
+				subscription.done = true;
+			} else {
+				subscriptions.add(subscription);
+				if (pollSubscription == null) {
+					pollSubscription = poller.subscribe(address, serviceUUID, characteristicUUID, this::poll, interval);
+					if (paused) {
+						pollSubscription.pause();
+					}
+				}
+			}
+		}
+
+		// The first drain calls onSubscribe, so it is serialized with every later signal
+		subscription.signal();
+	}
+
+	private CompletableFuture<IntSupplier> poll() {
+		if (subscriptions.isEmpty()) {
+			// Leave notifications queued on the backend until someone subscribes
+			return NOTHING;
+		}
+
+		if (policy == OverflowPolicy.BLOCK) {
+			for (BufferedSubscription subscription : subscriptions) {
+				if (subscription.isFull()) {
+					throttled = true;
+					return NOTHING;
+				}
+			}
+		}
+
+		return source.get().thenApply(notifications -> () -> {
+			for (GATTNotification notification : notifications) {
+				for (BufferedSubscription subscription : subscriptions) {
+					subscription.offer(notification);
+				}
+			}
+
+			return notifications.size();
+		});
+	}
+
+	/**
+	 * Called when a subscriber has made room in its buffer.
+	 */
+	private void onDrained() {
+		if (throttled) {
+			throttled = false;
+			NotificationPoller.Subscription handle;
+			synchronized (this) {
+				handle = pollSubscription;
+			}
+			if (handle != null) {
+				handle.wake();
+			}
+		}
+	}
+
+	/**
+	 * Get the number of notifications dropped across all subscribers because their buffers were full.
+	 *
+	 * @return the number of dropped notifications
+	 */
+	public long getDroppedCount() {
+		return dropped.get();
+	}
+
+	/**
+	 * Get the number of active subscribers.
+	 *
+	 * @return the number of subscribers
+	 */
+	public int getSubscriberCount() {
+		return subscriptions.size();
+	}
+
+	/**
+	 * Pause polling. Buffered notifications are still delivered.
+	 */
+	@Override
+	public synchronized void pause() {
+		paused = true;
+		if (pollSubscription != null) {
+			pollSubscription.pause();
+		}
+	}
+
+	/**
+	 * Resume polling.
+	 */
+	@Override
+	public synchronized void resume() {
+		paused = false;
+		if (pollSubscription != null) {
+			pollSubscription.resume();
+		}
+	}
+
+	/**
+	 * Stop polling permanently. Every subscriber receives its buffered notifications, then completes.
+	 */
+	@Override
+	public void cancel() {
+		synchronized (this) {
+			if (closed) {
+				return;
+			}
+
+			closed = true;
+			if (pollSubscription != null) {
+				pollSubscription.cancel();
+			}
+		}
+
+		for (BufferedSubscription subscription : subscriptions) {
+			subscription.done = true;
+			subscription.signal();
+		}
+	}
+
+	/**
+	 * The buffer and delivery state of a single subscriber. Signals are serialized by a work-in-progress counter, so at
+	 * most one drain runs at a time.
+	 */
+	private final class BufferedSubscription implements Flow.Subscription, Runnable {
+		private final Flow.Subscriber<? super GATTNotification> subscriber;
+		private final ArrayDeque<GATTNotification> buffer = new ArrayDeque<>();
+		private final AtomicInteger workInProgress = new AtomicInteger();
+		private final AtomicLong demand = new AtomicLong();
+		private boolean started;
+		private volatile boolean done;
+		private volatile boolean cancelled;
+		private volatile Throwable error;
+
+		private BufferedSubscription(Flow.Subscriber<? super GATTNotification> subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		private synchronized boolean isFull() {
+			return buffer.size() >= bufferSize;
+		}
+
+		private void offer(GATTNotification notification) {
+			synchronized (this) {
+				if (cancelled || error != null) {
+					return;
+				}
+
+				if (buffer.size() >= bufferSize) {
+					switch (policy) {
+						case BLOCK -> {
+							// Polling is already held back, this only happens within a single poll
+						}
+						case DROP_OLDEST -> {
+							buffer.pollFirst();
+							dropped.incrementAndGet();
+						}
+						case KEEP_LATEST -> {
+							dropped.addAndGet(buffer.size());
+							buffer.clear();
+						}
+						case ERROR -> {
+							dropped.addAndGet(buffer.size() + 1L);
+							buffer.clear();
+							error = new IllegalStateException("Notification buffer overflow, capacity " + bufferSize);
+						}
+					}
+				}
+
+				if (error == null) {
+					buffer.addLast(notification);
+				}
+			}
+
+			signal();
+		}
+
+		private void signal() {
+			if (workInProgress.getAndIncrement() == 0) {
+				executor.execute(this);
+			}
+		}
+
+		@Override
+		public void run() {
+			int missed = 1;
+			do {
+				if (!started) {
+					started = true;
+					subscriber.onSubscribe(this);
+				}
+
+				drain();
+				missed = workInProgress.addAndGet(-missed);
+			} while (missed != 0);
+		}
+
+		private void drain() {
+			boolean freed = false;
+			while (!cancelled && error == null && demand.get() > 0) {
+				GATTNotification notification;
+				synchronized (this) {
+					notification = buffer.pollFirst();
+				}
+				if (notification == null) {
+					break;
+				}
+
+				if (demand.get() != Long.MAX_VALUE) {
+					demand.decrementAndGet();
+				}
+				freed = true;
+				try {
+					subscriber.onNext(notification);
+				} catch (RuntimeException e) {
+					// A subscriber that throws has violated the protocol, so it is dropped
+					cancel();
+					return;
+				}
+			}
+
+			if (cancelled) {
+				return;
+			}
+
+			Throwable failure = error;
+			if (failure != null) {
+				terminate();
+				subscriber.onError(failure);
+			} else if (done && isEmpty()) {
+				terminate();
+				subscriber.onComplete();
+			} else if (freed) {
+				onDrained();
+			}
+		}
+
+		private synchronized boolean isEmpty() {
+			return buffer.isEmpty();
+		}
+
+		private void terminate() {
+			cancelled = true;
+			subscriptions.remove(this);
+		}
+
+		@Override
+		public void request(long n) {
+			if (n <= 0) {
+				error = new IllegalArgumentException("Requested a non-positive number of notifications: " + n);
+			} else {
+				demand.accumulateAndGet(n, (current, requested) -> {
+					long sum = current + requested;
+					return sum < 0 ? Long.MAX_VALUE : sum;
+				});
+			}
+
+			signal();
+		}
+
+		@Override
+		public void cancel() {
+			terminate();
+			synchronized (this) {
+				buffer.clear();
+			}
+		}
+	}
+}
\ No newline at end of file
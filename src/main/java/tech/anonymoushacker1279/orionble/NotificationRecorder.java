@@ -0,0 +1,230 @@
+package tech.anonymoushacker1279.orionble;
+
+import tech.anonymoushacker1279.orionble.devices.BLEDevice;
+import tech.anonymoushacker1279.orionble.gatt.GATTCharacteristic;
+import tech.anonymoushacker1279.orionble.gatt.GATTNotification;
+import tech.anonymoushacker1279.orionble.gatt.GATTService;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Records notifications to a compact, append-only binary log that can be played back with {@link NotificationReplay}.
+ * The log is written through a memory-mapped region, so recording a notification is a handful of stores into memory.
+ * <p>
+ * Since it is a {@link Consumer}, a recorder can be passed straight to
+ * {@link OrionBLE#startNotificationListener(BLEDevice, GATTService, GATTCharacteristic, Consumer, long)}, or chained in
+ * front of another consumer with {@link Consumer#andThen(Consumer)}.
+ * <p>
+ * The log starts with a 16-byte header: the magic {@code "OBLN"}, a u16 version, two reserved bytes, and the start time
+ * of the recording in epoch milliseconds. Each record then starts with a type byte, with all integers big-endian:
+ * <ul>
+ *     <li>{@code 1}, a channel definition: u16 channel ID, u16 length and UTF-8 service UUID, u16 length and UTF-8
+ *     characteristic UUID</li>
+ *     <li>{@code 2}, a notification: u16 channel ID, i64 nanoseconds since the start of the recording, u32 length and
+ *     UTF-8 value</li>
+ * </ul>
+ * A zero type byte marks the end of the log, which is where reading stops if the recorder was not closed cleanly.
+ */
+public final class NotificationRecorder implements Consumer<GATTNotification>, Closeable {
+
+	static final int MAGIC = 0x4F424C4E;
+	static final short VERSION = 1;
+	static final int HEADER_SIZE = 16;
+	static final byte RECORD_END = 0;
+	static final byte RECORD_CHANNEL = 1;
+	static final byte RECORD_NOTIFICATION = 2;
+
+	/**
+	 * The size of each mapped region. The file grows by this much whenever the current region is full.
+	 */
+	private static final int REGION_SIZE = 8 * 1024 * 1024;
+
+	private final FileChannel channel;
+	private final long startNanos;
+	private final Map<String, Map<String, Integer>> channelIds = new HashMap<>();
+	private MappedByteBuffer region;
+	private long regionStart;
+	private String lastService;
+	private String lastCharacteristic;
+	private int lastChannelId = -1;
+	private int nextChannelId;
+	private long recordCount;
+	private boolean closed;
+
+	private NotificationRecorder(FileChannel channel) throws IOException {
+		this.channel = channel;
+		this.startNanos = System.nanoTime();
+		map(0, HEADER_SIZE);
+		region.putInt(MAGIC)
+				.putShort(VERSION)
+				.putShort((short) 0)
+				.putLong(System.currentTimeMillis());
+	}
+
+	/**
+	 * Create a recorder, replacing any existing log at the path.
+	 *
+	 * @param path the path of the log
+	 * @return the recorder
+	 * @throws IOException if the log could not be created
+	 */
+	public static NotificationRecorder create(Path path) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			return new NotificationRecorder(channel);
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	private void map(long position, int minimumSize) throws IOException {
+		regionStart = position;
+		region = channel.map(FileChannel.MapMode.READ_WRITE, position, Math.max(REGION_SIZE, minimumSize));
+	}
+
+	private void ensureCapacity(int size) {
+		if (region.remaining() < size) {
+			try {
+				// Start the next region where this one was filled up to, so records stay contiguous in the file
+				map(regionStart + region.position(), size);
+			} catch (IOException e) {
+				throw new RuntimeException("Failed to grow the notification log", e);
+			}
+		}
+	}
+
+	/**
+	 * Record a notification, timestamped now.
+	 *
+	 * @param notification the {@link GATTNotification}
+	 */
+	@Override
+	public void accept(GATTNotification notification) {
+		record(notification, System.nanoTime());
+	}
+
+	/**
+	 * Record a notification with an explicit timestamp.
+	 *
+	 * @param notification the {@link GATTNotification}
+	 * @param nanoTime     when the notification arrived, as given by {@link System#nanoTime()}
+	 */
+	public synchronized void record(GATTNotification notification, long nanoTime) {
+		if (closed) {
+			throw new IllegalStateException("Recorder is closed");
+		}
+
+		int channelId = channelId(notification.serviceUUID(), notification.characteristicUUID());
+		String value = notification.value() == null ? "" : notification.value();
+		// Worst case for UTF-8 is three bytes per char, plus the record header and the end marker
+		ensureCapacity(1 + 2 + 8 + 4 + value.length() * 3 + 1);
+
+		region.put(RECORD_NOTIFICATION)
+				.putShort((short) channelId)
+				.putLong(nanoTime - startNanos);
+		int lengthPosition = region.position();
+		region.position(lengthPosition + 4);
+		int length = putUtf8(value);
+		region.putInt(lengthPosition, length);
+		recordCount++;
+	}
+
+	private int channelId(String serviceUUID, String characteristicUUID) {
+		// Notifications tend to arrive in runs from the same characteristic
+		if (serviceUUID.equals(lastService) && characteristicUUID.equals(lastCharacteristic)) {
+			return lastChannelId;
+		}
+
+		Map<String, Integer> characteristics = channelIds.computeIfAbsent(serviceUUID, service -> new HashMap<>());
+		Integer id = characteristics.get(characteristicUUID);
+		if (id == null) {
+			id = nextChannelId++;
+			if (id > 0xFFFF) {
+				throw new IllegalStateException("Too many distinct characteristics in one log");
+			}
+			characteristics.put(characteristicUUID, id);
+			writeChannel(id, serviceUUID, characteristicUUID);
+		}
+
+		lastService = serviceUUID;
+		lastCharacteristic = characteristicUUID;
+		lastChannelId = id;
+		return id;
+	}
+
+	private void writeChannel(int id, String serviceUUID, String characteristicUUID) {
+		byte[] service = serviceUUID.getBytes(StandardCharsets.UTF_8);
+		byte[] characteristic = characteristicUUID.getBytes(StandardCharsets.UTF_8);
+		ensureCapacity(1 + 2 + 2 + service.length + 2 + characteristic.length + 1);
+		region.put(RECORD_CHANNEL)
+				.putShort((short) id)
+				.putShort((short) service.length)
+				.put(service)
+				.putShort((short) characteristic.length)
+				.put(characteristic);
+	}
+
+	private int putUtf8(String value) {
+		int start = region.position();
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c < 0x80) {
+				region.put((byte) c);
+			} else {
+				// Values are almost always ASCII, so only encode the rest in full if needed
+				region.put(value.substring(i).getBytes(StandardCharsets.UTF_8));
+				break;
+			}
+		}
+
+		return region.position() - start;
+	}
+
+	/**
+	 * Get the number of notifications recorded.
+	 *
+	 * @return the number of notifications
+	 */
+	public synchronized long getRecordCount() {
+		return recordCount;
+	}
+
+	/**
+	 * Write recorded notifications through to the storage device.
+	 */
+	public synchronized void flush() {
+		region.force();
+	}
+
+	/**
+	 * Close the log, trimming it to the recorded data where the platform allows.
+	 *
+	 * @throws IOException if the log could not be closed
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (closed) {
+			return;
+		}
+
+		closed = true;
+		long end = regionStart + region.position();
+		region.force();
+		region = null;
+		try (channel) {
+			channel.truncate(end);
+		} catch (IOException e) {
+			// Windows refuses to truncate while the region is still mapped. The end marker still terminates the log.
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,294 @@
+package tech.anonymoushacker1279.orionble;
+
+import org.jetbrains.annotations.Nullable;
+import tech.anonymoushacker1279.orionble.gatt.GATTCharacteristic;
+import tech.anonymoushacker1279.orionble.gatt.GATTNotification;
+import tech.anonymoushacker1279.orionble.gatt.GATTService;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Plays back a log written by {@link NotificationRecorder} into the same kind of {@link Consumer} that is passed to
+ * {@link OrionBLE#startNotificationListener}, so listeners can be tested and benchmarked without any hardware.
+ * <p>
+ * Notifications can be replayed as fast as they can be decoded, or paced to the timings of the recording, optionally
+ * sped up. The log is read through memory-mapped windows, and a replay can be run any number of times.
+ */
+public final class NotificationReplay implements Closeable {
+
+	/**
+	 * Replay as fast as possible, ignoring the timings of the recording.
+	 */
+	public static final double UNPACED = Double.POSITIVE_INFINITY;
+
+	/**
+	 * The size of each mapped window of the log.
+	 */
+	private static final int WINDOW_SIZE = 64 * 1024 * 1024;
+
+	private final FileChannel channel;
+	private final long size;
+	private final Instant startTime;
+
+	private NotificationReplay(FileChannel channel) throws IOException {
+		this.channel = channel;
+		this.size = channel.size();
+		if (size < NotificationRecorder.HEADER_SIZE) {
+			throw new IOException("Not a notification log, too short");
+		}
+
+		ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, NotificationRecorder.HEADER_SIZE);
+		if (header.getInt() != NotificationRecorder.MAGIC) {
+			throw new IOException("Not a notification log, bad magic");
+		}
+		short version = header.getShort();
+		if (version != NotificationRecorder.VERSION) {
+			throw new IOException("Unsupported notification log version " + version);
+		}
+		header.getShort();
+		this.startTime = Instant.ofEpochMilli(header.getLong());
+	}
+
+	/**
+	 * Open a log for replay.
+	 *
+	 * @param path the path of the log
+	 * @return the replay
+	 * @throws IOException if the log could not be opened, or is not a notification log
+	 */
+	public static NotificationReplay open(Path path) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			return new NotificationReplay(channel);
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Get the time the recording was started.
+	 *
+	 * @return the start time
+	 */
+	public Instant getStartTime() {
+		return startTime;
+	}
+
+	/**
+	 * Replay every notification in the log as fast as possible, on the calling thread.
+	 *
+	 * @param consumer the consumer to call with notifications
+	 * @return the number of notifications replayed
+	 */
+	public long replay(Consumer<GATTNotification> consumer) {
+		return replay(consumer, UNPACED);
+	}
+
+	/**
+	 * Replay every notification in the log on the calling thread, paced to the timings of the recording.
+	 *
+	 * @param consumer the consumer to call with notifications
+	 * @param speed    the speed relative to the recording, such as 2 for twice as fast, or {@link #UNPACED}
+	 * @return the number of notifications replayed
+	 */
+	public long replay(Consumer<GATTNotification> consumer, double speed) {
+		return run(null, null, consumer, speed, () -> false);
+	}
+
+	/**
+	 * Replay the notifications of a single characteristic on the calling thread, paced to the timings of the recording.
+	 *
+	 * @param service        the {@link GATTService}
+	 * @param characteristic the {@link GATTCharacteristic}
+	 * @param consumer       the consumer to call with notifications
+	 * @param speed          the speed relative to the recording, such as 2 for twice as fast, or {@link #UNPACED}
+	 * @return the number of notifications replayed
+	 */
+	public long replay(GATTService service, GATTCharacteristic characteristic, Consumer<GATTNotification> consumer, double speed) {
+		return run(service.uuid(), characteristic.uuid(), consumer, speed, () -> false);
+	}
+
+	/**
+	 * Replay every notification in the log on an executor, paced to the timings of the recording. Cancelling the future
+	 * stops the replay.
+	 *
+	 * @param consumer the consumer to call with notifications
+	 * @param speed    the speed relative to the recording, such as 2 for twice as fast, or {@link #UNPACED}
+	 * @param executor the executor to replay on
+	 * @return a future of the number of notifications replayed
+	 */
+	public CompletableFuture<Long> replayAsync(Consumer<GATTNotification> consumer, double speed, Executor executor) {
+		CompletableFuture<Long> future = new CompletableFuture<>();
+		executor.execute(() -> {
+			try {
+				future.complete(run(null, null, consumer, speed, future::isDone));
+			} catch (RuntimeException e) {
+				future.completeExceptionally(e);
+			}
+		});
+
+		return future;
+	}
+
+	private long run(@Nullable String serviceUUID, @Nullable String characteristicUUID, Consumer<GATTNotification> consumer, double speed, BooleanSupplier stopped) {
+		if (!(speed > 0)) {
+			throw new IllegalArgumentException("Speed must be positive: " + speed);
+		}
+
+		boolean paced = speed != UNPACED;
+		long replayStart = System.nanoTime();
+		Cursor cursor = new Cursor();
+		String[] services = new String[16];
+		String[] characteristics = new String[16];
+		// Only channels of the requested characteristic are delivered, every channel if none was requested
+		boolean[] selected = new boolean[16];
+		byte[] scratch = new byte[256];
+		long replayed = 0;
+
+		while (cursor.ensure(1)) {
+			byte type = cursor.window.get();
+			if (type == NotificationRecorder.RECORD_END) {
+				break;
+			}
+
+			if (type == NotificationRecorder.RECORD_CHANNEL) {
+				if (!cursor.ensure(4)) {
+					break;
+				}
+				int id = Short.toUnsignedInt(cursor.window.getShort());
+				int serviceLength = Short.toUnsignedInt(cursor.window.getShort());
+				if (!cursor.ensure(serviceLength + 2)) {
+					break;
+				}
+				scratch = cursor.read(scratch, serviceLength);
+				String service = new String(scratch, 0, serviceLength, StandardCharsets.UTF_8);
+				int characteristicLength = Short.toUnsignedInt(cursor.window.getShort());
+				if (!cursor.ensure(characteristicLength)) {
+					break;
+				}
+				scratch = cursor.read(scratch, characteristicLength);
+				String characteristic = new String(scratch, 0, characteristicLength, StandardCharsets.UTF_8);
+
+				if (id >= services.length) {
+					int length = Math.max(id + 1, services.length * 2);
+					services = Arrays.copyOf(services, length);
+					characteristics = Arrays.copyOf(characteristics, length);
+					selected = Arrays.copyOf(selected, length);
+				}
+				services[id] = service;
+				characteristics[id] = characteristic;
+				selected[id] = serviceUUID == null || serviceUUID.equals(service) && characteristicUUID.equals(characteristic);
+			} else if (type == NotificationRecorder.RECORD_NOTIFICATION) {
+				if (!cursor.ensure(14)) {
+					break;
+				}
+				int id = Short.toUnsignedInt(cursor.window.getShort());
+				long timestamp = cursor.window.getLong();
+				int length = cursor.window.getInt();
+				if (length < 0 || id >= services.length || services[id] == null || !cursor.ensure(length)) {
+					throw new IllegalStateException("Corrupt notification log at position " + cursor.position());
+				}
+
+				if (!selected[id]) {
+					cursor.skip(length);
+					continue;
+				}
+
+				scratch = cursor.read(scratch, length);
+				if (stopped.getAsBoolean()) {
+					break;
+				}
+				if (paced) {
+					long delay = replayStart + (long) (timestamp / speed) - System.nanoTime();
+					if (delay > 0) {
+						LockSupport.parkNanos(delay);
+					}
+				}
+
+				consumer.accept(new GATTNotification(services[id], characteristics[id], new String(scratch, 0, length, StandardCharsets.UTF_8)));
+				replayed++;
+			} else {
+				throw new IllegalStateException("Corrupt notification log at position " + (cursor.position() - 1));
+			}
+		}
+
+		return replayed;
+	}
+
+	/**
+	 * Close the log.
+	 *
+	 * @throws IOException if the log could not be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * A read position in the log, backed by a mapped window that slides forward as records are read.
+	 */
+	private final class Cursor {
+		private MappedByteBuffer window;
+		private long windowStart;
+
+		private Cursor() {
+			windowStart = NotificationRecorder.HEADER_SIZE;
+		}
+
+		private long position() {
+			return window == null ? windowStart : windowStart + window.position();
+		}
+
+		/**
+		 * Make sure the next bytes are mapped.
+		 *
+		 * @param length the number of bytes needed
+		 * @return false if the log ends first
+		 */
+		private boolean ensure(int length) {
+			if (window != null && window.remaining() >= length) {
+				return true;
+			}
+
+			long position = position();
+			if (size - position < length) {
+				return false;
+			}
+
+			try {
+				windowStart = position;
+				window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(size - position, Math.max(WINDOW_SIZE, length)));
+			} catch (IOException e) {
+				throw new RuntimeException("Failed to map the notification log", e);
+			}
+
+			return true;
+		}
+
+		private byte[] read(byte[] scratch, int length) {
+			byte[] buffer = scratch.length >= length ? scratch : new byte[Math.max(length, scratch.length * 2)];
+			window.get(buffer, 0, length);
+			return buffer;
+		}
+
+		private void skip(int length) {
+			window.position(window.position() + length);
+		}
+	}
+}
\ No newline at end of file
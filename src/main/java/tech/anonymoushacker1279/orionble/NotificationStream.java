@@ -0,0 +1,105 @@
+package tech.anonymoushacker1279.orionble;
+
+import tech.anonymoushacker1279.orionble.gatt.GATTNotification;
+import tech.anonymoushacker1279.orionble.internal.EventStream;
+import tech.anonymoushacker1279.orionble.internal.Transport;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A push-based notification listener. Notifications are delivered as soon as the backend receives them, over a
+ * server-sent event stream. If the stream cannot be opened or is dropped, the listener falls back to polling.
+ */
+class NotificationStream implements ListenerHandle {
+
+	private final Transport transport;
+	private final String endpoint;
+	private final Consumer<GATTNotification> consumer;
+	private final Supplier<ListenerHandle> fallback;
+	private EventStream stream;
+	private ListenerHandle fallbackHandle;
+	private boolean paused;
+	private boolean cancelled;
+
+	/**
+	 * Create and open a new notification stream.
+	 *
+	 * @param transport   the {@link Transport} to stream from
+	 * @param endpoint    the stream endpoint
+	 * @param consumer    the consumer to call with notifications
+	 * @param fallback    creates a polling listener, used if streaming fails
+	 */
+	NotificationStream(Transport transport, String endpoint, Consumer<GATTNotification> consumer, Supplier<ListenerHandle> fallback) {
+		this.transport = transport;
+		this.endpoint = endpoint;
+		this.consumer = consumer;
+		this.fallback = fallback;
+		open();
+	}
+
+	private synchronized void open() {
+		EventStream opened = transport.streamRequest(endpoint, data -> GATTNotification.parseNotifications(data).forEach(consumer));
+		stream = opened;
+		opened.completion().whenComplete((result, throwable) -> {
+			if (throwable != null) {
+				fallBack(opened);
+			}
+		});
+	}
+
+	private synchronized void fallBack(EventStream failed) {
+		// Ignore streams that have already been replaced or closed on purpose
+		if (failed != stream || cancelled) {
+			return;
+		}
+
+		stream = null;
+		fallbackHandle = fallback.get();
+		if (paused) {
+			fallbackHandle.pause();
+		}
+	}
+
+	@Override
+	public synchronized void pause() {
+		if (paused || cancelled) {
+			return;
+		}
+
+		paused = true;
+		if (fallbackHandle != null) {
+			fallbackHandle.pause();
+		} else if (stream != null) {
+			EventStream closing = stream;
+			stream = null;
+			closing.cancel();
+		}
+	}
+
+	@Override
+	public synchronized void resume() {
+		if (!paused || cancelled) {
+			return;
+		}
+
+		paused = false;
+		if (fallbackHandle != null) {
+			fallbackHandle.resume();
+		} else {
+			open();
+		}
+	}
+
+	@Override
+	public synchronized void cancel() {
+		cancelled = true;
+		if (fallbackHandle != null) {
+			fallbackHandle.cancel();
+		}
+		if (stream != null) {
+			stream.cancel();
+			stream = null;
+		}
+	}
+}
\ No newline at end of file
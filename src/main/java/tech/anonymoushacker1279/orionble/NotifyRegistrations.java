@@ -0,0 +1,88 @@
+package tech.anonymoushacker1279.orionble;
+
+import com.google.gson.JsonObject;
+import tech.anonymoushacker1279.orionble.OperationScheduler.Priority;
+import tech.anonymoushacker1279.orionble.gatt.CharacteristicHandle;
+import tech.anonymoushacker1279.orionble.internal.APIEndpoints;
+import tech.anonymoushacker1279.orionble.internal.Transport;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * The notify events registered through an {@link OrionBLE} instance. A backend server only keeps the registrations it
+ * was sent, so they are registered again on a server that was restarted, or that devices have just failed over to.
+ * <p>
+ * This is kept apart from {@link OrionBLE} so that the supervisors and the failover listener, which may call back as
+ * soon as they are started, never see a partially constructed instance.
+ */
+final class NotifyRegistrations implements Iterable<CharacteristicHandle> {
+
+	private final Transport transport;
+	private final OperationScheduler operationScheduler;
+	private final Set<CharacteristicHandle> handles = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Create a new, empty set of registrations.
+	 *
+	 * @param transport          the {@link Transport} to register with
+	 * @param operationScheduler the {@link OperationScheduler} that registrations are queued on
+	 */
+	NotifyRegistrations(Transport transport, OperationScheduler operationScheduler) {
+		this.transport = transport;
+		this.operationScheduler = operationScheduler;
+	}
+
+	/**
+	 * Record a notify event that has been registered.
+	 *
+	 * @param handle the {@link CharacteristicHandle}
+	 */
+	void add(CharacteristicHandle handle) {
+		handles.add(handle);
+	}
+
+	/**
+	 * Forget a notify event, so that it is not registered again.
+	 *
+	 * @param handle the {@link CharacteristicHandle}
+	 */
+	void remove(CharacteristicHandle handle) {
+		handles.remove(handle);
+	}
+
+	/**
+	 * Register a notify event without blocking, and record it once the backend has accepted it.
+	 *
+	 * @param handle the {@link CharacteristicHandle}
+	 * @return a future completing when the notify event has been registered
+	 */
+	CompletableFuture<Void> registerAsync(CharacteristicHandle handle) {
+		return operationScheduler.callAsync(handle.address(), Priority.NORMAL, () -> transport.postRequestAsync(handle.endpoint(APIEndpoints.REGISTER_NOTIFY_EVENT), new JsonObject()))
+				.thenApply(response -> {
+					handles.add(handle);
+					return null;
+				});
+	}
+
+	/**
+	 * Register the recorded notify events again, without waiting for the backend.
+	 *
+	 * @param affected selects the notify events to register again
+	 */
+	void registerAgain(Predicate<CharacteristicHandle> affected) {
+		for (CharacteristicHandle handle : handles) {
+			if (affected.test(handle)) {
+				registerAsync(handle);
+			}
+		}
+	}
+
+	@Override
+	public Iterator<CharacteristicHandle> iterator() {
+		return handles.iterator();
+	}
+}
\ No newline at end of file
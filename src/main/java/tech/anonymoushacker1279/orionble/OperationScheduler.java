@@ -0,0 +1,331 @@
+package tech.anonymoushacker1279.orionble;
+
+import org.jetbrains.annotations.Nullable;
+import tech.anonymoushacker1279.orionble.metrics.LatencyHistogram;
+import tech.anonymoushacker1279.orionble.metrics.MetricsListener;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Orders the GATT operations sent to each device, available via {@link OrionBLE#getOperationScheduler()}.
+ * <p>
+ * Peripherals process GATT operations one at a time, so sending many at once only makes them queue up in the backend
+ * in no particular order. Instead, every device gets its own queue here, and at most a fixed number of its operations
+ * are in flight at once. Devices are independent of each other, so a busy device never holds up another. A queue is
+ * dropped as soon as its device has nothing queued or in flight, so devices that come and go do not accumulate.
+ * <p>
+ * Queued operations are started by {@link Priority}: writes and reads first, then discovery, then notification polls.
+ * So that polls are not starved entirely under a constant stream of reads, the longest waiting operation is started
+ * regardless of priority after every {@value #STARVATION_LIMIT} operations that overtook lower priority ones.
+ */
+public class OperationScheduler {
+
+	/**
+	 * The priority lanes of a device queue.
+	 */
+	public enum Priority {
+		/**
+		 * Reads and writes requested by the application.
+		 */
+		HIGH,
+		/**
+		 * Discovery and notify registration.
+		 */
+		NORMAL,
+		/**
+		 * Background notification polls of listeners.
+		 */
+		LOW
+	}
+
+	/**
+	 * The number of operations that may overtake a waiting operation before it is started regardless of priority.
+	 */
+	static final int STARVATION_LIMIT = 16;
+
+	private static final Priority[] PRIORITIES = Priority.values();
+
+	private final int maxInFlight;
+	private final Executor executor;
+	private final Map<String, DeviceQueue> queues = new ConcurrentHashMap<>();
+	private final Map<Priority, LatencyHistogram> waitTimes = new EnumMap<>(Priority.class);
+	private volatile MetricsListener metricsListener = MetricsListener.NONE;
+
+	/**
+	 * Create a new operation scheduler.
+	 *
+	 * @param maxInFlight the maximum number of operations in flight per device
+	 * @param executor    the executor that starts asynchronous operations which had to wait
+	 */
+	OperationScheduler(int maxInFlight, Executor executor) {
+		if (maxInFlight <= 0) {
+			throw new IllegalArgumentException("Maximum operations in flight must be positive: " + maxInFlight);
+		}
+
+		this.maxInFlight = maxInFlight;
+		this.executor = executor;
+		// Populated up front so that the map is never modified concurrently
+		for (Priority priority : PRIORITIES) {
+			waitTimes.put(priority, new LatencyHistogram());
+		}
+	}
+
+	void setMetricsListener(MetricsListener metricsListener) {
+		this.metricsListener = metricsListener;
+	}
+
+	/**
+	 * Run an operation on the calling thread once the device has a free slot.
+	 *
+	 * @param address   the address of the device
+	 * @param priority  the {@link Priority} of the operation
+	 * @param operation the operation
+	 * @return the result of the operation
+	 */
+	<T> T call(String address, Priority priority, Supplier<T> operation) {
+		DeviceQueue queue;
+		CompletableFuture<Void> slot;
+		do {
+			queue = queue(address);
+			slot = queue.acquire(priority);
+		} while (slot == null);
+
+		try {
+			slot.join();
+		} catch (CompletionException e) {
+			throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+		}
+
+		try {
+			return operation.get();
+		} finally {
+			queue.release();
+		}
+	}
+
+	/**
+	 * Start an asynchronous operation once the device has a free slot. The slot is held until the operation completes.
+	 *
+	 * @param address   the address of the device
+	 * @param priority  the {@link Priority} of the operation
+	 * @param operation starts the operation
+	 * @return a future completing with the result of the operation
+	 */
+	<T> CompletableFuture<T> callAsync(String address, Priority priority, Supplier<CompletableFuture<T>> operation) {
+		return callAsync(address, priority, operation, executor);
+	}
+
+	/**
+	 * Start an asynchronous operation once the device has a free slot, starting it on the given executor if it had to
+	 * wait. The slot is held until the operation completes.
+	 *
+	 * @param address   the address of the device
+	 * @param priority  the {@link Priority} of the operation
+	 * @param operation starts the operation
+	 * @param executor  the executor that starts the operation if it had to wait
+	 * @return a future completing with the result of the operation
+	 */
+	<T> CompletableFuture<T> callAsync(String address, Priority priority, Supplier<CompletableFuture<T>> operation, Executor executor) {
+		DeviceQueue queue;
+		CompletableFuture<Void> slot;
+		do {
+			queue = queue(address);
+			slot = queue.acquire(priority);
+		} while (slot == null);
+
+		DeviceQueue acquired = queue;
+		CompletableFuture<T> result;
+		if (slot.isDone()) {
+			try {
+				result = operation.get();
+			} catch (RuntimeException e) {
+				result = CompletableFuture.failedFuture(e);
+			}
+		} else {
+			// Start on the executor rather than on whichever thread released the slot
+			result = slot.thenComposeAsync(granted -> operation.get(), executor);
+		}
+
+		return result.whenComplete((value, throwable) -> acquired.release());
+	}
+
+	private DeviceQueue queue(String address) {
+		DeviceQueue queue = queues.get(address);
+		return queue != null ? queue : queues.computeIfAbsent(address, DeviceQueue::new);
+	}
+
+	/**
+	 * Get the maximum number of operations in flight per device.
+	 *
+	 * @return the maximum number of operations
+	 */
+	public int getMaxInFlight() {
+		return maxInFlight;
+	}
+
+	/**
+	 * Get the number of operations waiting for a device.
+	 *
+	 * @param address the address of the device
+	 * @return the number of queued operations
+	 */
+	public int getQueueDepth(String address) {
+		DeviceQueue queue = queues.get(address);
+		return queue == null ? 0 : queue.getQueued();
+	}
+
+	/**
+	 * Get the number of operations in flight for a device.
+	 *
+	 * @param address the address of the device
+	 * @return the number of operations in flight
+	 */
+	public int getInFlight(String address) {
+		DeviceQueue queue = queues.get(address);
+		return queue == null ? 0 : queue.getInFlight();
+	}
+
+	/**
+	 * Get the time operations of a priority waited in the queue before starting, across all devices. Operations that
+	 * started immediately are recorded with a wait of zero.
+	 *
+	 * @param priority the {@link Priority}
+	 * @return the histogram of wait times
+	 */
+	public LatencyHistogram getWaitTime(Priority priority) {
+		return waitTimes.get(priority);
+	}
+
+	@Override
+	public String toString() {
+		return "OperationScheduler: %d devices - %d in flight per device".formatted(queues.size(), maxInFlight);
+	}
+
+	/**
+	 * The queue of a single device, with one lane per {@link Priority}.
+	 */
+	private final class DeviceQueue {
+		private final String address;
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		private final ArrayDeque<Ticket>[] lanes = new ArrayDeque[PRIORITIES.length];
+		private int queued;
+		private int inFlight;
+		private int overtaken;
+		private boolean retired;
+
+		private DeviceQueue(String address) {
+			this.address = address;
+			for (int i = 0; i < lanes.length; i++) {
+				lanes[i] = new ArrayDeque<>();
+			}
+		}
+
+		/**
+		 * Take a slot, or queue for one.
+		 *
+		 * @return a future completing once the slot is granted, or null if this queue was dropped and a new one must be
+		 * used
+		 */
+		private @Nullable CompletableFuture<Void> acquire(Priority priority) {
+			Ticket ticket = new Ticket(priority, System.nanoTime());
+			int depth;
+			synchronized (this) {
+				if (retired) {
+					return null;
+				}
+				if (inFlight >= maxInFlight || queued > 0) {
+					lanes[priority.ordinal()].addLast(ticket);
+					queued++;
+					return ticket.slot;
+				}
+
+				inFlight++;
+				depth = queued;
+			}
+
+			start(ticket, depth);
+			return ticket.slot;
+		}
+
+		private void release() {
+			Ticket next;
+			int depth;
+			synchronized (this) {
+				inFlight--;
+				next = next();
+				if (next == null) {
+					if (inFlight == 0) {
+						// Idle, so drop the queue. Callers still holding it will see it retired and fetch a new one.
+						retired = true;
+						queues.remove(address, this);
+					}
+					return;
+				}
+
+				inFlight++;
+				depth = queued;
+			}
+
+			// Completed outside the lock, since a waiting operation may continue on this thread
+			start(next, depth);
+		}
+
+		/**
+		 * Take the next ticket to start, by priority unless a lower priority ticket has been overtaken too often.
+		 */
+		private Ticket next() {
+			if (queued == 0) {
+				return null;
+			}
+
+			int highest = 0;
+			while (lanes[highest].isEmpty()) {
+				highest++;
+			}
+
+			int lane = highest;
+			if (queued == lanes[highest].size()) {
+				overtaken = 0;
+			} else if (++overtaken > STARVATION_LIMIT) {
+				// Start whichever operation has waited longest, in any lane
+				for (int i = highest + 1; i < lanes.length; i++) {
+					if (!lanes[i].isEmpty() && lanes[i].peekFirst().queuedAt - lanes[lane].peekFirst().queuedAt < 0) {
+						lane = i;
+					}
+				}
+				overtaken = 0;
+			}
+
+			queued--;
+			return lanes[lane].pollFirst();
+		}
+
+		private void start(Ticket ticket, int depth) {
+			long wait = System.nanoTime() - ticket.queuedAt;
+			waitTimes.get(ticket.priority).record(wait);
+			metricsListener.onOperationStarted(address, ticket.priority, wait, depth);
+			ticket.slot.complete(null);
+		}
+
+		private synchronized int getQueued() {
+			return queued;
+		}
+
+		private synchronized int getInFlight() {
+			return inFlight;
+		}
+	}
+
+	private record Ticket(Priority priority, long queuedAt, CompletableFuture<Void> slot) {
+		private Ticket(Priority priority, long queuedAt) {
+			this(priority, queuedAt, new CompletableFuture<>());
+		}
+	}
+}
\ No newline at end of file
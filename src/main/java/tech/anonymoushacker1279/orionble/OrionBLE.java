@@ -3,31 +3,74 @@ package tech.anonymoushacker1279.orionble;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import org.jetbrains.annotations.Nullable;
+import tech.anonymoushacker1279.orionble.NotificationPublisher.OverflowPolicy;
+import tech.anonymoushacker1279.orionble.OperationScheduler.Priority;
+import tech.anonymoushacker1279.orionble.codec.CodecRegistry;
+import tech.anonymoushacker1279.orionble.codec.NumericCodec;
 import tech.anonymoushacker1279.orionble.devices.BLEDevice;
 import tech.anonymoushacker1279.orionble.devices.DeviceFilter;
+import tech.anonymoushacker1279.orionble.devices.ScanSettings;
+import tech.anonymoushacker1279.orionble.gatt.BinaryNotification;
+import tech.anonymoushacker1279.orionble.gatt.CharacteristicHandle;
 import tech.anonymoushacker1279.orionble.gatt.GATTCharacteristic;
 import tech.anonymoushacker1279.orionble.gatt.GATTNotification;
+import tech.anonymoushacker1279.orionble.gatt.GATTOperation;
+import tech.anonymoushacker1279.orionble.gatt.GATTOperationResult;
 import tech.anonymoushacker1279.orionble.gatt.GATTService;
 import tech.anonymoushacker1279.orionble.internal.APIEndpoints;
+import tech.anonymoushacker1279.orionble.internal.BackendCapability;
 import tech.anonymoushacker1279.orionble.internal.RESTHandler;
+import tech.anonymoushacker1279.orionble.internal.ShardedTransport;
+import tech.anonymoushacker1279.orionble.internal.Transport;
+import tech.anonymoushacker1279.orionble.internal.UnixSocketTransport;
+import tech.anonymoushacker1279.orionble.metrics.MetricsListener;
+import tech.anonymoushacker1279.orionble.metrics.MetricsRecorder;
 
-import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.http.HttpClient;
-import java.nio.file.Files;
-import java.nio.file.StandardCopyOption;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
-public class OrionBLE {
+public class OrionBLE implements AutoCloseable {
 
-	private final RESTHandler restHandler;
-	private final Map<String, Thread> notificationThreads = new ConcurrentHashMap<>();
-	private final Map<String, Boolean> pausedThreads = new ConcurrentHashMap<>();
-	private ProcessHandle orionBLEServer;
+	private final Transport transport;
+	private final NotificationPoller notificationPoller = new NotificationPoller(Math.max(2, Runtime.getRuntime().availableProcessors() / 2));
+	private final ExecutorService scanExecutor = newScanExecutor();
+	private final Map<CharacteristicHandle, ListenerHandle> notificationThreads = new ConcurrentHashMap<>();
+	private final AtomicReference<@Nullable Set<BackendCapability>> capabilities = new AtomicReference<>();
+	private volatile DiscoveryCache discoveryCache;
+	private final DeviceRegistry deviceRegistry = new DeviceRegistry();
+	private final ReadCoalescer readCoalescer = new ReadCoalescer();
+	private final CodecRegistry codecRegistry = CodecRegistry.standard();
+	private final OperationScheduler operationScheduler;
+	private volatile MetricsListener metricsListener = MetricsListener.NONE;
+	private final CompletableFuture<Void> ready;
+	private final NotifyRegistrations notifyRegistrations;
+	private final List<ServerSupervisor> supervisors = new ArrayList<>();
 
 	/**
 	 * Create a new OrionBLE instance. A backend server will be launched if one is not already running.
@@ -36,246 +79,1592 @@ public class OrionBLE {
 	 *
 	 * @param serverAddress the address of the server
 	 * @param port          the port of the server
+	 * @see Builder
 	 */
 	public OrionBLE(String serverAddress, int port) {
-		if (!isWindowsPlatform()) {
+		this(new Builder().serverAddress(serverAddress).port(port));
+	}
+
+	/**
+	 * Create a new OrionBLE instance. A backend server will be launched if one is not already running.
+	 * <p>
+	 * Completions of the asynchronous API, such as {@link #readCharacteristicAsync(BLEDevice, GATTService,
+	 * GATTCharacteristic)}, run on the provided executor.
+	 * <p>
+	 * Please note, OrionBLE only supports Windows at this time.
+	 *
+	 * @param serverAddress the address of the server
+	 * @param port          the port of the server
+	 * @param executor      the executor for asynchronous requests
+	 * @see Builder
+	 */
+	public OrionBLE(String serverAddress, int port, Executor executor) {
+		this(new Builder().serverAddress(serverAddress).port(port).executor(executor));
+	}
+
+	private OrionBLE(Builder builder) {
+		if (builder.launcher == null && !isWindowsPlatform()) {
 			throw new UnsupportedOperationException("OrionBLE is only supported on Windows platforms!");
 		}
 
-		String address = serverAddress + ":" + port;
-		HttpClient client = HttpClient.newHttpClient();
-		restHandler = new RESTHandler(client, address);
+		if (builder.socketPath != null) {
+			transport = new UnixSocketTransport(builder.socketPath, builder.executor);
+		} else if (builder.backends.isEmpty()) {
+			String address = builder.serverAddress + ":" + builder.port;
+			transport = new RESTHandler(builder.buildHttpClient(), address, builder.requestTimeout);
+		} else {
+			HttpClient client = builder.buildHttpClient();
+			List<RESTHandler> backends = new ArrayList<>();
+			backends.add(new RESTHandler(client, builder.serverAddress + ":" + builder.port, builder.requestTimeout));
+			for (Builder.Backend backend : builder.backends) {
+				backends.add(new RESTHandler(client, backend.serverAddress() + ":" + backend.port(), builder.requestTimeout));
+			}
+			transport = new ShardedTransport(backends, Builder.BACKEND_RETRY_AFTER);
+		}
+		operationScheduler = new OperationScheduler(builder.maxOperationsInFlight, builder.executor != null ? builder.executor : ForkJoinPool.commonPool());
+		notifyRegistrations = new NotifyRegistrations(transport, operationScheduler);
+
+		// The callbacks only capture collaborators, never this, as they may run before construction completes
+		ServerLauncher launcher = builder.launcher != null ? builder.launcher : ServerLauncher.bundled();
+		if (transport instanceof ShardedTransport sharded) {
+			watchFailovers(sharded, notifyRegistrations);
+			// Every backend needs its own server
+			supervisors.add(supervise(builder, launcher, sharded.getBackend(0), builder.serverAddress, builder.port, null,
+					onServerRestarted(transport, capabilities, notifyRegistrations, 0)));
+			for (int i = 0; i < builder.backends.size(); i++) {
+				Builder.Backend backend = builder.backends.get(i);
+				supervisors.add(supervise(builder, launcher, sharded.getBackend(i + 1), backend.serverAddress(), backend.port(), null,
+						onServerRestarted(transport, capabilities, notifyRegistrations, i + 1)));
+			}
+		} else {
+			supervisors.add(supervise(builder, launcher, transport, builder.serverAddress, builder.port, builder.socketPath,
+					onServerRestarted(transport, capabilities, notifyRegistrations, 0)));
+		}
+		this.ready = CompletableFuture.allOf(supervisors.stream().map(ServerSupervisor::start).toArray(CompletableFuture[]::new));
+	}
+
+	/**
+	 * Create a new OrionBLE instance on top of an existing {@link Transport}. No backend server is launched, which
+	 * allows running against a stand-in server on any platform.
+	 *
+	 * @param transport the {@link Transport} to use
+	 */
+	OrionBLE(Transport transport) {
+		this.transport = transport;
+		this.operationScheduler = new OperationScheduler(Builder.DEFAULT_MAX_OPERATIONS_IN_FLIGHT, ForkJoinPool.commonPool());
+		this.ready = CompletableFuture.completedFuture(null);
+		this.notifyRegistrations = new NotifyRegistrations(transport, operationScheduler);
+		if (transport instanceof ShardedTransport sharded) {
+			watchFailovers(sharded, notifyRegistrations);
+		}
+	}
+
+	/**
+	 * Create the pool that runs device scans, whose windows block for their whole length when the backend cannot stream
+	 * them. Threads are created as scans need them, and exit once idle.
+	 *
+	 * @return the executor
+	 */
+	private static ExecutorService newScanExecutor() {
+		AtomicInteger counter = new AtomicInteger();
+		return Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "OrionBLE-Scan-" + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Check if the current platform is Windows.
+	 *
+	 * @return true if the platform is Windows, false otherwise
+	 */
+	private static boolean isWindowsPlatform() {
+		return System.getProperty("os.name").toLowerCase().contains("windows");
+	}
+
+	/**
+	 * Wait for a connection to be established with the server. This should be called before any other API calls are
+	 * made.
+	 * <p>
+	 * This is equivalent to {@link #waitForConnection(Duration)} with a timeout of one second per retry.
+	 *
+	 * @param maxRetries the maximum number of seconds to wait
+	 */
+	public void waitForConnection(int maxRetries) {
+		waitForConnection(Duration.ofSeconds(maxRetries));
+	}
+
+	/**
+	 * Wait for a connection to be established with the server. This should be called before any other API calls are
+	 * made.
+	 * <p>
+	 * This waits on {@link #whenReady()}, so a server that comes up quickly is detected almost immediately. The delays
+	 * between probes can be tuned via {@link Builder#readinessBackoff(Duration, Duration)}.
+	 *
+	 * @param timeout the maximum time to wait
+	 */
+	public void waitForConnection(Duration timeout) {
+		try {
+			ready.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+		} catch (TimeoutException e) {
+			throw new RuntimeException("Failed to connect to the backend server!", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Failed to connect to the backend server!", e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while waiting for the backend server!", e);
+		}
+	}
+
+	/**
+	 * Create the supervisor of a backend server, which launches it if one is not already running.
+	 *
+	 * @param builder       the {@link Builder} of this instance
+	 * @param launcher      the {@link ServerLauncher} that starts the server
+	 * @param probe         the {@link Transport} used to check if the server is running
+	 * @param serverAddress the address of the server
+	 * @param port          the port of the server
+	 * @param socketPath    the path of the Unix domain socket the server should also listen on, if any
+	 * @param onRestart     run after the server was restarted
+	 * @return the supervisor, not yet started
+	 */
+	private static ServerSupervisor supervise(Builder builder, ServerLauncher launcher, Transport probe, String serverAddress, int port,
+	                                          @Nullable Path socketPath, Runnable onRestart) {
+		List<String> arguments = new ArrayList<>();
+		arguments.add("--urls=%s:%s".formatted(serverAddress, String.valueOf(port)));    // Listening URLs
+		arguments.add("--Logging:LogLevel:Microsoft=Warning");   // Log level
+		if (socketPath != null) {
+			arguments.add("--UnixSocket=%s".formatted(socketPath.toAbsolutePath()));   // Framed socket listener
+		}
+
+		return new ServerSupervisor(probe, launcher, arguments, builder.initialProbeDelay, builder.maxProbeDelay,
+				builder.healthCheckInterval, onRestart);
+	}
+
+	/**
+	 * Create the callback that restores the state a backend server lost when it was restarted by its supervisor, by
+	 * registering the notify events of its devices again.
+	 *
+	 * @param transport           the {@link Transport} of the instance
+	 * @param capabilities        the cached capabilities, which are fetched again
+	 * @param notifyRegistrations the {@link NotifyRegistrations} of the instance
+	 * @param backend             the index of the backend
+	 * @return the callback
+	 */
+	private static Runnable onServerRestarted(Transport transport, AtomicReference<@Nullable Set<BackendCapability>> capabilities,
+	                                          NotifyRegistrations notifyRegistrations, int backend) {
+		return () -> {
+			capabilities.set(null);
+			if (transport instanceof ShardedTransport sharded) {
+				sharded.markUp(backend);
+				notifyRegistrations.registerAgain(handle -> sharded.route(handle.address()) == backend);
+			} else {
+				notifyRegistrations.registerAgain(handle -> true);
+			}
+		};
+	}
+
+	/**
+	 * Register the notify events of devices that just failed over on the backends they are now routed to, which have
+	 * not seen them before. Devices that had already failed over from another backend are registered again too, since
+	 * they may have been on this one.
+	 *
+	 * @param sharded             the {@link ShardedTransport} of the instance
+	 * @param notifyRegistrations the {@link NotifyRegistrations} of the instance
+	 */
+	private static void watchFailovers(ShardedTransport sharded, NotifyRegistrations notifyRegistrations) {
+		sharded.setFailoverListener(backend -> notifyRegistrations.registerAgain(handle -> sharded.isFailedOver(handle.address())));
+	}
+
+	/**
+	 * Get a future completing once the backend server responds. Construction never waits for the server, so this, or
+	 * {@link #waitForConnection(Duration)}, should be awaited before any other API calls are made.
+	 * <p>
+	 * If a server had to be launched and never came up, or could not be launched at all, the future completes
+	 * exceptionally. When sharded, the future completes once every backend responds.
+	 *
+	 * @return the readiness future
+	 */
+	public CompletableFuture<Void> whenReady() {
+		return ready.copy();
+	}
+
+	/**
+	 * Release everything this instance holds: every notification listener, drain and scan is stopped, the polling
+	 * threads exit, the backend servers are no longer supervised, and their shutdown hooks are removed. A backend server
+	 * launched by this instance is stopped, while one that was already running is left alone. The instance cannot be
+	 * used afterward.
+	 */
+	@Override
+	public void close() {
+		notificationThreads.values().forEach(ListenerHandle::cancel);
+		notificationThreads.clear();
+		notificationPoller.shutdown();
+		scanExecutor.shutdownNow();
+		supervisors.forEach(ServerSupervisor::close);
+		if (transport instanceof UnixSocketTransport socket) {
+			socket.close();
+		}
+	}
+
+	/**
+	 * Check if the backend server advertises an optional capability. The capabilities are fetched once and cached.
+	 *
+	 * @param capability the {@link BackendCapability} to check
+	 * @return true if the capability is supported, false otherwise or if the server could not be reached
+	 */
+	public boolean hasCapability(BackendCapability capability) {
+		Set<BackendCapability> cached = capabilities.get();
+		if (cached == null) {
+			try {
+				cached = BackendCapability.parseCapabilities(transport.getRequest(APIEndpoints.CAPABILITIES.getEndpoint()));
+			} catch (RuntimeException e) {
+				// Try again on the next call, the server may not be up yet
+				return false;
+			}
+			capabilities.set(cached);
+		}
+
+		return cached.contains(capability);
+	}
+
+	/**
+	 * Check if the backend server advertises an optional capability without blocking. The capabilities are fetched
+	 * once and cached, so the future is already complete once they are known.
+	 *
+	 * @param capability the {@link BackendCapability} to check
+	 * @return a future completing with true if the capability is supported, or false otherwise or if the server could
+	 * not be reached
+	 * @see #hasCapability(BackendCapability)
+	 */
+	public CompletableFuture<Boolean> hasCapabilityAsync(BackendCapability capability) {
+		Set<BackendCapability> cached = capabilities.get();
+		if (cached != null) {
+			return CompletableFuture.completedFuture(cached.contains(capability));
+		}
+
+		CompletableFuture<String> response;
+		try {
+			response = transport.getRequestAsync(APIEndpoints.CAPABILITIES.getEndpoint());
+		} catch (RuntimeException e) {
+			return CompletableFuture.completedFuture(false);
+		}
+
+		return response.handle((body, throwable) -> {
+			if (throwable != null) {
+				// Try again on the next call, the server may not be up yet
+				return false;
+			}
+
+			Set<BackendCapability> parsed = BackendCapability.parseCapabilities(body);
+			capabilities.set(parsed);
+			return parsed.contains(capability);
+		});
+	}
+
+	/**
+	 * Get the number of backends this instance is sharded across, see {@link Builder#addBackend(String, int)}.
+	 *
+	 * @return the number of backends
+	 */
+	public int getBackendCount() {
+		return transport instanceof ShardedTransport sharded ? sharded.getBackendCount() : 1;
+	}
+
+	/**
+	 * Route all requests for a device to a specific backend, rather than to the backend chosen by hashing its address.
+	 * The device still fails over to another backend while the assigned one is not responding.
+	 *
+	 * @param address the address of the device
+	 * @param backend the index of the backend, where 0 is the backend set by {@link Builder#serverAddress(String)}
+	 */
+	public void assignDevice(String address, int backend) {
+		if (transport instanceof ShardedTransport sharded) {
+			sharded.assign(address, backend);
+		} else if (backend != 0) {
+			throw new IndexOutOfBoundsException("No backend " + backend + ", there is 1");
+		}
+	}
+
+	/**
+	 * Get the backend that requests for a device are currently routed to.
+	 *
+	 * @param address the address of the device
+	 * @return the index of the backend
+	 */
+	public int getBackendFor(String address) {
+		return transport instanceof ShardedTransport sharded ? sharded.route(address) : 0;
+	}
+
+	/**
+	 * Set the listener notified of every backend request and notification delivery. Measurements are skipped entirely
+	 * while the listener is {@link MetricsListener#NONE}, which is the default.
+	 * <p>
+	 * JFR events are also recorded for requests and polls whenever a flight recording enables them, regardless of the
+	 * listener.
+	 *
+	 * @param metricsListener the {@link MetricsListener}, such as a {@link MetricsRecorder}
+	 */
+	public void setMetricsListener(MetricsListener metricsListener) {
+		this.metricsListener = metricsListener;
+		transport.setMetricsListener(metricsListener);
+		notificationPoller.setMetricsListener(metricsListener);
+		operationScheduler.setMetricsListener(metricsListener);
+	}
+
+	/**
+	 * Enable caching of {@link #discoverServices(BLEDevice)} and
+	 * {@link #discoverCharacteristics(BLEDevice, GATTService)} results. Any existing cache is replaced.
+	 * <p>
+	 * Entries for a device are invalidated automatically when {@link #isDeviceConnected(String)} observes that it is
+	 * disconnected.
+	 *
+	 * @param maximumSize the maximum number of cached discovery results
+	 * @param timeToLive  how long a result stays valid after it was cached
+	 * @return the {@link DiscoveryCache}
+	 */
+	public DiscoveryCache enableDiscoveryCache(int maximumSize, Duration timeToLive) {
+		DiscoveryCache cache = new DiscoveryCache(maximumSize, timeToLive);
+		discoveryCache = cache;
+		return cache;
+	}
+
+	/**
+	 * Disable and discard the discovery cache.
+	 */
+	public void disableDiscoveryCache() {
+		discoveryCache = null;
+	}
+
+	/**
+	 * Get the discovery cache, if enabled.
+	 *
+	 * @return the {@link DiscoveryCache}, or null if caching is disabled
+	 */
+	public @Nullable DiscoveryCache getDiscoveryCache() {
+		return discoveryCache;
+	}
+
+	/**
+	 * Get the read coalescer, which shares concurrent reads of the same characteristic and can serve recent values from
+	 * a cache. Use it to configure the maximum staleness of characteristics, and to inspect its counters.
+	 *
+	 * @return the {@link ReadCoalescer}
+	 */
+	public ReadCoalescer getReadCoalescer() {
+		return readCoalescer;
+	}
+
+	/**
+	 * Get the scheduler that queues GATT operations per device. Use it to inspect queue depths and wait times.
+	 *
+	 * @return the {@link OperationScheduler}
+	 */
+	public OperationScheduler getOperationScheduler() {
+		return operationScheduler;
+	}
+
+	public boolean isDeviceConnected(String address) {
+		boolean connected = transport.getRequest(APIEndpoints.CHECK_DEVICE_CONNECTION.getEndpoint(address), BLEDevice::checkDeviceConnection);
+		return onConnectionChecked(address, connected);
+	}
+
+	/**
+	 * Check if a device is connected without blocking.
+	 *
+	 * @param address the address of the device
+	 * @return a future completing with true if the device is connected
+	 */
+	public CompletableFuture<Boolean> isDeviceConnectedAsync(String address) {
+		return transport.getRequestAsync(APIEndpoints.CHECK_DEVICE_CONNECTION.getEndpoint(address))
+				.thenApply(response -> onConnectionChecked(address, BLEDevice.checkDeviceConnection(response)));
+	}
+
+	/**
+	 * Invalidate cached discovery results and values of a device once it is observed to be disconnected, since its GATT
+	 * table may differ when it reconnects.
+	 *
+	 * @param address   the address of the device
+	 * @param connected whether the device is connected
+	 * @return the connection state
+	 */
+	private boolean onConnectionChecked(String address, boolean connected) {
+		DiscoveryCache cache = discoveryCache;
+		if (!connected && cache != null) {
+			cache.invalidate(address);
+		}
+		if (!connected) {
+			readCoalescer.invalidate(address);
+		}
+
+		return connected;
+	}
+
+	/**
+	 * Get the registry of devices known from discovery. It is kept up to date by {@link #discoverDevices()}, its
+	 * overloads, and device scans.
+	 *
+	 * @return the {@link DeviceRegistry}
+	 */
+	public DeviceRegistry getDeviceRegistry() {
+		return deviceRegistry;
+	}
+
+	/**
+	 * Discover all nearby BLE devices. The result is merged into the {@link #getDeviceRegistry() device registry}, so
+	 * devices that are no longer found are removed from it.
+	 * <p>
+	 * When sharded, a backend that does not respond is skipped, and the devices it had discovered are kept in the
+	 * registry rather than removed, since they may still be there.
+	 *
+	 * @return a list of {@link BLEDevice} objects
+	 */
+	public List<BLEDevice> discoverDevices() {
+		List<BLEDevice> devices = transport.getRequest(APIEndpoints.DISCOVER_DEVICES.getEndpoint(), BLEDevice::parseDevices);
+		mergeDiscovered(devices);
+		return devices;
+	}
+
+	/**
+	 * Discover all nearby BLE devices without blocking.
+	 *
+	 * @return a future completing with a list of {@link BLEDevice} objects
+	 */
+	public CompletableFuture<List<BLEDevice>> discoverDevicesAsync() {
+		return transport.getRequestAsync(APIEndpoints.DISCOVER_DEVICES.getEndpoint())
+				.thenApply(BLEDevice::parseDevices)
+				.thenApply(devices -> {
+					mergeDiscovered(devices);
+					return devices;
+				});
+	}
+
+	/**
+	 * Merge a discovery of every device into the registry. When sharded, the devices of backends that did not respond
+	 * are out of rotation, so their absence from the result does not mean they are gone.
+	 *
+	 * @param devices the discovered devices
+	 */
+	private void mergeDiscovered(List<BLEDevice> devices) {
+		if (transport instanceof ShardedTransport sharded) {
+			deviceRegistry.merge(devices, address -> !sharded.isFailedOver(address));
+		} else {
+			deviceRegistry.merge(devices);
+		}
+	}
+
+	/**
+	 * Discover nearby BLE devices based on a filter. The filter is sent to the backend and also applied as devices are
+	 * decoded, in case the backend does not support every criterion. The devices found are added to or updated in the
+	 * {@link #getDeviceRegistry() device registry}, but nothing is removed from it.
+	 *
+	 * @param filter the {@link DeviceFilter} to use
+	 * @return a list of {@link BLEDevice} objects
+	 */
+	public List<BLEDevice> discoverDevices(DeviceFilter filter) {
+		Predicate<BLEDevice> predicate = filter.compile();
+		return transport.getRequest(APIEndpoints.DISCOVER_DEVICES.getEndpoint(), filter.toUriParams(), reader -> {
+			List<BLEDevice> devices = new ArrayList<>();
+			BLEDevice.parseDevices(reader, device -> {
+				if (predicate.test(device)) {
+					deviceRegistry.update(device);
+					devices.add(device);
+				}
+			});
+			return devices;
+		});
+	}
+
+	/**
+	 * Discover nearby BLE devices based on a filter without blocking.
+	 *
+	 * @param filter the {@link DeviceFilter} to use
+	 * @return a future completing with a list of {@link BLEDevice} objects
+	 */
+	public CompletableFuture<List<BLEDevice>> discoverDevicesAsync(DeviceFilter filter) {
+		Predicate<BLEDevice> predicate = filter.compile();
+		return transport.getRequestAsync(APIEndpoints.DISCOVER_DEVICES.getEndpoint(), filter.toUriParams())
+				.thenApply(BLEDevice::parseDevices)
+				.thenApply(devices -> {
+					devices.removeIf(predicate.negate());
+					devices.forEach(deviceRegistry::update);
+					return devices;
+				});
+	}
+
+	/**
+	 * Start a continuous scan for nearby BLE devices. Unlike {@link #discoverDevices()}, each device is reported as soon
+	 * as it is seen, rather than once the whole scan has finished. Each address is reported only once per scan.
+	 * <p>
+	 * The consumer is called on a background thread. The scan runs until it is cancelled, or until the first device is
+	 * reported if {@link ScanSettings#stopOnFirstMatch()} is set.
+	 *
+	 * @param settings the {@link ScanSettings} to use
+	 * @param consumer the consumer to call with each new device
+	 * @return the {@link DeviceScan}, which can be used to cancel the scan
+	 */
+	public DeviceScan startDeviceScan(ScanSettings settings, Consumer<BLEDevice> consumer) {
+		DeviceScan scan = new DeviceScan(transport, scanExecutor, settings, consumer, deviceRegistry);
+		// Checking for streaming support may need a request, which should not block the caller
+		hasCapabilityAsync(BackendCapability.DEVICE_SCAN_STREAM).thenAccept(scan::start);
+		return scan;
+	}
+
+	/**
+	 * Scan until a device matching the filter is found. The scan stops as soon as the first match is reported, without
+	 * waiting for the rest of the scan.
+	 * <p>
+	 * Completing or cancelling the returned future stops the scan, so a timeout can be applied with
+	 * {@link CompletableFuture#orTimeout(long, TimeUnit)}.
+	 *
+	 * @param filter the {@link DeviceFilter} to match
+	 * @return a future completing with the first matching {@link BLEDevice}
+	 */
+	public CompletableFuture<BLEDevice> findDevice(DeviceFilter filter) {
+		CompletableFuture<BLEDevice> result = new CompletableFuture<>();
+		ScanSettings settings = new ScanSettings.Builder().filter(filter).stopOnFirstMatch().build();
+		DeviceScan scan = startDeviceScan(settings, result::complete);
+		result.whenComplete((device, throwable) -> scan.cancel());
+		return result;
+	}
+
+	/**
+	 * Discover GATT services for a given device. If the discovery cache is enabled, a cached result may be returned.
+	 *
+	 * @param device the {@link BLEDevice} to discover services for
+	 * @return a list of {@link GATTService} objects
+	 */
+	public List<GATTService> discoverServices(BLEDevice device) {
+		DiscoveryCache cache = discoveryCache;
+		if (cache != null) {
+			List<GATTService> cached = cache.getServices(device);
+			if (cached != null) {
+				return cached;
+			}
+		}
+
+		long generation = cache != null ? cache.generation() : 0;
+		List<GATTService> services = operationScheduler.call(device.address(), Priority.NORMAL,
+				() -> transport.getRequest(APIEndpoints.DISCOVER_GATT_SERVICES.getEndpoint(device.address()), GATTService::parseServices));
+		return cache != null ? cache.putServices(device, services, generation) : services;
+	}
+
+	/**
+	 * Discover GATT services for a given device without blocking.
+	 *
+	 * @param device the {@link BLEDevice} to discover services for
+	 * @return a future completing with a list of {@link GATTService} objects
+	 */
+	public CompletableFuture<List<GATTService>> discoverServicesAsync(BLEDevice device) {
+		DiscoveryCache cache = discoveryCache;
+		if (cache != null) {
+			List<GATTService> cached = cache.getServices(device);
+			if (cached != null) {
+				return CompletableFuture.completedFuture(cached);
+			}
+		}
+
+		long generation = cache != null ? cache.generation() : 0;
+		return operationScheduler.callAsync(device.address(), Priority.NORMAL, () -> transport.getRequestAsync(APIEndpoints.DISCOVER_GATT_SERVICES.getEndpoint(device.address())))
+				.thenApply(response -> {
+					List<GATTService> services = GATTService.parseServices(response);
+					return cache != null ? cache.putServices(device, services, generation) : services;
+				});
+	}
+
+	/**
+	 * Discover GATT characteristics for a given device and service. If the discovery cache is enabled, a cached result
+	 * may be returned.
+	 *
+	 * @param device  the {@link BLEDevice} to discover characteristics for
+	 * @param service the {@link GATTService}
+	 * @return a list of {@link GATTCharacteristic} objects
+	 */
+	public List<GATTCharacteristic> discoverCharacteristics(BLEDevice device, GATTService service) {
+		DiscoveryCache cache = discoveryCache;
+		if (cache != null) {
+			List<GATTCharacteristic> cached = cache.getCharacteristics(device, service);
+			if (cached != null) {
+				return cached;
+			}
+		}
+
+		long generation = cache != null ? cache.generation() : 0;
+		List<GATTCharacteristic> characteristics = operationScheduler.call(device.address(), Priority.NORMAL,
+				() -> transport.getRequest(APIEndpoints.DISCOVER_GATT_CHARACTERISTICS.getEndpoint(device.address(), service.uuid()), GATTCharacteristic::parseCharacteristics));
+		return cache != null ? cache.putCharacteristics(device, service, characteristics, generation) : characteristics;
+	}
+
+	/**
+	 * Discover GATT characteristics for a given device and service without blocking.
+	 *
+	 * @param device  the {@link BLEDevice} to discover characteristics for
+	 * @param service the {@link GATTService}
+	 * @return a future completing with a list of {@link GATTCharacteristic} objects
+	 */
+	public CompletableFuture<List<GATTCharacteristic>> discoverCharacteristicsAsync(BLEDevice device, GATTService service) {
+		DiscoveryCache cache = discoveryCache;
+		if (cache != null) {
+			List<GATTCharacteristic> cached = cache.getCharacteristics(device, service);
+			if (cached != null) {
+				return CompletableFuture.completedFuture(cached);
+			}
+		}
+
+		long generation = cache != null ? cache.generation() : 0;
+		return operationScheduler.callAsync(device.address(), Priority.NORMAL, () -> transport.getRequestAsync(APIEndpoints.DISCOVER_GATT_CHARACTERISTICS.getEndpoint(device.address(), service.uuid())))
+				.thenApply(response -> {
+					List<GATTCharacteristic> characteristics = GATTCharacteristic.parseCharacteristics(response);
+					return cache != null ? cache.putCharacteristics(device, service, characteristics, generation) : characteristics;
+				});
+	}
+
+	/**
+	 * Read a value from a GATT characteristic. Concurrent reads of the same characteristic share one request, and a
+	 * recent value may be returned from the cache, see {@link ReadCoalescer}.
+	 *
+	 * @param device         the {@link BLEDevice} to read from
+	 * @param service        the {@link GATTService}
+	 * @param characteristic the {@link GATTCharacteristic}
+	 * @return the value of the characteristic
+	 */
+	public String readCharacteristic(BLEDevice device, GATTService service, GATTCharacteristic characteristic) {
+		return readCharacteristic(CharacteristicHandle.of(device, service, characteristic));
+	}
+
+	/**
+	 * Read a value from a GATT characteristic.
+	 *
+	 * @param handle the {@link CharacteristicHandle}
+	 * @return the value of the characteristic
+	 * @see #readCharacteristic(BLEDevice, GATTService, GATTCharacteristic)
+	 */
+	public String readCharacteristic(CharacteristicHandle handle) {
+		String endpoint = handle.endpoint(APIEndpoints.READ_GATT_CHARACTERISTIC);
+		return readCoalescer.read(handle, () -> operationScheduler.call(handle.address(), Priority.HIGH, () -> transport.getRequest(endpoint)));
+	}
+
+	/**
+	 * Read a value from a GATT characteristic without blocking. Concurrent reads of the same characteristic share one
+	 * request, and a recent value may be returned from the cache, see {@link ReadCoalescer}.
+	 *
+	 * @param device         the {@link BLEDevice} to read from
+	 * @param service        the {@link GATTService}
+	 * @param characteristic the {@link GATTCharacteristic}
+	 * @return a future completing with the value of the characteristic
+	 */
+	public CompletableFuture<String> readCharacteristicAsync(BLEDevice device, GATTService service, GATTCharacteristic characteristic) {
+		return readCharacteristicAsync(CharacteristicHandle.of(device, service, characteristic));
+	}
+
+	/**
+	 * Read a value from a GATT characteristic without blocking.
+	 *
+	 * @param handle the {@link CharacteristicHandle}
+	 * @return a future completing with the value of the characteristic
+	 * @see #readCharacteristicAsync(BLEDevice, GATTService, GATTCharacteristic)
+	 */
+	public CompletableFuture<String> readCharacteristicAsync(CharacteristicHandle handle) {
+		String endpoint = handle.endpoint(APIEndpoints.READ_GATT_CHARACTERISTIC);
+		return readCoalescer.readAsync(handle, () -> operationScheduler.callAsync(handle.address(), Priority.HIGH, () -> transport.getRequestAsync(endpoint)));
+	}
+
+	/**
+	 * Read the raw value of a GATT characteristic, transferred as raw bytes. Concurrent reads share one request, and a
+	 * recent value may be returned from the cache, like {@link #readCharacteristic(BLEDevice, GATTService,
+	 * GATTCharacteristic)}.
+	 *
+	 * @param device         the {@link BLEDevice} to read from
+	 * @param service        the {@link GATTService}
+	 * @param characteristic the {@link GATTCharacteristic}
+	 * @return the value of the characteristic
+	 * @throws UnsupportedOperationException if the backend does not support {@link BackendCapability#BINARY_READS}
+	 */
+	public byte[] readCharacteristicBytes(BLEDevice device, GATTService service, GATTCharacteristic characteristic) {
+		return readCharacteristicBytes(CharacteristicHandle.of(device, service, characteristic));
+	}
+
+	/**
+	 * Read the raw value of a GATT characteristic.
+	 *
+	 * @param handle the {@link CharacteristicHandle}
+	 * @return the value of the characteristic
+	 * @throws UnsupportedOperationException if the backend does not support {@link BackendCapability#BINARY_READS}
+	 * @see #readCharacteristicBytes(BLEDevice, GATTService, GATTCharacteristic)
+	 */
+	public byte[] readCharacteristicBytes(CharacteristicHandle handle) {
+		// The text value is formatted by the backend, and its bytes are not the bytes of the characteristic
+		if (!hasCapability(BackendCapability.BINARY_READS)) {
+			throw new UnsupportedOperationException("The backend does not support binary reads");
+		}
+
+		String endpoint = handle.endpoint(APIEndpoints.READ_GATT_CHARACTERISTIC_BINARY);
+		return readCoalescer.readBytes(handle, () -> operationScheduler.call(handle.address(), Priority.HIGH, () -> transport.getBinaryRequest(endpoint, body -> {
+			try {
+				return body.readAllBytes();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		})));
+	}
+
+	/**
+	 * Read a GATT characteristic and decode it with the codec registered for it, see {@link #getCodecRegistry()}.
+	 *
+	 * @param device         the {@link BLEDevice} to read from
+	 * @param service        the {@link GATTService}
+	 * @param characteristic the {@link GATTCharacteristic}
+	 * @return the decoded value
+	 * @throws IllegalArgumentException      if no codec is registered for the characteristic
+	 * @throws UnsupportedOperationException if the backend does not support {@link BackendCapability#BINARY_READS}
+	 */
+	public double readValue(BLEDevice device, GATTService service, GATTCharacteristic characteristic) {
+		return readValue(CharacteristicHandle.of(device, service, characteristic));
+	}
+
+	/**
+	 * Read a GATT characteristic and decode it with the codec registered for it, see {@link #getCodecRegistry()}.
+	 *
+	 * @param handle the {@link CharacteristicHandle}
+	 * @return the decoded value
+	 * @throws IllegalArgumentException      if no codec is registered for the characteristic
+	 * @throws UnsupportedOperationException if the backend does not support {@link BackendCapability#BINARY_READS}
+	 * @see #readValue(BLEDevice, GATTService, GATTCharacteristic)
+	 */
+	public double readValue(CharacteristicHandle handle) {
+		return readValue(handle, codecRegistry.require(handle.characteristic()));
+	}
+
+	/**
+	 * Read a GATT characteristic and decode it with a codec.
+	 *
+	 * @param device         the {@link BLEDevice} to read from
+	 * @param service        the {@link GATTService}
+	 * @param characteristic the {@link GATTCharacteristic}
+	 * @param codec          the {@link NumericCodec}
+	 * @return the decoded value
+	 * @throws UnsupportedOperationException if the backend does not support {@link BackendCapability#BINARY_READS}
+	 */
+	public double readValue(BLEDevice device, GATTService service, GATTCharacteristic characteristic, NumericCodec codec) {
+		return readValue(CharacteristicHandle.of(device, service, characteristic), codec);
+	}
+
+	/**
+	 * Read a GATT characteristic and decode it with a codec.
+	 *
+	 * @param handle the {@link CharacteristicHandle}
+	 * @param codec  the {@link NumericCodec}
+	 * @return the decoded value
+	 * @throws UnsupportedOperationException if the backend does not support {@link BackendCapability#BINARY_READS}
+	 * @see #readValue(BLEDevice, GATTService, GATTCharacteristic, NumericCodec)
+	 */
+	public double readValue(CharacteristicHandle handle, NumericCodec codec) {
+		return codec.decode(ByteBuffer.wrap(readCharacteristicBytes(handle)));
+	}
+
+	/**
+	 * Get the registry of codecs used by {@link #readValue(BLEDevice, GATTService, GATTCharacteristic)} and
+	 * {@link #startValueListener(BLEDevice, GATTService, GATTCharacteristic, DoubleConsumer, long)}. It starts out with
+	 * the codecs of {@link CodecRegistry#standard()}, and more can be registered at any time.
+	 *
+	 * @return the {@link CodecRegistry}
+	 */
+	public CodecRegistry getCodecRegistry() {
+		return codecRegistry;
+	}
+
+	/**
+	 * Write a value to a GATT characteristic.
+	 *
+	 * @param device         the {@link BLEDevice} to write to
+	 * @param service        the {@link GATTService}
+	 * @param characteristic the {@link GATTCharacteristic}
+	 * @param data           the data to write
+	 */
+	public void writeCharacteristic(BLEDevice device, GATTService service, GATTCharacteristic characteristic, int[] data) {
+		writeCharacteristic(CharacteristicHandle.of(device, service, characteristic), data);
+	}
+
+	/**
+	 * Write a value to a GATT characteristic.
+	 *
+	 * @param handle the {@link CharacteristicHandle}
+	 * @param data   the data to write
+	 * @see #writeCharacteristic(BLEDevice, GATTService, GATTCharacteristic, int[])
+	 */
+	public void writeCharacteristic(CharacteristicHandle handle, int[] data) {
+		JsonObject message = createWriteMessage(data);
+		operationScheduler.call(handle.address(), Priority.HIGH,
+				() -> transport.postRequest(handle.endpoint(APIEndpoints.WRITE_GATT_CHARACTERISTIC), message));
+		readCoalescer.invalidate(handle);
+	}
+
+	/**
+	 * Write a binary value to a GATT characteristic. If the backend supports {@link BackendCapability#BINARY_WRITES},
+	 * the data is sent as a raw binary body. Otherwise, it is sent as JSON like
+	 * {@link #writeCharacteristic(BLEDevice, GATTService, GATTCharacteristic, int[])}.
+	 *
+	 * @param device         the {@link BLEDevice} to write to
+	 * @param service        the {@link GATTService}
+	 * @param characteristic the {@link GATTCharacteristic}
+	 * @param data           the data to write
+	 */
+	public void writeCharacteristic(BLEDevice device, GATTService service, GATTCharacteristic characteristic, byte[] data) {
+		writeCharacteristic(CharacteristicHandle.of(device, service, characteristic), data);
+	}
+
+	/**
+	 * Write a binary value to a GATT characteristic.
+	 *
+	 * @param handle the {@link CharacteristicHandle}
+	 * @param data   the data to write
+	 * @see #writeCharacteristic(BLEDevice, GATTService, GATTCharacteristic, byte[])
+	 */
+	public void writeCharacteristic(CharacteristicHandle handle, byte[] data) {
+		writeCharacteristic(handle, data, 0, data.length);
+	}
+
+	/**
+	 * Write a binary value to a GATT characteristic. The remaining bytes of the buffer are written, and its position is
+	 * left unchanged.
+	 *
+	 * @param device         the {@link BLEDevice} to write to
+	 * @param service        the {@link GATTService}
+	 * @param characteristic the {@link GATTCharacteristic}
+	 * @param data           the data to write
+	 * @see #writeCharacteristic(BLEDevice, GATTService, GATTCharacteristic, byte[])
+	 */
+	public void writeCharacteristic(BLEDevice device, GATTService service, GATTCharacteristic characteristic, ByteBuffer data) {
+		writeCharacteristic(CharacteristicHandle.of(device, service, characteristic), data);
+	}
+
+	/**
+	 * Write a binary value to a GATT characteristic.
+	 *
+	 * @param handle the {@link CharacteristicHandle}
+	 * @param data   the data to write
+	 * @see #writeCharacteristic(BLEDevice, GATTService, GATTCharacteristic, ByteBuffer)
+	 */
+	public void writeCharacteristic(CharacteristicHandle handle, ByteBuffer data) {
+		if (data.hasArray()) {
+			writeCharacteristic(handle, data.array(), data.arrayOffset() + data.position(), data.remaining());
+		} else {
+			byte[] copy = new byte[data.remaining()];
+			data.duplicate().get(copy);
+			writeCharacteristic(handle, copy, 0, copy.length);
+		}
+	}
+
+	/**
+	 * Write a large binary value to a GATT characteristic as a sequence of smaller writes, sent back-to-back in order.
+	 * Useful for bulk transfers such as firmware images, where each write must fit within the MTU of the connection.
+	 *
+	 * @param device         the {@link BLEDevice} to write to
+	 * @param service        the {@link GATTService}
+	 * @param characteristic the {@link GATTCharacteristic}
+	 * @param data           the data to write
+	 * @param chunkSize      the maximum size of each write in bytes, typically the MTU minus 3
+	 */
+	public void writeCharacteristicChunked(BLEDevice device, GATTService service, GATTCharacteristic characteristic, byte[] data, int chunkSize) {
+		writeCharacteristicChunked(CharacteristicHandle.of(device, service, characteristic), data, chunkSize);
+	}
+
+	/**
+	 * Write a large binary value to a GATT characteristic as a sequence of smaller writes, sent back-to-back in order.
+	 *
+	 * @param handle    the {@link CharacteristicHandle}
+	 * @param data      the data to write
+	 * @param chunkSize the maximum size of each write in bytes, typically the MTU minus 3
+	 * @see #writeCharacteristicChunked(BLEDevice, GATTService, GATTCharacteristic, byte[], int)
+	 */
+	public void writeCharacteristicChunked(CharacteristicHandle handle, byte[] data, int chunkSize) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+		}
+
+		for (int offset = 0; offset < data.length; offset += chunkSize) {
+			writeCharacteristic(handle, data, offset, Math.min(chunkSize, data.length - offset));
+		}
+	}
+
+	private void writeCharacteristic(CharacteristicHandle handle, byte[] data, int offset, int length) {
+		if (hasCapability(BackendCapability.BINARY_WRITES)) {
+			operationScheduler.call(handle.address(), Priority.HIGH,
+					() -> transport.postRequest(handle.endpoint(APIEndpoints.WRITE_GATT_CHARACTERISTIC_BINARY), data, offset, length));
+			readCoalescer.invalidate(handle);
+		} else {
+			int[] values = new int[length];
+			for (int i = 0; i < length; i++) {
+				values[i] = data[offset + i] & 0xFF;
+			}
+			writeCharacteristic(handle, values);
+		}
+	}
+
+	/**
+	 * Write a value to a GATT characteristic without blocking.
+	 *
+	 * @param device         the {@link BLEDevice} to write to
+	 * @param service        the {@link GATTService}
+	 * @param characteristic the {@link GATTCharacteristic}
+	 * @param data           the data to write
+	 * @return a future completing when the write has been acknowledged by the backend
+	 */
+	public CompletableFuture<Void> writeCharacteristicAsync(BLEDevice device, GATTService service, GATTCharacteristic characteristic, int[] data) {
+		return writeCharacteristicAsync(CharacteristicHandle.of(device, service, characteristic), data);
+	}
+
+	/**
+	 * Write a value to a GATT characteristic without blocking.
+	 *
+	 * @param handle the {@link CharacteristicHandle}
+	 * @param data   the data to write
+	 * @return a future completing when the write has been acknowledged by the backend
+	 * @see #writeCharacteristicAsync(BLEDevice, GATTService, GATTCharacteristic, int[])
+	 */
+	public CompletableFuture<Void> writeCharacteristicAsync(CharacteristicHandle handle, int[] data) {
+		JsonObject message = createWriteMessage(data);
+		return operationScheduler.callAsync(handle.address(), Priority.HIGH, () -> transport.postRequestAsync(handle.endpoint(APIEndpoints.WRITE_GATT_CHARACTERISTIC), message))
+				.thenApply(response -> {
+					readCoalescer.invalidate(handle);
+					return null;
+				});
+	}
+
+	/**
+	 * Create the message body for a characteristic write.
+	 *
+	 * @param data the data to write
+	 * @return the message
+	 */
+	private static JsonObject createWriteMessage(int[] data) {
+		JsonObject message = new JsonObject();
+		JsonArray dataArray = new JsonArray();
+		for (int i : data) {
+			dataArray.add(i);
+		}
+		message.add("message", dataArray);
+		return message;
+	}
+
+	/**
+	 * Execute a batch of reads and writes on a device. If the backend supports
+	 * {@link BackendCapability#BATCH_OPERATIONS}, the batch is sent as a single request. Otherwise, the operations are
+	 * sent concurrently as individual requests.
+	 * <p>
+	 * A failing operation does not fail the batch; its error is reported in the corresponding result instead.
+	 *
+	 * @param device     the {@link BLEDevice} to operate on
+	 * @param operations the {@link GATTOperation}s to execute
+	 * @return a list of {@link GATTOperationResult} objects, in the same order as the operations
+	 */
+	public List<GATTOperationResult> executeOperations(BLEDevice device, List<GATTOperation> operations) {
+		if (hasCapability(BackendCapability.BATCH_OPERATIONS)) {
+			JsonObject message = GATTOperation.toBatchMessage(operations);
+			List<GATTOperationResult> results = operationScheduler.call(device.address(), Priority.HIGH,
+					() -> transport.postRequest(APIEndpoints.BATCH_GATT_OPERATIONS.getEndpoint(device.address()), message, GATTOperationResult::parseResults));
+			invalidateWrites(device, operations);
+			return results;
+		}
+
+		return executeEachAsync(device, operations).join();
+	}
+
+	/**
+	 * Execute a batch of reads and writes on a device without blocking.
+	 *
+	 * @param device     the {@link BLEDevice} to operate on
+	 * @param operations the {@link GATTOperation}s to execute
+	 * @return a future completing with a list of {@link GATTOperationResult} objects, in the same order as the
+	 * operations
+	 * @see #executeOperations(BLEDevice, List)
+	 */
+	public CompletableFuture<List<GATTOperationResult>> executeOperationsAsync(BLEDevice device, List<GATTOperation> operations) {
+		return hasCapabilityAsync(BackendCapability.BATCH_OPERATIONS)
+				.thenCompose(batch -> batch ? executeBatchAsync(device, operations) : executeEachAsync(device, operations));
+	}
+
+	private CompletableFuture<List<GATTOperationResult>> executeBatchAsync(BLEDevice device, List<GATTOperation> operations) {
+		JsonObject message = GATTOperation.toBatchMessage(operations);
+		return operationScheduler.callAsync(device.address(), Priority.HIGH, () -> transport.postRequestAsync(APIEndpoints.BATCH_GATT_OPERATIONS.getEndpoint(device.address()), message))
+				.thenApply(response -> {
+					invalidateWrites(device, operations);
+					return GATTOperationResult.parseResults(response);
+				});
+	}
+
+	/**
+	 * Fan a batch out into individual operations, capturing per-operation errors, for backends without
+	 * {@link BackendCapability#BATCH_OPERATIONS}.
+	 */
+	private CompletableFuture<List<GATTOperationResult>> executeEachAsync(BLEDevice device, List<GATTOperation> operations) {
+		List<CompletableFuture<GATTOperationResult>> futures = new ArrayList<>(operations.size());
+		for (GATTOperation operation : operations) {
+			String serviceUUID = operation.service().uuid();
+			String characteristicUUID = operation.characteristic().uuid();
+			CompletableFuture<String> future = switch (operation.type()) {
+				case READ -> readCharacteristicAsync(device, operation.service(), operation.characteristic());
+				case WRITE -> writeCharacteristicAsync(device, operation.service(), operation.characteristic(), operation.data())
+						.thenApply(result -> null);
+			};
+			futures.add(future.handle((value, throwable) -> throwable == null
+					? new GATTOperationResult(serviceUUID, characteristicUUID, value, null)
+					: new GATTOperationResult(serviceUUID, characteristicUUID, null, String.valueOf(throwable.getCause() != null ? throwable.getCause() : throwable))));
+		}
+
+		return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+				.thenApply(v -> futures.stream().map(CompletableFuture::join).toList());
+	}
+
+	/**
+	 * Invalidate the values of every characteristic written by a batch.
+	 *
+	 * @param device     the {@link BLEDevice} the batch was executed on
+	 * @param operations the {@link GATTOperation}s of the batch
+	 */
+	private void invalidateWrites(BLEDevice device, List<GATTOperation> operations) {
+		for (GATTOperation operation : operations) {
+			if (operation.type() == GATTOperation.Type.WRITE) {
+				readCoalescer.invalidate(CharacteristicHandle.of(device, operation.service(), operation.characteristic()));
+			}
+		}
+	}
+
+	/**
+	 * Read several GATT characteristics of a service in one batch.
+	 *
+	 * @param device          the {@link BLEDevice} to read from
+	 * @param service         the {@link GATTService}
+	 * @param characteristics the {@link GATTCharacteristic}s to read
+	 * @return a list of {@link GATTOperationResult} objects, in the same order as the characteristics
+	 * @see #executeOperations(BLEDevice, List)
+	 */
+	public List<GATTOperationResult> readCharacteristics(BLEDevice device, GATTService service, List<GATTCharacteristic> characteristics) {
+		List<GATTOperation> operations = new ArrayList<>(characteristics.size());
+		for (GATTCharacteristic characteristic : characteristics) {
+			operations.add(GATTOperation.read(service, characteristic));
+		}
+
+		return executeOperations(device, operations);
+	}
+
+	/**
+	 * Write to several GATT characteristics of a service in one batch.
+	 *
+	 * @param device  the {@link BLEDevice} to write to
+	 * @param service the {@link GATTService}
+	 * @param writes  the data to write, keyed by {@link GATTCharacteristic}. Writes are sent in iteration order.
+	 * @return a list of {@link GATTOperationResult} objects, in the iteration order of the writes
+	 * @see #executeOperations(BLEDevice, List)
+	 */
+	public List<GATTOperationResult> writeCharacteristics(BLEDevice device, GATTService service, Map<GATTCharacteristic, int[]> writes) {
+		List<GATTOperation> operations = new ArrayList<>(writes.size());
+		for (Map.Entry<GATTCharacteristic, int[]> entry : writes.entrySet()) {
+			operations.add(GATTOperation.write(service, entry.getKey(), entry.getValue()));
+		}
+
+		return executeOperations(device, operations);
+	}
+
+	/**
+	 * Register a notify event for a GATT characteristic. This must be called before reading notifications or starting a
+	 * listener.
+	 *
+	 * @param device         the {@link BLEDevice} to register the notify event for
+	 * @param service        the {@link GATTService}
+	 * @param characteristic the {@link GATTCharacteristic}
+	 */
+	public void registerNotifyEvent(BLEDevice device, GATTService service, GATTCharacteristic characteristic) {
+		registerNotifyEvent(CharacteristicHandle.of(device, service, characteristic));
+	}
+
+	/**
+	 * Register a notify event for a GATT characteristic.
+	 *
+	 * @param handle the {@link CharacteristicHandle}
+	 * @see #registerNotifyEvent(BLEDevice, GATTService, GATTCharacteristic)
+	 */
+	public void registerNotifyEvent(CharacteristicHandle handle) {
+		operationScheduler.call(handle.address(), Priority.NORMAL,
+				() -> transport.postRequest(handle.endpoint(APIEndpoints.REGISTER_NOTIFY_EVENT), new JsonObject()));
+		notifyRegistrations.add(handle);
+	}
+
+	/**
+	 * Register a notify event for a GATT characteristic without blocking.
+	 *
+	 * @param device         the {@link BLEDevice} to register the notify event for
+	 * @param service        the {@link GATTService}
+	 * @param characteristic the {@link GATTCharacteristic}
+	 * @return a future completing when the notify event has been registered
+	 */
+	public CompletableFuture<Void> registerNotifyEventAsync(BLEDevice device, GATTService service, GATTCharacteristic characteristic) {
+		return registerNotifyEventAsync(CharacteristicHandle.of(device, service, characteristic));
+	}
+
+	/**
+	 * Register a notify event for a GATT characteristic without blocking.
+	 *
+	 * @param handle the {@link CharacteristicHandle}
+	 * @return a future completing when the notify event has been registered
+	 * @see #registerNotifyEventAsync(BLEDevice, GATTService, GATTCharacteristic)
+	 */
+	public CompletableFuture<Void> registerNotifyEventAsync(CharacteristicHandle handle) {
+		return notifyRegistrations.registerAsync(handle);
+	}
+
+	/**
+	 * Unregister a notify event for a GATT characteristic. This should be called when no longer listening for
+	 * notifications, so that resources can be freed up.
+	 *
+	 * @param device         the {@link BLEDevice} to unregister the notify event for
+	 * @param service        the {@link GATTService}
+	 * @param characteristic the {@link GATTCharacteristic}
+	 */
+	public void unregisterNotifyEvent(BLEDevice device, GATTService service, GATTCharacteristic characteristic) {
+		unregisterNotifyEvent(CharacteristicHandle.of(device, service, characteristic));
+	}
+
+	/**
+	 * Unregister a notify event for a GATT characteristic.
+	 *
+	 * @param handle the {@link CharacteristicHandle}
+	 * @see #unregisterNotifyEvent(BLEDevice, GATTService, GATTCharacteristic)
+	 */
+	public void unregisterNotifyEvent(CharacteristicHandle handle) {
+		notifyRegistrations.remove(handle);
+		operationScheduler.call(handle.address(), Priority.NORMAL,
+				() -> transport.postRequest(handle.endpoint(APIEndpoints.UNREGISTER_NOTIFY_EVENT), new JsonObject()));
+	}
 
-		launchOrionBLEServer(serverAddress, port);
+	/**
+	 * Unregister a notify event for a GATT characteristic without blocking.
+	 *
+	 * @param device         the {@link BLEDevice} to unregister the notify event for
+	 * @param service        the {@link GATTService}
+	 * @param characteristic the {@link GATTCharacteristic}
+	 * @return a future completing when the notify event has been unregistered
+	 */
+	public CompletableFuture<Void> unregisterNotifyEventAsync(BLEDevice device, GATTService service, GATTCharacteristic characteristic) {
+		return unregisterNotifyEventAsync(CharacteristicHandle.of(device, service, characteristic));
 	}
 
 	/**
-	 * Check if the current platform is Windows.
+	 * Unregister a notify event for a GATT characteristic without blocking.
 	 *
-	 * @return true if the platform is Windows, false otherwise
+	 * @param handle the {@link CharacteristicHandle}
+	 * @return a future completing when the notify event has been unregistered
+	 * @see #unregisterNotifyEventAsync(BLEDevice, GATTService, GATTCharacteristic)
 	 */
-	private static boolean isWindowsPlatform() {
-		return System.getProperty("os.name").toLowerCase().contains("windows");
+	public CompletableFuture<Void> unregisterNotifyEventAsync(CharacteristicHandle handle) {
+		notifyRegistrations.remove(handle);
+		return operationScheduler.callAsync(handle.address(), Priority.NORMAL, () -> transport.postRequestAsync(handle.endpoint(APIEndpoints.UNREGISTER_NOTIFY_EVENT), new JsonObject()))
+				.thenApply(response -> null);
 	}
 
 	/**
-	 * Wait for a connection to be established with the server. This should be called before any other API calls are
-	 * made.
+	 * Get all notifications for a GATT characteristic. This will return all notifications that have been received since
+	 * the last call to this method.
+	 * <p>
+	 * Please note, you must call {@link #registerNotifyEvent(BLEDevice, GATTService, GATTCharacteristic)} before
+	 * calling this method to receive anything.
 	 *
-	 * @param maxRetries the maximum number of retries to attempt, with a one-second delay between each
+	 * @param device         the {@link BLEDevice} to get notifications for
+	 * @param service        the {@link GATTService}
+	 * @param characteristic the {@link GATTCharacteristic}
+	 * @return a list of {@link GATTNotification} objects. Will be empty if no notifications are available.
 	 */
-	public void waitForConnection(int maxRetries) {
-		// Wait for a server to be available
-		while (maxRetries > 0) {
-			try {
-				restHandler.getRequest(APIEndpoints.ROOT.getEndpoint());
-				break;
-			} catch (RuntimeException e) {
-				maxRetries--;
-				try {
-					Thread.sleep(1000);
-				} catch (InterruptedException e1) {
-					Thread.currentThread().interrupt();
-				}
-			}
-		}
+	public List<GATTNotification> getNotifications(BLEDevice device, GATTService service, GATTCharacteristic characteristic) {
+		return getNotifications(CharacteristicHandle.of(device, service, characteristic));
+	}
 
-		if (maxRetries == 0) {
-			throw new RuntimeException("Failed to connect to the backend server!");
-		}
+	/**
+	 * Get all notifications for a GATT characteristic.
+	 *
+	 * @param handle the {@link CharacteristicHandle}
+	 * @return a list of {@link GATTNotification} objects. Will be empty if no notifications are available.
+	 * @see #getNotifications(BLEDevice, GATTService, GATTCharacteristic)
+	 */
+	public List<GATTNotification> getNotifications(CharacteristicHandle handle) {
+		return operationScheduler.call(handle.address(), Priority.NORMAL,
+				() -> transport.getRequest(handle.endpoint(APIEndpoints.GET_GATT_CHARACTERISTIC_NOTIFICATIONS), GATTNotification::parseNotifications));
 	}
 
 	/**
-	 * Launch the OrionBLE server. It is located in the root of the JAR as "OrionBLEServer.exe".
+	 * Get all notifications for a GATT characteristic without blocking.
 	 *
-	 * @param serverAddress the address of the server
-	 * @param port          the port of the server
+	 * @param device         the {@link BLEDevice} to get notifications for
+	 * @param service        the {@link GATTService}
+	 * @param characteristic the {@link GATTCharacteristic}
+	 * @return a future completing with a list of {@link GATTNotification} objects
+	 * @see #getNotifications(BLEDevice, GATTService, GATTCharacteristic)
 	 */
-	private void launchOrionBLEServer(String serverAddress, int port) {
-		// Check if a server is already running at this address
-		try {
-			restHandler.getRequest(APIEndpoints.ROOT.getEndpoint());
-		} catch (RuntimeException e) {
-			// Begin the extraction and launch process
-			try {
-				// Extract the server file from the JAR
-				String serverFileName = "OrionBLEServer.exe";
-				File tempFile = File.createTempFile("OrionBLEServer", ".exe");
-				tempFile.deleteOnExit();
-
-				try (InputStream is = getClass().getResourceAsStream("/" + serverFileName)) {
-					if (is == null) {
-						throw new IOException("Server file not found in JAR");
-					}
-					Files.copy(is, tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-				}
+	public CompletableFuture<List<GATTNotification>> getNotificationsAsync(BLEDevice device, GATTService service, GATTCharacteristic characteristic) {
+		return getNotificationsAsync(CharacteristicHandle.of(device, service, characteristic));
+	}
 
-				String urls = "--urls=%s:%s".formatted(serverAddress, String.valueOf(port));    // Listening URLs
-				String loggingLevel = "--Logging:LogLevel:Microsoft=Warning";   // Log level
-				ProcessBuilder processBuilder = new ProcessBuilder(tempFile.getAbsolutePath(), urls, loggingLevel);
-				processBuilder.inheritIO();
-				Process process = processBuilder.start();
-				orionBLEServer = process.toHandle();
-				Runtime.getRuntime().addShutdownHook(new Thread(() -> orionBLEServer.destroy()));
-			} catch (IOException e1) {
-				throw new RuntimeException("Failed to launch the backend server!", e1);
-			}
-		}
+	/**
+	 * Get all notifications for a GATT characteristic without blocking.
+	 *
+	 * @param handle the {@link CharacteristicHandle}
+	 * @return a future completing with a list of {@link GATTNotification} objects
+	 * @see #getNotificationsAsync(BLEDevice, GATTService, GATTCharacteristic)
+	 */
+	public CompletableFuture<List<GATTNotification>> getNotificationsAsync(CharacteristicHandle handle) {
+		return operationScheduler.callAsync(handle.address(), Priority.NORMAL, () -> transport.getRequestAsync(handle.endpoint(APIEndpoints.GET_GATT_CHARACTERISTIC_NOTIFICATIONS)))
+				.thenApply(GATTNotification::parseNotifications);
 	}
 
-	public boolean isDeviceConnected(String address) {
-		String response = restHandler.getRequest(APIEndpoints.CHECK_DEVICE_CONNECTION.getEndpoint(address));
-		return BLEDevice.checkDeviceConnection(response);
+	/**
+	 * Poll the notifications of a listener. The request is sent on a polling thread, but a poll that has to wait for
+	 * the device does not hold one meanwhile.
+	 *
+	 * @param handle the {@link CharacteristicHandle}
+	 * @return a future completing with the notifications
+	 */
+	private CompletableFuture<List<GATTNotification>> pollNotifications(CharacteristicHandle handle) {
+		String endpoint = handle.endpoint(APIEndpoints.GET_GATT_CHARACTERISTIC_NOTIFICATIONS);
+		return operationScheduler.callAsync(handle.address(), Priority.LOW,
+				() -> CompletableFuture.completedFuture(transport.getRequest(endpoint, GATTNotification::parseNotifications)), notificationPoller.getExecutor());
 	}
 
 	/**
-	 * Discover all nearby BLE devices.
+	 * Get the pending notifications of every characteristic of a device that has been registered with
+	 * {@link #registerNotifyEvent(BLEDevice, GATTService, GATTCharacteristic)}.
+	 * <p>
+	 * If the backend supports {@link BackendCapability#NOTIFICATION_DRAIN}, they are fetched in a single request.
+	 * Otherwise, the notifications of each registered characteristic are requested separately.
 	 *
-	 * @return a list of {@link BLEDevice} objects
+	 * @param device the {@link BLEDevice} to get notifications for
+	 * @return the notifications of each characteristic that had any, in the order they were received
+	 * @see NotificationDrain
 	 */
-	public List<BLEDevice> discoverDevices() {
-		String response = restHandler.getRequest(APIEndpoints.DISCOVER_DEVICES.getEndpoint());
-		return BLEDevice.parseDevices(response);
+	public Map<CharacteristicHandle, List<GATTNotification>> drainNotifications(BLEDevice device) {
+		return drainNotifications(createNotificationDrain(device.address()));
 	}
 
 	/**
-	 * Discover nearby BLE devices based on a filter.
+	 * Get the pending notifications of every characteristic, on every device, that has been registered with
+	 * {@link #registerNotifyEvent(BLEDevice, GATTService, GATTCharacteristic)}.
 	 *
-	 * @param filter the {@link DeviceFilter} to use
-	 * @return a list of {@link BLEDevice} objects
+	 * @return the notifications of each characteristic that had any, in the order they were received
+	 * @see #drainNotifications(BLEDevice)
 	 */
-	public List<BLEDevice> discoverDevices(DeviceFilter filter) {
-		String response = restHandler.getRequest(APIEndpoints.DISCOVER_DEVICES.getEndpoint(), filter.toUriParams());
-		return BLEDevice.parseDevices(response);
+	public Map<CharacteristicHandle, List<GATTNotification>> drainNotifications() {
+		return drainNotifications(createNotificationDrain(null));
+	}
+
+	private Map<CharacteristicHandle, List<GATTNotification>> drainNotifications(NotificationDrain drain) {
+		Map<CharacteristicHandle, List<GATTNotification>> notifications = new LinkedHashMap<>();
+		for (CharacteristicHandle handle : notifyRegistrations) {
+			if (drain.covers(handle)) {
+				drain.subscribe(handle, notification -> notifications.computeIfAbsent(handle, h -> new ArrayList<>()).add(notification));
+			}
+		}
+
+		drain.poll(Priority.NORMAL);
+		return notifications;
 	}
 
 	/**
-	 * Discover GATT services for a given device.
+	 * Start polling the notifications of several characteristics of a device together. Characteristics are added with
+	 * {@link NotificationDrain#subscribe(CharacteristicHandle, Consumer)}, and each must have been registered with
+	 * {@link #registerNotifyEvent(BLEDevice, GATTService, GATTCharacteristic)}.
+	 * <p>
+	 * If the backend supports {@link BackendCapability#NOTIFICATION_DRAIN}, every subscription is served by a single
+	 * request per poll. Otherwise, each subscription is requested separately within the same poll. The interval adapts
+	 * like that of {@link #startNotificationListener(BLEDevice, GATTService, GATTCharacteristic, Consumer, long)}.
 	 *
-	 * @param device the {@link BLEDevice} to discover services for
-	 * @return a list of {@link GATTService} objects
+	 * @param device   the {@link BLEDevice} to drain notifications from
+	 * @param interval the interval in milliseconds to check for notifications
+	 * @return the {@link NotificationDrain}
 	 */
-	public List<GATTService> discoverServices(BLEDevice device) {
-		String response = restHandler.getRequest(APIEndpoints.DISCOVER_GATT_SERVICES.getEndpoint(device.address()));
-		return GATTService.parseServices(response);
+	public NotificationDrain startNotificationDrain(BLEDevice device, long interval) {
+		NotificationDrain drain = createNotificationDrain(device.address());
+		drain.start(notificationPoller, interval);
+		return drain;
 	}
 
 	/**
-	 * Discover GATT characteristics for a given device and service.
+	 * Start polling the notifications of several characteristics, on any device, together. With several backends, each
+	 * poll is sent to all of them.
 	 *
-	 * @param device  the {@link BLEDevice} to discover characteristics for
-	 * @param service the {@link GATTService}
-	 * @return a list of {@link GATTCharacteristic} objects
+	 * @param interval the interval in milliseconds to check for notifications
+	 * @return the {@link NotificationDrain}
+	 * @see #startNotificationDrain(BLEDevice, long)
 	 */
-	public List<GATTCharacteristic> discoverCharacteristics(BLEDevice device, GATTService service) {
-		String response = restHandler.getRequest(APIEndpoints.DISCOVER_GATT_CHARACTERISTICS.getEndpoint(device.address(), service.uuid()));
-		return GATTCharacteristic.parseCharacteristics(response);
+	public NotificationDrain startNotificationDrain(long interval) {
+		NotificationDrain drain = createNotificationDrain(null);
+		drain.start(notificationPoller, interval);
+		return drain;
+	}
+
+	private NotificationDrain createNotificationDrain(@Nullable String address) {
+		return new NotificationDrain(transport, operationScheduler, notificationPoller.getExecutor(), () -> hasCapability(BackendCapability.NOTIFICATION_DRAIN), address);
 	}
 
 	/**
-	 * Read a value from a GATT characteristic.
+	 * Start a listener for notifications on a GATT characteristic. This will call the provided consumer with any
+	 * notifications received at the specified interval.
+	 * <p>
+	 * If the backend supports {@link BackendCapability#NOTIFICATION_STREAM}, notifications are instead pushed to the
+	 * consumer as soon as they arrive, and the interval is only used if the stream fails and polling takes over.
+	 * <p>
+	 * Listeners share a small pool of threads, so the consumer should return quickly. When polling, the interval adapts
+	 * to the arrival rate of notifications, between a quarter of and four times the requested interval.
 	 *
-	 * @param device         the {@link BLEDevice} to read from
+	 * @param device         the {@link BLEDevice} to listen for notifications on
 	 * @param service        the {@link GATTService}
 	 * @param characteristic the {@link GATTCharacteristic}
-	 * @return the value of the characteristic
+	 * @param consumer       the consumer to call with notifications
+	 * @param interval       the interval in milliseconds to check for notifications
 	 */
-	public String readCharacteristic(BLEDevice device, GATTService service, GATTCharacteristic characteristic) {
-		return restHandler.getRequest(APIEndpoints.READ_GATT_CHARACTERISTIC.getEndpoint(device.address(), service.uuid(), characteristic.uuid()));
+	public void startNotificationListener(BLEDevice device, GATTService service, GATTCharacteristic characteristic, Consumer<GATTNotification> consumer, long interval) {
+		startNotificationListener(CharacteristicHandle.of(device, service, characteristic), consumer, interval);
 	}
 
 	/**
-	 * Write a value to a GATT characteristic.
+	 * Start a listener for notifications on a GATT characteristic.
 	 *
-	 * @param device         the {@link BLEDevice} to write to
+	 * @param handle   the {@link CharacteristicHandle}
+	 * @param consumer the consumer to call with notifications
+	 * @param interval the interval in milliseconds to check for notifications
+	 * @see #startNotificationListener(BLEDevice, GATTService, GATTCharacteristic, Consumer, long)
+	 */
+	public void startNotificationListener(CharacteristicHandle handle, Consumer<GATTNotification> consumer, long interval) {
+		Supplier<ListenerHandle> polling = () -> notificationPoller.subscribe(handle.address(), handle.serviceUUID(), handle.characteristicUUID(), () -> pollNotifications(handle), consumer, interval);
+
+		ListenerHandle listener;
+		if (hasCapability(BackendCapability.NOTIFICATION_STREAM)) {
+			String endpoint = handle.endpoint(APIEndpoints.STREAM_GATT_CHARACTERISTIC_NOTIFICATIONS);
+			Consumer<GATTNotification> measured = notification -> {
+				metricsListener.onNotificationStreamed(handle.address(), handle.serviceUUID(), handle.characteristicUUID());
+				consumer.accept(notification);
+			};
+			listener = new NotificationStream(transport, endpoint, measured, polling);
+		} else {
+			listener = polling.get();
+		}
+
+		ListenerHandle previous = notificationThreads.put(handle, listener);
+		if (previous != null) {
+			previous.cancel();
+		}
+	}
+
+	/**
+	 * Start a listener for binary notifications on a GATT characteristic. This will call the provided consumer with any
+	 * notifications received at the specified interval, like
+	 * {@link #startNotificationListener(BLEDevice, GATTService, GATTCharacteristic, Consumer, long)}.
+	 * <p>
+	 * The consumer receives the same reusable {@link BinaryNotification} for every notification, and must copy the value
+	 * if it needs to keep it. Values are transferred as raw bytes and delivered without allocating per notification,
+	 * which requires a backend that supports {@link BackendCapability#BINARY_NOTIFICATIONS}. The text values of other
+	 * backends are formatted by the backend, so use
+	 * {@link #startNotificationListener(BLEDevice, GATTService, GATTCharacteristic, Consumer, long)} with them instead.
+	 * <p>
+	 * If the consumer throws, the exception is reported to the uncaught exception handler of the polling thread, and the
+	 * remaining notifications are still delivered.
+	 * <p>
+	 * The listener is stopped, paused and resumed with the same methods as text listeners.
+	 *
+	 * @param device         the {@link BLEDevice} to listen for notifications on
 	 * @param service        the {@link GATTService}
 	 * @param characteristic the {@link GATTCharacteristic}
-	 * @param data           the data to write
+	 * @param consumer       the consumer to call with notifications
+	 * @param interval       the interval in milliseconds to check for notifications
+	 * @throws UnsupportedOperationException if the backend does not support {@link BackendCapability#BINARY_NOTIFICATIONS}
 	 */
-	public void writeCharacteristic(BLEDevice device, GATTService service, GATTCharacteristic characteristic, int[] data) {
-		JsonObject message = new JsonObject();
-		JsonArray dataArray = new JsonArray();
-		for (int i : data) {
-			dataArray.add(i);
+	public void startBinaryNotificationListener(BLEDevice device, GATTService service, GATTCharacteristic characteristic, Consumer<BinaryNotification> consumer, long interval) {
+		startBinaryNotificationListener(CharacteristicHandle.of(device, service, characteristic), consumer, interval);
+	}
+
+	/**
+	 * Start a listener for binary notifications on a GATT characteristic.
+	 *
+	 * @param handle   the {@link CharacteristicHandle}
+	 * @param consumer the consumer to call with notifications
+	 * @param interval the interval in milliseconds to check for notifications
+	 * @throws UnsupportedOperationException if the backend does not support {@link BackendCapability#BINARY_NOTIFICATIONS}
+	 * @see #startBinaryNotificationListener(BLEDevice, GATTService, GATTCharacteristic, Consumer, long)
+	 */
+	public void startBinaryNotificationListener(CharacteristicHandle handle, Consumer<BinaryNotification> consumer, long interval) {
+		// Text notifications are formatted by the backend, and their bytes are not the bytes of the characteristic
+		if (!hasCapability(BackendCapability.BINARY_NOTIFICATIONS)) {
+			throw new UnsupportedOperationException("The backend does not support binary notifications");
+		}
+
+		BinaryNotificationSource source = new BinaryNotificationSource(
+				transport,
+				operationScheduler,
+				notificationPoller.getExecutor(),
+				handle.address(),
+				handle.endpoint(APIEndpoints.BINARY_GATT_CHARACTERISTIC_NOTIFICATIONS),
+				handle.serviceUUID(),
+				handle.characteristicUUID(),
+				consumer
+		);
+
+		ListenerHandle previous = notificationThreads.put(handle, notificationPoller.subscribe(handle.address(), handle.serviceUUID(), handle.characteristicUUID(), source, interval));
+		if (previous != null) {
+			previous.cancel();
 		}
-		message.add("message", dataArray);
-		restHandler.postRequest(APIEndpoints.WRITE_GATT_CHARACTERISTIC.getEndpoint(device.address(), service.uuid(), characteristic.uuid()), message);
 	}
 
 	/**
-	 * Register a notify event for a GATT characteristic. This must be called before reading notifications or starting a
-	 * listener.
+	 * Start a listener that decodes each notification on a GATT characteristic with the codec registered for it, see
+	 * {@link #getCodecRegistry()}. This is a {@link #startBinaryNotificationListener(BLEDevice, GATTService,
+	 * GATTCharacteristic, Consumer, long) binary listener}, so decoding does not allocate per notification.
+	 * <p>
+	 * A notification the codec cannot decode is reported to the uncaught exception handler of the polling thread, and
+	 * does not stop the listener.
+	 * <p>
+	 * On a backend without binary notifications, a characteristic with a numeric text value can still be consumed as
+	 * numbers by passing {@link GATTNotification#parsingValues(DoubleConsumer)} to
+	 * {@link #startNotificationListener(BLEDevice, GATTService, GATTCharacteristic, Consumer, long)}.
 	 *
-	 * @param device         the {@link BLEDevice} to register the notify event for
+	 * @param device         the {@link BLEDevice} to listen for notifications on
 	 * @param service        the {@link GATTService}
 	 * @param characteristic the {@link GATTCharacteristic}
+	 * @param consumer       the consumer to call with decoded values
+	 * @param interval       the interval in milliseconds to check for notifications
+	 * @throws IllegalArgumentException      if no codec is registered for the characteristic
+	 * @throws UnsupportedOperationException if the backend does not support {@link BackendCapability#BINARY_NOTIFICATIONS}
 	 */
-	public void registerNotifyEvent(BLEDevice device, GATTService service, GATTCharacteristic characteristic) {
-		restHandler.postRequest(APIEndpoints.REGISTER_NOTIFY_EVENT.getEndpoint(device.address(), service.uuid(), characteristic.uuid()), new JsonObject());
+	public void startValueListener(BLEDevice device, GATTService service, GATTCharacteristic characteristic, DoubleConsumer consumer, long interval) {
+		startValueListener(CharacteristicHandle.of(device, service, characteristic), consumer, interval);
 	}
 
 	/**
-	 * Unregister a notify event for a GATT characteristic. This should be called when no longer listening for
-	 * notifications, so that resources can be freed up.
+	 * Start a listener that decodes each notification on a GATT characteristic with the codec registered for it, see
+	 * {@link #getCodecRegistry()}.
 	 *
-	 * @param device         the {@link BLEDevice} to unregister the notify event for
+	 * @param handle   the {@link CharacteristicHandle}
+	 * @param consumer the consumer to call with decoded values
+	 * @param interval the interval in milliseconds to check for notifications
+	 * @throws IllegalArgumentException      if no codec is registered for the characteristic
+	 * @throws UnsupportedOperationException if the backend does not support {@link BackendCapability#BINARY_NOTIFICATIONS}
+	 * @see #startValueListener(BLEDevice, GATTService, GATTCharacteristic, DoubleConsumer, long)
+	 */
+	public void startValueListener(CharacteristicHandle handle, DoubleConsumer consumer, long interval) {
+		startValueListener(handle, codecRegistry.require(handle.characteristic()), consumer, interval);
+	}
+
+	/**
+	 * Start a listener that decodes each notification on a GATT characteristic with a codec.
+	 *
+	 * @param device         the {@link BLEDevice} to listen for notifications on
 	 * @param service        the {@link GATTService}
 	 * @param characteristic the {@link GATTCharacteristic}
+	 * @param codec          the {@link NumericCodec}
+	 * @param consumer       the consumer to call with decoded values
+	 * @param interval       the interval in milliseconds to check for notifications
+	 * @throws UnsupportedOperationException if the backend does not support {@link BackendCapability#BINARY_NOTIFICATIONS}
+	 * @see #startValueListener(BLEDevice, GATTService, GATTCharacteristic, DoubleConsumer, long)
 	 */
-	public void unregisterNotifyEvent(BLEDevice device, GATTService service, GATTCharacteristic characteristic) {
-		restHandler.postRequest(APIEndpoints.UNREGISTER_NOTIFY_EVENT.getEndpoint(device.address(), service.uuid(), characteristic.uuid()), new JsonObject());
+	public void startValueListener(BLEDevice device, GATTService service, GATTCharacteristic characteristic, NumericCodec codec, DoubleConsumer consumer, long interval) {
+		startValueListener(CharacteristicHandle.of(device, service, characteristic), codec, consumer, interval);
 	}
 
 	/**
-	 * Get all notifications for a GATT characteristic. This will return all notifications that have been received since
-	 * the last call to this method.
-	 * <p>
-	 * Please note, you must call {@link #registerNotifyEvent(BLEDevice, GATTService, GATTCharacteristic)} before
-	 * calling this method to receive anything.
+	 * Start a listener that decodes each notification on a GATT characteristic with a codec.
 	 *
-	 * @param device         the {@link BLEDevice} to get notifications for
+	 * @param handle   the {@link CharacteristicHandle}
+	 * @param codec    the {@link NumericCodec}
+	 * @param consumer the consumer to call with decoded values
+	 * @param interval the interval in milliseconds to check for notifications
+	 * @throws UnsupportedOperationException if the backend does not support {@link BackendCapability#BINARY_NOTIFICATIONS}
+	 * @see #startValueListener(BLEDevice, GATTService, GATTCharacteristic, NumericCodec, DoubleConsumer, long)
+	 */
+	public void startValueListener(CharacteristicHandle handle, NumericCodec codec, DoubleConsumer consumer, long interval) {
+		startBinaryNotificationListener(handle, notification -> consumer.accept(codec.decode(notification.value())), interval);
+	}
+
+	/**
+	 * Create a {@link Flow.Publisher} of the notifications on a GATT characteristic. Notifications are delivered on the
+	 * common {@link ForkJoinPool}.
+	 *
+	 * @param device         the {@link BLEDevice} to listen for notifications on
 	 * @param service        the {@link GATTService}
 	 * @param characteristic the {@link GATTCharacteristic}
-	 * @return a list of {@link GATTNotification} objects. Will be empty if no notifications are available.
+	 * @param interval       the interval in milliseconds to check for notifications
+	 * @param bufferSize     the number of notifications buffered for each subscriber
+	 * @param policy         the {@link OverflowPolicy} applied when a subscriber's buffer is full
+	 * @return the {@link NotificationPublisher}
+	 * @see #createNotificationPublisher(BLEDevice, GATTService, GATTCharacteristic, long, int, OverflowPolicy, Executor)
 	 */
-	public List<GATTNotification> getNotifications(BLEDevice device, GATTService service, GATTCharacteristic characteristic) {
-		String response = restHandler.getRequest(APIEndpoints.GET_GATT_CHARACTERISTIC_NOTIFICATIONS.getEndpoint(device.address(), service.uuid(), characteristic.uuid()));
-		return GATTNotification.parseNotifications(response);
+	public NotificationPublisher createNotificationPublisher(BLEDevice device, GATTService service, GATTCharacteristic characteristic, long interval, int bufferSize, OverflowPolicy policy) {
+		return createNotificationPublisher(CharacteristicHandle.of(device, service, characteristic), interval, bufferSize, policy);
 	}
 
 	/**
-	 * Start a listener for notifications on a GATT characteristic. This will call the provided consumer with any
-	 * notifications received at the specified interval.
+	 * Create a {@link Flow.Publisher} of the notifications on a GATT characteristic.
+	 *
+	 * @param handle     the {@link CharacteristicHandle}
+	 * @param interval   the interval in milliseconds to check for notifications
+	 * @param bufferSize the number of notifications buffered for each subscriber
+	 * @param policy     the {@link OverflowPolicy} applied when a subscriber's buffer is full
+	 * @return the {@link NotificationPublisher}
+	 * @see #createNotificationPublisher(BLEDevice, GATTService, GATTCharacteristic, long, int, OverflowPolicy)
+	 */
+	public NotificationPublisher createNotificationPublisher(CharacteristicHandle handle, long interval, int bufferSize, OverflowPolicy policy) {
+		return createNotificationPublisher(handle, interval, bufferSize, policy, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Create a {@link Flow.Publisher} of the notifications on a GATT characteristic. Unlike
+	 * {@link #startNotificationListener(BLEDevice, GATTService, GATTCharacteristic, Consumer, long)}, subscribers are
+	 * never called on the polling threads and receive notifications only as they request them, through a bounded
+	 * buffer per subscriber. Polling starts with the first subscriber and backs off while subscribers fall behind.
+	 * <p>
+	 * The publisher replaces any other listener on the characteristic, and is controlled like one via
+	 * {@link #pauseNotificationListener(BLEDevice, GATTService, GATTCharacteristic)} and its counterparts. Stopping it
+	 * completes every subscriber.
 	 *
 	 * @param device         the {@link BLEDevice} to listen for notifications on
 	 * @param service        the {@link GATTService}
 	 * @param characteristic the {@link GATTCharacteristic}
-	 * @param consumer       the consumer to call with notifications
 	 * @param interval       the interval in milliseconds to check for notifications
+	 * @param bufferSize     the number of notifications buffered for each subscriber
+	 * @param policy         the {@link OverflowPolicy} applied when a subscriber's buffer is full
+	 * @param executor       the executor that delivers notifications to subscribers
+	 * @return the {@link NotificationPublisher}
 	 */
-	@SuppressWarnings("BusyWait")
-	public void startNotificationListener(BLEDevice device, GATTService service, GATTCharacteristic characteristic, Consumer<GATTNotification> consumer, long interval) {
-		String key = device.address() + service.uuid() + characteristic.uuid();
-		Thread thread = new Thread(() -> {
-			while (!Thread.currentThread().isInterrupted()) {
-				try {
-					if (pausedThreads.getOrDefault(key, false)) {
-						Thread.sleep(100);
-						continue;
-					}
-
-					List<GATTNotification> notifications = getNotifications(device, service, characteristic);
-					if (!notifications.isEmpty()) {
-						notifications.forEach(consumer);
-					}
-					Thread.sleep(interval);
-				} catch (InterruptedException e) {
-					Thread.currentThread().interrupt();
-				}
-			}
-		});
-		thread.start();
-		notificationThreads.put(key, thread);
+	public NotificationPublisher createNotificationPublisher(BLEDevice device, GATTService service, GATTCharacteristic characteristic, long interval, int bufferSize, OverflowPolicy policy, Executor executor) {
+		return createNotificationPublisher(CharacteristicHandle.of(device, service, characteristic), interval, bufferSize, policy, executor);
+	}
+
+	/**
+	 * Create a {@link Flow.Publisher} of the notifications on a GATT characteristic.
+	 *
+	 * @param handle     the {@link CharacteristicHandle}
+	 * @param interval   the interval in milliseconds to check for notifications
+	 * @param bufferSize the number of notifications buffered for each subscriber
+	 * @param policy     the {@link OverflowPolicy} applied when a subscriber's buffer is full
+	 * @param executor   the executor that delivers notifications to subscribers
+	 * @return the {@link NotificationPublisher}
+	 * @see #createNotificationPublisher(BLEDevice, GATTService, GATTCharacteristic, long, int, OverflowPolicy, Executor)
+	 */
+	public NotificationPublisher createNotificationPublisher(CharacteristicHandle handle, long interval, int bufferSize, OverflowPolicy policy, Executor executor) {
+		NotificationPublisher publisher = new NotificationPublisher(
+				notificationPoller,
+				handle.address(),
+				handle.serviceUUID(),
+				handle.characteristicUUID(),
+				() -> pollNotifications(handle),
+				interval,
+				bufferSize,
+				policy,
+				executor
+		);
+
+		ListenerHandle previous = notificationThreads.put(handle, publisher);
+		if (previous != null) {
+			previous.cancel();
+		}
+
+		return publisher;
 	}
 
 	/**
@@ -286,13 +1675,20 @@ public class OrionBLE {
 	 * @param characteristic the {@link GATTCharacteristic}
 	 */
 	public void stopNotificationListener(BLEDevice device, GATTService service, GATTCharacteristic characteristic) {
-		String key = device.address() + service.uuid() + characteristic.uuid();
-		Thread thread = notificationThreads.remove(key);
-		if (thread != null) {
-			thread.interrupt();
-		}
+		stopNotificationListener(CharacteristicHandle.of(device, service, characteristic));
+	}
 
-		pausedThreads.remove(key);
+	/**
+	 * Stop a listener for notifications on a GATT characteristic.
+	 *
+	 * @param handle the {@link CharacteristicHandle}
+	 * @see #stopNotificationListener(BLEDevice, GATTService, GATTCharacteristic)
+	 */
+	public void stopNotificationListener(CharacteristicHandle handle) {
+		ListenerHandle listener = notificationThreads.remove(handle);
+		if (listener != null) {
+			listener.cancel();
+		}
 	}
 
 	/**
@@ -304,8 +1700,20 @@ public class OrionBLE {
 	 * @param characteristic the {@link GATTCharacteristic}
 	 */
 	public void pauseNotificationListener(BLEDevice device, GATTService service, GATTCharacteristic characteristic) {
-		String key = device.address() + service.uuid() + characteristic.uuid();
-		pausedThreads.put(key, true);
+		pauseNotificationListener(CharacteristicHandle.of(device, service, characteristic));
+	}
+
+	/**
+	 * Pause a listener for notifications on a GATT characteristic.
+	 *
+	 * @param handle the {@link CharacteristicHandle}
+	 * @see #pauseNotificationListener(BLEDevice, GATTService, GATTCharacteristic)
+	 */
+	public void pauseNotificationListener(CharacteristicHandle handle) {
+		ListenerHandle listener = notificationThreads.get(handle);
+		if (listener != null) {
+			listener.pause();
+		}
 	}
 
 	/**
@@ -316,7 +1724,248 @@ public class OrionBLE {
 	 * @param characteristic the {@link GATTCharacteristic}
 	 */
 	public void resumeNotificationListener(BLEDevice device, GATTService service, GATTCharacteristic characteristic) {
-		String key = device.address() + service.uuid() + characteristic.uuid();
-		pausedThreads.put(key, false);
+		resumeNotificationListener(CharacteristicHandle.of(device, service, characteristic));
+	}
+
+	/**
+	 * Resume a listener for notifications on a GATT characteristic.
+	 *
+	 * @param handle the {@link CharacteristicHandle}
+	 * @see #resumeNotificationListener(BLEDevice, GATTService, GATTCharacteristic)
+	 */
+	public void resumeNotificationListener(CharacteristicHandle handle) {
+		ListenerHandle listener = notificationThreads.get(handle);
+		if (listener != null) {
+			listener.resume();
+		}
+	}
+
+	/**
+	 * A builder for {@link OrionBLE} instances, exposing control over the transport and startup behaviour.
+	 * <p>
+	 * How long idle HTTP connections are kept open for reuse is not a builder setting, since the JDK only reads it from
+	 * the process-wide {@code jdk.httpclient.keepalive.timeout} system property, before the first {@link HttpClient} is
+	 * created.
+	 */
+	public static class Builder {
+		private static final Duration DEFAULT_INITIAL_PROBE_DELAY = Duration.ofMillis(5);
+		private static final Duration DEFAULT_MAX_PROBE_DELAY = Duration.ofMillis(500);
+		private static final int DEFAULT_MAX_OPERATIONS_IN_FLIGHT = 1;
+		private static final Duration BACKEND_RETRY_AFTER = Duration.ofSeconds(5);
+		private static final Duration DEFAULT_HEALTH_CHECK_INTERVAL = Duration.ofSeconds(5);
+
+		private String serverAddress = "http://localhost";
+		private int port = 5249;
+		private HttpClient.Version httpVersion = HttpClient.Version.HTTP_1_1;
+		private @Nullable Duration connectTimeout;
+		private @Nullable Duration requestTimeout;
+		private @Nullable Executor executor;
+		private @Nullable Path socketPath;
+		private Duration initialProbeDelay = DEFAULT_INITIAL_PROBE_DELAY;
+		private Duration maxProbeDelay = DEFAULT_MAX_PROBE_DELAY;
+		private int maxOperationsInFlight = DEFAULT_MAX_OPERATIONS_IN_FLIGHT;
+		private final List<Backend> backends = new ArrayList<>();
+		private @Nullable ServerLauncher launcher;
+		private Duration healthCheckInterval = DEFAULT_HEALTH_CHECK_INTERVAL;
+
+		/**
+		 * Create a new {@link OrionBLE} builder. By default, the server is expected at http://localhost:5249.
+		 */
+		public Builder() {
+		}
+
+		/**
+		 * Set the address of the server.
+		 *
+		 * @param serverAddress the address of the server
+		 * @return the builder
+		 */
+		public Builder serverAddress(String serverAddress) {
+			this.serverAddress = serverAddress;
+			return this;
+		}
+
+		/**
+		 * Set the port of the server.
+		 *
+		 * @param port the port of the server
+		 * @return the builder
+		 */
+		public Builder port(int port) {
+			this.port = port;
+			return this;
+		}
+
+		/**
+		 * Set the HTTP version. Defaults to HTTP/1.1, since the backend is plain HTTP and HTTP/2 would only add an
+		 * upgrade attempt to each new connection.
+		 *
+		 * @param httpVersion the {@link HttpClient.Version}
+		 * @return the builder
+		 */
+		public Builder httpVersion(HttpClient.Version httpVersion) {
+			this.httpVersion = httpVersion;
+			return this;
+		}
+
+		/**
+		 * Set the maximum time to wait for a connection to the server. Waits indefinitely by default.
+		 *
+		 * @param connectTimeout the connect timeout
+		 * @return the builder
+		 */
+		public Builder connectTimeout(Duration connectTimeout) {
+			this.connectTimeout = connectTimeout;
+			return this;
+		}
+
+		/**
+		 * Set the maximum time to wait for the response to each request. Waits indefinitely by default. Notification
+		 * streams are exempt.
+		 *
+		 * @param requestTimeout the request timeout
+		 * @return the builder
+		 */
+		public Builder requestTimeout(Duration requestTimeout) {
+			this.requestTimeout = requestTimeout;
+			return this;
+		}
+
+		/**
+		 * Set the executor for asynchronous requests. Completions of the asynchronous API run on this executor.
+		 *
+		 * @param executor the executor
+		 * @return the builder
+		 */
+		public Builder executor(Executor executor) {
+			this.executor = executor;
+			return this;
+		}
+
+		/**
+		 * Talk to the backend over a Unix domain socket instead of HTTP, using {@link UnixSocketTransport}. This avoids
+		 * the TCP stack and HTTP parsing on every request, which matters for high-rate polling of a co-located backend.
+		 * <p>
+		 * The HTTP settings of this builder, such as the request timeout, do not apply to the socket transport. The
+		 * executor is still used for asynchronous requests.
+		 *
+		 * @param socketPath the path of the socket the backend listens on
+		 * @return the builder
+		 */
+		public Builder unixDomainSocket(Path socketPath) {
+			this.socketPath = socketPath;
+			return this;
+		}
+
+		/**
+		 * Set the backoff used while waiting for a launched server to respond, see {@link OrionBLE#whenReady()}. The
+		 * delay between probes starts at the initial delay and doubles after each failed probe, up to the maximum delay.
+		 *
+		 * @param initialDelay the delay after the first failed probe
+		 * @param maxDelay     the maximum delay between probes
+		 * @return the builder
+		 */
+		public Builder readinessBackoff(Duration initialDelay, Duration maxDelay) {
+			if (initialDelay.isNegative() || initialDelay.isZero() || maxDelay.compareTo(initialDelay) < 0) {
+				throw new IllegalArgumentException("Invalid backoff: " + initialDelay + " to " + maxDelay);
+			}
+
+			this.initialProbeDelay = initialDelay;
+			this.maxProbeDelay = maxDelay;
+			return this;
+		}
+
+		/**
+		 * Set how many GATT operations may be in flight to a single device at once, see {@link OperationScheduler}.
+		 * Defaults to one, since peripherals process operations serially anyway.
+		 *
+		 * @param maxOperationsInFlight the maximum number of operations in flight per device
+		 * @return the builder
+		 */
+		public Builder maxOperationsInFlight(int maxOperationsInFlight) {
+			if (maxOperationsInFlight <= 0) {
+				throw new IllegalArgumentException("Maximum operations in flight must be positive: " + maxOperationsInFlight);
+			}
+
+			this.maxOperationsInFlight = maxOperationsInFlight;
+			return this;
+		}
+
+		/**
+		 * Add another backend server to shard devices across, typically one per Bluetooth adapter. The server set by
+		 * {@link #serverAddress(String)} and {@link #port(int)} is always backend 0, and added backends follow in order.
+		 * <p>
+		 * Each device is routed to one backend by hashing its address, unless it was discovered by or explicitly
+		 * assigned to another, see {@link OrionBLE#assignDevice(String, int)}. Device discovery is aggregated across all
+		 * backends. A backend that stops responding is skipped for a few seconds, and its devices fail over to the
+		 * others. Sharding is not supported together with {@link #unixDomainSocket(Path)}.
+		 *
+		 * @param serverAddress the address of the server
+		 * @param port          the port of the server
+		 * @return the builder
+		 */
+		public Builder addBackend(String serverAddress, int port) {
+			backends.add(new Backend(serverAddress, port));
+			return this;
+		}
+
+		/**
+		 * Set how backend servers are started when none is running. Defaults to {@link ServerLauncher#bundled()},
+		 * which only works on Windows. With any other launcher, OrionBLE may be used on any platform.
+		 *
+		 * @param launcher the {@link ServerLauncher}
+		 * @return the builder
+		 */
+		public Builder launcher(ServerLauncher launcher) {
+			this.launcher = launcher;
+			return this;
+		}
+
+		/**
+		 * Set how often backend servers are health checked. A server launched by OrionBLE whose process exits, or which
+		 * fails several checks in a row, is restarted, and the notify events registered on it are registered again. A
+		 * server that was already running is never restarted, but its notify events are registered again once it
+		 * responds after failing several checks. Defaults to five seconds.
+		 *
+		 * @param healthCheckInterval the time between health checks, or {@link Duration#ZERO} to disable supervision
+		 * @return the builder
+		 */
+		public Builder healthCheckInterval(Duration healthCheckInterval) {
+			if (healthCheckInterval.isNegative()) {
+				throw new IllegalArgumentException("Health check interval must not be negative: " + healthCheckInterval);
+			}
+
+			this.healthCheckInterval = healthCheckInterval;
+			return this;
+		}
+
+		private HttpClient buildHttpClient() {
+			HttpClient.Builder builder = HttpClient.newBuilder().version(httpVersion);
+			if (connectTimeout != null) {
+				builder.connectTimeout(connectTimeout);
+			}
+			if (executor != null) {
+				builder.executor(executor);
+			}
+
+			return builder.build();
+		}
+
+		/**
+		 * Build the {@link OrionBLE} instance. A backend server will be launched if one is not already running. This does
+		 * not wait for the server, see {@link OrionBLE#whenReady()}.
+		 *
+		 * @return the OrionBLE instance
+		 */
+		public OrionBLE build() {
+			if (socketPath != null && !backends.isEmpty()) {
+				throw new IllegalStateException("Sharding across several backends is not supported over a Unix domain socket");
+			}
+
+			return new OrionBLE(this);
+		}
+
+		private record Backend(String serverAddress, int port) {
+		}
 	}
 }
\ No newline at end of file
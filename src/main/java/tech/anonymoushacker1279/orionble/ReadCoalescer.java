@@ -0,0 +1,266 @@
+package tech.anonymoushacker1279.orionble;
+
+import org.jetbrains.annotations.Nullable;
+import tech.anonymoushacker1279.orionble.gatt.CharacteristicHandle;
+import tech.anonymoushacker1279.orionble.gatt.GATTCharacteristic;
+import tech.anonymoushacker1279.orionble.gatt.GATTService;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates characteristic reads, available via {@link OrionBLE#getReadCoalescer()}.
+ * <p>
+ * Concurrent reads of the same characteristic of the same device share a single request to the backend: whoever reads
+ * first makes the request, and everyone who asks while it is in flight receives its result. Characteristics can also be
+ * given a maximum staleness with {@link #setMaxStaleness(GATTService, GATTCharacteristic, Duration)}, in which case a
+ * value read recently enough is served without contacting the backend at all.
+ * <p>
+ * Text and binary reads of a characteristic are coalesced and cached separately, since they are different requests to
+ * the backend. Writes made through {@link OrionBLE} invalidate both, so a read never returns a value from before a
+ * write that has completed.
+ */
+public class ReadCoalescer {
+
+	private final Map<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+	private final Map<Key, CachedValue> values = new ConcurrentHashMap<>();
+	private final Map<CharacteristicKey, Long> maxStaleness = new ConcurrentHashMap<>();
+	private final AtomicLong requests = new AtomicLong();
+	private final AtomicLong coalesced = new AtomicLong();
+	private final AtomicLong cacheHits = new AtomicLong();
+
+	ReadCoalescer() {
+	}
+
+	/**
+	 * Set how old a cached value of a characteristic may be and still be returned by a read. Applies to the
+	 * characteristic on every device.
+	 *
+	 * @param service        the {@link GATTService}
+	 * @param characteristic the {@link GATTCharacteristic}
+	 * @param staleness      the maximum age of a cached value, or {@link Duration#ZERO} to always read from the backend
+	 */
+	public void setMaxStaleness(GATTService service, GATTCharacteristic characteristic, Duration staleness) {
+		if (staleness.isNegative()) {
+			throw new IllegalArgumentException("Staleness must not be negative: " + staleness);
+		}
+
+		CharacteristicKey key = new CharacteristicKey(CharacteristicHandle.parseUUID(service.uuid()), CharacteristicHandle.parseUUID(characteristic.uuid()));
+		if (staleness.isZero()) {
+			maxStaleness.remove(key);
+			values.keySet().removeIf(value -> value.characteristic().equals(key));
+		} else {
+			maxStaleness.put(key, staleness.toNanos());
+		}
+	}
+
+	/**
+	 * Read a value synchronously. The first caller for a key makes the request on its own thread.
+	 *
+	 * @param handle  the {@link CharacteristicHandle} of the characteristic
+	 * @param request makes the request to the backend
+	 * @return the value
+	 */
+	@Nullable String read(CharacteristicHandle handle, Supplier<String> request) {
+		return read(new Key(handle, false), request);
+	}
+
+	/**
+	 * Read a raw value synchronously, like {@link #read(CharacteristicHandle, Supplier)}. Every caller receives its own
+	 * copy of the value.
+	 *
+	 * @param handle  the {@link CharacteristicHandle} of the characteristic
+	 * @param request makes the binary request to the backend
+	 * @return the value
+	 */
+	byte[] readBytes(CharacteristicHandle handle, Supplier<byte[]> request) {
+		byte[] value = read(new Key(handle, true), request);
+		return value.clone();
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T read(Key key, Supplier<T> request) {
+		Object cached = getCached(key);
+		if (cached != null) {
+			return (T) cached;
+		}
+
+		CompletableFuture<Object> flight = new CompletableFuture<>();
+		CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+		if (existing != null) {
+			coalesced.incrementAndGet();
+			try {
+				return (T) existing.join();
+			} catch (CompletionException e) {
+				throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+			}
+		}
+
+		long startedAt = System.nanoTime();
+		requests.incrementAndGet();
+		try {
+			T value = request.get();
+			land(key, flight, value, startedAt);
+			return value;
+		} catch (RuntimeException e) {
+			inFlight.remove(key, flight);
+			flight.completeExceptionally(e);
+			throw e;
+		}
+	}
+
+	/**
+	 * Read a value asynchronously. The first caller for a key makes the request.
+	 *
+	 * @param handle  the {@link CharacteristicHandle} of the characteristic
+	 * @param request makes the request to the backend
+	 * @return a future completing with the value. Cancelling it does not affect other readers.
+	 */
+	CompletableFuture<String> readAsync(CharacteristicHandle handle, Supplier<CompletableFuture<String>> request) {
+		Key key = new Key(handle, false);
+		Object cached = getCached(key);
+		if (cached != null) {
+			return CompletableFuture.completedFuture((String) cached);
+		}
+
+		CompletableFuture<Object> flight = new CompletableFuture<>();
+		CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+		if (existing != null) {
+			coalesced.incrementAndGet();
+			return existing.thenApply(String.class::cast);
+		}
+
+		long startedAt = System.nanoTime();
+		requests.incrementAndGet();
+		try {
+			request.get().whenComplete((value, throwable) -> {
+				if (throwable == null) {
+					land(key, flight, value, startedAt);
+				} else {
+					inFlight.remove(key, flight);
+					flight.completeExceptionally(throwable);
+				}
+			});
+		} catch (RuntimeException e) {
+			inFlight.remove(key, flight);
+			flight.completeExceptionally(e);
+		}
+
+		return flight.thenApply(String.class::cast);
+	}
+
+	private @Nullable Object getCached(Key key) {
+		Long staleness = maxStaleness.get(key.characteristic());
+		if (staleness == null) {
+			return null;
+		}
+
+		CachedValue cached = values.get(key);
+		if (cached == null || System.nanoTime() - cached.readAt >= staleness) {
+			return null;
+		}
+
+		cacheHits.incrementAndGet();
+		return cached.value;
+	}
+
+	/**
+	 * Complete a request, caching its value unless the key was invalidated while it was in flight.
+	 */
+	private void land(Key key, CompletableFuture<Object> flight, @Nullable Object value, long startedAt) {
+		// The value is timestamped from when the request started, so its age is never underestimated
+		if (inFlight.remove(key, flight) && value != null && maxStaleness.containsKey(key.characteristic())) {
+			values.put(key, new CachedValue(value, startedAt));
+		}
+
+		flight.complete(value);
+	}
+
+	/**
+	 * Invalidate a characteristic of a device after it was written. A read that is already in flight is detached, so
+	 * later reads make a new request instead of joining it.
+	 *
+	 * @param handle the {@link CharacteristicHandle} of the characteristic
+	 */
+	void invalidate(CharacteristicHandle handle) {
+		invalidate(new Key(handle, false));
+		invalidate(new Key(handle, true));
+	}
+
+	private void invalidate(Key key) {
+		inFlight.remove(key);
+		values.remove(key);
+	}
+
+	/**
+	 * Invalidate all cached values of a device.
+	 *
+	 * @param address the address of the device
+	 */
+	public void invalidate(String address) {
+		inFlight.keySet().removeIf(key -> key.handle().address().equals(address));
+		values.keySet().removeIf(key -> key.handle().address().equals(address));
+	}
+
+	/**
+	 * Invalidate all cached values.
+	 */
+	public void invalidateAll() {
+		inFlight.clear();
+		values.clear();
+	}
+
+	/**
+	 * Get the number of reads that were sent to the backend.
+	 *
+	 * @return the number of requests
+	 */
+	public long getRequests() {
+		return requests.get();
+	}
+
+	/**
+	 * Get the number of reads that joined a request already in flight.
+	 *
+	 * @return the number of coalesced reads
+	 */
+	public long getCoalescedHits() {
+		return coalesced.get();
+	}
+
+	/**
+	 * Get the number of reads served from the cache.
+	 *
+	 * @return the number of cache hits
+	 */
+	public long getCacheHits() {
+		return cacheHits.get();
+	}
+
+	@Override
+	public String toString() {
+		return "ReadCoalescer: %d requests - %d coalesced - %d cache hits".formatted(getRequests(), getCoalescedHits(), getCacheHits());
+	}
+
+	/**
+	 * A read of a characteristic, keyed on its handle so that short and full forms of its UUIDs share one entry.
+	 */
+	private record Key(CharacteristicHandle handle, boolean binary) {
+
+		CharacteristicKey characteristic() {
+			return new CharacteristicKey(handle.serviceId(), handle.characteristicId());
+		}
+	}
+
+	private record CharacteristicKey(UUID serviceUUID, UUID characteristicUUID) {
+	}
+
+	private record CachedValue(Object value, long readAt) {
+	}
+}
\ No newline at end of file
@@ -0,0 +1,51 @@
+package tech.anonymoushacker1279.orionble;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts a backend server process. Set via {@link OrionBLE.Builder#launcher(ServerLauncher)}.
+ * <p>
+ * The default, {@link #bundled()}, runs the OrionBLEServer executable shipped in the JAR, which only works on Windows.
+ * Any other launcher may be used on any platform, such as {@link #executable(Path)} pointing at a stand-in server for
+ * tests.
+ */
+@FunctionalInterface
+public interface ServerLauncher {
+
+	/**
+	 * Start a server process.
+	 *
+	 * @param arguments the command line arguments for the server, such as the URLs to listen on
+	 * @return the started process
+	 * @throws IOException if the process could not be started
+	 */
+	Process launch(List<String> arguments) throws IOException;
+
+	/**
+	 * Get the launcher for the OrionBLEServer executable bundled in the JAR. The executable is extracted once to a
+	 * cache directory, and only extracted again if the bundled executable changes or the cached copy fails its checksum.
+	 *
+	 * @return the launcher
+	 */
+	static ServerLauncher bundled() {
+		return arguments -> executable(BundledServer.extract()).launch(arguments);
+	}
+
+	/**
+	 * Get a launcher for an executable on disk. The output of the process is inherited.
+	 *
+	 * @param executable the path of the executable
+	 * @return the launcher
+	 */
+	static ServerLauncher executable(Path executable) {
+		return arguments -> {
+			List<String> command = new ArrayList<>(arguments.size() + 1);
+			command.add(executable.toAbsolutePath().toString());
+			command.addAll(arguments);
+			return new ProcessBuilder(command).inheritIO().start();
+		};
+	}
+}
\ No newline at end of file
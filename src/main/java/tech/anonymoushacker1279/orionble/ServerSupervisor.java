@@ -0,0 +1,234 @@
+package tech.anonymoushacker1279.orionble;
+
+import org.jetbrains.annotations.Nullable;
+import tech.anonymoushacker1279.orionble.internal.APIEndpoints;
+import tech.anonymoushacker1279.orionble.internal.BackendStatusException;
+import tech.anonymoushacker1279.orionble.internal.Transport;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts a backend server and keeps it running.
+ * <p>
+ * Starting never blocks: if no server answers at the address already, one is launched, and the future returned by
+ * {@link #start()} completes once it responds. After that, the server is probed periodically. If its process exits, or
+ * it fails several probes in a row, it is killed and launched again, waiting longer after each restart that did not
+ * lead to a healthy server.
+ * <p>
+ * A server that was already running when supervision began belongs to someone else, and is never killed or replaced,
+ * even if it is slow to respond or goes away. It is still probed, so that once it responds again after failing several
+ * probes, the state it may have lost is restored as after a restart.
+ */
+final class ServerSupervisor {
+
+	private static final Duration PROBE_TIMEOUT = Duration.ofSeconds(2);
+	private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(30);
+	private static final Duration MIN_RESTART_DELAY = Duration.ofSeconds(1);
+	private static final Duration MAX_RESTART_DELAY = Duration.ofSeconds(60);
+	private static final int MAX_FAILED_CHECKS = 3;
+
+	private final Transport probe;
+	private final ServerLauncher launcher;
+	private final List<String> arguments;
+	private final long initialProbeDelay;
+	private final long maxProbeDelay;
+	private final Duration healthCheckInterval;
+	private final Runnable onRestart;
+	private final Thread shutdownHook = new Thread(this::close, "OrionBLE-Supervisor-Shutdown");
+	private volatile @Nullable Process process;
+	private volatile boolean closed;
+	// Only touched by the chain of health checks, which never runs concurrently with itself
+	private int failedChecks;
+	private boolean unresponsive;
+	private long restartDelay = MIN_RESTART_DELAY.toNanos();
+
+	/**
+	 * Create a new supervisor.
+	 *
+	 * @param probe               the {@link Transport} used to check if the server responds
+	 * @param launcher            the {@link ServerLauncher} that starts the server
+	 * @param arguments           the command line arguments for the server
+	 * @param initialProbeDelay   the delay after the first failed probe while waiting for the server to start
+	 * @param maxProbeDelay       the maximum delay between probes while waiting for the server to start
+	 * @param healthCheckInterval the time between health checks, or {@link Duration#ZERO} to not supervise the server
+	 * @param onRestart           run after the server was restarted, or a server this supervisor does not own responds
+	 *                            again after failing several probes
+	 */
+	ServerSupervisor(Transport probe, ServerLauncher launcher, List<String> arguments, Duration initialProbeDelay,
+	                 Duration maxProbeDelay, Duration healthCheckInterval, Runnable onRestart) {
+		this.probe = probe;
+		this.launcher = launcher;
+		this.arguments = List.copyOf(arguments);
+		this.initialProbeDelay = initialProbeDelay.toNanos();
+		this.maxProbeDelay = maxProbeDelay.toNanos();
+		this.healthCheckInterval = healthCheckInterval;
+		this.onRestart = onRestart;
+	}
+
+	/**
+	 * Launch the server unless one is already running, and start supervising it.
+	 *
+	 * @return a future completing once the server responds
+	 */
+	CompletableFuture<Void> start() {
+		Runtime.getRuntime().addShutdownHook(shutdownHook);
+
+		CompletableFuture<Void> ready = probe().thenCompose(up -> up ? CompletableFuture.completedFuture(null) : launch());
+		ready.thenRun(this::scheduleCheck);
+		return ready;
+	}
+
+	/**
+	 * Stop supervising, and kill the server if it was launched by this supervisor. A pending health check finds the
+	 * supervisor closed and does not schedule another.
+	 */
+	void close() {
+		closed = true;
+		if (Thread.currentThread() != shutdownHook) {
+			try {
+				Runtime.getRuntime().removeShutdownHook(shutdownHook);
+			} catch (IllegalStateException e) {
+				// The JVM is already shutting down, so the hook closes the supervisor anyway
+			}
+		}
+
+		Process current = process;
+		if (current != null) {
+			current.destroy();
+		}
+	}
+
+	/**
+	 * Get the process of the server.
+	 *
+	 * @return the process, or null if the server was already running when supervision began
+	 */
+	@Nullable Process getProcess() {
+		return process;
+	}
+
+	/**
+	 * Check if the server is running. A server that answers with a status outside the 2xx range is running, it just
+	 * rejected the probe.
+	 */
+	private CompletableFuture<Boolean> probe() {
+		try {
+			return probe.getRequestAsync(APIEndpoints.ROOT.getEndpoint())
+					.orTimeout(PROBE_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)
+					.handle((response, throwable) -> throwable == null || unwrap(throwable) instanceof BackendStatusException);
+		} catch (BackendStatusException e) {
+			return CompletableFuture.completedFuture(true);
+		} catch (RuntimeException e) {
+			return CompletableFuture.completedFuture(false);
+		}
+	}
+
+	private static Throwable unwrap(Throwable throwable) {
+		return throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+	}
+
+	private CompletableFuture<Void> launch() {
+		Process launched;
+		try {
+			launched = launcher.launch(arguments);
+		} catch (IOException | RuntimeException e) {
+			return CompletableFuture.failedFuture(new RuntimeException("Failed to launch the backend server!", e));
+		}
+
+		process = launched;
+		if (closed) {
+			launched.destroy();
+		}
+
+		return awaitReady(launched, System.nanoTime() + STARTUP_TIMEOUT.toNanos(), initialProbeDelay);
+	}
+
+	/**
+	 * Probe a freshly launched server with an exponential backoff until it responds.
+	 */
+	private CompletableFuture<Void> awaitReady(Process launched, long deadline, long delay) {
+		return probe().thenCompose(up -> {
+			if (up) {
+				return CompletableFuture.completedFuture(null);
+			}
+			if (!launched.isAlive()) {
+				return CompletableFuture.failedFuture(new RuntimeException("The backend server exited with code " + launched.exitValue()));
+			}
+			if (System.nanoTime() + delay > deadline) {
+				return CompletableFuture.failedFuture(new RuntimeException("Failed to connect to the backend server!"));
+			}
+
+			return after(delay).thenCompose(ignored -> awaitReady(launched, deadline, Math.min(delay * 2, maxProbeDelay)));
+		});
+	}
+
+	private void scheduleCheck() {
+		if (!closed && !healthCheckInterval.isZero()) {
+			CompletableFuture.delayedExecutor(healthCheckInterval.toNanos(), TimeUnit.NANOSECONDS).execute(this::check);
+		}
+	}
+
+	private void check() {
+		if (closed) {
+			return;
+		}
+
+		Process current = process;
+		if (current != null && !current.isAlive()) {
+			restart();
+			return;
+		}
+
+		probe().thenAccept(up -> {
+			if (up) {
+				failedChecks = 0;
+				restartDelay = MIN_RESTART_DELAY.toNanos();
+				if (unresponsive) {
+					// A server this supervisor does not own came back, and may have been restarted by its owner
+					unresponsive = false;
+					onRestart.run();
+				}
+				scheduleCheck();
+			} else if (++failedChecks >= MAX_FAILED_CHECKS && current != null) {
+				restart();
+			} else {
+				unresponsive |= failedChecks >= MAX_FAILED_CHECKS;
+				scheduleCheck();
+			}
+		});
+	}
+
+	private void restart() {
+		failedChecks = 0;
+		Process current = process;
+		if (current != null) {
+			current.destroyForcibly();
+		}
+
+		long delay = restartDelay;
+		restartDelay = Math.min(restartDelay * 2, MAX_RESTART_DELAY.toNanos());
+		after(delay).thenCompose(ignored -> closed ? CompletableFuture.completedFuture(null) : launch())
+				.whenComplete((ignored, throwable) -> {
+					if (closed) {
+						return;
+					}
+
+					if (throwable != null) {
+						restart();
+					} else {
+						onRestart.run();
+						scheduleCheck();
+					}
+				});
+	}
+
+	private static CompletableFuture<Void> after(long delay) {
+		return CompletableFuture.runAsync(() -> {
+		}, CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS));
+	}
+}
\ No newline at end of file
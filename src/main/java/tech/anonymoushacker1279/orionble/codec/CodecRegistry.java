@@ -0,0 +1,113 @@
+package tech.anonymoushacker1279.orionble.codec;
+
+import org.jetbrains.annotations.Nullable;
+import tech.anonymoushacker1279.orionble.OrionBLE;
+import tech.anonymoushacker1279.orionble.gatt.CharacteristicHandle;
+import tech.anonymoushacker1279.orionble.gatt.GATTCharacteristic;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A registry of {@link NumericCodec}s keyed by characteristic UUID, available via {@link OrionBLE#getCodecRegistry()}.
+ * <p>
+ * UUIDs may be given in their 16-bit short form, such as "2a19", or in full, see
+ * {@link CharacteristicHandle#parseUUID(String)}. A codec registered under either form is found for characteristics
+ * reported in either.
+ * <p>
+ * {@link #standard()} comes with codecs for common characteristics defined by the Bluetooth SIG. Temperatures are
+ * decoded in degrees Celsius, converting from Fahrenheit where the measurement says so.
+ */
+public final class CodecRegistry {
+
+	public static final String BATTERY_LEVEL = "2a19";
+	public static final String TEMPERATURE_MEASUREMENT = "2a1c";
+	public static final String INTERMEDIATE_TEMPERATURE = "2a1e";
+	public static final String HEART_RATE_MEASUREMENT = "2a37";
+	public static final String PRESSURE = "2a6d";
+	public static final String TEMPERATURE = "2a6e";
+	public static final String HUMIDITY = "2a6f";
+
+	private final Map<UUID, NumericCodec> codecs = new ConcurrentHashMap<>();
+
+	/**
+	 * Create a new empty registry.
+	 */
+	public CodecRegistry() {
+	}
+
+	/**
+	 * Create a new registry with codecs for these characteristics:
+	 * <ul>
+	 *     <li>{@value #BATTERY_LEVEL} Battery Level, in percent</li>
+	 *     <li>{@value #HEART_RATE_MEASUREMENT} Heart Rate Measurement, in beats per minute, see {@link HeartRateMeasurement}</li>
+	 *     <li>{@value #TEMPERATURE_MEASUREMENT} Temperature Measurement and {@value #INTERMEDIATE_TEMPERATURE}
+	 *     Intermediate Temperature, in degrees Celsius</li>
+	 *     <li>{@value #TEMPERATURE} Temperature, in degrees Celsius</li>
+	 *     <li>{@value #HUMIDITY} Humidity, in percent</li>
+	 *     <li>{@value #PRESSURE} Pressure, in pascals</li>
+	 * </ul>
+	 *
+	 * @return the registry
+	 */
+	public static CodecRegistry standard() {
+		NumericCodec temperatureMeasurement = value -> {
+			double temperature = ValueFormats.float32(value, 1);
+			// Bit 0 of the flags selects Fahrenheit
+			return (ValueFormats.uint8(value, 0) & 0x01) != 0 ? (temperature - 32) * 5 / 9 : temperature;
+		};
+
+		return new CodecRegistry()
+				.register(BATTERY_LEVEL, NumericCodec.uint8())
+				.register(HEART_RATE_MEASUREMENT, HeartRateMeasurement::heartRate)
+				.register(TEMPERATURE_MEASUREMENT, temperatureMeasurement)
+				.register(INTERMEDIATE_TEMPERATURE, temperatureMeasurement)
+				.register(TEMPERATURE, NumericCodec.sint16().withDecimalExponent(-2))
+				.register(HUMIDITY, NumericCodec.uint16().withDecimalExponent(-2))
+				.register(PRESSURE, NumericCodec.uint32().withDecimalExponent(-1));
+	}
+
+	/**
+	 * Register a codec, replacing any codec already registered for the characteristic.
+	 *
+	 * @param characteristicUUID the UUID of the characteristic
+	 * @param codec              the {@link NumericCodec}
+	 * @return this registry
+	 */
+	public CodecRegistry register(String characteristicUUID, NumericCodec codec) {
+		codecs.put(CharacteristicHandle.parseUUID(characteristicUUID), codec);
+		return this;
+	}
+
+	/**
+	 * Get the codec registered for a characteristic.
+	 *
+	 * @param characteristicUUID the UUID of the characteristic
+	 * @return the {@link NumericCodec}, or null if there is none
+	 */
+	public @Nullable NumericCodec get(String characteristicUUID) {
+		return codecs.get(CharacteristicHandle.parseUUID(characteristicUUID));
+	}
+
+	/**
+	 * Get the codec registered for a characteristic, failing if there is none.
+	 *
+	 * @param characteristic the {@link GATTCharacteristic}
+	 * @return the {@link NumericCodec}
+	 * @throws IllegalArgumentException if no codec is registered for the characteristic
+	 */
+	public NumericCodec require(GATTCharacteristic characteristic) {
+		NumericCodec codec = get(characteristic.uuid());
+		if (codec == null) {
+			throw new IllegalArgumentException("No codec registered for characteristic " + characteristic.uuid());
+		}
+
+		return codec;
+	}
+
+	@Override
+	public String toString() {
+		return "CodecRegistry: %d codecs".formatted(codecs.size());
+	}
+}
\ No newline at end of file
@@ -0,0 +1,159 @@
+package tech.anonymoushacker1279.orionble.codec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A reusable decoder for the Heart Rate Measurement characteristic, {@value CodecRegistry#HEART_RATE_MEASUREMENT}.
+ * <p>
+ * Only the heart rate is available through the {@link NumericCodec} registered for the characteristic. This exposes
+ * every field of a measurement. A single instance can decode every notification of a listener without allocating, as
+ * long as each measurement is consumed before the next is decoded:
+ * <pre>{@code
+ * HeartRateMeasurement measurement = new HeartRateMeasurement();
+ * orion.startBinaryNotificationListener(device, service, characteristic,
+ *         notification -> process(measurement.decode(notification.value())), 100);
+ * }</pre>
+ */
+public final class HeartRateMeasurement {
+
+	private static final int FLAG_UINT16 = 0x01;
+	private static final int FLAG_CONTACT_DETECTED = 0x02;
+	private static final int FLAG_CONTACT_SUPPORTED = 0x04;
+	private static final int FLAG_ENERGY_EXPENDED = 0x08;
+	private static final int FLAG_RR_INTERVALS = 0x10;
+
+	/**
+	 * The state of the sensor's skin contact.
+	 */
+	public enum SensorContact {
+		NOT_SUPPORTED,
+		NOT_DETECTED,
+		DETECTED
+	}
+
+	private int heartRate;
+	private SensorContact sensorContact = SensorContact.NOT_SUPPORTED;
+	private int energyExpended = -1;
+	private int[] rrIntervals = new int[8];
+	private int rrIntervalCount;
+
+	/**
+	 * Decode just the heart rate of a measurement.
+	 *
+	 * @param value the raw value
+	 * @return the heart rate in beats per minute
+	 */
+	static int heartRate(ByteBuffer value) {
+		return (ValueFormats.uint8(value, 0) & FLAG_UINT16) != 0 ? ValueFormats.uint16(value, 1) : ValueFormats.uint8(value, 1);
+	}
+
+	/**
+	 * Decode a measurement into this instance, replacing the previous one.
+	 *
+	 * @param value the raw value, between the position and limit of the buffer
+	 * @return this instance
+	 */
+	public HeartRateMeasurement decode(ByteBuffer value) {
+		int flags = ValueFormats.uint8(value, 0);
+		int offset = 1;
+		if ((flags & FLAG_UINT16) != 0) {
+			heartRate = ValueFormats.uint16(value, offset);
+			offset += 2;
+		} else {
+			heartRate = ValueFormats.uint8(value, offset);
+			offset++;
+		}
+
+		if ((flags & FLAG_CONTACT_SUPPORTED) == 0) {
+			sensorContact = SensorContact.NOT_SUPPORTED;
+		} else {
+			sensorContact = (flags & FLAG_CONTACT_DETECTED) != 0 ? SensorContact.DETECTED : SensorContact.NOT_DETECTED;
+		}
+
+		if ((flags & FLAG_ENERGY_EXPENDED) != 0) {
+			energyExpended = ValueFormats.uint16(value, offset);
+			offset += 2;
+		} else {
+			energyExpended = -1;
+		}
+
+		rrIntervalCount = 0;
+		if ((flags & FLAG_RR_INTERVALS) != 0) {
+			int count = (value.remaining() - offset) / 2;
+			if (count > rrIntervals.length) {
+				rrIntervals = new int[count];
+			}
+			for (int i = 0; i < count; i++) {
+				rrIntervals[i] = ValueFormats.uint16(value, offset + i * 2);
+			}
+			rrIntervalCount = count;
+		}
+
+		return this;
+	}
+
+	/**
+	 * Get the heart rate.
+	 *
+	 * @return the heart rate in beats per minute
+	 */
+	public int getHeartRate() {
+		return heartRate;
+	}
+
+	public SensorContact getSensorContact() {
+		return sensorContact;
+	}
+
+	/**
+	 * Get the energy expended since it was last reset.
+	 *
+	 * @return the energy in kilojoules, or -1 if the measurement does not include it
+	 */
+	public int getEnergyExpended() {
+		return energyExpended;
+	}
+
+	/**
+	 * Get the number of RR-intervals in the measurement.
+	 *
+	 * @return the number of intervals
+	 */
+	public int getRRIntervalCount() {
+		return rrIntervalCount;
+	}
+
+	/**
+	 * Get an RR-interval, the time between two beats.
+	 *
+	 * @param index the index of the interval, oldest first
+	 * @return the interval in units of 1/1024 seconds
+	 */
+	public int getRRInterval(int index) {
+		if (index < 0 || index >= rrIntervalCount) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + rrIntervalCount);
+		}
+
+		return rrIntervals[index];
+	}
+
+	/**
+	 * Get an RR-interval in milliseconds.
+	 *
+	 * @param index the index of the interval, oldest first
+	 * @return the interval in milliseconds
+	 */
+	public double getRRIntervalMillis(int index) {
+		return getRRInterval(index) * 1000.0 / 1024;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder intervals = new StringBuilder();
+		for (int i = 0; i < rrIntervalCount; i++) {
+			intervals.append(i == 0 ? "" : ", ").append(rrIntervals[i]);
+		}
+
+		return "HeartRateMeasurement: %d bpm - contact %s - energy %d - RR [%s]".formatted(heartRate, sensorContact, energyExpended, intervals);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,89 @@
+package tech.anonymoushacker1279.orionble.codec;
+
+import tech.anonymoushacker1279.orionble.OrionBLE;
+import tech.anonymoushacker1279.orionble.devices.BLEDevice;
+import tech.anonymoushacker1279.orionble.gatt.GATTCharacteristic;
+import tech.anonymoushacker1279.orionble.gatt.GATTService;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decodes the raw value of a characteristic into a number, such as for
+ * {@link OrionBLE#readValue(BLEDevice, GATTService, GATTCharacteristic)}. Codecs are registered by characteristic in
+ * a {@link CodecRegistry}.
+ * <p>
+ * Decoding works on the bytes directly and returns a primitive, so a codec applied to every notification of a
+ * listener does not allocate. Every integer format up to 32 bits is represented exactly by a double.
+ */
+@FunctionalInterface
+public interface NumericCodec {
+
+	/**
+	 * Decode a value. The value lies between the position and limit of the buffer, neither of which is changed.
+	 *
+	 * @param value the raw value
+	 * @return the decoded number
+	 */
+	double decode(ByteBuffer value);
+
+	/**
+	 * Get a codec that applies a decimal exponent to the result of this one, as the Bluetooth specifications do for
+	 * fixed-point values. For example, a temperature in units of 0.01 degrees has an exponent of -2.
+	 *
+	 * @param exponent the decimal exponent
+	 * @return the scaled codec
+	 */
+	default NumericCodec withDecimalExponent(int exponent) {
+		return value -> ValueFormats.scale(decode(value), exponent);
+	}
+
+	static NumericCodec uint8() {
+		return value -> ValueFormats.uint8(value, 0);
+	}
+
+	static NumericCodec uint16() {
+		return value -> ValueFormats.uint16(value, 0);
+	}
+
+	static NumericCodec uint24() {
+		return value -> ValueFormats.uint24(value, 0);
+	}
+
+	static NumericCodec uint32() {
+		return value -> ValueFormats.uint32(value, 0);
+	}
+
+	static NumericCodec sint8() {
+		return value -> ValueFormats.sint8(value, 0);
+	}
+
+	static NumericCodec sint16() {
+		return value -> ValueFormats.sint16(value, 0);
+	}
+
+	static NumericCodec sint24() {
+		return value -> ValueFormats.sint24(value, 0);
+	}
+
+	static NumericCodec sint32() {
+		return value -> ValueFormats.sint32(value, 0);
+	}
+
+	/**
+	 * Get a codec for an IEEE-11073 16-bit SFLOAT, see {@link ValueFormats#sfloat(ByteBuffer, int)}.
+	 *
+	 * @return the codec
+	 */
+	static NumericCodec sfloat() {
+		return value -> ValueFormats.sfloat(value, 0);
+	}
+
+	/**
+	 * Get a codec for an IEEE-11073 32-bit FLOAT, see {@link ValueFormats#float32(ByteBuffer, int)}.
+	 *
+	 * @return the codec
+	 */
+	static NumericCodec float32() {
+		return value -> ValueFormats.float32(value, 0);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,110 @@
+package tech.anonymoushacker1279.orionble.codec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Readers for the value formats defined by the Bluetooth specifications. All multi-byte formats are little-endian.
+ * <p>
+ * Offsets are relative to the position of the buffer, which is never changed, so a shared view such as the one
+ * returned by {@link tech.anonymoushacker1279.orionble.gatt.BinaryNotification#value()} can be read directly. Reading
+ * past the limit of the buffer throws an {@link IndexOutOfBoundsException}.
+ */
+public final class ValueFormats {
+
+	// Every exponent an IEEE-11073 FLOAT can have. Only powers up to 10^22 are exact in a double, so the larger ones
+	// are parsed to get the correctly rounded value rather than accumulating the error of repeated multiplication
+	private static final double[] POWERS_OF_TEN = new double[129];
+
+	static {
+		for (int i = 0; i < POWERS_OF_TEN.length; i++) {
+			POWERS_OF_TEN[i] = Double.parseDouble("1e" + i);
+		}
+	}
+
+	private ValueFormats() {
+	}
+
+	public static int uint8(ByteBuffer value, int offset) {
+		return value.get(value.position() + offset) & 0xFF;
+	}
+
+	public static int uint16(ByteBuffer value, int offset) {
+		return uint8(value, offset) | uint8(value, offset + 1) << 8;
+	}
+
+	public static int uint24(ByteBuffer value, int offset) {
+		return uint16(value, offset) | uint8(value, offset + 2) << 16;
+	}
+
+	public static long uint32(ByteBuffer value, int offset) {
+		return sint32(value, offset) & 0xFFFFFFFFL;
+	}
+
+	public static int sint8(ByteBuffer value, int offset) {
+		return value.get(value.position() + offset);
+	}
+
+	public static int sint16(ByteBuffer value, int offset) {
+		return (short) uint16(value, offset);
+	}
+
+	public static int sint24(ByteBuffer value, int offset) {
+		return uint24(value, offset) << 8 >> 8;
+	}
+
+	public static int sint32(ByteBuffer value, int offset) {
+		return uint16(value, offset) | uint16(value, offset + 2) << 16;
+	}
+
+	/**
+	 * Read an IEEE-11073 16-bit SFLOAT: a signed 12-bit mantissa and a signed 4-bit decimal exponent. The special values
+	 * all have an exponent of zero, so a mantissa that looks special with any other exponent is an ordinary number.
+	 *
+	 * @param value  the value
+	 * @param offset the offset of the SFLOAT
+	 * @return the number, NaN for NaN, NRes and reserved values, or an infinity
+	 */
+	public static double sfloat(ByteBuffer value, int offset) {
+		int raw = uint16(value, offset);
+		return switch (raw) {
+			case 0x07FE -> Double.POSITIVE_INFINITY;
+			case 0x0802 -> Double.NEGATIVE_INFINITY;
+			case 0x07FF, 0x0800, 0x0801 -> Double.NaN;
+			default -> scale(raw << 20 >> 20, (short) raw >> 12);
+		};
+	}
+
+	/**
+	 * Read an IEEE-11073 32-bit FLOAT: a signed 24-bit mantissa and a signed 8-bit decimal exponent. As with
+	 * {@link #sfloat(ByteBuffer, int)}, only an exponent of zero marks a special value.
+	 *
+	 * @param value  the value
+	 * @param offset the offset of the FLOAT
+	 * @return the number, NaN for NaN, NRes and reserved values, or an infinity
+	 */
+	public static double float32(ByteBuffer value, int offset) {
+		int raw = sint32(value, offset);
+		return switch (raw) {
+			case 0x007FFFFE -> Double.POSITIVE_INFINITY;
+			case 0x00800002 -> Double.NEGATIVE_INFINITY;
+			case 0x007FFFFF, 0x00800000, 0x00800001 -> Double.NaN;
+			default -> scale(raw << 8 >> 8, raw >> 24);
+		};
+	}
+
+	/**
+	 * Apply a decimal exponent. Negative exponents divide rather than multiply by a power of ten, so that values such
+	 * as 2345 with an exponent of -2 come out as exactly the nearest double to 23.45.
+	 *
+	 * @param mantissa the mantissa
+	 * @param exponent the decimal exponent, between -128 and 128
+	 * @return the scaled number
+	 */
+	public static double scale(double mantissa, int exponent) {
+		if (exponent >= 0) {
+			return mantissa * POWERS_OF_TEN[exponent];
+		}
+
+		return mantissa / POWERS_OF_TEN[-exponent];
+	}
+}
\ No newline at end of file
@@ -0,0 +1 @@
+package tech.anonymoushacker1279.orionble.codec;
\ No newline at end of file
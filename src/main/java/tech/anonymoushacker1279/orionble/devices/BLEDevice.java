@@ -1,25 +1,44 @@
 package tech.anonymoushacker1279.orionble.devices;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.JsonSyntaxException;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import org.jetbrains.annotations.ApiStatus;
 import tech.anonymoushacker1279.orionble.OrionBLE;
+import tech.anonymoushacker1279.orionble.internal.JsonValues;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * A record representing a BLE device. The device can be constructed manually if the information is known, or discovered
  * via {@link OrionBLE#discoverDevices()}.
  *
- * @param name     the name of the device
- * @param address  the address of the device
- * @param isPaired whether the device is paired
+ * @param name         the name of the device
+ * @param address      the address of the device
+ * @param isPaired     whether the device is paired
+ * @param serviceUUIDs the UUIDs of the services the device advertises. Empty if the backend did not report any.
  */
-public record BLEDevice(String name, String address, boolean isPaired) {
+public record BLEDevice(String name, String address, boolean isPaired, List<String> serviceUUIDs) {
+
+	public BLEDevice {
+		serviceUUIDs = serviceUUIDs == null ? List.of() : List.copyOf(serviceUUIDs);
+	}
+
+	/**
+	 * Create a device without any advertised services.
+	 *
+	 * @param name     the name of the device
+	 * @param address  the address of the device
+	 * @param isPaired whether the device is paired
+	 */
+	public BLEDevice(String name, String address, boolean isPaired) {
+		this(name, address, isPaired, List.of());
+	}
 
 	/**
 	 * Parse a list of BLE devices from a JSON response. Called by {@link OrionBLE#discoverDevices()}.
@@ -29,26 +48,112 @@ public record BLEDevice(String name, String address, boolean isPaired) {
 	 */
 	@ApiStatus.Internal
 	public static List<BLEDevice> parseDevices(String response) {
-		Gson gson = new GsonBuilder().create();
-		List<Map<String, String>> raw = gson.fromJson(response, TypeToken.getParameterized(List.class, Map.class).getType());
+		return parseDevices(new StringReader(response));
+	}
+
+	/**
+	 * Parse a list of BLE devices from a JSON response, decoding directly from the stream.
+	 *
+	 * @param response the JSON response
+	 * @return a list of BLE devices
+	 */
+	@ApiStatus.Internal
+	public static List<BLEDevice> parseDevices(Reader response) {
 		List<BLEDevice> devices = new ArrayList<>();
-		for (Map<String, String> s : raw) {
-			devices.add(new BLEDevice(
-					s.get("Name"),
-					s.get("Address"),
-					Boolean.parseBoolean(s.get("Paired"))
-			));
+		parseDevices(response, devices::add);
+		return devices;
+	}
+
+	/**
+	 * Parse a list of BLE devices from a JSON response, passing each device to the consumer as soon as it is decoded.
+	 * Exceptions thrown by the consumer stop parsing and are propagated.
+	 *
+	 * @param response the JSON response
+	 * @param consumer the consumer to call with each device
+	 */
+	@ApiStatus.Internal
+	public static void parseDevices(Reader response, Consumer<BLEDevice> consumer) {
+		try (JsonReader reader = new JsonReader(response)) {
+			reader.beginArray();
+			while (reader.hasNext()) {
+				consumer.accept(readDevice(reader));
+			}
+			reader.endArray();
+		} catch (IOException | IllegalStateException e) {
+			throw new JsonSyntaxException(e);
 		}
+	}
 
-		return devices;
+	private static BLEDevice readDevice(JsonReader reader) throws IOException {
+		String name = null;
+		String address = null;
+		boolean paired = false;
+		List<String> serviceUUIDs = List.of();
+
+		reader.beginObject();
+		while (reader.hasNext()) {
+			switch (reader.nextName()) {
+				case "Name" -> name = JsonValues.nextString(reader);
+				case "Address" -> address = JsonValues.nextString(reader);
+				case "Paired" -> paired = JsonValues.nextBoolean(reader);
+				case "ServiceUUIDs" -> serviceUUIDs = readServiceUUIDs(reader);
+				default -> reader.skipValue();
+			}
+		}
+		reader.endObject();
+
+		return new BLEDevice(name, address, paired, serviceUUIDs);
+	}
+
+	private static List<String> readServiceUUIDs(JsonReader reader) throws IOException {
+		if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+			reader.skipValue();
+			return List.of();
+		}
+
+		List<String> serviceUUIDs = new ArrayList<>();
+		reader.beginArray();
+		while (reader.hasNext()) {
+			String uuid = JsonValues.nextString(reader);
+			if (uuid != null) {
+				serviceUUIDs.add(uuid);
+			}
+		}
+		reader.endArray();
+
+		return serviceUUIDs;
 	}
 
 	public static boolean checkDeviceConnection(String response) {
-		Gson gson = new GsonBuilder().create();
-		try {
-			String connected = gson.fromJson(response, Map.class).get("Connected").toString();
-			return Boolean.parseBoolean(connected);
-		} catch (JsonSyntaxException e) {
+		return checkDeviceConnection(new StringReader(response));
+	}
+
+	/**
+	 * Check the connection state from a JSON response, decoding directly from the stream.
+	 *
+	 * @param response the JSON response
+	 * @return true if the device is connected, false otherwise or if the response is invalid
+	 */
+	@ApiStatus.Internal
+	public static boolean checkDeviceConnection(Reader response) {
+		try (JsonReader reader = new JsonReader(response)) {
+			if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+				return false;
+			}
+
+			boolean connected = false;
+			reader.beginObject();
+			while (reader.hasNext()) {
+				if (reader.nextName().equals("Connected")) {
+					connected = JsonValues.nextBoolean(reader);
+				} else {
+					reader.skipValue();
+				}
+			}
+			reader.endObject();
+
+			return connected;
+		} catch (IOException | IllegalStateException e) {
 			return false;
 		}
 	}
@@ -0,0 +1,19 @@
+package tech.anonymoushacker1279.orionble.devices;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A change to the set of known devices, emitted by the device registry.
+ *
+ * @param type     the {@link Type} of change
+ * @param device   the device after the change. For removals, the device as it was last known.
+ * @param previous the device before the change, only present for {@link Type#CHANGED}
+ */
+public record DeviceEvent(Type type, BLEDevice device, @Nullable BLEDevice previous) {
+
+	public enum Type {
+		ADDED,
+		REMOVED,
+		CHANGED
+	}
+}
\ No newline at end of file
@@ -2,39 +2,183 @@ package tech.anonymoushacker1279.orionble.devices;
 
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.Nullable;
+import tech.anonymoushacker1279.orionble.gatt.CharacteristicHandle;
+import tech.anonymoushacker1279.orionble.internal.Addresses;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
 
 /**
  * Defines a device filter that can be used during discovery. Can be created via the {@link Builder} or directly.
+ * <p>
+ * A device must match every criterion that is set. The filter is sent to the backend so it can skip non-matching
+ * devices, and is also applied client-side via {@link #compile()}, so backends that ignore some criteria still produce
+ * correct results.
  *
- * @param name       the name of the device
- * @param namePrefix the name prefix of the device
+ * @param name          the name of the device
+ * @param namePrefix    the name prefix of the device
+ * @param addresses     the addresses the device may have. Empty to allow any address.
+ * @param addressPrefix the address prefix of the device, such as a manufacturer's OUI
+ * @param paired        the required pairing state, or null to allow either
+ * @param serviceUUIDs  the UUIDs of services the device must advertise. Empty to allow any services.
  */
-public record DeviceFilter(@Nullable String name, @Nullable String namePrefix) {
+public record DeviceFilter(@Nullable String name, @Nullable String namePrefix, Set<String> addresses,
+                           @Nullable String addressPrefix, @Nullable Boolean paired, Set<String> serviceUUIDs) {
+
+	public DeviceFilter {
+		addresses = addresses == null ? Set.of() : Set.copyOf(addresses);
+		serviceUUIDs = serviceUUIDs == null ? Set.of() : Set.copyOf(serviceUUIDs);
+	}
+
+	/**
+	 * Create a device filter that only matches on the name.
+	 *
+	 * @param name       the name of the device
+	 * @param namePrefix the name prefix of the device
+	 */
+	public DeviceFilter(@Nullable String name, @Nullable String namePrefix) {
+		this(name, namePrefix, Set.of(), null, null, Set.of());
+	}
 
 	/**
-	 * Convert the device filter to URI parameters for API calls.
+	 * Convert the device filter to URI parameters for API calls. Lists are sent comma-separated.
 	 *
 	 * @return the URI parameters as a map
 	 */
 	@ApiStatus.Internal
 	public Map<String, String> toUriParams() {
-		Map<String, String> params = new HashMap<>();
+		Map<String, String> params = new LinkedHashMap<>();
 		if (name != null) {
 			params.put("name", name);
 		}
 		if (namePrefix != null) {
 			params.put("namePrefix", namePrefix);
 		}
+		if (!addresses.isEmpty()) {
+			params.put("addresses", String.join(",", addresses.stream().map(Addresses::normalize).sorted().toList()));
+		}
+		if (addressPrefix != null) {
+			params.put("addressPrefix", Addresses.normalize(addressPrefix));
+		}
+		if (paired != null) {
+			params.put("paired", paired.toString());
+		}
+		if (!serviceUUIDs.isEmpty()) {
+			params.put("serviceUUIDs", String.join(",", serviceUUIDs.stream().map(uuid -> uuid.toLowerCase(Locale.ROOT)).sorted().toList()));
+		}
 
 		return params;
 	}
 
+	/**
+	 * Compile the filter into a predicate. Criteria are normalized once up front, and only the criteria that are set
+	 * are tested, so the predicate is cheap enough to run on every device of a large scan.
+	 *
+	 * @return the predicate
+	 */
+	public Predicate<BLEDevice> compile() {
+		List<Predicate<BLEDevice>> tests = new ArrayList<>();
+		if (!addresses.isEmpty()) {
+			Set<String> allowed = new HashSet<>();
+			addresses.forEach(address -> allowed.add(Addresses.normalize(address)));
+			tests.add(device -> device.address() != null && allowed.contains(Addresses.normalize(device.address())));
+		}
+		if (paired != null) {
+			boolean requiredState = paired;
+			tests.add(device -> device.isPaired() == requiredState);
+		}
+		if (addressPrefix != null) {
+			String prefix = Addresses.normalize(addressPrefix);
+			tests.add(device -> device.address() != null && Addresses.normalize(device.address()).startsWith(prefix));
+		}
+		if (name != null) {
+			String requiredName = name;
+			tests.add(device -> requiredName.equals(device.name()));
+		}
+		if (namePrefix != null) {
+			String prefix = namePrefix;
+			tests.add(device -> device.name() != null && device.name().startsWith(prefix));
+		}
+		if (!serviceUUIDs.isEmpty()) {
+			UUID[] required = serviceUUIDs.stream().map(CharacteristicHandle::parseUUID).distinct().toArray(UUID[]::new);
+			tests.add(device -> advertisesAll(device, required));
+		}
+
+		return switch (tests.size()) {
+			case 0 -> device -> true;
+			case 1 -> tests.get(0);
+			default -> {
+				@SuppressWarnings("unchecked")
+				Predicate<BLEDevice>[] all = tests.toArray(Predicate[]::new);
+				yield device -> {
+					for (Predicate<BLEDevice> test : all) {
+						if (!test.test(device)) {
+							return false;
+						}
+					}
+					return true;
+				};
+			}
+		};
+	}
+
+	/**
+	 * Check if a device matches this filter. The filter is compiled on every call, so hold on to the predicate from
+	 * {@link #compile()} instead when checking many devices.
+	 *
+	 * @param device the {@link BLEDevice} to check
+	 * @return true if the device matches
+	 */
+	public boolean matches(BLEDevice device) {
+		return compile().test(device);
+	}
+
+	/**
+	 * Check if a device advertises every required service. UUIDs are compared as in {@link CharacteristicHandle}, so
+	 * the short and long forms of a Bluetooth UUID match.
+	 */
+	private static boolean advertisesAll(BLEDevice device, UUID[] required) {
+		List<String> advertised = device.serviceUUIDs();
+		if (advertised.size() < required.length) {
+			return false;
+		}
+
+		UUID[] parsed = new UUID[advertised.size()];
+		for (int i = 0; i < parsed.length; i++) {
+			parsed[i] = CharacteristicHandle.parseUUID(advertised.get(i));
+		}
+
+		for (UUID uuid : required) {
+			boolean found = false;
+			for (UUID candidate : parsed) {
+				if (candidate.equals(uuid)) {
+					found = true;
+					break;
+				}
+			}
+			if (!found) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
 	public static class Builder {
 		private String name;
 		private String namePrefix;
+		private final Set<String> addresses = new HashSet<>();
+		private String addressPrefix;
+		private Boolean paired;
+		private final Set<String> serviceUUIDs = new HashSet<>();
 
 		/**
 		 * Create a new {@link DeviceFilter} builder.
@@ -64,13 +208,69 @@ public record DeviceFilter(@Nullable String name, @Nullable String namePrefix) {
 			return this;
 		}
 
+		/**
+		 * Add addresses the device may have. Separators and case are ignored when matching.
+		 *
+		 * @param addresses the addresses
+		 * @return the builder
+		 */
+		public Builder addresses(String... addresses) {
+			this.addresses.addAll(List.of(addresses));
+			return this;
+		}
+
+		/**
+		 * Add addresses the device may have. Separators and case are ignored when matching.
+		 *
+		 * @param addresses the addresses
+		 * @return the builder
+		 */
+		public Builder addresses(Collection<String> addresses) {
+			this.addresses.addAll(addresses);
+			return this;
+		}
+
+		/**
+		 * Set the address prefix of the device. Separators and case are ignored when matching.
+		 *
+		 * @param prefix the address prefix of the device
+		 * @return the builder
+		 */
+		public Builder addressPrefix(String prefix) {
+			this.addressPrefix = prefix;
+			return this;
+		}
+
+		/**
+		 * Set the required pairing state of the device.
+		 *
+		 * @param paired whether the device must be paired
+		 * @return the builder
+		 */
+		public Builder paired(boolean paired) {
+			this.paired = paired;
+			return this;
+		}
+
+		/**
+		 * Add UUIDs of services the device must advertise. Case is ignored when matching, and the short and long forms of
+		 * a Bluetooth UUID match.
+		 *
+		 * @param serviceUUIDs the service UUIDs
+		 * @return the builder
+		 */
+		public Builder serviceUUIDs(String... serviceUUIDs) {
+			this.serviceUUIDs.addAll(List.of(serviceUUIDs));
+			return this;
+		}
+
 		/**
 		 * Build the device filter.
 		 *
 		 * @return the device filter
 		 */
 		public DeviceFilter build() {
-			return new DeviceFilter(name, namePrefix);
+			return new DeviceFilter(name, namePrefix, addresses, addressPrefix, paired, serviceUUIDs);
 		}
 	}
 }
\ No newline at end of file
@@ -0,0 +1,91 @@
+package tech.anonymoushacker1279.orionble.devices;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+
+/**
+ * Defines how a continuous device scan runs. Can be created via the {@link Builder} or directly.
+ * <p>
+ * The scan runs in cycles: each cycle scans for the scan window, then stays idle for the rest of the scan interval. A
+ * window equal to the interval scans continuously.
+ *
+ * @param filter           the filter devices must match to be reported, or null to report all devices
+ * @param window           how long each cycle scans for
+ * @param interval         how often a new cycle begins. Must not be shorter than the window.
+ * @param stopOnFirstMatch whether the scan ends after the first device is reported
+ */
+public record ScanSettings(@Nullable DeviceFilter filter, Duration window, Duration interval, boolean stopOnFirstMatch) {
+
+	public ScanSettings {
+		if (window.isNegative() || window.isZero() || interval.compareTo(window) < 0) {
+			throw new IllegalArgumentException("Invalid duty cycle: " + window + " every " + interval);
+		}
+	}
+
+	/**
+	 * Check if the scan runs without idle periods.
+	 *
+	 * @return true if the window equals the interval
+	 */
+	public boolean isContinuous() {
+		return window.equals(interval);
+	}
+
+	public static class Builder {
+		private DeviceFilter filter;
+		private Duration window = Duration.ofSeconds(5);
+		private Duration interval = Duration.ofSeconds(5);
+		private boolean stopOnFirstMatch;
+
+		/**
+		 * Create a new {@link ScanSettings} builder. By default, all devices are reported and the scan runs
+		 * continuously.
+		 */
+		public Builder() {
+		}
+
+		/**
+		 * Set the filter devices must match to be reported.
+		 *
+		 * @param filter the {@link DeviceFilter}
+		 * @return the builder
+		 */
+		public Builder filter(DeviceFilter filter) {
+			this.filter = filter;
+			return this;
+		}
+
+		/**
+		 * Set the duty cycle of the scan.
+		 *
+		 * @param window   how long each cycle scans for
+		 * @param interval how often a new cycle begins
+		 * @return the builder
+		 */
+		public Builder dutyCycle(Duration window, Duration interval) {
+			this.window = window;
+			this.interval = interval;
+			return this;
+		}
+
+		/**
+		 * End the scan after the first device is reported.
+		 *
+		 * @return the builder
+		 */
+		public Builder stopOnFirstMatch() {
+			this.stopOnFirstMatch = true;
+			return this;
+		}
+
+		/**
+		 * Build the scan settings.
+		 *
+		 * @return the scan settings
+		 */
+		public ScanSettings build() {
+			return new ScanSettings(filter, window, interval, stopOnFirstMatch);
+		}
+	}
+}
\ No newline at end of file
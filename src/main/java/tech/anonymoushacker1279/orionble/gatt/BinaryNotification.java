@@ -0,0 +1,116 @@
+package tech.anonymoushacker1279.orionble.gatt;
+
+import org.jetbrains.annotations.ApiStatus;
+import tech.anonymoushacker1279.orionble.OrionBLE;
+import tech.anonymoushacker1279.orionble.devices.BLEDevice;
+
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
+/**
+ * A reusable view of a binary GATT notification, delivered by
+ * {@link OrionBLE#startBinaryNotificationListener(BLEDevice, GATTService, GATTCharacteristic, Consumer, long)}.
+ * <p>
+ * A single instance is reused for every notification of a listener, and its value is a view into a shared buffer. It
+ * is only valid for the duration of the consumer call. Use {@link #copyValue()} to retain a value.
+ */
+public final class BinaryNotification {
+
+	private final String serviceUUID;
+	private final String characteristicUUID;
+	private byte[] array = new byte[0];
+	private ByteBuffer view = ByteBuffer.wrap(array).asReadOnlyBuffer();
+	private int offset;
+	private int length;
+
+	/**
+	 * Create a new binary notification view for a characteristic.
+	 *
+	 * @param serviceUUID        the UUID of the service
+	 * @param characteristicUUID the UUID of the characteristic
+	 */
+	@ApiStatus.Internal
+	public BinaryNotification(String serviceUUID, String characteristicUUID) {
+		this.serviceUUID = serviceUUID;
+		this.characteristicUUID = characteristicUUID;
+	}
+
+	/**
+	 * Point this view at the next value.
+	 *
+	 * @param array  the buffer holding the value
+	 * @param offset the offset of the value in the buffer
+	 * @param length the length of the value
+	 */
+	@ApiStatus.Internal
+	public void wrap(byte[] array, int offset, int length) {
+		if (this.array != array) {
+			this.array = array;
+			this.view = ByteBuffer.wrap(array).asReadOnlyBuffer();
+		}
+		this.offset = offset;
+		this.length = length;
+	}
+
+	public String serviceUUID() {
+		return serviceUUID;
+	}
+
+	public String characteristicUUID() {
+		return characteristicUUID;
+	}
+
+	/**
+	 * Get the length of the value in bytes.
+	 *
+	 * @return the length
+	 */
+	public int length() {
+		return length;
+	}
+
+	/**
+	 * Get a single byte of the value.
+	 *
+	 * @param index the index within the value
+	 * @return the byte
+	 */
+	public byte get(int index) {
+		if (index < 0 || index >= length) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + length);
+		}
+
+		return array[offset + index];
+	}
+
+	/**
+	 * Get a read-only view of the value. The value lies between the position and limit of the returned buffer, which
+	 * is shared and must not be retained.
+	 *
+	 * @return the value
+	 */
+	public ByteBuffer value() {
+		return view.limit(offset + length).position(offset);
+	}
+
+	/**
+	 * Copy the value so that it can be retained after the consumer returns.
+	 *
+	 * @return a copy of the value
+	 */
+	public byte[] copyValue() {
+		byte[] copy = new byte[length];
+		System.arraycopy(array, offset, copy, 0, length);
+		return copy;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder hex = new StringBuilder(length * 2);
+		for (int i = 0; i < length; i++) {
+			hex.append("%02X".formatted(array[offset + i]));
+		}
+
+		return "Notification: %s - %s - %s".formatted(serviceUUID, characteristicUUID, hex);
+	}
+}
\ No newline at end of file
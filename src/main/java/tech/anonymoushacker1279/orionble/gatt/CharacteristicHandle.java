@@ -0,0 +1,199 @@
+package tech.anonymoushacker1279.orionble.gatt;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+import tech.anonymoushacker1279.orionble.OrionBLE;
+import tech.anonymoushacker1279.orionble.devices.BLEDevice;
+import tech.anonymoushacker1279.orionble.internal.APIEndpoints;
+import tech.anonymoushacker1279.orionble.internal.LruCache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * A characteristic of a specific device, resolved once so that repeated operations on it do no per-call work. Every
+ * characteristic operation of {@link OrionBLE} accepts a handle in place of the device, service and characteristic.
+ * <p>
+ * Each endpoint of the characteristic is formatted on first use and cached, and the transport caches its requests by
+ * endpoint, so the steady-state path of an operation does no formatting or URI parsing. Recently created handles are
+ * cached too, so the operations taking a device, service and characteristic reuse the handle, and its endpoints, of
+ * an earlier call instead of formatting them again.
+ * <p>
+ * Handles are equal when they refer to the same device and the same service and characteristic UUIDs, compared as
+ * 128-bit values, so short and full forms of a UUID are interchangeable. Anything keyed by characteristic, such as the
+ * read cache, should key on the handle or on {@link #serviceId()} and {@link #characteristicId()} for the same reason.
+ * <p>
+ * Handles are immutable and thread-safe.
+ */
+public final class CharacteristicHandle {
+
+	private static final String BASE_UUID_SUFFIX = "-0000-1000-8000-00805f9b34fb";
+	private static final int ENDPOINT_COUNT = APIEndpoints.values().length;
+	private static final int MAX_CACHED_HANDLES = 1024;
+	private static final LruCache<HandleKey, CharacteristicHandle> HANDLES = new LruCache<>(MAX_CACHED_HANDLES);
+
+	private final BLEDevice device;
+	private final GATTService service;
+	private final GATTCharacteristic characteristic;
+	// Both caches are filled on first use. Racing threads compute equal values, and the key publishes safely through
+	// its final fields.
+	private final @Nullable String[] endpoints = new String[ENDPOINT_COUNT];
+	private @Nullable Key key;
+
+	private CharacteristicHandle(BLEDevice device, GATTService service, GATTCharacteristic characteristic) {
+		this.device = device;
+		this.service = service;
+		this.characteristic = characteristic;
+	}
+
+	/**
+	 * Get a handle for a characteristic of a device. A recently created handle for the same device, service and
+	 * characteristic is reused.
+	 *
+	 * @param device         the {@link BLEDevice}
+	 * @param service        the {@link GATTService}
+	 * @param characteristic the {@link GATTCharacteristic}
+	 * @return the handle
+	 */
+	public static CharacteristicHandle of(BLEDevice device, GATTService service, GATTCharacteristic characteristic) {
+		HandleKey key = new HandleKey(device.address(), service.uuid(), characteristic.uuid());
+		CharacteristicHandle handle = HANDLES.get(key);
+		if (handle == null || !handle.refersTo(device, service, characteristic)) {
+			handle = new CharacteristicHandle(device, service, characteristic);
+			HANDLES.put(key, handle);
+		}
+
+		return handle;
+	}
+
+	/**
+	 * Check if this handle was created from the same device, service and characteristic, rather than ones that only
+	 * share their address and UUIDs, such as a device that has since been renamed.
+	 */
+	private boolean refersTo(BLEDevice device, GATTService service, GATTCharacteristic characteristic) {
+		return (this.device == device || this.device.equals(device))
+				&& (this.service == service || this.service.equals(service))
+				&& (this.characteristic == characteristic || this.characteristic.equals(characteristic));
+	}
+
+	/**
+	 * Parse a Bluetooth UUID. The 16 and 32-bit short forms, such as "2a19", are expanded with the Bluetooth base UUID,
+	 * and braces, a "0x" prefix and case are ignored. A string that is not a UUID at all is mapped to a name-based UUID,
+	 * so that it still compares consistently.
+	 *
+	 * @param uuid the UUID
+	 * @return the parsed UUID
+	 */
+	public static UUID parseUUID(String uuid) {
+		String normalized = uuid.strip().toLowerCase(Locale.ROOT);
+		if (normalized.startsWith("{") && normalized.endsWith("}")) {
+			normalized = normalized.substring(1, normalized.length() - 1);
+		}
+		if (normalized.startsWith("0x")) {
+			normalized = normalized.substring(2);
+		}
+
+		normalized = switch (normalized.length()) {
+			case 4 -> "0000" + normalized + BASE_UUID_SUFFIX;
+			case 8 -> normalized + BASE_UUID_SUFFIX;
+			default -> normalized;
+		};
+
+		try {
+			return UUID.fromString(normalized);
+		} catch (IllegalArgumentException e) {
+			return UUID.nameUUIDFromBytes(uuid.getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	public BLEDevice device() {
+		return device;
+	}
+
+	public GATTService service() {
+		return service;
+	}
+
+	public GATTCharacteristic characteristic() {
+		return characteristic;
+	}
+
+	public String address() {
+		return device.address();
+	}
+
+	public String serviceUUID() {
+		return service.uuid();
+	}
+
+	public String characteristicUUID() {
+		return characteristic.uuid();
+	}
+
+	/**
+	 * Get the UUID of the service, parsed with {@link #parseUUID(String)}.
+	 *
+	 * @return the service UUID
+	 */
+	public UUID serviceId() {
+		return key().service();
+	}
+
+	/**
+	 * Get the UUID of the characteristic, parsed with {@link #parseUUID(String)}.
+	 *
+	 * @return the characteristic UUID
+	 */
+	public UUID characteristicId() {
+		return key().characteristic();
+	}
+
+	/**
+	 * Get an endpoint formatted for this characteristic.
+	 *
+	 * @param endpoint a characteristic endpoint of {@link APIEndpoints}, taking the address and both UUIDs
+	 * @return the formatted endpoint
+	 */
+	@ApiStatus.Internal
+	public String endpoint(APIEndpoints endpoint) {
+		String formatted = endpoints[endpoint.ordinal()];
+		if (formatted == null) {
+			formatted = endpoint.getEndpoint(device.address(), service.uuid(), characteristic.uuid());
+			endpoints[endpoint.ordinal()] = formatted;
+		}
+
+		return formatted;
+	}
+
+	private Key key() {
+		Key resolved = key;
+		if (resolved == null) {
+			resolved = new Key(device.address(), parseUUID(service.uuid()), parseUUID(characteristic.uuid()));
+			key = resolved;
+		}
+
+		return resolved;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return this == o || o instanceof CharacteristicHandle other && key().equals(other.key());
+	}
+
+	@Override
+	public int hashCode() {
+		return key().hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return "CharacteristicHandle: %s - %s - %s".formatted(device.address(), service.uuid(), characteristic.uuid());
+	}
+
+	private record Key(String address, UUID service, UUID characteristic) {
+	}
+
+	private record HandleKey(String address, String serviceUUID, String characteristicUUID) {
+	}
+}
\ No newline at end of file
@@ -1,13 +1,17 @@
 package tech.anonymoushacker1279.orionble.gatt;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
 import org.jetbrains.annotations.ApiStatus;
 import tech.anonymoushacker1279.orionble.OrionBLE;
 import tech.anonymoushacker1279.orionble.devices.BLEDevice;
+import tech.anonymoushacker1279.orionble.internal.JsonValues;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -30,24 +34,69 @@ public record GATTCharacteristic(String uuid, String description, List<GATTPrope
 	 */
 	@ApiStatus.Internal
 	public static List<GATTCharacteristic> parseCharacteristics(String response) {
-		Gson gson = new GsonBuilder().create();
-		List<Map<String, String>> raw = gson.fromJson(response, TypeToken.getParameterized(List.class, Map.class).getType());
-		List<GATTCharacteristic> services = new ArrayList<>();
-		for (Map<String, String> s : raw) {
-			String[] rawProperties = s.get("Properties").split(", ");
-			List<GATTProperties> properties = new ArrayList<>();
-			for (String property : rawProperties) {
-				properties.add(propertiesFromString(property));
+		return parseCharacteristics(new StringReader(response));
+	}
+
+	/**
+	 * Parse a list of GATT characteristics from a JSON response, decoding directly from the stream.
+	 *
+	 * @param response the JSON response
+	 * @return a list of GATT characteristics
+	 */
+	@ApiStatus.Internal
+	public static List<GATTCharacteristic> parseCharacteristics(Reader response) {
+		try (JsonReader reader = new JsonReader(response)) {
+			List<GATTCharacteristic> characteristics = new ArrayList<>();
+			reader.beginArray();
+			while (reader.hasNext()) {
+				String uuid = null;
+				String description = null;
+				List<GATTProperties> properties = List.of();
+
+				reader.beginObject();
+				while (reader.hasNext()) {
+					switch (reader.nextName()) {
+						case "Uuid" -> uuid = JsonValues.nextString(reader);
+						case "Description" -> description = JsonValues.nextString(reader);
+						case "Properties" -> properties = parseProperties(JsonValues.nextString(reader));
+						default -> reader.skipValue();
+					}
+				}
+				reader.endObject();
+
+				characteristics.add(new GATTCharacteristic(uuid, description, properties));
 			}
+			reader.endArray();
+
+			return characteristics;
+		} catch (IOException | IllegalStateException e) {
+			throw new JsonSyntaxException(e);
+		}
+	}
+
+	/**
+	 * Parse a comma separated list of properties, such as "Read, Notify".
+	 *
+	 * @param rawProperties the properties as a string
+	 * @return the GATT properties
+	 */
+	private static List<GATTProperties> parseProperties(String rawProperties) {
+		if (rawProperties == null) {
+			return List.of();
+		}
 
-			services.add(new GATTCharacteristic(
-					s.get("Uuid"),
-					s.get("Description"),
-					properties
-			));
+		List<GATTProperties> properties = new ArrayList<>();
+		int start = 0;
+		while (start <= rawProperties.length()) {
+			int end = rawProperties.indexOf(", ", start);
+			if (end < 0) {
+				end = rawProperties.length();
+			}
+			properties.add(propertiesFromString(rawProperties.substring(start, end)));
+			start = end + 2;
 		}
 
-		return services;
+		return properties;
 	}
 
 	@Override
@@ -62,13 +111,12 @@ public record GATTCharacteristic(String uuid, String description, List<GATTPrope
 	 * @return the GATT property
 	 */
 	private static GATTProperties propertiesFromString(String property) {
-		for (GATTProperties p : GATTProperties.values()) {
-			if (p.getProperty().equals(property)) {
-				return p;
-			}
+		GATTProperties p = GATTProperties.BY_PROPERTY.get(property);
+		if (p == null) {
+			throw new IllegalArgumentException("Invalid property: " + property);
 		}
 
-		throw new IllegalArgumentException("Invalid property: " + property);
+		return p;
 	}
 
 	/**
@@ -81,6 +129,14 @@ public record GATTCharacteristic(String uuid, String description, List<GATTPrope
 		NOTIFY("Notify"),
 		INDICATE("Indicate");
 
+		private static final Map<String, GATTProperties> BY_PROPERTY = new HashMap<>();
+
+		static {
+			for (GATTProperties p : values()) {
+				BY_PROPERTY.put(p.property, p);
+			}
+		}
+
 		private final String property;
 
 		GATTProperties(String property) {
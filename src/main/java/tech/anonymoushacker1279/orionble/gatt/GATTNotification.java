@@ -1,14 +1,19 @@
 package tech.anonymoushacker1279.orionble.gatt;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonSyntaxException;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import org.jetbrains.annotations.Nullable;
 import tech.anonymoushacker1279.orionble.OrionBLE;
 import tech.anonymoushacker1279.orionble.devices.BLEDevice;
+import tech.anonymoushacker1279.orionble.internal.JsonValues;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
 
 /**
  * A record representing a GATT notification.
@@ -27,24 +32,149 @@ public record GATTNotification(String serviceUUID, String characteristicUUID, St
 	 * @return a list of GATT notifications. Will be empty if an error occurs, or if the response is empty.
 	 */
 	public static List<GATTNotification> parseNotifications(String response) {
-		try {
-			Gson gson = new Gson();
-			List<Map<String, String>> raw = gson.fromJson(response, TypeToken.getParameterized(List.class, Map.class).getType());
+		if (response == null) {
+			return List.of();
+		}
+
+		return parseNotifications(new StringReader(response));
+	}
+
+	/**
+	 * Parse a list of GATT notifications from a JSON response, decoding directly from the stream.
+	 *
+	 * @param response the JSON response
+	 * @return a list of GATT notifications. Will be empty if an error occurs, or if the response is empty.
+	 */
+	public static List<GATTNotification> parseNotifications(Reader response) {
+		try (JsonReader reader = new JsonReader(response)) {
+			reader.beginArray();
+			if (!reader.hasNext()) {
+				// Most polls find nothing, so avoid allocating a list for them
+				return List.of();
+			}
+
 			List<GATTNotification> notifications = new ArrayList<>();
-			for (Map<String, String> s : raw) {
-				notifications.add(new GATTNotification(
-						s.get("Service"),
-						s.get("Characteristic"),
-						s.get("Value")
-				));
+			while (reader.hasNext()) {
+				String service = null;
+				String characteristic = null;
+				String value = null;
+
+				reader.beginObject();
+				while (reader.hasNext()) {
+					switch (reader.nextName()) {
+						case "Service" -> service = JsonValues.nextString(reader);
+						case "Characteristic" -> characteristic = JsonValues.nextString(reader);
+						case "Value" -> value = JsonValues.nextString(reader);
+						default -> reader.skipValue();
+					}
+				}
+				reader.endObject();
+
+				notifications.add(new GATTNotification(service, characteristic, value));
 			}
+			reader.endArray();
 
 			return notifications;
-		} catch (JsonSyntaxException | NullPointerException e) {
+		} catch (IOException | IllegalStateException e) {
 			return List.of();
 		}
 	}
 
+	/**
+	 * Parse the notifications of a drain response, which may cover several characteristics and devices. Each
+	 * notification is passed to the consumer as soon as it is decoded, along with the address of its device.
+	 *
+	 * @param response       the JSON response
+	 * @param defaultAddress the address of notifications that do not name their device, or null if there is none
+	 * @param consumer       the consumer to call with the address and each notification
+	 * @return the number of notifications decoded. Decoding stops at the first error, so notifications before it are
+	 * still delivered. A consumer that throws is reported as by {@link #deliver(Consumer, GATTNotification)}, and
+	 * does not stop decoding.
+	 */
+	public static int parseNotifications(Reader response, @Nullable String defaultAddress, BiConsumer<@Nullable String, GATTNotification> consumer) {
+		int count = 0;
+		try (JsonReader reader = new JsonReader(response)) {
+			reader.beginArray();
+			while (reader.hasNext()) {
+				String address = defaultAddress;
+				String service = null;
+				String characteristic = null;
+				String value = null;
+
+				reader.beginObject();
+				while (reader.hasNext()) {
+					switch (reader.nextName()) {
+						case "Address" -> address = JsonValues.nextString(reader);
+						case "Service" -> service = JsonValues.nextString(reader);
+						case "Characteristic" -> characteristic = JsonValues.nextString(reader);
+						case "Value" -> value = JsonValues.nextString(reader);
+						default -> reader.skipValue();
+					}
+				}
+				reader.endObject();
+
+				deliver(consumer, address, new GATTNotification(service, characteristic, value));
+				count++;
+			}
+			reader.endArray();
+		} catch (IOException | IllegalStateException e) {
+			// Keep what was already delivered, the rest of the response is unusable
+		}
+
+		return count;
+	}
+
+	/**
+	 * Deliver a notification to a consumer, isolating the caller from its failures. An exception thrown by the consumer
+	 * is reported to the uncaught exception handler of the current thread, so that one failing notification neither
+	 * drops the ones after it nor is mistaken for a failed request.
+	 *
+	 * @param consumer     the consumer
+	 * @param notification the notification
+	 */
+	public static void deliver(Consumer<GATTNotification> consumer, GATTNotification notification) {
+		try {
+			consumer.accept(notification);
+		} catch (RuntimeException e) {
+			report(e);
+		}
+	}
+
+	/**
+	 * Adapt a consumer of numeric values to a consumer of notifications, for characteristics whose text value is a
+	 * number. This lets numeric consumers, such as the operators of the {@code stream} package, be passed to
+	 * {@link OrionBLE#startNotificationListener(CharacteristicHandle, Consumer, long)} on backends without
+	 * {@link tech.anonymoushacker1279.orionble.BackendCapability#BINARY_NOTIFICATIONS}.
+	 * <p>
+	 * A value that is not a number makes the returned consumer throw a {@link NumberFormatException}, which a listener
+	 * reports as by {@link #deliver(Consumer, GATTNotification)}.
+	 *
+	 * @param consumer the consumer to call with each parsed value
+	 * @return a consumer of notifications
+	 */
+	public static Consumer<GATTNotification> parsingValues(DoubleConsumer consumer) {
+		return notification -> {
+			if (notification.value() == null) {
+				throw new NumberFormatException("The notification has no value");
+			}
+
+			consumer.accept(Double.parseDouble(notification.value()));
+		};
+	}
+
+	private static void deliver(BiConsumer<@Nullable String, GATTNotification> consumer, @Nullable String address, GATTNotification notification) {
+		try {
+			consumer.accept(address, notification);
+		} catch (RuntimeException e) {
+			report(e);
+		}
+	}
+
+	private static void report(RuntimeException e) {
+		Thread thread = Thread.currentThread();
+		thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+	}
+
 	@Override
 	public String toString() {
 		return "Notification: %s - %s - %s".formatted(serviceUUID, characteristicUUID, value);
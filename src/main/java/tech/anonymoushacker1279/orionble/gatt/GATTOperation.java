@@ -0,0 +1,98 @@
+package tech.anonymoushacker1279.orionble.gatt;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+import tech.anonymoushacker1279.orionble.OrionBLE;
+import tech.anonymoushacker1279.orionble.devices.BLEDevice;
+
+import java.util.List;
+
+/**
+ * A record representing a single read or write within a batch. Batches are executed via
+ * {@link OrionBLE#executeOperations(BLEDevice, List)}. Create operations with {@link #read(GATTService,
+ * GATTCharacteristic)} or {@link #write(GATTService, GATTCharacteristic, int[])}.
+ *
+ * @param type           the type of the operation
+ * @param service        the {@link GATTService}
+ * @param characteristic the {@link GATTCharacteristic}
+ * @param data           the data to write, or null for reads
+ */
+public record GATTOperation(Type type, GATTService service, GATTCharacteristic characteristic, int @Nullable [] data) {
+
+	/**
+	 * Create a read operation.
+	 *
+	 * @param service        the {@link GATTService}
+	 * @param characteristic the {@link GATTCharacteristic} to read
+	 * @return the operation
+	 */
+	public static GATTOperation read(GATTService service, GATTCharacteristic characteristic) {
+		return new GATTOperation(Type.READ, service, characteristic, null);
+	}
+
+	/**
+	 * Create a write operation.
+	 *
+	 * @param service        the {@link GATTService}
+	 * @param characteristic the {@link GATTCharacteristic} to write to
+	 * @param data           the data to write
+	 * @return the operation
+	 */
+	public static GATTOperation write(GATTService service, GATTCharacteristic characteristic, int[] data) {
+		return new GATTOperation(Type.WRITE, service, characteristic, data);
+	}
+
+	/**
+	 * Convert a list of operations to the JSON body of a batch request.
+	 *
+	 * @param operations the operations
+	 * @return the batch request body
+	 */
+	@ApiStatus.Internal
+	public static JsonObject toBatchMessage(List<GATTOperation> operations) {
+		JsonArray array = new JsonArray();
+		for (GATTOperation operation : operations) {
+			JsonObject o = new JsonObject();
+			o.addProperty("Operation", operation.type.getOperation());
+			o.addProperty("Service", operation.service.uuid());
+			o.addProperty("Characteristic", operation.characteristic.uuid());
+			if (operation.data != null) {
+				JsonArray dataArray = new JsonArray();
+				for (int i : operation.data) {
+					dataArray.add(i);
+				}
+				o.add("Message", dataArray);
+			}
+			array.add(o);
+		}
+
+		JsonObject message = new JsonObject();
+		message.add("operations", array);
+		return message;
+	}
+
+	@Override
+	public String toString() {
+		return "%s %s - %s".formatted(type.getOperation(), service.uuid(), characteristic.uuid());
+	}
+
+	/**
+	 * An enum representing the type of operation.
+	 */
+	public enum Type {
+		READ("Read"),
+		WRITE("Write");
+
+		private final String operation;
+
+		Type(String operation) {
+			this.operation = operation;
+		}
+
+		public String getOperation() {
+			return operation;
+		}
+	}
+}
\ No newline at end of file
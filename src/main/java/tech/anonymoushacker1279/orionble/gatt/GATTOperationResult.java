@@ -0,0 +1,91 @@
+package tech.anonymoushacker1279.orionble.gatt;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+import tech.anonymoushacker1279.orionble.OrionBLE;
+import tech.anonymoushacker1279.orionble.devices.BLEDevice;
+import tech.anonymoushacker1279.orionble.internal.JsonValues;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A record representing the outcome of a single {@link GATTOperation} within a batch. Returned by
+ * {@link OrionBLE#executeOperations(BLEDevice, List)}.
+ *
+ * @param serviceUUID        the UUID of the service
+ * @param characteristicUUID the UUID of the characteristic
+ * @param value              the value read, or null for writes and failed operations
+ * @param error              the error reported for this operation, or null if it succeeded
+ */
+public record GATTOperationResult(String serviceUUID, String characteristicUUID, @Nullable String value, @Nullable String error) {
+
+	/**
+	 * Parse a list of operation results from a JSON response, in the order the operations were sent.
+	 *
+	 * @param response the JSON response
+	 * @return a list of operation results
+	 */
+	@ApiStatus.Internal
+	public static List<GATTOperationResult> parseResults(String response) {
+		return parseResults(new StringReader(response));
+	}
+
+	/**
+	 * Parse a list of operation results from a JSON response, decoding directly from the stream.
+	 *
+	 * @param response the JSON response
+	 * @return a list of operation results
+	 */
+	@ApiStatus.Internal
+	public static List<GATTOperationResult> parseResults(Reader response) {
+		try (JsonReader reader = new JsonReader(response)) {
+			List<GATTOperationResult> results = new ArrayList<>();
+			reader.beginArray();
+			while (reader.hasNext()) {
+				String service = null;
+				String characteristic = null;
+				String value = null;
+				String error = null;
+
+				reader.beginObject();
+				while (reader.hasNext()) {
+					switch (reader.nextName()) {
+						case "Service" -> service = JsonValues.nextString(reader);
+						case "Characteristic" -> characteristic = JsonValues.nextString(reader);
+						case "Value" -> value = JsonValues.nextString(reader);
+						case "Error" -> error = JsonValues.nextString(reader);
+						default -> reader.skipValue();
+					}
+				}
+				reader.endObject();
+
+				results.add(new GATTOperationResult(service, characteristic, value, error));
+			}
+			reader.endArray();
+
+			return results;
+		} catch (IOException | IllegalStateException e) {
+			throw new JsonSyntaxException(e);
+		}
+	}
+
+	/**
+	 * Check if the operation succeeded.
+	 *
+	 * @return true if no error was reported
+	 */
+	public boolean isSuccess() {
+		return error == null;
+	}
+
+	@Override
+	public String toString() {
+		return "%s - %s - %s".formatted(serviceUUID, characteristicUUID, isSuccess() ? value : "Error: " + error);
+	}
+}
\ No newline at end of file
@@ -1,15 +1,17 @@
 package tech.anonymoushacker1279.orionble.gatt;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
 import org.jetbrains.annotations.ApiStatus;
 import tech.anonymoushacker1279.orionble.OrionBLE;
 import tech.anonymoushacker1279.orionble.devices.BLEDevice;
+import tech.anonymoushacker1279.orionble.internal.JsonValues;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 /**
  * A record representing a GATT service. The service can be constructed manually if the information is known, or
@@ -28,17 +30,42 @@ public record GATTService(String uuid, boolean isPrimary) {
 	 */
 	@ApiStatus.Internal
 	public static List<GATTService> parseServices(String response) {
-		Gson gson = new GsonBuilder().create();
-		List<Map<String, String>> raw = gson.fromJson(response, TypeToken.getParameterized(List.class, Map.class).getType());
-		List<GATTService> services = new ArrayList<>();
-		for (Map<String, String> s : raw) {
-			services.add(new GATTService(
-					s.get("Uuid"),
-					Boolean.parseBoolean(s.get("IsPrimary"))
-			));
-		}
+		return parseServices(new StringReader(response));
+	}
+
+	/**
+	 * Parse a list of GATT services from a JSON response, decoding directly from the stream.
+	 *
+	 * @param response the JSON response
+	 * @return a list of GATT services
+	 */
+	@ApiStatus.Internal
+	public static List<GATTService> parseServices(Reader response) {
+		try (JsonReader reader = new JsonReader(response)) {
+			List<GATTService> services = new ArrayList<>();
+			reader.beginArray();
+			while (reader.hasNext()) {
+				String uuid = null;
+				boolean primary = false;
 
-		return services;
+				reader.beginObject();
+				while (reader.hasNext()) {
+					switch (reader.nextName()) {
+						case "Uuid" -> uuid = JsonValues.nextString(reader);
+						case "IsPrimary" -> primary = JsonValues.nextBoolean(reader);
+						default -> reader.skipValue();
+					}
+				}
+				reader.endObject();
+
+				services.add(new GATTService(uuid, primary));
+			}
+			reader.endArray();
+
+			return services;
+		} catch (IOException | IllegalStateException e) {
+			throw new JsonSyntaxException(e);
+		}
 	}
 
 	@Override
@@ -1,24 +1,41 @@
 package tech.anonymoushacker1279.orionble.internal;
 
+import org.jetbrains.annotations.Nullable;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
 /**
  * An enum of API endpoints.
  */
 public enum APIEndpoints {
 	ROOT("/"),
+	CAPABILITIES("/capabilities"),
+	DRAIN_NOTIFICATIONS("/notifications"),
 	DISCOVER_DEVICES("/devices/discover"),
+	STREAM_DEVICE_DISCOVERY("/devices/discover/stream"),
 	CHECK_DEVICE_CONNECTION("/devices/%s"),
 	DISCOVER_GATT_SERVICES("/devices/%s/services"),
+	DRAIN_DEVICE_NOTIFICATIONS("/devices/%s/notifications"),
 	DISCOVER_GATT_CHARACTERISTICS("/devices/%s/service/%s"),
 	READ_GATT_CHARACTERISTIC("/devices/%s/service/%s/characteristic/%s/read"),
+	READ_GATT_CHARACTERISTIC_BINARY("/devices/%s/service/%s/characteristic/%s/read/binary"),
 	WRITE_GATT_CHARACTERISTIC("/devices/%s/service/%s/characteristic/%s/write"),
+	WRITE_GATT_CHARACTERISTIC_BINARY("/devices/%s/service/%s/characteristic/%s/write/binary"),
 	REGISTER_NOTIFY_EVENT("/devices/%s/service/%s/characteristic/%s/register_notify"),
 	UNREGISTER_NOTIFY_EVENT("/devices/%s/service/%s/characteristic/%s/unregister_notify"),
-	GET_GATT_CHARACTERISTIC_NOTIFICATIONS("/devices/%s/service/%s/characteristic/%s/notifications");
+	BATCH_GATT_OPERATIONS("/devices/%s/batch"),
+	GET_GATT_CHARACTERISTIC_NOTIFICATIONS("/devices/%s/service/%s/characteristic/%s/notifications"),
+	BINARY_GATT_CHARACTERISTIC_NOTIFICATIONS("/devices/%s/service/%s/characteristic/%s/notifications/binary"),
+	STREAM_GATT_CHARACTERISTIC_NOTIFICATIONS("/devices/%s/service/%s/characteristic/%s/notifications/stream");
 
 	private final String endpoint;
+	private final String[] segments;
 
 	APIEndpoints(String endpoint) {
 		this.endpoint = endpoint;
+		this.segments = endpoint.substring(1).split("/", -1);
 	}
 
 	public String getEndpoint() {
@@ -28,4 +45,62 @@ public enum APIEndpoints {
 	public String getEndpoint(String... args) {
 		return String.format(endpoint, (Object[]) args);
 	}
+
+	/**
+	 * Append query parameters to a formatted endpoint. Keys and values are URL-encoded.
+	 *
+	 * @param endpoint the formatted endpoint
+	 * @param params   the parameters to append
+	 * @return the endpoint with its query
+	 */
+	public static String withQuery(String endpoint, Map<String, String> params) {
+		if (params.isEmpty()) {
+			return endpoint;
+		}
+
+		StringBuilder uri = new StringBuilder(endpoint);
+		char separator = '?';
+		for (Map.Entry<String, String> entry : params.entrySet()) {
+			uri.append(separator)
+					.append(URLEncoder.encode(entry.getKey(), StandardCharsets.UTF_8))
+					.append('=')
+					.append(URLEncoder.encode(entry.getValue(), StandardCharsets.UTF_8));
+			separator = '&';
+		}
+
+		return uri.toString();
+	}
+
+	/**
+	 * Identify the endpoint a request path was formatted from. Used to attribute metrics, so it is only called when
+	 * metrics are being recorded.
+	 *
+	 * @param path the request path, without any query
+	 * @return the endpoint, or null if the path does not match any endpoint
+	 */
+	public static @Nullable APIEndpoints fromPath(String path) {
+		String[] parts = path.substring(path.startsWith("/") ? 1 : 0).split("/", -1);
+		// Endpoints are declared with literal paths before their parameterized neighbours, so the first match wins
+		for (APIEndpoints e : values()) {
+			if (e.matches(parts)) {
+				return e;
+			}
+		}
+
+		return null;
+	}
+
+	private boolean matches(String[] parts) {
+		if (parts.length != segments.length) {
+			return false;
+		}
+
+		for (int i = 0; i < parts.length; i++) {
+			if (!segments[i].equals("%s") && !segments[i].equals(parts[i])) {
+				return false;
+			}
+		}
+
+		return true;
+	}
 }
\ No newline at end of file
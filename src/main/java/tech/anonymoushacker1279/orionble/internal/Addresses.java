@@ -0,0 +1,37 @@
+package tech.anonymoushacker1279.orionble.internal;
+
+/**
+ * Helpers for device addresses. Backends and callers do not agree on the format of an address, so anything comparing or
+ * keying by address should normalize it first.
+ */
+public final class Addresses {
+
+	private Addresses() {
+	}
+
+	/**
+	 * Normalize an address for comparison, removing separators and using upper case.
+	 *
+	 * @param address the address, such as "B0:B1:13:9A:F4:59"
+	 * @return the normalized address, such as "B0B1139AF459"
+	 */
+	public static String normalize(String address) {
+		StringBuilder normalized = null;
+		for (int i = 0; i < address.length(); i++) {
+			char c = address.charAt(i);
+			if (c == ':' || c == '-' || Character.isLowerCase(c)) {
+				if (normalized == null) {
+					normalized = new StringBuilder(address.length()).append(address, 0, i);
+				}
+				if (c != ':' && c != '-') {
+					normalized.append(Character.toUpperCase(c));
+				}
+			} else if (normalized != null) {
+				normalized.append(c);
+			}
+		}
+
+		// Addresses reported by the backend are usually normalized already, so avoid copying them
+		return normalized == null ? address : normalized.toString();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+package tech.anonymoushacker1279.orionble.internal;
+
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * An enum of optional features a backend server may advertise via {@link APIEndpoints#CAPABILITIES}. Older backends
+ * do not advertise anything, in which case the client falls back to the basic endpoints.
+ */
+public enum BackendCapability {
+	NOTIFICATION_STREAM("notification_stream"),
+	BATCH_OPERATIONS("batch_operations"),
+	BINARY_NOTIFICATIONS("binary_notifications"),
+	BINARY_WRITES("binary_writes"),
+	DEVICE_SCAN_STREAM("device_scan_stream"),
+	BINARY_READS("binary_reads"),
+	NOTIFICATION_DRAIN("notification_drain");
+
+	private final String capability;
+
+	BackendCapability(String capability) {
+		this.capability = capability;
+	}
+
+	public String getCapability() {
+		return capability;
+	}
+
+	/**
+	 * Parse the capabilities advertised by a backend. Unknown capabilities are ignored.
+	 *
+	 * @param response the JSON response, an array of capability names
+	 * @return the set of known capabilities. Will be empty if the response is not a valid capability list.
+	 */
+	public static Set<BackendCapability> parseCapabilities(String response) {
+		Set<BackendCapability> capabilities = EnumSet.noneOf(BackendCapability.class);
+		try (JsonReader reader = new JsonReader(new StringReader(response))) {
+			reader.beginArray();
+			while (reader.hasNext()) {
+				String name = JsonValues.nextString(reader);
+				for (BackendCapability c : values()) {
+					if (c.capability.equals(name)) {
+						capabilities.add(c);
+					}
+				}
+			}
+			reader.endArray();
+		} catch (IOException | IllegalStateException e) {
+			return EnumSet.noneOf(BackendCapability.class);
+		}
+
+		return capabilities;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,39 @@
+package tech.anonymoushacker1279.orionble.internal;
+
+import java.io.Serial;
+
+/**
+ * Thrown by a {@link Transport} when the backend answers a request with a status code outside the 2xx range. Every
+ * transport raises this, so callers can tell a rejected request apart from a backend that could not be reached.
+ */
+public class BackendStatusException extends RuntimeException {
+
+	@Serial
+	private static final long serialVersionUID = 1L;
+
+	private final int statusCode;
+
+	/**
+	 * Create a new exception.
+	 *
+	 * @param path       the path of the request
+	 * @param statusCode the status code of the response
+	 */
+	public BackendStatusException(String path, int statusCode) {
+		super("Request to " + path + " failed with status " + statusCode);
+		this.statusCode = statusCode;
+	}
+
+	public int getStatusCode() {
+		return statusCode;
+	}
+
+	/**
+	 * Check if the backend itself failed, rather than rejecting the request.
+	 *
+	 * @return true for a 5xx status code
+	 */
+	public boolean isServerError() {
+		return statusCode >= 500;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,109 @@
+package tech.anonymoushacker1279.orionble.internal;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+/**
+ * A line subscriber that decodes a server-sent event stream. The data of each event is passed to the consumer as soon
+ * as the event is complete. Created by {@link Transport#streamRequest(String, Consumer)}.
+ */
+public class EventStream implements Flow.Subscriber<String> {
+
+	private final Consumer<String> consumer;
+	private final CompletableFuture<Void> completion = new CompletableFuture<>();
+	private final StringBuilder data = new StringBuilder();
+	private volatile Flow.Subscription subscription;
+	private volatile boolean cancelled;
+
+	EventStream(Consumer<String> consumer) {
+		this.consumer = consumer;
+	}
+
+	/**
+	 * Get a future that completes when the stream ends. It completes exceptionally if the stream could not be opened
+	 * or was interrupted by the server.
+	 *
+	 * @return the completion future
+	 */
+	public CompletableFuture<Void> completion() {
+		return completion;
+	}
+
+	/**
+	 * Close the stream. The completion future will be completed normally.
+	 */
+	public void cancel() {
+		cancelled = true;
+		Flow.Subscription s = subscription;
+		if (s != null) {
+			s.cancel();
+		}
+		completion.complete(null);
+	}
+
+	/**
+	 * Fail the stream before any events were received, such as when the server rejects the request.
+	 *
+	 * @param throwable the cause
+	 */
+	void fail(Throwable throwable) {
+		completion.completeExceptionally(throwable);
+	}
+
+	/**
+	 * Pass the data of a complete event to the consumer, for transports that frame events themselves.
+	 *
+	 * @param eventData the data of the event
+	 */
+	void dispatch(String eventData) {
+		if (!cancelled) {
+			consumer.accept(eventData);
+		}
+	}
+
+	@Override
+	public void onSubscribe(Flow.Subscription subscription) {
+		this.subscription = subscription;
+		if (cancelled) {
+			subscription.cancel();
+		} else {
+			subscription.request(Long.MAX_VALUE);
+		}
+	}
+
+	@Override
+	public void onNext(String line) {
+		if (cancelled) {
+			return;
+		}
+
+		if (line.isEmpty()) {
+			// A blank line terminates the event
+			if (!data.isEmpty()) {
+				consumer.accept(data.toString());
+				data.setLength(0);
+			}
+		} else if (line.startsWith("data:")) {
+			if (!data.isEmpty()) {
+				data.append('\n');
+			}
+			data.append(line, line.startsWith("data: ") ? 6 : 5, line.length());
+		}
+		// Comments, ids and other fields are not used
+	}
+
+	@Override
+	public void onError(Throwable throwable) {
+		completion.completeExceptionally(throwable);
+	}
+
+	@Override
+	public void onComplete() {
+		if (cancelled) {
+			completion.complete(null);
+		} else {
+			completion.completeExceptionally(new IllegalStateException("Event stream closed by the server"));
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,125 @@
+package tech.anonymoushacker1279.orionble.internal;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+
+/**
+ * Helpers for decoding backend responses directly from a {@link JsonReader}. The backend is not strict about whether
+ * scalars are sent as strings or as native JSON values, so these accept either. Responses that are only passed on,
+ * such as when merging the responses of several backends, can be copied without building a tree.
+ */
+public final class JsonValues {
+
+	private JsonValues() {
+	}
+
+	/**
+	 * Read the next value as a string.
+	 *
+	 * @param reader the {@link JsonReader}
+	 * @return the value, or null if it is JSON null
+	 * @throws IOException if the value could not be read
+	 */
+	public static @Nullable String nextString(JsonReader reader) throws IOException {
+		return switch (reader.peek()) {
+			case NULL -> {
+				reader.nextNull();
+				yield null;
+			}
+			case BOOLEAN -> String.valueOf(reader.nextBoolean());
+			case STRING, NUMBER -> reader.nextString();
+			default -> throw new IllegalStateException("Expected a scalar but was " + reader.peek() + " at " + reader.getPath());
+		};
+	}
+
+	/**
+	 * Read the next value as a boolean. Strings are parsed with {@link Boolean#parseBoolean(String)}.
+	 *
+	 * @param reader the {@link JsonReader}
+	 * @return the value, or false if it is JSON null
+	 * @throws IOException if the value could not be read
+	 */
+	public static boolean nextBoolean(JsonReader reader) throws IOException {
+		if (reader.peek() == JsonToken.BOOLEAN) {
+			return reader.nextBoolean();
+		}
+
+		return Boolean.parseBoolean(nextString(reader));
+	}
+
+	/**
+	 * Copy the next value, including everything nested in it, token by token. Numbers are copied as written.
+	 *
+	 * @param reader the {@link JsonReader} to copy from
+	 * @param writer the {@link JsonWriter} to copy to
+	 * @throws IOException if the value could not be read or written
+	 */
+	public static void copy(JsonReader reader, JsonWriter writer) throws IOException {
+		switch (reader.peek()) {
+			case BEGIN_ARRAY -> {
+				reader.beginArray();
+				writer.beginArray();
+				while (reader.hasNext()) {
+					copy(reader, writer);
+				}
+				reader.endArray();
+				writer.endArray();
+			}
+			case BEGIN_OBJECT -> {
+				reader.beginObject();
+				writer.beginObject();
+				while (reader.hasNext()) {
+					writer.name(reader.nextName());
+					copy(reader, writer);
+				}
+				reader.endObject();
+				writer.endObject();
+			}
+			case STRING -> writer.value(reader.nextString());
+			case NUMBER -> writer.jsonValue(reader.nextString());
+			case BOOLEAN -> writer.value(reader.nextBoolean());
+			case NULL -> {
+				reader.nextNull();
+				writer.nullValue();
+			}
+			default -> throw new IllegalStateException("Expected a value but was " + reader.peek() + " at " + reader.getPath());
+		}
+	}
+
+	/**
+	 * Copy the next object, capturing one of its string fields on the way. Any other value is copied as is.
+	 *
+	 * @param reader the {@link JsonReader} to copy from
+	 * @param writer the {@link JsonWriter} to copy to
+	 * @param field  the name of the field to capture
+	 * @return the value of the field, or null if the value is not an object or has no such string field
+	 * @throws IOException if the value could not be read or written
+	 */
+	public static @Nullable String copyCapturing(JsonReader reader, JsonWriter writer, String field) throws IOException {
+		if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+			copy(reader, writer);
+			return null;
+		}
+
+		String captured = null;
+		reader.beginObject();
+		writer.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			writer.name(name);
+			if (name.equals(field) && reader.peek() == JsonToken.STRING) {
+				captured = reader.nextString();
+				writer.value(captured);
+			} else {
+				copy(reader, writer);
+			}
+		}
+		reader.endObject();
+		writer.endObject();
+		return captured;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,89 @@
+package tech.anonymoushacker1279.orionble.internal;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A cache holding at most a fixed number of entries, evicting the least recently used entry to make room. Used for
+ * values derived from endpoints and characteristics, which embed device addresses and are not needed forever, but are
+ * needed over and over while a device is in use.
+ * <p>
+ * All methods are synchronized.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public final class LruCache<K, V> {
+
+	private final int capacity;
+	// Access ordered, so the first entry is always the least recently used
+	private final LinkedHashMap<K, V> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 * Create an empty cache.
+	 *
+	 * @param capacity the maximum number of entries
+	 */
+	public LruCache(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+		}
+
+		this.capacity = capacity;
+	}
+
+	public synchronized @Nullable V get(K key) {
+		return entries.get(key);
+	}
+
+	public synchronized void put(K key, V value) {
+		entries.put(key, value);
+		if (entries.size() > capacity) {
+			Iterator<K> eldest = entries.keySet().iterator();
+			eldest.next();
+			eldest.remove();
+		}
+	}
+
+	/**
+	 * Get the value of a key, creating and caching it if needed.
+	 *
+	 * @param key     the key
+	 * @param factory creates the value for the key. It runs while the cache is locked, so it should be quick.
+	 * @return the value
+	 */
+	public synchronized V computeIfAbsent(K key, Function<? super K, ? extends V> factory) {
+		V value = entries.get(key);
+		if (value == null) {
+			value = factory.apply(key);
+			put(key, value);
+		}
+
+		return value;
+	}
+
+	public synchronized void remove(K key) {
+		entries.remove(key);
+	}
+
+	/**
+	 * Remove every entry whose key matches a predicate.
+	 *
+	 * @param filter selects the keys to remove
+	 */
+	public synchronized void removeIf(Predicate<? super K> filter) {
+		entries.keySet().removeIf(filter);
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+}
\ No newline at end of file
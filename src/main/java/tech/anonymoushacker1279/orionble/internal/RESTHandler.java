@@ -1,18 +1,42 @@
 package tech.anonymoushacker1279.orionble.internal;
 
 import com.google.gson.JsonObject;
+import org.jetbrains.annotations.Nullable;
+import tech.anonymoushacker1279.orionble.metrics.BackendRequestEvent;
+import tech.anonymoushacker1279.orionble.metrics.MetricsListener;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
-public class RESTHandler {
+/**
+ * A {@link Transport} that makes HTTP requests to the server over TCP.
+ */
+public class RESTHandler implements Transport {
+
+	private static final int MAX_CACHED_ENDPOINTS = 1024;
 
 	private final HttpClient client;
 	private final String serverAddress;
+	private final @Nullable Duration requestTimeout;
+	private volatile MetricsListener metricsListener = MetricsListener.NONE;
+	// Requests without a body are immutable and reusable, so they are built once per endpoint. Endpoints embed device
+	// addresses, so only the most recently used are kept.
+	private final LruCache<String, URI> uris = new LruCache<>(MAX_CACHED_ENDPOINTS);
+	private final LruCache<String, HttpRequest> getRequests = new LruCache<>(MAX_CACHED_ENDPOINTS);
+	private final LruCache<String, HttpRequest> binaryGetRequests = new LruCache<>(MAX_CACHED_ENDPOINTS);
 
 	/**
 	 * Create a RESTHandler instance. All API requests are made through this class.
@@ -21,8 +45,167 @@ public class RESTHandler {
 	 * @param serverAddress the server address
 	 */
 	public RESTHandler(HttpClient client, String serverAddress) {
+		this(client, serverAddress, null);
+	}
+
+	/**
+	 * Create a RESTHandler instance. All API requests are made through this class.
+	 *
+	 * @param client         a {@link HttpClient} instance
+	 * @param serverAddress  the server address
+	 * @param requestTimeout the maximum time to wait for each response, or null to wait indefinitely. Notification
+	 *                       streams are exempt.
+	 */
+	public RESTHandler(HttpClient client, String serverAddress, @Nullable Duration requestTimeout) {
 		this.client = client;
 		this.serverAddress = serverAddress;
+		this.requestTimeout = requestTimeout;
+	}
+
+	/**
+	 * Create a request builder with the request timeout applied.
+	 *
+	 * @return the {@link HttpRequest.Builder}
+	 */
+	private HttpRequest.Builder newRequest() {
+		HttpRequest.Builder builder = HttpRequest.newBuilder();
+		if (requestTimeout != null) {
+			builder.timeout(requestTimeout);
+		}
+
+		return builder;
+	}
+
+	private URI uri(String endpoint) {
+		return uris.computeIfAbsent(endpoint, e -> URI.create(serverAddress + e));
+	}
+
+	private HttpRequest getRequestFor(String endpoint) {
+		return getRequests.computeIfAbsent(endpoint, e -> newRequest()
+				.GET()
+				.uri(uri(e))
+				.build());
+	}
+
+	/**
+	 * Set the listener notified of every request. Use {@link MetricsListener#NONE} to stop recording.
+	 *
+	 * @param metricsListener the {@link MetricsListener}
+	 */
+	@Override
+	public void setMetricsListener(MetricsListener metricsListener) {
+		this.metricsListener = metricsListener;
+	}
+
+	/**
+	 * Send a request, recording metrics and a {@link BackendRequestEvent} if enabled.
+	 *
+	 * @param request     the {@link HttpRequest} to send
+	 * @param bodyHandler the {@link HttpResponse.BodyHandler} for the response
+	 * @return the response
+	 */
+	private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) throws IOException, InterruptedException {
+		MetricsListener listener = metricsListener;
+		BackendRequestEvent event = new BackendRequestEvent();
+		if (listener == MetricsListener.NONE && !event.isEnabled()) {
+			return client.send(request, bodyHandler);
+		}
+
+		event.begin();
+		long start = System.nanoTime();
+		try {
+			HttpResponse<T> response = client.send(request, bodyHandler);
+			recordResponse(listener, event, request, response, System.nanoTime() - start);
+			return response;
+		} catch (IOException | InterruptedException | RuntimeException e) {
+			recordFailure(listener, event, request, System.nanoTime() - start, e);
+			throw e;
+		}
+	}
+
+	/**
+	 * Send a request without blocking, recording metrics and a {@link BackendRequestEvent} if enabled.
+	 *
+	 * @param request     the {@link HttpRequest} to send
+	 * @param bodyHandler the {@link HttpResponse.BodyHandler} for the response
+	 * @return a future completing with the response
+	 */
+	private <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+		MetricsListener listener = metricsListener;
+		BackendRequestEvent event = new BackendRequestEvent();
+		if (listener == MetricsListener.NONE && !event.isEnabled()) {
+			return client.sendAsync(request, bodyHandler);
+		}
+
+		event.begin();
+		long start = System.nanoTime();
+		return client.sendAsync(request, bodyHandler).whenComplete((response, throwable) -> {
+			if (throwable == null) {
+				recordResponse(listener, event, request, response, System.nanoTime() - start);
+			} else {
+				recordFailure(listener, event, request, System.nanoTime() - start, throwable);
+			}
+		});
+	}
+
+	private static void recordResponse(MetricsListener listener, BackendRequestEvent event, HttpRequest request, HttpResponse<?> response, long latencyNanos) {
+		APIEndpoints endpoint = APIEndpoints.fromPath(request.uri().getPath());
+		long bytesSent = request.bodyPublisher().map(HttpRequest.BodyPublisher::contentLength).orElse(0L);
+		long bytesReceived = response.headers().firstValueAsLong("Content-Length").orElse(-1);
+		if (bytesReceived < 0) {
+			if (response.body() instanceof String body) {
+				bytesReceived = utf8Length(body);
+			} else if (response.body() instanceof byte[] body) {
+				bytesReceived = body.length;
+			}
+		}
+
+		listener.onRequest(endpoint, response.statusCode(), latencyNanos, bytesSent, bytesReceived);
+
+		event.end();
+		if (event.shouldCommit()) {
+			event.endpoint = endpoint == null ? null : endpoint.name();
+			event.path = request.uri().getPath();
+			event.statusCode = response.statusCode();
+			event.bytesSent = bytesSent;
+			event.bytesReceived = bytesReceived;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Count the bytes of a string encoded as UTF-8, the default charset of the body handlers, without encoding it.
+	 */
+	private static long utf8Length(String string) {
+		long length = 0;
+		for (int i = 0; i < string.length(); i++) {
+			char c = string.charAt(i);
+			if (c < 0x80) {
+				length++;
+			} else if (c < 0x800) {
+				length += 2;
+			} else if (Character.isHighSurrogate(c) && i + 1 < string.length() && Character.isLowSurrogate(string.charAt(i + 1))) {
+				length += 4;
+				i++;
+			} else {
+				length += 3;
+			}
+		}
+
+		return length;
+	}
+
+	private static void recordFailure(MetricsListener listener, BackendRequestEvent event, HttpRequest request, long latencyNanos, Throwable error) {
+		APIEndpoints endpoint = APIEndpoints.fromPath(request.uri().getPath());
+		listener.onRequestFailed(endpoint, latencyNanos, error);
+
+		event.end();
+		if (event.shouldCommit()) {
+			event.endpoint = endpoint == null ? null : endpoint.name();
+			event.path = request.uri().getPath();
+			event.failed = true;
+			event.commit();
+		}
 	}
 
 	/**
@@ -33,10 +216,95 @@ public class RESTHandler {
 	 */
 	private String makeRequest(HttpRequest request) {
 		try {
-			return client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+			return checkStatus(request, send(request, HttpResponse.BodyHandlers.ofString())).body();
+		} catch (IOException | InterruptedException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Make a request to the server, decoding the response directly from the body stream.
+	 *
+	 * @param request the {@link HttpRequest} to make
+	 * @param decoder the decoder for the response body
+	 * @return the decoded response
+	 */
+	private <T> T makeRequest(HttpRequest request, Function<Reader, T> decoder) {
+		return makeBinaryRequest(request, body -> {
+			try (Reader reader = new InputStreamReader(body, StandardCharsets.UTF_8)) {
+				return decoder.apply(reader);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	/**
+	 * Make a request to the server, passing the raw body stream to the decoder. The stream is closed afterward.
+	 *
+	 * @param request the {@link HttpRequest} to make
+	 * @param decoder the decoder for the response body
+	 * @return the decoded response
+	 */
+	private <T> T makeBinaryRequest(HttpRequest request, Function<InputStream, T> decoder) {
+		HttpResponse<InputStream> response;
+		try {
+			response = send(request, HttpResponse.BodyHandlers.ofInputStream());
 		} catch (IOException | InterruptedException e) {
 			throw new RuntimeException(e);
 		}
+
+		try (InputStream body = response.body()) {
+			checkStatus(request, response);
+			return decoder.apply(body);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Make a request to the server without blocking. Dependent stages run on the executor of the {@link HttpClient}.
+	 *
+	 * @param request the {@link HttpRequest} to make
+	 * @return a future completing with the response from the server
+	 */
+	private CompletableFuture<String> makeRequestAsync(HttpRequest request) {
+		return sendAsync(request, HttpResponse.BodyHandlers.ofString()).thenApply(response -> checkStatus(request, response).body());
+	}
+
+	/**
+	 * Check that a response has a 2xx status code.
+	 *
+	 * @param request  the {@link HttpRequest} that was made
+	 * @param response the {@link HttpResponse} to check
+	 * @return the response
+	 * @throws BackendStatusException if the status code is outside the 2xx range
+	 */
+	private static <T> HttpResponse<T> checkStatus(HttpRequest request, HttpResponse<T> response) {
+		if (response.statusCode() / 100 != 2) {
+			throw new BackendStatusException(request.uri().getPath(), response.statusCode());
+		}
+
+		return response;
+	}
+
+	private HttpRequest buildGetRequest(String uri) {
+		return newRequest()
+				.GET()
+				.uri(URI.create(uri))
+				.build();
+	}
+
+	private HttpRequest buildPostRequest(String endpoint, JsonObject message) {
+		return newRequest()
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(message.toString()))
+				.uri(uri(endpoint))
+				.build();
+	}
+
+	private String buildUri(String endpoint, Map<String, String> params) {
+		return serverAddress + APIEndpoints.withQuery(endpoint, params);
 	}
 
 	/**
@@ -45,13 +313,9 @@ public class RESTHandler {
 	 * @param endpoint the endpoint to make the request to. Find endpoints in {@link APIEndpoints}.
 	 * @return the response from the server
 	 */
+	@Override
 	public String getRequest(String endpoint) {
-		HttpRequest request = HttpRequest.newBuilder()
-				.GET()
-				.uri(URI.create(serverAddress + endpoint))
-				.build();
-
-		return makeRequest(request);
+		return makeRequest(getRequestFor(endpoint));
 	}
 
 	/**
@@ -61,18 +325,52 @@ public class RESTHandler {
 	 * @param params   the parameters to include in the request
 	 * @return the response from the server
 	 */
+	@Override
 	public String getRequest(String endpoint, Map<String, String> params) {
-		StringBuilder uri = new StringBuilder(serverAddress + endpoint);
-		for (Map.Entry<String, String> entry : params.entrySet()) {
-			uri.append("?").append(entry.getKey()).append("=").append(entry.getValue());
-		}
+		return makeRequest(buildGetRequest(buildUri(endpoint, params)));
+	}
 
-		HttpRequest request = HttpRequest.newBuilder()
+	/**
+	 * Make a GET request to the server with no parameters, decoding the response as it is received.
+	 *
+	 * @param endpoint the endpoint to make the request to. Find endpoints in {@link APIEndpoints}.
+	 * @param decoder  the decoder for the response body
+	 * @return the decoded response
+	 */
+	@Override
+	public <T> T getRequest(String endpoint, Function<Reader, T> decoder) {
+		return makeRequest(getRequestFor(endpoint), decoder);
+	}
+
+	/**
+	 * Make a GET request to the server with parameters, decoding the response as it is received.
+	 *
+	 * @param endpoint the endpoint to make the request to. Find endpoints in {@link APIEndpoints}.
+	 * @param params   the parameters to include in the request
+	 * @param decoder  the decoder for the response body
+	 * @return the decoded response
+	 */
+	@Override
+	public <T> T getRequest(String endpoint, Map<String, String> params, Function<Reader, T> decoder) {
+		return makeRequest(buildGetRequest(buildUri(endpoint, params)), decoder);
+	}
+
+	/**
+	 * Make a GET request to the server for a binary response, passing the raw body stream to the decoder.
+	 *
+	 * @param endpoint the endpoint to make the request to. Find endpoints in {@link APIEndpoints}.
+	 * @param decoder  the decoder for the response body
+	 * @return the decoded response
+	 */
+	@Override
+	public <T> T getBinaryRequest(String endpoint, Function<InputStream, T> decoder) {
+		HttpRequest request = binaryGetRequests.computeIfAbsent(endpoint, e -> newRequest()
+				.header("Accept", "application/octet-stream")
 				.GET()
-				.uri(URI.create(uri.toString()))
-				.build();
+				.uri(uri(e))
+				.build());
 
-		return makeRequest(request);
+		return makeBinaryRequest(request, decoder);
 	}
 
 	/**
@@ -82,13 +380,108 @@ public class RESTHandler {
 	 * @param message  the message to send in the request
 	 * @return the response from the server, if any
 	 */
+	@Override
 	public String postRequest(String endpoint, JsonObject message) {
-		HttpRequest request = HttpRequest.newBuilder()
-				.header("Content-Type", "application/json")
-				.POST(HttpRequest.BodyPublishers.ofString(message.toString()))
-				.uri(URI.create(serverAddress + endpoint))
+		return makeRequest(buildPostRequest(endpoint, message));
+	}
+
+	/**
+	 * Make a POST request to the server with a raw binary body. The data is sent as-is, without being copied.
+	 *
+	 * @param endpoint the endpoint to make the request to. Find endpoints in {@link APIEndpoints}.
+	 * @param data     the array holding the data to send
+	 * @param offset   the offset of the data in the array
+	 * @param length   the length of the data
+	 * @return the response from the server, if any
+	 */
+	@Override
+	public String postRequest(String endpoint, byte[] data, int offset, int length) {
+		HttpRequest request = newRequest()
+				.header("Content-Type", "application/octet-stream")
+				.POST(HttpRequest.BodyPublishers.ofByteArray(data, offset, length))
+				.uri(uri(endpoint))
 				.build();
 
 		return makeRequest(request);
 	}
+
+	/**
+	 * Make a POST request to the server, decoding the response as it is received.
+	 *
+	 * @param endpoint the endpoint to make the request to. Find endpoints in {@link APIEndpoints}.
+	 * @param message  the message to send in the request
+	 * @param decoder  the decoder for the response body
+	 * @return the decoded response
+	 */
+	@Override
+	public <T> T postRequest(String endpoint, JsonObject message, Function<Reader, T> decoder) {
+		return makeRequest(buildPostRequest(endpoint, message), decoder);
+	}
+
+	/**
+	 * Make an asynchronous GET request to the server with no parameters.
+	 *
+	 * @param endpoint the endpoint to make the request to. Find endpoints in {@link APIEndpoints}.
+	 * @return a future completing with the response from the server
+	 */
+	@Override
+	public CompletableFuture<String> getRequestAsync(String endpoint) {
+		return makeRequestAsync(getRequestFor(endpoint));
+	}
+
+	/**
+	 * Make an asynchronous GET request to the server with parameters.
+	 *
+	 * @param endpoint the endpoint to make the request to. Find endpoints in {@link APIEndpoints}.
+	 * @param params   the parameters to include in the request
+	 * @return a future completing with the response from the server
+	 */
+	@Override
+	public CompletableFuture<String> getRequestAsync(String endpoint, Map<String, String> params) {
+		return makeRequestAsync(buildGetRequest(buildUri(endpoint, params)));
+	}
+
+	/**
+	 * Make an asynchronous POST request to the server.
+	 *
+	 * @param endpoint the endpoint to make the request to. Find endpoints in {@link APIEndpoints}.
+	 * @param message  the message to send in the request
+	 * @return a future completing with the response from the server, if any
+	 */
+	@Override
+	public CompletableFuture<String> postRequestAsync(String endpoint, JsonObject message) {
+		return makeRequestAsync(buildPostRequest(endpoint, message));
+	}
+
+	/**
+	 * Open a server-sent event stream. Events are passed to the consumer as soon as they arrive, on an {@link HttpClient}
+	 * thread. This does not block.
+	 *
+	 * @param endpoint the endpoint to make the request to. Find endpoints in {@link APIEndpoints}.
+	 * @param consumer the consumer to call with the data of each event
+	 * @return the {@link EventStream}, which can be used to close the stream or observe its completion
+	 */
+	@Override
+	public EventStream streamRequest(String endpoint, Consumer<String> consumer) {
+		HttpRequest request = HttpRequest.newBuilder()
+				.header("Accept", "text/event-stream")
+				.GET()
+				.uri(uri(endpoint))
+				.build();
+
+		EventStream stream = new EventStream(consumer);
+		client.sendAsync(request, info -> {
+			if (info.statusCode() != 200) {
+				stream.fail(new BackendStatusException(request.uri().getPath(), info.statusCode()));
+				return HttpResponse.BodySubscribers.replacing(null);
+			}
+
+			return HttpResponse.BodySubscribers.fromLineSubscriber(stream, s -> null, StandardCharsets.UTF_8, null);
+		}).exceptionally(throwable -> {
+			stream.fail(throwable);
+			return null;
+		});
+
+		return stream;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,676 @@
+package tech.anonymoushacker1279.orionble.internal;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.jetbrains.annotations.Nullable;
+import tech.anonymoushacker1279.orionble.metrics.MetricsListener;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+/**
+ * A {@link Transport} that spreads devices across several backends, each with its own Bluetooth adapter.
+ * <p>
+ * Requests for a device are routed by its address: to the backend it was explicitly assigned to, otherwise to the
+ * backend that most recently discovered it, otherwise by consistent hashing, so adding a backend only moves a fraction
+ * of the devices. A discovery across every device replaces what the responding backends had reported before, so a
+ * device that moves to another adapter, or is no longer seen at all, is not pinned to its old backend. Device discovery
+ * and notification drains across every device are sent to every backend in parallel and the results are merged. Other
+ * requests, such as readiness probes, go to the first backend that responds.
+ * <p>
+ * A backend that fails to respond, or responds with a server error, is taken out of rotation for a while, and its
+ * devices fail over to the next backend on the hash ring. Failed reads are retried there immediately. Failed writes are
+ * not, since they may have been applied before the backend went away. State the backend held for its devices, such as
+ * notify registrations, is not carried over, so a {@link #setFailoverListener(IntConsumer) failover listener} is told
+ * to restore it.
+ */
+public class ShardedTransport implements Transport {
+
+	/**
+	 * The number of points each backend has on the hash ring. More points spread devices more evenly.
+	 */
+	private static final int VIRTUAL_NODES = 128;
+
+	private final List<Transport> backends;
+	private final long retryAfterNanos;
+	private final NavigableMap<Long, Integer> ring = new TreeMap<>();
+	private final Map<String, Integer> assigned = new ConcurrentHashMap<>();
+	private final Map<String, Integer> discovered = new ConcurrentHashMap<>();
+	private final AtomicLongArray downUntil;
+	private volatile @Nullable IntConsumer failoverListener;
+
+	/**
+	 * Create a sharded transport.
+	 *
+	 * @param backends   the backends, in order of preference for requests that are not for a device
+	 * @param retryAfter how long a backend that failed to respond is skipped before it is tried again
+	 */
+	public ShardedTransport(List<? extends Transport> backends, Duration retryAfter) {
+		if (backends.isEmpty()) {
+			throw new IllegalArgumentException("At least one backend is required");
+		}
+
+		this.backends = List.copyOf(backends);
+		this.retryAfterNanos = retryAfter.toNanos();
+		this.downUntil = new AtomicLongArray(backends.size());
+		for (int backend = 0; backend < backends.size(); backend++) {
+			for (int node = 0; node < VIRTUAL_NODES; node++) {
+				ring.put(hash(backend + "#" + node), backend);
+			}
+		}
+	}
+
+	/**
+	 * Get the number of backends.
+	 *
+	 * @return the number of backends
+	 */
+	public int getBackendCount() {
+		return backends.size();
+	}
+
+	/**
+	 * Get a single backend, bypassing routing.
+	 *
+	 * @param backend the index of the backend
+	 * @return the {@link Transport} of the backend
+	 */
+	public Transport getBackend(int backend) {
+		return backends.get(backend);
+	}
+
+	/**
+	 * Route a device to a specific backend, overriding hashing and discovery. The device still fails over while the
+	 * backend is not responding.
+	 *
+	 * @param address the address of the device
+	 * @param backend the index of the backend
+	 */
+	public void assign(String address, int backend) {
+		if (backend < 0 || backend >= backends.size()) {
+			throw new IndexOutOfBoundsException("No backend " + backend + ", there are " + backends.size());
+		}
+
+		assigned.put(Addresses.normalize(address), backend);
+	}
+
+	/**
+	 * Remove an explicit assignment, returning the device to automatic routing.
+	 *
+	 * @param address the address of the device
+	 */
+	public void unassign(String address) {
+		assigned.remove(Addresses.normalize(address));
+	}
+
+	/**
+	 * Get the backend a device is currently routed to.
+	 *
+	 * @param address the address of the device
+	 * @return the index of the backend
+	 */
+	public int route(String address) {
+		String key = Addresses.normalize(address);
+		int backend = home(key);
+		return isHealthy(backend) ? backend : routeByHash(key);
+	}
+
+	/**
+	 * Check if a device is routed away from its own backend, because that backend is out of rotation.
+	 *
+	 * @param address the address of the device
+	 * @return true if requests for the device currently fail over to another backend
+	 */
+	public boolean isFailedOver(String address) {
+		return !isHealthy(home(Addresses.normalize(address)));
+	}
+
+	/**
+	 * Get the backend a device is routed to while every backend is healthy.
+	 */
+	private int home(String key) {
+		Integer backend = assigned.get(key);
+		if (backend == null) {
+			backend = discovered.get(key);
+		}
+		if (backend != null) {
+			return backend;
+		}
+
+		Map.Entry<Long, Integer> entry = ring.ceilingEntry(hash(key));
+		return (entry != null ? entry : ring.firstEntry()).getValue();
+	}
+
+	private int routeByHash(String key) {
+		long hash = hash(key);
+		// Walk the ring clockwise from the device, skipping backends that are out of rotation
+		for (Integer backend : ring.tailMap(hash, true).values()) {
+			if (isHealthy(backend)) {
+				return backend;
+			}
+		}
+		for (Integer backend : ring.headMap(hash, false).values()) {
+			if (isHealthy(backend)) {
+				return backend;
+			}
+		}
+
+		// Every backend is down, so try the device's own one in case it has recovered
+		Map.Entry<Long, Integer> entry = ring.ceilingEntry(hash);
+		return (entry != null ? entry : ring.firstEntry()).getValue();
+	}
+
+	/**
+	 * Check if a backend is in rotation.
+	 *
+	 * @param backend the index of the backend
+	 * @return false if the backend recently failed to respond
+	 */
+	public boolean isHealthy(int backend) {
+		return System.nanoTime() - downUntil.get(backend) >= 0;
+	}
+
+	/**
+	 * Put a backend back in rotation immediately, such as after its server was restarted.
+	 *
+	 * @param backend the index of the backend
+	 */
+	public void markUp(int backend) {
+		downUntil.set(backend, System.nanoTime());
+	}
+
+	/**
+	 * Set the listener told when a backend is taken out of rotation, after which its devices are routed to other
+	 * backends. It is called on the thread of the request that failed, and should not block.
+	 *
+	 * @param failoverListener the listener, given the index of the backend, or null to remove it
+	 */
+	public void setFailoverListener(@Nullable IntConsumer failoverListener) {
+		this.failoverListener = failoverListener;
+	}
+
+	private void markDown(int backend) {
+		long now = System.nanoTime();
+		long previous = downUntil.getAndSet(backend, now + retryAfterNanos);
+		IntConsumer listener = failoverListener;
+		if (listener != null && now - previous >= 0) {
+			listener.accept(backend);
+		}
+	}
+
+	/**
+	 * Check if a failure means the backend did not respond or failed itself, rather than that the request was rejected
+	 * or the response could not be handled.
+	 */
+	private static boolean isUnavailable(Throwable error) {
+		for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+			if (cause instanceof IOException || cause instanceof BackendStatusException status && status.isServerError()) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Extract the device address from a request path, such as "/devices/B0B1139AF459/services".
+	 *
+	 * @return the address, or null if the request is not for a device
+	 */
+	private static @Nullable String addressOf(String endpoint) {
+		if (!endpoint.startsWith("/devices/")) {
+			return null;
+		}
+
+		int start = "/devices/".length();
+		int end = start;
+		while (end < endpoint.length() && endpoint.charAt(end) != '/' && endpoint.charAt(end) != '?') {
+			end++;
+		}
+
+		String address = endpoint.substring(start, end);
+		return address.isEmpty() || address.equals("discover") ? null : address;
+	}
+
+	private static boolean isPath(String endpoint, APIEndpoints target) {
+		String path = target.getEndpoint();
+		return endpoint.startsWith(path) && (endpoint.length() == path.length() || endpoint.charAt(path.length()) == '?');
+	}
+
+	/**
+	 * Run a request on the backend of its device, or on the first backend that responds if it is not for a device.
+	 *
+	 * @param endpoint  the endpoint of the request
+	 * @param retryable whether the request may be sent again to another backend if the first does not respond
+	 * @param request   makes the request on a backend
+	 * @return the result
+	 */
+	private <T> T call(String endpoint, boolean retryable, Function<Transport, T> request) {
+		String address = addressOf(endpoint);
+		Set<Integer> tried = new HashSet<>();
+		while (true) {
+			int backend = address != null ? route(address) : firstHealthy();
+			if (!tried.add(backend)) {
+				backend = untried(tried);
+			}
+
+			try {
+				return request.apply(backends.get(backend));
+			} catch (RuntimeException e) {
+				if (!isUnavailable(e)) {
+					throw e;
+				}
+
+				markDown(backend);
+				if (!(retryable || address == null) || tried.size() == backends.size()) {
+					throw e;
+				}
+			}
+		}
+	}
+
+	private <T> CompletableFuture<T> callAsync(String endpoint, boolean retryable, Function<Transport, CompletableFuture<T>> request) {
+		return callAsync(addressOf(endpoint), retryable, request, new HashSet<>());
+	}
+
+	private <T> CompletableFuture<T> callAsync(@Nullable String address, boolean retryable, Function<Transport, CompletableFuture<T>> request, Set<Integer> tried) {
+		int routed = address != null ? route(address) : firstHealthy();
+		int backend = tried.add(routed) ? routed : untried(tried);
+
+		CompletableFuture<T> future;
+		try {
+			future = request.apply(backends.get(backend));
+		} catch (RuntimeException e) {
+			future = CompletableFuture.failedFuture(e);
+		}
+
+		return future.exceptionallyCompose(throwable -> {
+			if (!isUnavailable(throwable)) {
+				return CompletableFuture.failedFuture(throwable);
+			}
+
+			markDown(backend);
+			if (!(retryable || address == null) || tried.size() == backends.size()) {
+				return CompletableFuture.failedFuture(throwable);
+			}
+
+			return callAsync(address, retryable, request, tried);
+		});
+	}
+
+	private int firstHealthy() {
+		for (int backend = 0; backend < backends.size(); backend++) {
+			if (isHealthy(backend)) {
+				return backend;
+			}
+		}
+
+		return 0;
+	}
+
+	private int untried(Set<Integer> tried) {
+		for (int backend = 0; backend < backends.size(); backend++) {
+			if (isHealthy(backend) && tried.add(backend)) {
+				return backend;
+			}
+		}
+		for (int backend = 0; backend < backends.size(); backend++) {
+			if (tried.add(backend)) {
+				return backend;
+			}
+		}
+
+		throw new IllegalStateException("Every backend has been tried");
+	}
+
+	/**
+	 * Send a request to every backend in parallel. Backends that do not respond are skipped.
+	 *
+	 * @param request makes the request on a backend
+	 * @return a future of the responses by backend index, null where a backend did not respond
+	 */
+	private CompletableFuture<List<@Nullable String>> broadcast(Function<Transport, CompletableFuture<String>> request) {
+		List<CompletableFuture<String>> futures = new ArrayList<>(backends.size());
+		for (int backend = 0; backend < backends.size(); backend++) {
+			int index = backend;
+			CompletableFuture<String> future;
+			try {
+				future = request.apply(backends.get(backend));
+			} catch (RuntimeException e) {
+				future = CompletableFuture.failedFuture(e);
+			}
+			futures.add(future.exceptionally(throwable -> {
+				if (!isUnavailable(throwable)) {
+					throw throwable instanceof CompletionException completion ? completion : new CompletionException(throwable);
+				}
+
+				markDown(index);
+				return null;
+			}));
+		}
+
+		return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).thenApply(done -> {
+			List<String> responses = new ArrayList<>(futures.size());
+			for (CompletableFuture<String> future : futures) {
+				responses.add(future.join());
+			}
+
+			if (responses.stream().allMatch(response -> response == null)) {
+				throw new CompletionException(new IOException("No backend responded"));
+			}
+
+			return responses;
+		});
+	}
+
+	/**
+	 * Merge the device lists of several backends. Each device is kept once, as reported by the first backend that saw
+	 * it, and later requests for it are routed there. The responses are copied token by token rather than parsed.
+	 *
+	 * @param complete whether the discovery was for every device, so devices that were not reported are forgotten.
+	 *                 Only devices of backends that responded are forgotten, since a backend that did not respond may
+	 *                 still see its devices.
+	 */
+	private String mergeDevices(List<@Nullable String> responses, boolean complete) {
+		Map<String, Integer> found = new HashMap<>();
+		String merged = mergeArrays(responses, (address, backend) -> address == null || found.putIfAbsent(Addresses.normalize(address), backend) == null);
+
+		discovered.putAll(found);
+		if (complete) {
+			discovered.entrySet().removeIf(entry -> responses.get(entry.getValue()) != null && !found.containsKey(entry.getKey()));
+		}
+
+		return merged;
+	}
+
+	/**
+	 * Merge the array responses of several backends into one array, copying each element token by token rather than
+	 * parsing it. Responses that are not arrays are skipped.
+	 *
+	 * @param keep decides, given the "Address" field of an element, or null if it has none, and the index of the
+	 *             backend, whether the element is kept
+	 */
+	private static String mergeArrays(List<@Nullable String> responses, BiPredicate<@Nullable String, Integer> keep) {
+		StringWriter merged = new StringWriter();
+		StringWriter element = new StringWriter();
+		try (JsonWriter writer = new JsonWriter(merged)) {
+			writer.beginArray();
+			for (int backend = 0; backend < responses.size(); backend++) {
+				String response = responses.get(backend);
+				if (response == null) {
+					continue;
+				}
+
+				JsonReader reader = new JsonReader(new StringReader(response));
+				if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+					continue;
+				}
+				reader.beginArray();
+				while (reader.hasNext()) {
+					element.getBuffer().setLength(0);
+					String address = JsonValues.copyCapturing(reader, new JsonWriter(element), "Address");
+					if (keep.test(address, backend)) {
+						writer.jsonValue(element.toString());
+					}
+				}
+				reader.endArray();
+			}
+			writer.endArray();
+		} catch (IOException | IllegalStateException e) {
+			throw new JsonSyntaxException("Malformed response from a backend", e);
+		}
+
+		return merged.toString();
+	}
+
+	/**
+	 * Remember which backend streamed a device. A device already routed to a healthy backend stays there, so that
+	 * backends seeing the same device do not keep moving it between them.
+	 */
+	private void learn(String event, int backend) {
+		try {
+			JsonReader reader = new JsonReader(new StringReader(event));
+			if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+				return;
+			}
+
+			reader.beginObject();
+			while (reader.hasNext()) {
+				if (reader.nextName().equals("Address") && reader.peek() == JsonToken.STRING) {
+					discovered.merge(Addresses.normalize(reader.nextString()), backend, (current, streamed) -> isHealthy(current) ? current : streamed);
+					return;
+				}
+				reader.skipValue();
+			}
+		} catch (IOException | IllegalStateException e) {
+			// Malformed events are still passed on, and handled like any other by the consumer
+		}
+	}
+
+	/**
+	 * Report only the capabilities that every responding backend supports.
+	 */
+	private static String intersectCapabilities(List<@Nullable String> responses) {
+		Set<String> common = null;
+		for (String response : responses) {
+			if (response == null) {
+				continue;
+			}
+
+			Set<String> capabilities = new LinkedHashSet<>();
+			JsonElement names = JsonParser.parseString(response);
+			if (names.isJsonArray()) {
+				names.getAsJsonArray().forEach(name -> capabilities.add(name.getAsString()));
+			}
+			if (common == null) {
+				common = capabilities;
+			} else {
+				common.retainAll(capabilities);
+			}
+		}
+
+		JsonArray result = new JsonArray();
+		if (common != null) {
+			common.forEach(name -> result.add(new JsonPrimitive(name)));
+		}
+
+		return result.toString();
+	}
+
+	/**
+	 * Concatenate the notifications drained from every responding backend. Each backend has many devices, so a
+	 * notification that does not name its device cannot be attributed to one, and is dropped.
+	 */
+	private static String concatenate(List<@Nullable String> responses) {
+		return mergeArrays(responses, (address, backend) -> address != null);
+	}
+
+	/**
+	 * Send requests that are answered by every backend together, merging their responses.
+	 *
+	 * @return a future of the merged response, or null if the request is for a single backend
+	 */
+	private @Nullable CompletableFuture<String> aggregate(String endpoint, Map<String, String> params) {
+		if (isPath(endpoint, APIEndpoints.DISCOVER_DEVICES)) {
+			return broadcast(backend -> backend.getRequestAsync(endpoint, params)).thenApply(responses -> mergeDevices(responses, params.isEmpty()));
+		}
+		if (isPath(endpoint, APIEndpoints.CAPABILITIES)) {
+			return broadcast(backend -> backend.getRequestAsync(endpoint, params)).thenApply(ShardedTransport::intersectCapabilities);
+		}
+		if (isPath(endpoint, APIEndpoints.DRAIN_NOTIFICATIONS)) {
+			return broadcast(backend -> backend.getRequestAsync(endpoint, params)).thenApply(ShardedTransport::concatenate);
+		}
+
+		return null;
+	}
+
+	private static String join(CompletableFuture<String> future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			throw e.getCause() instanceof RuntimeException runtime ? runtime : new RuntimeException(e.getCause());
+		}
+	}
+
+	@Override
+	public void setMetricsListener(MetricsListener metricsListener) {
+		backends.forEach(backend -> backend.setMetricsListener(metricsListener));
+	}
+
+	@Override
+	public String getRequest(String endpoint) {
+		return getRequest(endpoint, Map.of());
+	}
+
+	@Override
+	public String getRequest(String endpoint, Map<String, String> params) {
+		CompletableFuture<String> aggregated = aggregate(endpoint, params);
+		if (aggregated != null) {
+			return join(aggregated);
+		}
+
+		return call(endpoint, true, backend -> backend.getRequest(endpoint, params));
+	}
+
+	@Override
+	public <T> T getRequest(String endpoint, Function<Reader, T> decoder) {
+		return getRequest(endpoint, Map.of(), decoder);
+	}
+
+	@Override
+	public <T> T getRequest(String endpoint, Map<String, String> params, Function<Reader, T> decoder) {
+		CompletableFuture<String> aggregated = aggregate(endpoint, params);
+		if (aggregated != null) {
+			return decoder.apply(new StringReader(join(aggregated)));
+		}
+
+		return call(endpoint, true, backend -> backend.getRequest(endpoint, params, decoder));
+	}
+
+	@Override
+	public <T> T getBinaryRequest(String endpoint, Function<InputStream, T> decoder) {
+		return call(endpoint, true, backend -> backend.getBinaryRequest(endpoint, decoder));
+	}
+
+	@Override
+	public String postRequest(String endpoint, JsonObject message) {
+		return call(endpoint, false, backend -> backend.postRequest(endpoint, message));
+	}
+
+	@Override
+	public String postRequest(String endpoint, byte[] data, int offset, int length) {
+		return call(endpoint, false, backend -> backend.postRequest(endpoint, data, offset, length));
+	}
+
+	@Override
+	public <T> T postRequest(String endpoint, JsonObject message, Function<Reader, T> decoder) {
+		return call(endpoint, false, backend -> backend.postRequest(endpoint, message, decoder));
+	}
+
+	@Override
+	public CompletableFuture<String> getRequestAsync(String endpoint) {
+		return getRequestAsync(endpoint, Map.of());
+	}
+
+	@Override
+	public CompletableFuture<String> getRequestAsync(String endpoint, Map<String, String> params) {
+		CompletableFuture<String> aggregated = aggregate(endpoint, params);
+		if (aggregated != null) {
+			return aggregated;
+		}
+
+		return callAsync(endpoint, true, backend -> backend.getRequestAsync(endpoint, params));
+	}
+
+	@Override
+	public CompletableFuture<String> postRequestAsync(String endpoint, JsonObject message) {
+		return callAsync(endpoint, false, backend -> backend.postRequestAsync(endpoint, message));
+	}
+
+	/**
+	 * Open an event stream on the backend of its device. A discovery stream is opened on every backend, and fails only
+	 * once all of them have failed.
+	 */
+	@Override
+	public EventStream streamRequest(String endpoint, Consumer<String> consumer) {
+		if (!isPath(endpoint, APIEndpoints.STREAM_DEVICE_DISCOVERY)) {
+			return call(endpoint, true, backend -> backend.streamRequest(endpoint, consumer));
+		}
+
+		EventStream merged = new EventStream(consumer);
+		List<EventStream> streams = new ArrayList<>(backends.size());
+		AtomicInteger open = new AtomicInteger(backends.size());
+		for (int backend = 0; backend < backends.size(); backend++) {
+			int index = backend;
+			EventStream stream = backends.get(backend).streamRequest(endpoint, event -> {
+				learn(event, index);
+				merged.dispatch(event);
+			});
+			stream.completion().whenComplete((result, throwable) -> {
+				if (throwable != null && open.decrementAndGet() == 0) {
+					merged.fail(throwable);
+				}
+			});
+			streams.add(stream);
+		}
+
+		merged.completion().whenComplete((result, throwable) -> streams.forEach(EventStream::cancel));
+		return merged;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("ShardedTransport:");
+		for (int backend = 0; backend < backends.size(); backend++) {
+			builder.append(' ').append(backend).append(isHealthy(backend) ? "=up" : "=down");
+		}
+
+		return builder.toString();
+	}
+
+	/**
+	 * A 64-bit FNV-1a hash with a final mix, so that similar addresses land far apart on the ring.
+	 */
+	private static long hash(String key) {
+		long hash = 0xcbf29ce484222325L;
+		for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+			hash ^= b;
+			hash *= 0x100000001b3L;
+		}
+
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+}
\ No newline at end of file
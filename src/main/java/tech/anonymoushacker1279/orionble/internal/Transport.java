@@ -0,0 +1,142 @@
+package tech.anonymoushacker1279.orionble.internal;
+
+import com.google.gson.JsonObject;
+import tech.anonymoushacker1279.orionble.metrics.MetricsListener;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * The channel through which all API requests reach the backend server. {@link RESTHandler} talks HTTP over TCP, while
+ * {@link UnixSocketTransport} uses a compact framing over a Unix domain socket when the backend is co-located.
+ * <p>
+ * Endpoints are the paths found in {@link APIEndpoints}. Implementations must be safe for concurrent use.
+ * <p>
+ * A request the backend answers with a status code outside the 2xx range throws a {@link BackendStatusException}, and
+ * an asynchronous request completes exceptionally with one. Any other exception means the backend could not be reached
+ * or the response could not be read.
+ */
+public interface Transport {
+
+	/**
+	 * Set the listener notified of every request. Use {@link MetricsListener#NONE} to stop recording.
+	 *
+	 * @param metricsListener the {@link MetricsListener}
+	 */
+	void setMetricsListener(MetricsListener metricsListener);
+
+	/**
+	 * Make a GET request to the server with no parameters.
+	 *
+	 * @param endpoint the endpoint to make the request to
+	 * @return the response from the server
+	 */
+	String getRequest(String endpoint);
+
+	/**
+	 * Make a GET request to the server with parameters.
+	 *
+	 * @param endpoint the endpoint to make the request to
+	 * @param params   the parameters to include in the request
+	 * @return the response from the server
+	 */
+	String getRequest(String endpoint, Map<String, String> params);
+
+	/**
+	 * Make a GET request to the server with no parameters, decoding the response as it is received.
+	 *
+	 * @param endpoint the endpoint to make the request to
+	 * @param decoder  the decoder for the response body
+	 * @return the decoded response
+	 */
+	<T> T getRequest(String endpoint, Function<Reader, T> decoder);
+
+	/**
+	 * Make a GET request to the server with parameters, decoding the response as it is received.
+	 *
+	 * @param endpoint the endpoint to make the request to
+	 * @param params   the parameters to include in the request
+	 * @param decoder  the decoder for the response body
+	 * @return the decoded response
+	 */
+	<T> T getRequest(String endpoint, Map<String, String> params, Function<Reader, T> decoder);
+
+	/**
+	 * Make a GET request to the server for a binary response, passing the raw body stream to the decoder.
+	 *
+	 * @param endpoint the endpoint to make the request to
+	 * @param decoder  the decoder for the response body
+	 * @return the decoded response
+	 */
+	<T> T getBinaryRequest(String endpoint, Function<InputStream, T> decoder);
+
+	/**
+	 * Make a POST request to the server.
+	 *
+	 * @param endpoint the endpoint to make the request to
+	 * @param message  the message to send in the request
+	 * @return the response from the server, if any
+	 */
+	String postRequest(String endpoint, JsonObject message);
+
+	/**
+	 * Make a POST request to the server with a raw binary body. The data is sent as-is, without being copied.
+	 *
+	 * @param endpoint the endpoint to make the request to
+	 * @param data     the array holding the data to send
+	 * @param offset   the offset of the data in the array
+	 * @param length   the length of the data
+	 * @return the response from the server, if any
+	 */
+	String postRequest(String endpoint, byte[] data, int offset, int length);
+
+	/**
+	 * Make a POST request to the server, decoding the response as it is received.
+	 *
+	 * @param endpoint the endpoint to make the request to
+	 * @param message  the message to send in the request
+	 * @param decoder  the decoder for the response body
+	 * @return the decoded response
+	 */
+	<T> T postRequest(String endpoint, JsonObject message, Function<Reader, T> decoder);
+
+	/**
+	 * Make an asynchronous GET request to the server with no parameters.
+	 *
+	 * @param endpoint the endpoint to make the request to
+	 * @return a future completing with the response from the server
+	 */
+	CompletableFuture<String> getRequestAsync(String endpoint);
+
+	/**
+	 * Make an asynchronous GET request to the server with parameters.
+	 *
+	 * @param endpoint the endpoint to make the request to
+	 * @param params   the parameters to include in the request
+	 * @return a future completing with the response from the server
+	 */
+	CompletableFuture<String> getRequestAsync(String endpoint, Map<String, String> params);
+
+	/**
+	 * Make an asynchronous POST request to the server.
+	 *
+	 * @param endpoint the endpoint to make the request to
+	 * @param message  the message to send in the request
+	 * @return a future completing with the response from the server, if any
+	 */
+	CompletableFuture<String> postRequestAsync(String endpoint, JsonObject message);
+
+	/**
+	 * Open a stream of server events. Event data is passed to the consumer as soon as it arrives, on a transport
+	 * thread. This does not block.
+	 *
+	 * @param endpoint the endpoint to make the request to
+	 * @param consumer the consumer to call with the data of each event
+	 * @return the {@link EventStream}, which can be used to close the stream or observe its completion
+	 */
+	EventStream streamRequest(String endpoint, Consumer<String> consumer);
+}
\ No newline at end of file
@@ -0,0 +1,472 @@
+package tech.anonymoushacker1279.orionble.internal;
+
+import com.google.gson.JsonObject;
+import org.jetbrains.annotations.Nullable;
+import tech.anonymoushacker1279.orionble.metrics.BackendRequestEvent;
+import tech.anonymoushacker1279.orionble.metrics.MetricsListener;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A {@link Transport} that talks to a co-located backend over a Unix domain socket, skipping the TCP stack and HTTP
+ * parsing entirely. Connections are kept open and reused, one request at a time per connection.
+ * <p>
+ * Every request is a single frame, with all integers big-endian:
+ * <pre>
+ * [u8 method] [u8 body type] [u16 path length] [path, UTF-8, including any query] [u32 body length] [body]
+ * </pre>
+ * The method is 1 for GET, 2 for POST and 3 for a stream. The body type is 0 for none, 1 for JSON and 2 for raw
+ * binary. The server answers with:
+ * <pre>
+ * [u16 status] [u32 body length] [body]
+ * </pre>
+ * A stream is answered with a status and an empty body, followed by one {@code [u32 length] [data, UTF-8]} frame per
+ * event until either side closes the connection.
+ */
+public class UnixSocketTransport implements Transport, Closeable {
+
+	private static final byte METHOD_GET = 1;
+	private static final byte METHOD_POST = 2;
+	private static final byte METHOD_STREAM = 3;
+	private static final byte BODY_NONE = 0;
+	private static final byte BODY_JSON = 1;
+	private static final byte BODY_BINARY = 2;
+	private static final byte[] EMPTY = new byte[0];
+
+	/**
+	 * The maximum number of idle connections kept open for reuse.
+	 */
+	private static final int MAX_IDLE_CONNECTIONS = 8;
+
+	/**
+	 * The largest response body or event accepted. Anything larger means the stream is out of sync or corrupt.
+	 */
+	private static final int MAX_FRAME_LENGTH = 64 * 1024 * 1024;
+
+	private final UnixDomainSocketAddress address;
+	private final Executor executor;
+	private final @Nullable ExecutorService ownedExecutor;
+	private final Deque<SocketChannel> idleConnections = new ConcurrentLinkedDeque<>();
+	private final AtomicInteger streamCounter = new AtomicInteger();
+	private volatile MetricsListener metricsListener = MetricsListener.NONE;
+	private volatile boolean closed;
+
+	/**
+	 * Create a UnixSocketTransport instance.
+	 *
+	 * @param socketPath the path of the socket the backend listens on
+	 * @param executor   the executor for asynchronous requests, or null to use a pool of daemon threads
+	 */
+	public UnixSocketTransport(Path socketPath, @Nullable Executor executor) {
+		this.address = UnixDomainSocketAddress.of(socketPath);
+		if (executor == null) {
+			AtomicInteger counter = new AtomicInteger();
+			ownedExecutor = Executors.newCachedThreadPool(runnable -> {
+				Thread thread = new Thread(runnable, "OrionBLE-Transport-" + counter.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+			executor = ownedExecutor;
+		} else {
+			ownedExecutor = null;
+		}
+		this.executor = executor;
+	}
+
+	@Override
+	public void setMetricsListener(MetricsListener metricsListener) {
+		this.metricsListener = metricsListener;
+	}
+
+	/**
+	 * A decoded response frame.
+	 *
+	 * @param status the status code
+	 * @param body   the response body
+	 */
+	private record Response(int status, byte[] body) {
+	}
+
+	/**
+	 * Send a request, recording metrics and a {@link BackendRequestEvent} if enabled.
+	 *
+	 * @param method   the method of the request
+	 * @param bodyType the type of the body
+	 * @param path     the path of the request
+	 * @param body     the array holding the body
+	 * @param offset   the offset of the body in the array
+	 * @param length   the length of the body
+	 * @return the response
+	 */
+	private Response send(byte method, byte bodyType, String path, byte[] body, int offset, int length) {
+		MetricsListener listener = metricsListener;
+		BackendRequestEvent event = new BackendRequestEvent();
+		if (listener == MetricsListener.NONE && !event.isEnabled()) {
+			return checkStatus(path, exchange(method, bodyType, path, body, offset, length));
+		}
+
+		event.begin();
+		long start = System.nanoTime();
+		APIEndpoints endpoint = APIEndpoints.fromPath(stripQuery(path));
+		Response response;
+		try {
+			response = exchange(method, bodyType, path, body, offset, length);
+		} catch (RuntimeException e) {
+			listener.onRequestFailed(endpoint, System.nanoTime() - start, e);
+
+			event.end();
+			if (event.shouldCommit()) {
+				event.endpoint = endpoint == null ? null : endpoint.name();
+				event.path = stripQuery(path);
+				event.failed = true;
+				event.commit();
+			}
+			throw e;
+		}
+
+		listener.onRequest(endpoint, response.status(), System.nanoTime() - start, length, response.body().length);
+
+		event.end();
+		if (event.shouldCommit()) {
+			event.endpoint = endpoint == null ? null : endpoint.name();
+			event.path = stripQuery(path);
+			event.statusCode = response.status();
+			event.bytesSent = length;
+			event.bytesReceived = response.body().length;
+			event.commit();
+		}
+		return checkStatus(path, response);
+	}
+
+	/**
+	 * Check that a response has a 2xx status code, like the HTTP transport does.
+	 *
+	 * @param path     the path of the request
+	 * @param response the response to check
+	 * @return the response
+	 * @throws BackendStatusException if the status code is outside the 2xx range
+	 */
+	private static Response checkStatus(String path, Response response) {
+		if (response.status() / 100 != 2) {
+			throw new BackendStatusException(stripQuery(path), response.status());
+		}
+
+		return response;
+	}
+
+	/**
+	 * Exchange a request frame for a response frame on a pooled connection. A GET that fails on a reused connection is
+	 * retried once on a fresh one, since the server may have closed the idle connection. A connection is only reused
+	 * after a complete exchange, and is closed on any failure.
+	 *
+	 * @return the response
+	 */
+	private Response exchange(byte method, byte bodyType, String path, byte[] body, int offset, int length) {
+		if (closed) {
+			throw new IllegalStateException("Transport is closed");
+		}
+
+		SocketChannel channel = idleConnections.pollFirst();
+		boolean reused = channel != null;
+		boolean released = false;
+		try {
+			if (channel == null) {
+				channel = openChannel();
+			}
+
+			Response response;
+			try {
+				response = exchange(channel, method, bodyType, path, body, offset, length);
+			} catch (IOException e) {
+				channel.close();
+				if (!reused || method != METHOD_GET) {
+					throw e;
+				}
+				channel = openChannel();
+				response = exchange(channel, method, bodyType, path, body, offset, length);
+			}
+
+			release(channel);
+			released = true;
+			return response;
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		} finally {
+			if (!released) {
+				closeQuietly(channel);
+			}
+		}
+	}
+
+	private Response exchange(SocketChannel channel, byte method, byte bodyType, String path, byte[] body, int offset, int length) throws IOException {
+		writeRequest(channel, method, bodyType, path, body, offset, length);
+
+		ByteBuffer header = readFully(channel, ByteBuffer.allocate(6));
+		int status = header.getShort() & 0xFFFF;
+		int bodyLength = readLength(header);
+		byte[] responseBody = bodyLength == 0 ? EMPTY : new byte[bodyLength];
+		readFully(channel, ByteBuffer.wrap(responseBody));
+		return new Response(status, responseBody);
+	}
+
+	/**
+	 * Read a frame length, rejecting lengths that cannot be valid before anything is allocated for them.
+	 */
+	private static int readLength(ByteBuffer buffer) throws IOException {
+		int length = buffer.getInt();
+		if (length < 0 || length > MAX_FRAME_LENGTH) {
+			throw new IOException("Invalid frame length: " + Integer.toUnsignedString(length));
+		}
+
+		return length;
+	}
+
+	private SocketChannel openChannel() throws IOException {
+		SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+		try {
+			channel.connect(address);
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+
+		return channel;
+	}
+
+	private void release(SocketChannel channel) {
+		if (closed || idleConnections.size() >= MAX_IDLE_CONNECTIONS) {
+			closeQuietly(channel);
+			return;
+		}
+
+		idleConnections.offerFirst(channel);
+		// The transport may have been closed while the connection was being returned
+		if (closed && idleConnections.remove(channel)) {
+			closeQuietly(channel);
+		}
+	}
+
+	private static void writeRequest(SocketChannel channel, byte method, byte bodyType, String path, byte[] body, int offset, int length) throws IOException {
+		byte[] pathBytes = path.getBytes(StandardCharsets.UTF_8);
+		if (pathBytes.length > 0xFFFF) {
+			throw new IllegalArgumentException("Path too long: " + path);
+		}
+
+		ByteBuffer header = ByteBuffer.allocate(8 + pathBytes.length)
+				.put(method)
+				.put(bodyType)
+				.putShort((short) pathBytes.length)
+				.put(pathBytes)
+				.putInt(length)
+				.flip();
+		ByteBuffer payload = ByteBuffer.wrap(body, offset, length);
+		ByteBuffer[] buffers = {header, payload};
+		while (header.hasRemaining() || payload.hasRemaining()) {
+			channel.write(buffers);
+		}
+	}
+
+	private static ByteBuffer readFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer) < 0) {
+				throw new EOFException("Connection closed by the server");
+			}
+		}
+
+		return buffer.flip();
+	}
+
+	private static void closeQuietly(@Nullable SocketChannel channel) {
+		if (channel != null) {
+			try {
+				channel.close();
+			} catch (IOException ignored) {
+			}
+		}
+	}
+
+	private static String stripQuery(String path) {
+		int query = path.indexOf('?');
+		return query < 0 ? path : path.substring(0, query);
+	}
+
+	private static String asString(Response response) {
+		return new String(response.body(), StandardCharsets.UTF_8);
+	}
+
+	private static <T> T decode(Response response, Function<Reader, T> decoder) {
+		try (Reader reader = new InputStreamReader(new ByteArrayInputStream(response.body()), StandardCharsets.UTF_8)) {
+			return decoder.apply(reader);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private Response get(String path) {
+		return send(METHOD_GET, BODY_NONE, path, EMPTY, 0, 0);
+	}
+
+	private Response post(String path, JsonObject message) {
+		byte[] body = message.toString().getBytes(StandardCharsets.UTF_8);
+		return send(METHOD_POST, BODY_JSON, path, body, 0, body.length);
+	}
+
+	@Override
+	public String getRequest(String endpoint) {
+		return asString(get(endpoint));
+	}
+
+	@Override
+	public String getRequest(String endpoint, Map<String, String> params) {
+		return asString(get(APIEndpoints.withQuery(endpoint, params)));
+	}
+
+	@Override
+	public <T> T getRequest(String endpoint, Function<Reader, T> decoder) {
+		return decode(get(endpoint), decoder);
+	}
+
+	@Override
+	public <T> T getRequest(String endpoint, Map<String, String> params, Function<Reader, T> decoder) {
+		return decode(get(APIEndpoints.withQuery(endpoint, params)), decoder);
+	}
+
+	@Override
+	public <T> T getBinaryRequest(String endpoint, Function<InputStream, T> decoder) {
+		return decoder.apply(new ByteArrayInputStream(get(endpoint).body()));
+	}
+
+	@Override
+	public String postRequest(String endpoint, JsonObject message) {
+		return asString(post(endpoint, message));
+	}
+
+	@Override
+	public String postRequest(String endpoint, byte[] data, int offset, int length) {
+		return asString(send(METHOD_POST, BODY_BINARY, endpoint, data, offset, length));
+	}
+
+	@Override
+	public <T> T postRequest(String endpoint, JsonObject message, Function<Reader, T> decoder) {
+		return decode(post(endpoint, message), decoder);
+	}
+
+	@Override
+	public CompletableFuture<String> getRequestAsync(String endpoint) {
+		return CompletableFuture.supplyAsync(() -> getRequest(endpoint), executor);
+	}
+
+	@Override
+	public CompletableFuture<String> getRequestAsync(String endpoint, Map<String, String> params) {
+		return CompletableFuture.supplyAsync(() -> getRequest(endpoint, params), executor);
+	}
+
+	@Override
+	public CompletableFuture<String> postRequestAsync(String endpoint, JsonObject message) {
+		return CompletableFuture.supplyAsync(() -> postRequest(endpoint, message), executor);
+	}
+
+	/**
+	 * Open a stream of server events. Each stream holds its own connection and a daemon thread reading from it.
+	 *
+	 * @param endpoint the endpoint to make the request to
+	 * @param consumer the consumer to call with the data of each event
+	 * @return the {@link EventStream}, which can be used to close the stream or observe its completion
+	 */
+	@Override
+	public EventStream streamRequest(String endpoint, Consumer<String> consumer) {
+		EventStream stream = new EventStream(consumer);
+		Thread reader = new Thread(() -> readStream(endpoint, stream), "OrionBLE-Stream-" + streamCounter.incrementAndGet());
+		reader.setDaemon(true);
+		reader.start();
+		return stream;
+	}
+
+	private void readStream(String endpoint, EventStream stream) {
+		SocketChannel channel;
+		try {
+			channel = openChannel();
+		} catch (IOException e) {
+			stream.fail(e);
+			return;
+		}
+
+		stream.onSubscribe(new Flow.Subscription() {
+			@Override
+			public void request(long n) {
+				// Events are pushed as they are read
+			}
+
+			@Override
+			public void cancel() {
+				closeQuietly(channel);
+			}
+		});
+
+		try (channel) {
+			writeRequest(channel, METHOD_STREAM, BODY_NONE, endpoint, EMPTY, 0, 0);
+			ByteBuffer header = readFully(channel, ByteBuffer.allocate(6));
+			int status = header.getShort() & 0xFFFF;
+			readFully(channel, ByteBuffer.allocate(readLength(header)));
+			if (status != 200) {
+				stream.fail(new BackendStatusException(stripQuery(endpoint), status));
+				return;
+			}
+
+			ByteBuffer length = ByteBuffer.allocate(4);
+			while (true) {
+				length.clear();
+				if (channel.read(length) < 0) {
+					stream.onComplete();
+					return;
+				}
+				readFully(channel, length);
+				byte[] data = new byte[readLength(length)];
+				readFully(channel, ByteBuffer.wrap(data));
+				stream.dispatch(new String(data, StandardCharsets.UTF_8));
+			}
+		} catch (IOException e) {
+			stream.onError(e);
+		}
+	}
+
+	/**
+	 * Close all idle connections, and stop the threads of the default executor if no executor was provided. Requests
+	 * made after closing fail, while open streams are unaffected.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		SocketChannel channel;
+		while ((channel = idleConnections.pollFirst()) != null) {
+			closeQuietly(channel);
+		}
+		if (ownedExecutor != null) {
+			ownedExecutor.shutdown();
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+package tech.anonymoushacker1279.orionble.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.jetbrains.annotations.ApiStatus;
+
+/**
+ * A JFR event recorded for every request to the backend. Disabled events cost next to nothing, so it is always emitted.
+ */
+@ApiStatus.Internal
+@Name("tech.anonymoushacker1279.orionble.BackendRequest")
+@Label("Backend Request")
+@Category("OrionBLE")
+@Description("A request to the OrionBLE backend server")
+@StackTrace(false)
+public final class BackendRequestEvent extends jdk.jfr.Event {
+
+	@Label("Endpoint")
+	public String endpoint;
+
+	@Label("Path")
+	public String path;
+
+	@Label("Status Code")
+	public int statusCode;
+
+	@Label("Bytes Sent")
+	@DataAmount
+	public long bytesSent;
+
+	@Label("Bytes Received")
+	@DataAmount
+	public long bytesReceived;
+
+	@Label("Failed")
+	public boolean failed;
+}
\ No newline at end of file
@@ -0,0 +1,77 @@
+package tech.anonymoushacker1279.orionble.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of durations in nanoseconds, with power-of-two buckets. Percentiles are reported as the upper
+ * bound of the bucket they fall in, so they are accurate to within a factor of two.
+ */
+public class LatencyHistogram {
+
+	private static final int BUCKETS = 64;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+
+	/**
+	 * Record a duration.
+	 *
+	 * @param nanos the duration in nanoseconds
+	 */
+	public void record(long nanos) {
+		long value = Math.max(0, nanos);
+		buckets.incrementAndGet(BUCKETS - 1 - Long.numberOfLeadingZeros(value | 1));
+		count.increment();
+		sum.add(value);
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * Get the mean duration.
+	 *
+	 * @return the mean in nanoseconds, or 0 if nothing was recorded
+	 */
+	public double getMean() {
+		long n = count.sum();
+		return n == 0 ? 0 : (double) sum.sum() / n;
+	}
+
+	/**
+	 * Get an approximate percentile.
+	 *
+	 * @param percentile the percentile, between 0 and 100
+	 * @return the upper bound of the bucket holding the percentile in nanoseconds, or 0 if nothing was recorded
+	 */
+	public long getPercentile(double percentile) {
+		long total = 0;
+		long[] snapshot = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			snapshot[i] = buckets.get(i);
+			total += snapshot[i];
+		}
+		if (total == 0) {
+			return 0;
+		}
+
+		long rank = (long) Math.ceil(total * Math.min(100, Math.max(0, percentile)) / 100);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += snapshot[i];
+			if (seen >= Math.max(1, rank)) {
+				return i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+			}
+		}
+
+		return Long.MAX_VALUE;
+	}
+
+	@Override
+	public String toString() {
+		return "count=%d mean=%.0fns p50=%dns p99=%dns".formatted(getCount(), getMean(), getPercentile(50), getPercentile(99));
+	}
+}
\ No newline at end of file
@@ -0,0 +1,83 @@
+package tech.anonymoushacker1279.orionble.metrics;
+
+import org.jetbrains.annotations.Nullable;
+import tech.anonymoushacker1279.orionble.OperationScheduler;
+import tech.anonymoushacker1279.orionble.OrionBLE;
+import tech.anonymoushacker1279.orionble.internal.APIEndpoints;
+
+/**
+ * Receives measurements of backend calls and notification delivery. Set via
+ * {@link OrionBLE#setMetricsListener(MetricsListener)}. All methods default to doing nothing, so implementations only
+ * need to override what they record.
+ * <p>
+ * Methods are called inline on request and polling threads, and must return quickly. See {@link MetricsRecorder} for a
+ * ready-made implementation.
+ */
+public interface MetricsListener {
+
+	/**
+	 * A listener that records nothing. When this is set, measurements are skipped entirely.
+	 */
+	MetricsListener NONE = new MetricsListener() {
+	};
+
+	/**
+	 * Called when a request to the backend completes with a response.
+	 *
+	 * @param endpoint      the endpoint called, or null if it could not be identified
+	 * @param statusCode    the HTTP status code
+	 * @param latencyNanos  the time until the response was received. For streamed bodies this is the time until the
+	 *                      response headers were received.
+	 * @param bytesSent     the size of the request body
+	 * @param bytesReceived the size of the response body, or -1 if unknown
+	 */
+	default void onRequest(@Nullable APIEndpoints endpoint, int statusCode, long latencyNanos, long bytesSent, long bytesReceived) {
+	}
+
+	/**
+	 * Called when a request to the backend fails without a response.
+	 *
+	 * @param endpoint     the endpoint called, or null if it could not be identified
+	 * @param latencyNanos the time until the failure
+	 * @param error        the cause of the failure
+	 */
+	default void onRequestFailed(@Nullable APIEndpoints endpoint, long latencyNanos, Throwable error) {
+	}
+
+	/**
+	 * Called after each notification poll. A poll that covers many characteristics, such as a
+	 * {@link tech.anonymoushacker1279.orionble.NotificationDrain}, reports "*" for the parts it does not narrow down.
+	 *
+	 * @param address              the address of the device
+	 * @param serviceUUID          the UUID of the service
+	 * @param characteristicUUID   the UUID of the characteristic
+	 * @param delivered            the number of notifications delivered, zero for an empty poll
+	 * @param schedulingDelayNanos how late the poll started compared to when it was scheduled. Grows when the polling
+	 *                             threads are saturated.
+	 * @param pollDurationNanos    the time from the start of the poll until all its notifications were handed to their
+	 *                             consumers. This does not include the time notifications waited in the backend.
+	 */
+	default void onPoll(String address, String serviceUUID, String characteristicUUID, int delivered, long schedulingDelayNanos, long pollDurationNanos) {
+	}
+
+	/**
+	 * Called for each notification delivered by a push-based listener.
+	 *
+	 * @param address            the address of the device
+	 * @param serviceUUID        the UUID of the service
+	 * @param characteristicUUID the UUID of the characteristic
+	 */
+	default void onNotificationStreamed(String address, String serviceUUID, String characteristicUUID) {
+	}
+
+	/**
+	 * Called when a GATT operation is started by the {@link OperationScheduler}.
+	 *
+	 * @param address    the address of the device
+	 * @param priority   the {@link OperationScheduler.Priority} of the operation
+	 * @param waitNanos  the time the operation waited in the queue of the device
+	 * @param queueDepth the number of operations still waiting for the device
+	 */
+	default void onOperationStarted(String address, OperationScheduler.Priority priority, long waitNanos, int queueDepth) {
+	}
+}
\ No newline at end of file
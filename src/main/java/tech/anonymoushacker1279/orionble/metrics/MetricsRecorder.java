@@ -0,0 +1,197 @@
+package tech.anonymoushacker1279.orionble.metrics;
+
+import org.jetbrains.annotations.Nullable;
+import tech.anonymoushacker1279.orionble.OperationScheduler;
+import tech.anonymoushacker1279.orionble.internal.APIEndpoints;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link MetricsListener} that aggregates measurements in memory: latency histograms, error counts and payload sizes
+ * per {@link APIEndpoints}, delivery counts per characteristic, poll duration and empty-poll ratio, and the queueing time of GATT
+ * operations. All counters are lock-free and can be read at any time.
+ */
+public class MetricsRecorder implements MetricsListener {
+
+	private final Map<APIEndpoints, EndpointMetrics> endpoints = new EnumMap<>(APIEndpoints.class);
+	private final Map<String, CharacteristicMetrics> characteristics = new ConcurrentHashMap<>();
+	private final LatencyHistogram pollDuration = new LatencyHistogram();
+	private final LatencyHistogram schedulingDelay = new LatencyHistogram();
+	private final LatencyHistogram operationWait = new LatencyHistogram();
+
+	public MetricsRecorder() {
+		// Populated up front so that the map is never modified concurrently
+		for (APIEndpoints endpoint : APIEndpoints.values()) {
+			endpoints.put(endpoint, new EndpointMetrics());
+		}
+	}
+
+	@Override
+	public void onRequest(@Nullable APIEndpoints endpoint, int statusCode, long latencyNanos, long bytesSent, long bytesReceived) {
+		if (endpoint == null) {
+			return;
+		}
+
+		EndpointMetrics metrics = endpoints.get(endpoint);
+		metrics.latency.record(latencyNanos);
+		metrics.bytesSent.add(bytesSent);
+		if (bytesReceived > 0) {
+			metrics.bytesReceived.add(bytesReceived);
+		}
+		if (statusCode >= 400) {
+			metrics.errors.increment();
+		}
+	}
+
+	@Override
+	public void onRequestFailed(@Nullable APIEndpoints endpoint, long latencyNanos, Throwable error) {
+		if (endpoint == null) {
+			return;
+		}
+
+		EndpointMetrics metrics = endpoints.get(endpoint);
+		metrics.latency.record(latencyNanos);
+		metrics.errors.increment();
+	}
+
+	@Override
+	public void onPoll(String address, String serviceUUID, String characteristicUUID, int delivered, long schedulingDelayNanos, long pollDurationNanos) {
+		CharacteristicMetrics metrics = characteristic(address, serviceUUID, characteristicUUID);
+		metrics.polls.increment();
+		if (delivered == 0) {
+			metrics.emptyPolls.increment();
+		} else {
+			metrics.delivered.add(delivered);
+			pollDuration.record(pollDurationNanos);
+		}
+		schedulingDelay.record(schedulingDelayNanos);
+	}
+
+	@Override
+	public void onNotificationStreamed(String address, String serviceUUID, String characteristicUUID) {
+		characteristic(address, serviceUUID, characteristicUUID).delivered.increment();
+	}
+
+	@Override
+	public void onOperationStarted(String address, OperationScheduler.Priority priority, long waitNanos, int queueDepth) {
+		operationWait.record(waitNanos);
+	}
+
+	private CharacteristicMetrics characteristic(String address, String serviceUUID, String characteristicUUID) {
+		return characteristics.computeIfAbsent(key(address, serviceUUID, characteristicUUID), key -> new CharacteristicMetrics());
+	}
+
+	private static String key(String address, String serviceUUID, String characteristicUUID) {
+		return address + "/" + serviceUUID + "/" + characteristicUUID;
+	}
+
+	/**
+	 * Get the latency histogram of an endpoint.
+	 *
+	 * @param endpoint the endpoint
+	 * @return the {@link LatencyHistogram}
+	 */
+	public LatencyHistogram getLatency(APIEndpoints endpoint) {
+		return endpoints.get(endpoint).latency;
+	}
+
+	/**
+	 * Get the number of failed requests to an endpoint, including responses with an error status.
+	 *
+	 * @param endpoint the endpoint
+	 * @return the error count
+	 */
+	public long getErrorCount(APIEndpoints endpoint) {
+		return endpoints.get(endpoint).errors.sum();
+	}
+
+	public long getBytesSent(APIEndpoints endpoint) {
+		return endpoints.get(endpoint).bytesSent.sum();
+	}
+
+	/**
+	 * Get the number of bytes received from an endpoint. Responses of unknown size are not counted.
+	 *
+	 * @param endpoint the endpoint
+	 * @return the number of bytes received
+	 */
+	public long getBytesReceived(APIEndpoints endpoint) {
+		return endpoints.get(endpoint).bytesReceived.sum();
+	}
+
+	/**
+	 * Get the number of notifications delivered for a characteristic of a device. Notifications delivered by a
+	 * {@link tech.anonymoushacker1279.orionble.NotificationDrain} are counted under its device address, or "*" for
+	 * a drain of every device, with "*" for both UUIDs.
+	 *
+	 * @param address            the address of the device
+	 * @param serviceUUID        the UUID of the service
+	 * @param characteristicUUID the UUID of the characteristic
+	 * @return the number of notifications delivered
+	 */
+	public long getNotificationsDelivered(String address, String serviceUUID, String characteristicUUID) {
+		CharacteristicMetrics metrics = characteristics.get(key(address, serviceUUID, characteristicUUID));
+		return metrics == null ? 0 : metrics.delivered.sum();
+	}
+
+	/**
+	 * Get the fraction of polls that found no notifications, across all characteristics. A high ratio means listeners
+	 * poll more often than needed.
+	 *
+	 * @return the empty-poll ratio, between 0 and 1
+	 */
+	public double getEmptyPollRatio() {
+		long polls = 0;
+		long empty = 0;
+		for (CharacteristicMetrics metrics : characteristics.values()) {
+			polls += metrics.polls.sum();
+			empty += metrics.emptyPolls.sum();
+		}
+
+		return polls == 0 ? 0 : (double) empty / polls;
+	}
+
+	/**
+	 * Get the histogram of time from the start of a poll until its notifications were delivered. This is the cost of
+	 * a poll, not how long notifications waited in the backend before being polled. Empty polls are not recorded.
+	 *
+	 * @return the {@link LatencyHistogram}
+	 */
+	public LatencyHistogram getPollDuration() {
+		return pollDuration;
+	}
+
+	/**
+	 * Get the histogram of how late polls started compared to when they were scheduled.
+	 *
+	 * @return the {@link LatencyHistogram}
+	 */
+	public LatencyHistogram getSchedulingDelay() {
+		return schedulingDelay;
+	}
+
+	/**
+	 * Get the histogram of how long GATT operations waited in the queue of their device before starting.
+	 *
+	 * @return the {@link LatencyHistogram}
+	 */
+	public LatencyHistogram getOperationWait() {
+		return operationWait;
+	}
+
+	private static class EndpointMetrics {
+		private final LatencyHistogram latency = new LatencyHistogram();
+		private final LongAdder errors = new LongAdder();
+		private final LongAdder bytesSent = new LongAdder();
+		private final LongAdder bytesReceived = new LongAdder();
+	}
+
+	private static class CharacteristicMetrics {
+		private final LongAdder delivered = new LongAdder();
+		private final LongAdder polls = new LongAdder();
+		private final LongAdder emptyPolls = new LongAdder();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,38 @@
+package tech.anonymoushacker1279.orionble.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import org.jetbrains.annotations.ApiStatus;
+
+/**
+ * A JFR event recorded for every notification poll. Its duration is the time the poll took, from its start until its
+ * notifications were delivered.
+ */
+@ApiStatus.Internal
+@Name("tech.anonymoushacker1279.orionble.NotificationPoll")
+@Label("Notification Poll")
+@Category("OrionBLE")
+@Description("A poll for notifications of a GATT characteristic")
+@StackTrace(false)
+public final class NotificationPollEvent extends jdk.jfr.Event {
+
+	@Label("Address")
+	public String address;
+
+	@Label("Service UUID")
+	public String serviceUUID;
+
+	@Label("Characteristic UUID")
+	public String characteristicUUID;
+
+	@Label("Delivered")
+	public int delivered;
+
+	@Label("Scheduling Delay")
+	@Timespan
+	public long schedulingDelay;
+}
\ No newline at end of file
@@ -0,0 +1 @@
+package tech.anonymoushacker1279.orionble.metrics;
\ No newline at end of file
@@ -0,0 +1,60 @@
+package tech.anonymoushacker1279.orionble.stream;
+
+import java.util.function.DoubleConsumer;
+
+/**
+ * Forwards every n-th sample of a stream, starting with the first, and drops the rest. Timestamps are passed on if the
+ * downstream consumer is a {@link TimedDoubleConsumer}.
+ */
+public final class Decimator implements TimedDoubleConsumer {
+
+	private final int factor;
+	private final DoubleConsumer downstream;
+	private final TimedDoubleConsumer timedDownstream;
+	private int counter;
+
+	/**
+	 * Create a new decimator.
+	 *
+	 * @param factor     the number of samples per forwarded sample
+	 * @param downstream the consumer of the forwarded samples
+	 */
+	public Decimator(int factor, DoubleConsumer downstream) {
+		if (factor <= 0) {
+			throw new IllegalArgumentException("Decimation factor must be positive: " + factor);
+		}
+
+		this.factor = factor;
+		this.downstream = downstream;
+		this.timedDownstream = downstream instanceof TimedDoubleConsumer timed ? timed : null;
+	}
+
+	@Override
+	public void accept(double value, long timestampNanos) {
+		if (next()) {
+			if (timedDownstream != null) {
+				timedDownstream.accept(value, timestampNanos);
+			} else {
+				downstream.accept(value);
+			}
+		}
+	}
+
+	@Override
+	public void accept(double value) {
+		if (next()) {
+			downstream.accept(value);
+		}
+	}
+
+	private synchronized boolean next() {
+		boolean forward = counter == 0;
+		counter = (counter + 1) % factor;
+		return forward;
+	}
+
+	@Override
+	public String toString() {
+		return "Decimator: 1 in " + factor;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,144 @@
+package tech.anonymoushacker1279.orionble.stream;
+
+/**
+ * A FIFO of timestamped doubles stored in primitive arrays. The buffer grows by doubling when full, so once it has
+ * reached the size a stream needs, adding and removing samples never allocates.
+ * <p>
+ * Not thread-safe.
+ */
+public final class DoubleRingBuffer {
+
+	private double[] values;
+	private long[] timestamps;
+	private int head;
+	private int size;
+
+	/**
+	 * Create a new ring buffer.
+	 *
+	 * @param initialCapacity the number of samples the buffer holds before it first grows
+	 */
+	public DoubleRingBuffer(int initialCapacity) {
+		if (initialCapacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be positive: " + initialCapacity);
+		}
+
+		values = new double[initialCapacity];
+		timestamps = new long[initialCapacity];
+	}
+
+	/**
+	 * Add a sample at the end.
+	 *
+	 * @param value          the value
+	 * @param timestampNanos the timestamp
+	 */
+	public void add(double value, long timestampNanos) {
+		if (size == values.length) {
+			grow();
+		}
+
+		int tail = (head + size) % values.length;
+		values[tail] = value;
+		timestamps[tail] = timestampNanos;
+		size++;
+	}
+
+	private void grow() {
+		double[] grownValues = new double[values.length * 2];
+		long[] grownTimestamps = new long[values.length * 2];
+		for (int i = 0; i < size; i++) {
+			int index = (head + i) % values.length;
+			grownValues[i] = values[index];
+			grownTimestamps[i] = timestamps[index];
+		}
+
+		values = grownValues;
+		timestamps = grownTimestamps;
+		head = 0;
+	}
+
+	/**
+	 * Remove the oldest sample.
+	 *
+	 * @return its value
+	 * @throws IllegalStateException if the buffer is empty
+	 */
+	public double removeFirst() {
+		if (size == 0) {
+			throw new IllegalStateException("Buffer is empty");
+		}
+
+		double value = values[head];
+		head = (head + 1) % values.length;
+		size--;
+		return value;
+	}
+
+	/**
+	 * Remove samples from the front while they are older than a point in time.
+	 *
+	 * @param timestampNanos the oldest timestamp to keep
+	 * @return the number of samples removed
+	 */
+	public int removeOlderThan(long timestampNanos) {
+		int removed = 0;
+		while (size > 0 && timestamps[head] - timestampNanos < 0) {
+			head = (head + 1) % values.length;
+			size--;
+			removed++;
+		}
+
+		return removed;
+	}
+
+	/**
+	 * Get a value.
+	 *
+	 * @param index the index of the sample, where 0 is the oldest
+	 * @return the value
+	 */
+	public double get(int index) {
+		return values[physical(index)];
+	}
+
+	/**
+	 * Get a timestamp.
+	 *
+	 * @param index the index of the sample, where 0 is the oldest
+	 * @return the timestamp
+	 */
+	public long getTimestamp(int index) {
+		return timestamps[physical(index)];
+	}
+
+	private int physical(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+		}
+
+		return (head + index) % values.length;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public int capacity() {
+		return values.length;
+	}
+
+	public void clear() {
+		head = 0;
+		size = 0;
+	}
+
+	@Override
+	public String toString() {
+		return "DoubleRingBuffer: %d of %d".formatted(size, values.length);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,66 @@
+package tech.anonymoushacker1279.orionble.stream;
+
+/**
+ * Keeps only the most recent sample of a stream, so that it can be sampled at whatever rate the reader needs, such as a
+ * UI refresh, regardless of how quickly notifications arrive.
+ */
+public final class LatestValue implements TimedDoubleConsumer {
+
+	private volatile double value = Double.NaN;
+	private volatile long timestampNanos;
+	private volatile long count;
+
+	@Override
+	public synchronized void accept(double value, long timestampNanos) {
+		this.value = value;
+		this.timestampNanos = timestampNanos;
+		count++;
+	}
+
+	/**
+	 * Get the most recent value.
+	 *
+	 * @return the value, or NaN if no sample has arrived yet
+	 */
+	public double getLatest() {
+		return value;
+	}
+
+	/**
+	 * Get the most recent value, or a fallback if it is older than a given age.
+	 *
+	 * @param maxAgeNanos the maximum age of the value, in nanoseconds
+	 * @param fallback    the value to return if there is no recent enough sample
+	 * @return the value, or the fallback
+	 */
+	public synchronized double getLatest(long maxAgeNanos, double fallback) {
+		return hasValue() && System.nanoTime() - timestampNanos <= maxAgeNanos ? value : fallback;
+	}
+
+	/**
+	 * Get the timestamp of the most recent value.
+	 *
+	 * @return the timestamp, on the {@link System#nanoTime()} timeline
+	 */
+	public long getTimestamp() {
+		return timestampNanos;
+	}
+
+	/**
+	 * Get the number of samples received. Comparing this between reads shows whether a new sample has arrived.
+	 *
+	 * @return the number of samples
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	public boolean hasValue() {
+		return count > 0;
+	}
+
+	@Override
+	public String toString() {
+		return "LatestValue: " + value;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,227 @@
+package tech.anonymoushacker1279.orionble.stream;
+
+/**
+ * Statistics over the most recent samples of a stream, updated as each sample arrives.
+ * <p>
+ * The mean and variance come from a running sum and sum of squares, which are recomputed from the retained samples once
+ * per full turn of the buffer so rounding error cannot accumulate. The minimum and maximum are tracked with monotonic
+ * queues. Every update is amortized constant time, and all state lives in primitive arrays sized up front, so nothing is
+ * allocated per sample.
+ */
+public final class RollingStatistics implements TimedDoubleConsumer {
+
+	private final double[] values;
+	private final MonotonicQueue minimums;
+	private final MonotonicQueue maximums;
+	private long sequence;
+	private int sinceRecompute;
+	private double sum;
+	private double sumOfSquares;
+	private double last = Double.NaN;
+	private long lastTimestampNanos;
+
+	/**
+	 * Create new rolling statistics.
+	 *
+	 * @param size the number of most recent samples to summarize
+	 */
+	public RollingStatistics(int size) {
+		if (size <= 0) {
+			throw new IllegalArgumentException("Size must be positive: " + size);
+		}
+
+		values = new double[size];
+		minimums = new MonotonicQueue(size, false);
+		maximums = new MonotonicQueue(size, true);
+	}
+
+	@Override
+	public synchronized void accept(double value, long timestampNanos) {
+		int index = (int) (sequence % values.length);
+		if (sequence >= values.length) {
+			double evicted = values[index];
+			sum -= evicted;
+			sumOfSquares -= evicted * evicted;
+		}
+
+		values[index] = value;
+		sum += value;
+		sumOfSquares += value * value;
+		minimums.evictBefore(sequence - values.length + 1);
+		maximums.evictBefore(sequence - values.length + 1);
+		minimums.add(value, sequence);
+		maximums.add(value, sequence);
+		sequence++;
+		last = value;
+		lastTimestampNanos = timestampNanos;
+
+		if (++sinceRecompute == values.length) {
+			recompute();
+		}
+	}
+
+	private void recompute() {
+		sum = 0;
+		sumOfSquares = 0;
+		for (double value : values) {
+			sum += value;
+			sumOfSquares += value * value;
+		}
+
+		sinceRecompute = 0;
+	}
+
+	/**
+	 * Get the number of samples currently summarized, which is at most the size.
+	 *
+	 * @return the number of samples
+	 */
+	public synchronized int getCount() {
+		return (int) Math.min(sequence, values.length);
+	}
+
+	public int getSize() {
+		return values.length;
+	}
+
+	/**
+	 * Get the mean of the recent samples.
+	 *
+	 * @return the mean, or NaN if no sample has arrived yet
+	 */
+	public synchronized double getMean() {
+		int count = getCount();
+		return count == 0 ? Double.NaN : sum / count;
+	}
+
+	/**
+	 * Get the population variance of the recent samples.
+	 *
+	 * @return the variance, or NaN if no sample has arrived yet
+	 */
+	public synchronized double getVariance() {
+		int count = getCount();
+		if (count == 0) {
+			return Double.NaN;
+		}
+
+		double mean = sum / count;
+		return Math.max(0, sumOfSquares / count - mean * mean);
+	}
+
+	/**
+	 * Get the population standard deviation of the recent samples.
+	 *
+	 * @return the standard deviation, or NaN if no sample has arrived yet
+	 */
+	public double getStandardDeviation() {
+		return Math.sqrt(getVariance());
+	}
+
+	/**
+	 * Get the smallest of the recent samples.
+	 *
+	 * @return the minimum, or NaN if no sample has arrived yet
+	 */
+	public synchronized double getMin() {
+		return minimums.peek();
+	}
+
+	/**
+	 * Get the largest of the recent samples.
+	 *
+	 * @return the maximum, or NaN if no sample has arrived yet
+	 */
+	public synchronized double getMax() {
+		return maximums.peek();
+	}
+
+	/**
+	 * Get the most recent sample.
+	 *
+	 * @return the value, or NaN if no sample has arrived yet
+	 */
+	public synchronized double getLast() {
+		return last;
+	}
+
+	/**
+	 * Get the timestamp of the most recent sample.
+	 *
+	 * @return the timestamp, on the {@link System#nanoTime()} timeline
+	 */
+	public synchronized long getLastTimestamp() {
+		return lastTimestampNanos;
+	}
+
+	/**
+	 * Forget all samples.
+	 */
+	public synchronized void clear() {
+		sequence = 0;
+		sinceRecompute = 0;
+		sum = 0;
+		sumOfSquares = 0;
+		last = Double.NaN;
+		lastTimestampNanos = 0;
+		minimums.clear();
+		maximums.clear();
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "RollingStatistics: %d of %d samples - min %s - max %s - mean %s"
+				.formatted(getCount(), values.length, getMin(), getMax(), getMean());
+	}
+
+	/**
+	 * A double-ended queue of candidate extremes, kept in sequence order with values that get strictly less extreme
+	 * from front to back. The front is the extreme of the window.
+	 */
+	private static final class MonotonicQueue {
+
+		private final double[] values;
+		private final long[] sequences;
+		private final boolean maximum;
+		private int head;
+		private int size;
+
+		MonotonicQueue(int capacity, boolean maximum) {
+			this.values = new double[capacity];
+			this.sequences = new long[capacity];
+			this.maximum = maximum;
+		}
+
+		void add(double value, long sequence) {
+			// Anything at the back that is no more extreme than the new value can never be the extreme again
+			while (size > 0) {
+				double back = values[(head + size - 1) % values.length];
+				if (maximum ? back > value : back < value) {
+					break;
+				}
+				size--;
+			}
+
+			int tail = (head + size) % values.length;
+			values[tail] = value;
+			sequences[tail] = sequence;
+			size++;
+		}
+
+		void evictBefore(long sequence) {
+			while (size > 0 && sequences[head] < sequence) {
+				head = (head + 1) % values.length;
+				size--;
+			}
+		}
+
+		double peek() {
+			return size == 0 ? Double.NaN : values[head];
+		}
+
+		void clear() {
+			head = 0;
+			size = 0;
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,80 @@
+package tech.anonymoushacker1279.orionble.stream;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Summarizes a stream over a window of a fixed length that advances by a fixed step, so consecutive windows overlap
+ * when the step is shorter than the window. Steps are aligned to the first sample, and each window is emitted when the
+ * first sample past its end arrives. Windows without any samples are skipped.
+ * <p>
+ * Samples are held in a {@link DoubleRingBuffer}, which stops allocating once it has grown to hold a full window. The
+ * {@link WindowStatistics} passed to the consumer is reused; see its documentation.
+ */
+public final class SlidingWindow implements TimedDoubleConsumer {
+
+	private final long lengthNanos;
+	private final long stepNanos;
+	private final Consumer<WindowStatistics> consumer;
+	private final DoubleRingBuffer buffer = new DoubleRingBuffer(64);
+	private final WindowStatistics statistics = new WindowStatistics();
+	private long nextEndNanos;
+	private boolean started;
+
+	/**
+	 * Create a new sliding window.
+	 *
+	 * @param length   the length of each window
+	 * @param step     the time between the ends of consecutive windows
+	 * @param consumer the consumer of each completed window
+	 */
+	public SlidingWindow(Duration length, Duration step, Consumer<WindowStatistics> consumer) {
+		if (length.isZero() || length.isNegative()) {
+			throw new IllegalArgumentException("Window length must be positive: " + length);
+		}
+		if (step.isZero() || step.isNegative()) {
+			throw new IllegalArgumentException("Window step must be positive: " + step);
+		}
+
+		this.lengthNanos = length.toNanos();
+		this.stepNanos = step.toNanos();
+		this.consumer = consumer;
+	}
+
+	@Override
+	public synchronized void accept(double value, long timestampNanos) {
+		if (!started) {
+			nextEndNanos = timestampNanos + stepNanos;
+			started = true;
+		}
+
+		while (timestampNanos - nextEndNanos >= 0) {
+			buffer.removeOlderThan(nextEndNanos - lengthNanos);
+			if (buffer.isEmpty()) {
+				// Nothing left to report until this sample, so skip the empty windows in between
+				nextEndNanos += ((timestampNanos - nextEndNanos) / stepNanos + 1) * stepNanos;
+				break;
+			}
+
+			emit(nextEndNanos);
+			nextEndNanos += stepNanos;
+		}
+
+		buffer.add(value, timestampNanos);
+	}
+
+	private void emit(long endNanos) {
+		statistics.reset(endNanos - lengthNanos);
+		for (int i = 0; i < buffer.size(); i++) {
+			statistics.add(buffer.get(i));
+		}
+
+		statistics.setEnd(endNanos);
+		consumer.accept(statistics);
+	}
+
+	@Override
+	public String toString() {
+		return "SlidingWindow: %s every %s".formatted(Duration.ofNanos(lengthNanos), Duration.ofNanos(stepNanos));
+	}
+}
\ No newline at end of file
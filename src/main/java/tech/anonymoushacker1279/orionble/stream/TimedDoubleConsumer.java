@@ -0,0 +1,41 @@
+package tech.anonymoushacker1279.orionble.stream;
+
+import tech.anonymoushacker1279.orionble.OrionBLE;
+import tech.anonymoushacker1279.orionble.gatt.CharacteristicHandle;
+import tech.anonymoushacker1279.orionble.gatt.GATTNotification;
+
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+
+/**
+ * A consumer of timestamped numeric samples, implemented by the operators of this package.
+ * <p>
+ * Operators are plain {@link DoubleConsumer}s, so they can be passed straight to
+ * {@link OrionBLE#startValueListener(CharacteristicHandle, DoubleConsumer, long)}, in which case each sample is
+ * timestamped with {@link System#nanoTime()} as it arrives. That requires a backend with binary notifications; on
+ * other backends, numeric text values can be fed to an operator with
+ * {@link OrionBLE#startNotificationListener(CharacteristicHandle, Consumer, long)} and
+ * {@link GATTNotification#parsingValues(DoubleConsumer)}. Samples with known timestamps, such as replayed ones, can be
+ * passed to {@link #accept(double, long)} instead. Timestamps must not decrease.
+ */
+@FunctionalInterface
+public interface TimedDoubleConsumer extends DoubleConsumer {
+
+	/**
+	 * Accept a sample.
+	 *
+	 * @param value          the value
+	 * @param timestampNanos the time of the sample, on the {@link System#nanoTime()} timeline
+	 */
+	void accept(double value, long timestampNanos);
+
+	/**
+	 * Accept a sample, timestamped now.
+	 *
+	 * @param value the value
+	 */
+	@Override
+	default void accept(double value) {
+		accept(value, System.nanoTime());
+	}
+}
\ No newline at end of file
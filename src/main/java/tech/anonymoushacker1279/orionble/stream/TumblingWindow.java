@@ -0,0 +1,70 @@
+package tech.anonymoushacker1279.orionble.stream;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Summarizes a stream in consecutive, non-overlapping windows of a fixed length. Windows are aligned to the first
+ * sample, and a window is emitted when the first sample past its end arrives. Windows without any samples are skipped.
+ * <p>
+ * Samples are folded into the statistics as they arrive, so no samples are stored and nothing is allocated per sample.
+ * The {@link WindowStatistics} passed to the consumer is reused; see its documentation.
+ */
+public final class TumblingWindow implements TimedDoubleConsumer {
+
+	private final long lengthNanos;
+	private final Consumer<WindowStatistics> consumer;
+	private final WindowStatistics statistics = new WindowStatistics();
+	private boolean started;
+
+	/**
+	 * Create a new tumbling window.
+	 *
+	 * @param length   the length of each window
+	 * @param consumer the consumer of each completed window
+	 */
+	public TumblingWindow(Duration length, Consumer<WindowStatistics> consumer) {
+		if (length.isZero() || length.isNegative()) {
+			throw new IllegalArgumentException("Window length must be positive: " + length);
+		}
+
+		this.lengthNanos = length.toNanos();
+		this.consumer = consumer;
+	}
+
+	@Override
+	public synchronized void accept(double value, long timestampNanos) {
+		if (!started) {
+			statistics.reset(timestampNanos);
+			started = true;
+		}
+
+		long elapsed = timestampNanos - statistics.getStartNanos();
+		if (elapsed >= lengthNanos) {
+			emit();
+			statistics.reset(statistics.getStartNanos() + elapsed / lengthNanos * lengthNanos);
+		}
+
+		statistics.add(value);
+	}
+
+	/**
+	 * Emit the current window early, if it has any samples. The next sample starts a new window.
+	 */
+	public synchronized void flush() {
+		emit();
+		started = false;
+	}
+
+	private void emit() {
+		if (statistics.getCount() > 0) {
+			statistics.setEnd(statistics.getStartNanos() + lengthNanos);
+			consumer.accept(statistics);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "TumblingWindow: " + Duration.ofNanos(lengthNanos);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,170 @@
+package tech.anonymoushacker1279.orionble.stream;
+
+/**
+ * The summary of a window of samples, delivered by {@link TumblingWindow} and {@link SlidingWindow}.
+ * <p>
+ * A single instance is reused for every window of an operator, so it is only valid for the duration of the consumer
+ * call. Use {@link #copy()} to retain one. The variance is accumulated with Welford's algorithm, so it stays accurate
+ * for long windows of large values.
+ */
+public final class WindowStatistics {
+
+	private long count;
+	private double mean;
+	private double m2;
+	private double min;
+	private double max;
+	private double first;
+	private double last;
+	private long startNanos;
+	private long endNanos;
+
+	WindowStatistics() {
+		reset(0);
+	}
+
+	void reset(long startNanos) {
+		count = 0;
+		mean = 0;
+		m2 = 0;
+		min = Double.NaN;
+		max = Double.NaN;
+		first = Double.NaN;
+		last = Double.NaN;
+		this.startNanos = startNanos;
+		this.endNanos = startNanos;
+	}
+
+	void add(double value) {
+		count++;
+		double delta = value - mean;
+		mean += delta / count;
+		m2 += delta * (value - mean);
+		if (count == 1) {
+			min = value;
+			max = value;
+			first = value;
+		} else {
+			min = Math.min(min, value);
+			max = Math.max(max, value);
+		}
+		last = value;
+	}
+
+	void setEnd(long endNanos) {
+		this.endNanos = endNanos;
+	}
+
+	/**
+	 * Copy these statistics so that they can be retained after the consumer returns.
+	 *
+	 * @return a copy
+	 */
+	public WindowStatistics copy() {
+		WindowStatistics copy = new WindowStatistics();
+		copy.count = count;
+		copy.mean = mean;
+		copy.m2 = m2;
+		copy.min = min;
+		copy.max = max;
+		copy.first = first;
+		copy.last = last;
+		copy.startNanos = startNanos;
+		copy.endNanos = endNanos;
+		return copy;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Get the mean of the samples.
+	 *
+	 * @return the mean, or NaN if the window is empty
+	 */
+	public double getMean() {
+		return count == 0 ? Double.NaN : mean;
+	}
+
+	public double getSum() {
+		return mean * count;
+	}
+
+	/**
+	 * Get the smallest sample.
+	 *
+	 * @return the minimum, or NaN if the window is empty
+	 */
+	public double getMin() {
+		return min;
+	}
+
+	/**
+	 * Get the largest sample.
+	 *
+	 * @return the maximum, or NaN if the window is empty
+	 */
+	public double getMax() {
+		return max;
+	}
+
+	/**
+	 * Get the oldest sample.
+	 *
+	 * @return the first value, or NaN if the window is empty
+	 */
+	public double getFirst() {
+		return first;
+	}
+
+	/**
+	 * Get the newest sample.
+	 *
+	 * @return the last value, or NaN if the window is empty
+	 */
+	public double getLast() {
+		return last;
+	}
+
+	/**
+	 * Get the population variance of the samples.
+	 *
+	 * @return the variance, or NaN if the window is empty
+	 */
+	public double getVariance() {
+		return count == 0 ? Double.NaN : m2 / count;
+	}
+
+	/**
+	 * Get the population standard deviation of the samples.
+	 *
+	 * @return the standard deviation, or NaN if the window is empty
+	 */
+	public double getStandardDeviation() {
+		return Math.sqrt(getVariance());
+	}
+
+	/**
+	 * Get the start of the window.
+	 *
+	 * @return the start, on the {@link System#nanoTime()} timeline
+	 */
+	public long getStartNanos() {
+		return startNanos;
+	}
+
+	/**
+	 * Get the end of the window, exclusive.
+	 *
+	 * @return the end, on the {@link System#nanoTime()} timeline
+	 */
+	public long getEndNanos() {
+		return endNanos;
+	}
+
+	@Override
+	public String toString() {
+		return "WindowStatistics: %d samples - min %s - max %s - mean %s".formatted(count, min, max, getMean());
+	}
+}
\ No newline at end of file
@@ -5,6 +5,7 @@ import tech.anonymoushacker1279.orionble.gatt.GATTCharacteristic;
 import tech.anonymoushacker1279.orionble.gatt.GATTNotification;
 import tech.anonymoushacker1279.orionble.gatt.GATTService;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.function.Consumer;
 
@@ -21,7 +22,7 @@ public class AdvancedNotifyGATT {
 	public static void main(String[] args) throws InterruptedException {
 		System.out.println("Starting OrionBLE tests...");
 		OrionBLE orion = new OrionBLE("http://localhost", 5249);
-		orion.waitForConnection(5);
+		orion.waitForConnection(Duration.ofSeconds(5));
 
 		Consumer<GATTNotification> consumer = notification -> System.out.println("Received notification: " + notification);
 
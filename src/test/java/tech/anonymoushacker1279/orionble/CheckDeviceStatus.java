@@ -1,11 +1,13 @@
 package tech.anonymoushacker1279.orionble;
 
+import java.time.Duration;
+
 public class CheckDeviceStatus {
 
 	public static void main(String[] args) {
 		System.out.println("Starting OrionBLE tests...");
 		OrionBLE orion = new OrionBLE("http://localhost", 5249);
-		orion.waitForConnection(5);
+		orion.waitForConnection(Duration.ofSeconds(5));
 
 		System.out.println("Checking if device is connected...");
 		boolean connected = orion.isDeviceConnected("B0B1139AF459");
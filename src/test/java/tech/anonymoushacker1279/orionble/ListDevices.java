@@ -3,12 +3,14 @@ package tech.anonymoushacker1279.orionble;
 import tech.anonymoushacker1279.orionble.devices.BLEDevice;
 import tech.anonymoushacker1279.orionble.devices.DeviceFilter;
 
+import java.time.Duration;
+
 public class ListDevices {
 
 	public static void main(String[] args) {
 		System.out.println("Starting OrionBLE tests...");
 		OrionBLE orion = new OrionBLE("http://localhost", 5249);
-		orion.waitForConnection(5);
+		orion.waitForConnection(Duration.ofSeconds(5));
 
 		System.out.println("Discovering devices...");
 		for (BLEDevice device : orion.discoverDevices()) {
@@ -5,12 +5,14 @@ import tech.anonymoushacker1279.orionble.devices.DeviceFilter;
 import tech.anonymoushacker1279.orionble.gatt.GATTCharacteristic;
 import tech.anonymoushacker1279.orionble.gatt.GATTService;
 
+import java.time.Duration;
+
 public class ListGATTObjects {
 
 	public static void main(String[] args) {
 		System.out.println("Starting OrionBLE tests...");
 		OrionBLE orion = new OrionBLE("http://localhost", 5249);
-		orion.waitForConnection(5);
+		orion.waitForConnection(Duration.ofSeconds(5));
 
 		System.out.println("Discovering devices with filter...");
 		DeviceFilter filter = new DeviceFilter.Builder().namePrefix("CODE").build();
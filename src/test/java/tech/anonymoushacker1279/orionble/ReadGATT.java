@@ -4,6 +4,8 @@ import tech.anonymoushacker1279.orionble.devices.BLEDevice;
 import tech.anonymoushacker1279.orionble.gatt.GATTCharacteristic;
 import tech.anonymoushacker1279.orionble.gatt.GATTService;
 
+import java.time.Duration;
+
 public class ReadGATT {
 
 	private static final BLEDevice device = new BLEDevice("CODE V02034E45U", "B0B1139AF459", false);
@@ -11,7 +13,7 @@ public class ReadGATT {
 	public static void main(String[] args) {
 		System.out.println("Starting OrionBLE tests...");
 		OrionBLE orion = new OrionBLE("http://localhost", 5249);
-		orion.waitForConnection(5);
+		orion.waitForConnection(Duration.ofSeconds(5));
 
 		System.out.println("Discovering services and characteristics for device: " + device);
 		for (GATTService service : orion.discoverServices(device)) {
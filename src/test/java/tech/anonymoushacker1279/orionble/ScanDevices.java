@@ -0,0 +1,37 @@
+package tech.anonymoushacker1279.orionble;
+
+import tech.anonymoushacker1279.orionble.devices.BLEDevice;
+import tech.anonymoushacker1279.orionble.devices.DeviceFilter;
+import tech.anonymoushacker1279.orionble.devices.ScanSettings;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+public class ScanDevices {
+
+	public static void main(String[] args) throws Exception {
+		System.out.println("Starting OrionBLE tests...");
+		OrionBLE orion = new OrionBLE("http://localhost", 5249);
+		orion.waitForConnection(Duration.ofSeconds(5));
+
+		System.out.println("Scanning for devices for 15 seconds...");
+		ScanSettings settings = new ScanSettings.Builder()
+				.dutyCycle(Duration.ofSeconds(5), Duration.ofSeconds(7))
+				.build();
+		DeviceScan scan = orion.startDeviceScan(settings, device -> System.out.println("Found " + device));
+		Thread.sleep(15000);
+		scan.cancel();
+		System.out.println("Found " + scan.getDiscoveredCount() + " devices");
+
+		System.out.println("Waiting for a matching device...");
+		DeviceFilter filter = new DeviceFilter.Builder().namePrefix("CODE").build();
+		// The timeout completes the future, which also stops the scan
+		try {
+			BLEDevice device = orion.findDevice(filter).orTimeout(30, TimeUnit.SECONDS).join();
+			System.out.println("First match: " + device);
+		} catch (CompletionException e) {
+			System.out.println("No match: " + e.getCause());
+		}
+	}
+}
\ No newline at end of file
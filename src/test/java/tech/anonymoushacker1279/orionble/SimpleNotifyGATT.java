@@ -5,6 +5,7 @@ import tech.anonymoushacker1279.orionble.gatt.GATTCharacteristic;
 import tech.anonymoushacker1279.orionble.gatt.GATTNotification;
 import tech.anonymoushacker1279.orionble.gatt.GATTService;
 
+import java.time.Duration;
 import java.util.List;
 
 public class SimpleNotifyGATT {
@@ -20,7 +21,7 @@ public class SimpleNotifyGATT {
 	public static void main(String[] args) {
 		System.out.println("Starting OrionBLE tests...");
 		OrionBLE orion = new OrionBLE("http://localhost", 5249);
-		orion.waitForConnection(5);
+		orion.waitForConnection(Duration.ofSeconds(5));
 
 		System.out.println("Registering characteristic for notify event...");
 		orion.registerNotifyEvent(device, service, characteristic);
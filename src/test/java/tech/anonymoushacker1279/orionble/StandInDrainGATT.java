@@ -0,0 +1,81 @@
+package tech.anonymoushacker1279.orionble;
+
+import tech.anonymoushacker1279.orionble.devices.BLEDevice;
+import tech.anonymoushacker1279.orionble.gatt.CharacteristicHandle;
+import tech.anonymoushacker1279.orionble.gatt.GATTCharacteristic;
+import tech.anonymoushacker1279.orionble.gatt.GATTService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class StandInDrainGATT {
+
+	private static final int CHARACTERISTICS = 8;
+	private static final BLEDevice device = new BLEDevice("Sensor", "B0B1139AF459", false);
+	private static final GATTService service = new GATTService("14839ac4-7d7e-415c-9a42-167340cf2339", true);
+
+	private static String characteristicUUID(int i) {
+		return "2a%02x".formatted(0x30 + i);
+	}
+
+	private static String notification(int i, String value) {
+		return "{\"Service\":\"%s\",\"Characteristic\":\"%s\",\"Value\":\"%s\"}".formatted(service.uuid(), characteristicUUID(i), value);
+	}
+
+	private static void routeAll(StandInServer server, boolean drain) {
+		server.route("/capabilities", exchange -> drain ? "[\"notification_drain\"]" : "[]");
+		server.route("/devices/%s/notifications".formatted(device.address()), exchange -> {
+			List<String> notifications = new ArrayList<>();
+			for (int i = 0; i < CHARACTERISTICS; i++) {
+				notifications.add(notification(i, "drained"));
+			}
+			return "[" + String.join(",", notifications) + "]";
+		});
+		for (int i = 0; i < CHARACTERISTICS; i++) {
+			int index = i;
+			String base = "/devices/%s/service/%s/characteristic/%s/".formatted(device.address(), service.uuid(), characteristicUUID(i));
+			server.route(base + "register_notify", exchange -> "{}");
+			server.route(base + "notifications", exchange -> "[" + notification(index, "polled") + "]");
+		}
+	}
+
+	private static void run(boolean drain) throws Exception {
+		try (StandInServer server = new StandInServer()) {
+			routeAll(server, drain);
+			OrionBLE orion = server.connect();
+			orion.waitForConnection(Duration.ofSeconds(5));
+
+			List<CharacteristicHandle> handles = new ArrayList<>();
+			for (int i = 0; i < CHARACTERISTICS; i++) {
+				CharacteristicHandle handle = CharacteristicHandle.of(device, service, new GATTCharacteristic(characteristicUUID(i), "", List.of()));
+				orion.registerNotifyEvent(handle);
+				handles.add(handle);
+			}
+
+			long before = server.getRequestCount();
+			System.out.println("Drained once: " + orion.drainNotifications(device).size() + " characteristics in "
+					+ (server.getRequestCount() - before) + " requests");
+
+			AtomicInteger delivered = new AtomicInteger();
+			NotificationDrain listener = orion.startNotificationDrain(device, 100);
+			for (CharacteristicHandle handle : handles) {
+				listener.subscribe(handle, notification -> delivered.incrementAndGet());
+			}
+
+			before = server.getRequestCount();
+			Thread.sleep(500);
+			listener.cancel();
+			System.out.println(listener + ": " + delivered.get() + " notifications in " + (server.getRequestCount() - before) + " requests");
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		System.out.println("Starting OrionBLE stand-in tests...");
+		System.out.println("With a drain endpoint:");
+		run(true);
+		System.out.println("Without a drain endpoint:");
+		run(false);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,52 @@
+package tech.anonymoushacker1279.orionble;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * A stand-in for the OrionBLEServer executable, which can be launched on any platform. It accepts the same command line
+ * arguments, listens on the port given by --urls, and runs until its process is killed.
+ */
+public class StandInExecutable {
+
+	/**
+	 * Get a launcher running this class in a new JVM, with the same Java and class path as the current one.
+	 *
+	 * @param launched receives every process that was launched
+	 * @return the launcher
+	 */
+	public static ServerLauncher launcher(List<Process> launched) {
+		return arguments -> {
+			List<String> command = new ArrayList<>();
+			command.add(ProcessHandle.current().info().command().orElse("java"));
+			command.add("-cp");
+			command.add(System.getProperty("java.class.path"));
+			command.add(StandInExecutable.class.getName());
+			command.addAll(arguments);
+			Process process = new ProcessBuilder(command).inheritIO().start();
+			launched.add(process);
+			return process;
+		};
+	}
+
+	public static void main(String[] args) throws Exception {
+		int port = -1;
+		for (String argument : args) {
+			if (argument.startsWith("--urls=")) {
+				port = URI.create(argument.substring("--urls=".length())).getPort();
+			}
+		}
+		if (port < 0) {
+			System.err.println("Usage: StandInExecutable --urls=http://localhost:<port>");
+			System.exit(2);
+		}
+
+		StandInServer server = new StandInServer(port)
+				.route("/capabilities", exchange -> "[]")
+				.route("/devices/discover", exchange -> "[{\"Name\":\"Stand-in %d\",\"Address\":\"B0B1139AF459\",\"Paired\":false}]".formatted(ProcessHandle.current().pid()));
+		System.out.println("Stand-in server " + ProcessHandle.current().pid() + " listening on " + server.getAddress());
+		new CountDownLatch(1).await();
+	}
+}
\ No newline at end of file
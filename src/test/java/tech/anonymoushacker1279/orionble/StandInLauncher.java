@@ -0,0 +1,51 @@
+package tech.anonymoushacker1279.orionble;
+
+import tech.anonymoushacker1279.orionble.devices.BLEDevice;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class StandInLauncher {
+
+	public static void main(String[] args) throws Exception {
+		System.out.println("Starting OrionBLE stand-in tests...");
+		List<Process> launched = new CopyOnWriteArrayList<>();
+		OrionBLE orion = new OrionBLE.Builder()
+				.port(freePort())
+				.launcher(StandInExecutable.launcher(launched))
+				.healthCheckInterval(Duration.ofMillis(200))
+				.build();
+
+		// Construction returns immediately, while the stand-in server starts in the background
+		long start = System.nanoTime();
+		orion.whenReady().join();
+		System.out.println("Ready after " + Duration.ofNanos(System.nanoTime() - start).toMillis() + " ms, discovered " + orion.discoverDevices());
+
+		System.out.println("Killing the server...");
+		launched.get(0).destroyForcibly().waitFor();
+
+		// The supervisor notices on its next health check, and launches a new server
+		List<BLEDevice> devices = null;
+		while (devices == null) {
+			try {
+				devices = orion.discoverDevices();
+			} catch (RuntimeException e) {
+				Thread.sleep(100);
+			}
+		}
+		System.out.println("Restarted " + (launched.size() - 1) + " time(s), discovered " + devices);
+
+		// Closing stops the server this instance launched, along with the supervisor and its shutdown hook
+		orion.close();
+		System.out.println("Server exited after close with code " + launched.get(launched.size() - 1).waitFor());
+	}
+
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+}
\ No newline at end of file
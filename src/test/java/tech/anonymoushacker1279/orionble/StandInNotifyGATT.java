@@ -0,0 +1,60 @@
+package tech.anonymoushacker1279.orionble;
+
+import tech.anonymoushacker1279.orionble.devices.BLEDevice;
+import tech.anonymoushacker1279.orionble.gatt.GATTCharacteristic;
+import tech.anonymoushacker1279.orionble.gatt.GATTService;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class StandInNotifyGATT {
+
+	private static final int LISTENERS = 200;
+	private static final GATTService service = new GATTService("14839ac4-7d7e-415c-9a42-167340cf2339", true);
+	private static final GATTCharacteristic characteristic = new GATTCharacteristic(
+			"0734594a-a8e7-4b1a-a6b1-cd5243059a57",
+			"",
+			List.of(GATTCharacteristic.GATTProperties.NOTIFY)
+	);
+
+	private static BLEDevice device(int index) {
+		return new BLEDevice("Sensor " + index, "%012X".formatted(index), false);
+	}
+
+	public static void main(String[] args) throws Exception {
+		System.out.println("Starting OrionBLE stand-in tests...");
+		try (StandInServer server = new StandInServer()) {
+			AtomicInteger received = new AtomicInteger();
+			String notifications = "[{\"Service\":\"%s\",\"Characteristic\":\"%s\",\"Value\":\"42\"}]".formatted(service.uuid(), characteristic.uuid());
+			OrionBLE orion = server.connect();
+			orion.waitForConnection(Duration.ofSeconds(5));
+
+			System.out.println("Starting " + LISTENERS + " listeners...");
+			int threadsBefore = Thread.activeCount();
+			for (int i = 0; i < LISTENERS; i++) {
+				BLEDevice device = device(i);
+				server.route("/devices/%s/service/%s/characteristic/%s/notifications".formatted(device.address(), service.uuid(), characteristic.uuid()), exchange -> notifications);
+				orion.startNotificationListener(device, service, characteristic, notification -> received.incrementAndGet(), 100);
+			}
+
+			Thread.sleep(3000);
+			System.out.println("Threads added for listeners: " + (Thread.activeCount() - threadsBefore));
+			System.out.println("Notifications received: " + received.get());
+
+			System.out.println("Pausing listeners...");
+			for (int i = 0; i < LISTENERS; i++) {
+				orion.pauseNotificationListener(device(i), service, characteristic);
+			}
+			Thread.sleep(200);
+			long requests = server.getRequestCount();
+			Thread.sleep(1000);
+			System.out.println("Requests while paused: " + (server.getRequestCount() - requests));
+
+			System.out.println("Stopping listeners...");
+			for (int i = 0; i < LISTENERS; i++) {
+				orion.stopNotificationListener(device(i), service, characteristic);
+			}
+		}
+	}
+}
\ No newline at end of file
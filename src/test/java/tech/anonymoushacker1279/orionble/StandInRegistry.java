@@ -0,0 +1,50 @@
+package tech.anonymoushacker1279.orionble;
+
+import tech.anonymoushacker1279.orionble.devices.DeviceEvent;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class StandInRegistry {
+
+	// What the stand-in backend sees on each successive discovery
+	private static final List<String> SCANS = List.of(
+			"[{\"Name\":\"Sensor\",\"Address\":\"B0B1139AF450\",\"Paired\":false},{\"Name\":\"Sensor\",\"Address\":\"B0B1139AF451\",\"Paired\":false}]",
+			"[{\"Name\":\"Sensor\",\"Address\":\"B0B1139AF450\",\"Paired\":true},{\"Name\":\"Sensor\",\"Address\":\"B0B1139AF451\",\"Paired\":false},{\"Name\":\"Watch\",\"Address\":\"B0B1139AF452\",\"Paired\":false}]",
+			"[{\"Name\":\"Sensor\",\"Address\":\"B0B1139AF450\",\"Paired\":true},{\"Name\":\"Watch\",\"Address\":\"B0B1139AF452\",\"Paired\":false}]"
+	);
+
+	public static void main(String[] args) throws Exception {
+		System.out.println("Starting OrionBLE stand-in tests...");
+		try (StandInServer server = new StandInServer()) {
+			AtomicInteger scan = new AtomicInteger();
+			server.route("/devices/discover", exchange -> SCANS.get(Math.min(scan.getAndIncrement(), SCANS.size() - 1)));
+			OrionBLE orion = server.connect();
+			orion.waitForConnection(Duration.ofSeconds(5));
+
+			DeviceRegistry registry = orion.getDeviceRegistry();
+			registry.addListener(event -> System.out.println(describe(event)));
+
+			for (int i = 0; i < SCANS.size(); i++) {
+				System.out.println("Scan " + (i + 1) + ":");
+				orion.discoverDevices();
+			}
+
+			System.out.println("Known devices: " + registry.getDevices());
+			System.out.println("Devices named Sensor: " + registry.findByNamePrefix("Sens"));
+
+			Thread.sleep(100);
+			System.out.println("Evicted " + registry.evictOlderThan(Duration.ofMillis(50)) + " devices not seen recently");
+			System.out.println(registry);
+		}
+	}
+
+	private static String describe(DeviceEvent event) {
+		return switch (event.type()) {
+			case ADDED -> "  Added " + event.device();
+			case REMOVED -> "  Removed " + event.device();
+			case CHANGED -> "  Changed " + event.previous() + " to " + event.device();
+		};
+	}
+}
\ No newline at end of file
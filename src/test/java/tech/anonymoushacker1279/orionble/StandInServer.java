@@ -0,0 +1,118 @@
+package tech.anonymoushacker1279.orionble;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import tech.anonymoushacker1279.orionble.internal.RESTHandler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * A minimal in-process stand-in for the OrionBLEServer backend. Routes are matched on the exact request path, and
+ * unknown paths respond with 404.
+ */
+public class StandInServer implements AutoCloseable {
+
+	static {
+		// Small responses are otherwise delayed by Nagle's algorithm, which dwarfs the latency being measured
+		System.setProperty("sun.net.httpserver.nodelay", "true");
+	}
+
+	private final HttpServer server;
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+	private final Map<String, Function<HttpExchange, String>> routes = new ConcurrentHashMap<>();
+	private final Map<String, HttpHandler> rawRoutes = new ConcurrentHashMap<>();
+	private final AtomicLong requestCount = new AtomicLong();
+
+	public StandInServer() throws IOException {
+		this(0);
+	}
+
+	/**
+	 * Create a server listening on a specific port, such as the one a launched backend is expected on.
+	 *
+	 * @param port the port, or 0 for any free port
+	 * @throws IOException if the port could not be bound
+	 */
+	public StandInServer(int port) throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+		server.setExecutor(executor);
+		server.createContext("/", this::handle);
+		routes.put("/", exchange -> "OrionBLEServer");
+		server.start();
+	}
+
+	/**
+	 * Register a route. The handler returns the response body, or null to respond with 404.
+	 *
+	 * @param path    the exact request path
+	 * @param handler the handler for the route
+	 * @return this server
+	 */
+	public StandInServer route(String path, Function<HttpExchange, String> handler) {
+		routes.put(path, handler);
+		return this;
+	}
+
+	/**
+	 * Register a route that writes its own response, such as a streaming endpoint.
+	 *
+	 * @param path    the exact request path
+	 * @param handler the handler for the route
+	 * @return this server
+	 */
+	public StandInServer rawRoute(String path, HttpHandler handler) {
+		rawRoutes.put(path, handler);
+		return this;
+	}
+
+	public String getAddress() {
+		return "http://localhost:" + server.getAddress().getPort();
+	}
+
+	public long getRequestCount() {
+		return requestCount.get();
+	}
+
+	/**
+	 * Create an {@link OrionBLE} instance connected to this server, without launching a backend.
+	 *
+	 * @return the OrionBLE instance
+	 */
+	public OrionBLE connect() {
+		return new OrionBLE(new RESTHandler(HttpClient.newHttpClient(), getAddress()));
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		requestCount.incrementAndGet();
+		HttpHandler rawHandler = rawRoutes.get(exchange.getRequestURI().getPath());
+		if (rawHandler != null) {
+			rawHandler.handle(exchange);
+			return;
+		}
+
+		Function<HttpExchange, String> handler = routes.get(exchange.getRequestURI().getPath());
+		String body = handler == null ? null : handler.apply(exchange);
+		byte[] bytes = body == null ? new byte[0] : body.getBytes(StandardCharsets.UTF_8);
+		exchange.sendResponseHeaders(body == null ? 404 : 200, bytes.length == 0 ? -1 : bytes.length);
+		try (OutputStream os = exchange.getResponseBody()) {
+			os.write(bytes);
+		}
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+}
\ No newline at end of file
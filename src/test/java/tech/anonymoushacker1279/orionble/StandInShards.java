@@ -0,0 +1,68 @@
+package tech.anonymoushacker1279.orionble;
+
+import tech.anonymoushacker1279.orionble.devices.BLEDevice;
+import tech.anonymoushacker1279.orionble.gatt.GATTCharacteristic;
+import tech.anonymoushacker1279.orionble.gatt.GATTService;
+import tech.anonymoushacker1279.orionble.internal.RESTHandler;
+import tech.anonymoushacker1279.orionble.internal.ShardedTransport;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+public class StandInShards {
+
+	private static final GATTService service = new GATTService("180f", true);
+	private static final GATTCharacteristic battery = new GATTCharacteristic("2a19", "", List.of(GATTCharacteristic.GATTProperties.READ));
+
+	public static void main(String[] args) throws Exception {
+		System.out.println("Starting OrionBLE stand-in tests...");
+		List<StandInServer> servers = new ArrayList<>();
+		List<RESTHandler> backends = new ArrayList<>();
+		HttpClient client = HttpClient.newHttpClient();
+		for (int i = 0; i < 3; i++) {
+			// Each backend discovers one device of its own, but can reach every device, so reads can fail over
+			String address = "B0B1139AF45" + i;
+			String backend = "backend " + i;
+			StandInServer server = new StandInServer()
+					.route("/", exchange -> "OK")
+					.route("/devices/discover", exchange -> "[{\"Name\":\"Sensor\",\"Address\":\"%s\",\"Paired\":false}]".formatted(address));
+			for (int device = 0; device < 3; device++) {
+				String base = "/devices/B0B1139AF45%d/service/%s/characteristic/%s/".formatted(device, service.uuid(), battery.uuid());
+				String registered = "  Notify registered for B0B1139AF45" + device + " on " + backend;
+				server.route(base + "read", exchange -> backend);
+				server.route(base + "register_notify", exchange -> {
+					System.out.println(registered);
+					return "{}";
+				});
+			}
+			servers.add(server);
+			backends.add(new RESTHandler(client, server.getAddress()));
+		}
+
+		OrionBLE orion = new OrionBLE(new ShardedTransport(backends, Duration.ofSeconds(5)));
+		orion.waitForConnection(Duration.ofSeconds(5));
+
+		List<BLEDevice> devices = orion.discoverDevices();
+		System.out.println("Discovered " + devices.size() + " devices across " + orion.getBackendCount() + " backends");
+		for (BLEDevice device : devices) {
+			System.out.println(device.address() + " is on backend " + orion.getBackendFor(device.address()) + ", read: " + orion.readCharacteristic(device, service, battery));
+		}
+
+		orion.registerNotifyEvent(devices.get(0), service, battery);
+
+		System.out.println("Stopping backend 0...");
+		servers.get(0).close();
+		BLEDevice moved = devices.get(0);
+		System.out.println("Read " + moved.address() + " again: " + orion.readCharacteristic(moved, service, battery)
+				+ ", now on backend " + orion.getBackendFor(moved.address()));
+		System.out.println("Discovered " + orion.discoverDevices().size() + " devices on the remaining backends");
+		// The devices of the stopped backend may still be there, so the registry keeps them
+		System.out.println("The registry still knows " + orion.getDeviceRegistry().size() + " devices");
+
+		// The notify event is registered on the new backend in the background
+		Thread.sleep(300);
+		servers.forEach(StandInServer::close);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,136 @@
+package tech.anonymoushacker1279.orionble;
+
+import tech.anonymoushacker1279.orionble.internal.UnixSocketTransport;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * A minimal in-process stand-in for the OrionBLEServer socket listener, speaking the framing of
+ * {@link UnixSocketTransport}. Routes are matched on the exact request path, ignoring any query, and unknown paths
+ * respond with 404. Streams are always rejected.
+ */
+public class StandInSocketServer implements AutoCloseable {
+
+	private final Path socketPath;
+	private final ServerSocketChannel server;
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+	private final Map<String, Function<byte[], String>> routes = new ConcurrentHashMap<>();
+	private final AtomicLong requestCount = new AtomicLong();
+
+	public StandInSocketServer() throws IOException {
+		socketPath = Files.createTempDirectory("orionble").resolve("backend.sock");
+		server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+		server.bind(UnixDomainSocketAddress.of(socketPath));
+		routes.put("/", body -> "OrionBLEServer");
+		executor.execute(this::accept);
+	}
+
+	/**
+	 * Register a route. The handler receives the request body and returns the response body, or null to respond with
+	 * 404.
+	 *
+	 * @param path    the exact request path
+	 * @param handler the handler for the route
+	 * @return this server
+	 */
+	public StandInSocketServer route(String path, Function<byte[], String> handler) {
+		routes.put(path, handler);
+		return this;
+	}
+
+	public Path getSocketPath() {
+		return socketPath;
+	}
+
+	public long getRequestCount() {
+		return requestCount.get();
+	}
+
+	/**
+	 * Create an {@link OrionBLE} instance connected to this server, without launching a backend.
+	 *
+	 * @return the OrionBLE instance
+	 */
+	public OrionBLE connect() {
+		return new OrionBLE(new UnixSocketTransport(socketPath, null));
+	}
+
+	private void accept() {
+		while (server.isOpen()) {
+			try {
+				SocketChannel channel = server.accept();
+				executor.execute(() -> serve(channel));
+			} catch (IOException e) {
+				return;
+			}
+		}
+	}
+
+	private void serve(SocketChannel channel) {
+		try (channel) {
+			ByteBuffer header = ByteBuffer.allocate(4);
+			while (true) {
+				header.clear();
+				if (channel.read(header) < 0) {
+					return;
+				}
+				readFully(channel, header);
+				byte method = header.get();
+				header.get();
+				byte[] path = new byte[header.getShort() & 0xFFFF];
+				readFully(channel, ByteBuffer.wrap(path));
+				byte[] body = new byte[readFully(channel, ByteBuffer.allocate(4)).getInt()];
+				readFully(channel, ByteBuffer.wrap(body));
+				requestCount.incrementAndGet();
+
+				String uri = new String(path, StandardCharsets.UTF_8);
+				int query = uri.indexOf('?');
+				Function<byte[], String> handler = routes.get(query < 0 ? uri : uri.substring(0, query));
+				String response = handler == null || method == 3 ? null : handler.apply(body);
+				byte[] bytes = response == null ? new byte[0] : response.getBytes(StandardCharsets.UTF_8);
+				ByteBuffer frame = ByteBuffer.allocate(6 + bytes.length)
+						.putShort((short) (response == null ? 404 : 200))
+						.putInt(bytes.length)
+						.put(bytes)
+						.flip();
+				while (frame.hasRemaining()) {
+					channel.write(frame);
+				}
+			}
+		} catch (IOException ignored) {
+		}
+	}
+
+	private static ByteBuffer readFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer) < 0) {
+				throw new EOFException();
+			}
+		}
+
+		return buffer.flip();
+	}
+
+	@Override
+	public void close() throws IOException {
+		server.close();
+		executor.shutdownNow();
+		Files.deleteIfExists(socketPath);
+		Files.deleteIfExists(socketPath.getParent());
+	}
+}
\ No newline at end of file
@@ -0,0 +1,84 @@
+package tech.anonymoushacker1279.orionble;
+
+import tech.anonymoushacker1279.orionble.devices.BLEDevice;
+import tech.anonymoushacker1279.orionble.gatt.GATTCharacteristic;
+import tech.anonymoushacker1279.orionble.gatt.GATTNotification;
+import tech.anonymoushacker1279.orionble.gatt.GATTService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+
+public class StandInStreamGATT {
+
+	private static final BLEDevice device = new BLEDevice("Sensor", "B0B1139AF459", false);
+	private static final GATTService service = new GATTService("14839ac4-7d7e-415c-9a42-167340cf2339", true);
+	private static final GATTCharacteristic streamed = new GATTCharacteristic(
+			"0734594a-a8e7-4b1a-a6b1-cd5243059a57",
+			"",
+			List.of(GATTCharacteristic.GATTProperties.NOTIFY)
+	);
+	private static final GATTCharacteristic polled = new GATTCharacteristic(
+			"2a37",
+			"",
+			List.of(GATTCharacteristic.GATTProperties.NOTIFY)
+	);
+
+	private static String notificationPath(GATTCharacteristic characteristic) {
+		return "/devices/%s/service/%s/characteristic/%s/notifications".formatted(device.address(), service.uuid(), characteristic.uuid());
+	}
+
+	private static String notification(GATTCharacteristic characteristic, String value) {
+		return "[{\"Service\":\"%s\",\"Characteristic\":\"%s\",\"Value\":\"%s\"}]".formatted(service.uuid(), characteristic.uuid(), value);
+	}
+
+	public static void main(String[] args) throws Exception {
+		System.out.println("Starting OrionBLE stand-in tests...");
+		try (StandInServer server = new StandInServer()) {
+			server.route("/capabilities", exchange -> "[\"notification_stream\"]");
+
+			// Push a notification every 50 ms until the client disconnects
+			server.rawRoute(notificationPath(streamed) + "/stream", exchange -> {
+				exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+				exchange.sendResponseHeaders(200, 0);
+				try (OutputStream os = exchange.getResponseBody()) {
+					for (int i = 0; ; i++) {
+						os.write(("data: " + notification(streamed, String.valueOf(i)) + "\n\n").getBytes(StandardCharsets.UTF_8));
+						os.flush();
+						Thread.sleep(50);
+					}
+				} catch (IOException | InterruptedException e) {
+					System.out.println("Stream closed by client");
+				}
+			});
+
+			// No stream route for this characteristic, so the listener falls back to polling
+			server.route(notificationPath(polled), exchange -> notification(polled, "polled"));
+
+			OrionBLE orion = server.connect();
+			orion.waitForConnection(Duration.ofSeconds(5));
+
+			Consumer<GATTNotification> consumer = notification -> System.out.println("Received notification: " + notification);
+			orion.startNotificationListener(device, service, streamed, consumer, 500);
+			orion.startNotificationListener(device, service, polled, consumer, 500);
+			Thread.sleep(1000);
+
+			System.out.println("Pausing listeners...");
+			orion.pauseNotificationListener(device, service, streamed);
+			orion.pauseNotificationListener(device, service, polled);
+			Thread.sleep(500);
+
+			System.out.println("Resuming listeners...");
+			orion.resumeNotificationListener(device, service, streamed);
+			orion.resumeNotificationListener(device, service, polled);
+			Thread.sleep(500);
+
+			orion.stopNotificationListener(device, service, streamed);
+			orion.stopNotificationListener(device, service, polled);
+			System.out.println("Stopped listeners");
+		}
+	}
+}
\ No newline at end of file
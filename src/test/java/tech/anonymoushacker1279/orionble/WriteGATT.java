@@ -4,6 +4,7 @@ import tech.anonymoushacker1279.orionble.devices.BLEDevice;
 import tech.anonymoushacker1279.orionble.gatt.GATTCharacteristic;
 import tech.anonymoushacker1279.orionble.gatt.GATTService;
 
+import java.time.Duration;
 import java.util.List;
 
 public class WriteGATT {
@@ -19,7 +20,7 @@ public class WriteGATT {
 	public static void main(String[] args) {
 		System.out.println("Starting OrionBLE tests...");
 		OrionBLE orion = new OrionBLE("http://localhost", 5249);
-		orion.waitForConnection(5);
+		orion.waitForConnection(Duration.ofSeconds(5));
 
 		System.out.println("Attempting to write data to: " + device);
 		int[] data = {192, 5};  // MIDI preset change to 5